@@ -17,10 +17,13 @@
 package org.apache.commons.lang3.concurrent;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
 
 /**
  * <p>
@@ -69,14 +72,18 @@ import java.util.concurrent.Future;
  * {@code start()} was called. Then this object is used to spawn the background
  * task. If no {@code ExecutorService} has been provided, {@code
  * BackgroundInitializer} creates a temporary {@code ExecutorService} and
- * destroys it when initialization is complete.
+ * destroys it when initialization is complete. How the temporary {@code
+ * ExecutorService} is created is determined by the {@link ExecutorStrategy}
+ * set using {@code setExecutorStrategy()}.
  * </p>
  * <p>
  * The methods provided by {@code BackgroundInitializer} provide for minimal
  * interaction with the wrapped {@code Future} object. It is also possible to
  * obtain the {@code Future} object directly. Then the enhanced functionality
  * offered by {@code Future} can be used, e.g. to check whether the background
- * operation is complete or to cancel the operation.
+ * operation is complete or to cancel the operation. The result can also be
+ * obtained as a {@code CompletableFuture}, to be notified of the end of the
+ * initialization without blocking a thread.
  * </p>
  *
  * @since 3.0
@@ -91,9 +98,15 @@ public abstract class BackgroundInitializer<T> implements
     /** A reference to the executor service that is actually used. */
     private ExecutorService executor; // @GuardedBy("this")
 
+    /** The strategy for creating a temporary executor service. */
+    private ExecutorStrategy executorStrategy = ExecutorStrategy.FIXED_THREAD_POOL; // @GuardedBy("this")
+
     /** Stores the handle to the background task. */
     private Future<T> future;  // @GuardedBy("this")
 
+    /** Completed with the result of the background task. */
+    private CompletableFuture<T> completion;  // @GuardedBy("this")
+
     /**
      * Creates a new instance of {@code BackgroundInitializer}. No external
      * {@code ExecutorService} is used.
@@ -160,6 +173,43 @@ public abstract class BackgroundInitializer<T> implements
         this.externalExecutor = externalExecutor;
     }
 
+    /**
+     * Returns the strategy for creating the temporary {@code ExecutorService}
+     * used if no external {@code ExecutorService} is set.
+     *
+     * @return the strategy
+     * @since 3.2
+     */
+    public final synchronized ExecutorStrategy getExecutorStrategy() {
+        return executorStrategy;
+    }
+
+    /**
+     * Sets the strategy for creating the temporary {@code ExecutorService}
+     * used if no external {@code ExecutorService} is set. The default is
+     * {@link ExecutorStrategy#FIXED_THREAD_POOL}. Note that this method must
+     * be called before {@link #start()}; otherwise an exception is thrown.
+     *
+     * @param executorStrategy the strategy, not null
+     * @throws IllegalArgumentException if the strategy is null
+     * @throws IllegalStateException if this initializer has already been
+     * started
+     * @since 3.2
+     */
+    public final synchronized void setExecutorStrategy(
+            final ExecutorStrategy executorStrategy) {
+        if (executorStrategy == null) {
+            throw new IllegalArgumentException(
+                    "ExecutorStrategy must not be null!");
+        }
+        if (isStarted()) {
+            throw new IllegalStateException(
+                    "Cannot set ExecutorStrategy after start()!");
+        }
+
+        this.executorStrategy = executorStrategy;
+    }
+
     /**
      * Starts the background initialization. With this method the initializer
      * becomes active and invokes the {@link #initialize()} method in a
@@ -184,7 +234,16 @@ public abstract class BackgroundInitializer<T> implements
                 tempExec = null;
             }
 
-            future = executor.submit(createTask(tempExec));
+            final CompletableFuture<T> done = new CompletableFuture<T>();
+            final FutureTask<T> task = new FutureTask<T>(createTask(tempExec)) {
+                @Override
+                protected void done() {
+                    complete(this, done);
+                }
+            };
+            executor.execute(task);
+            future = task;
+            completion = done;
 
             return true;
         }
@@ -236,6 +295,27 @@ public abstract class BackgroundInitializer<T> implements
         return future;
     }
 
+    /**
+     * Returns a {@code CompletableFuture} completed with the result of the
+     * background initialization, or with the exception thrown by the
+     * {@link #initialize()} method. Unlike {@link #get()}, this allows actions
+     * to be run when the initialization is complete without blocking a
+     * thread. Each call returns a new {@code CompletableFuture}, so that
+     * completing it has no effect on this initializer. This method can only be
+     * called after {@link #start()}.
+     *
+     * @return a {@code CompletableFuture} for the result of this initializer
+     * @throws IllegalStateException if {@link #start()} has not been called
+     * @since 3.2
+     */
+    public synchronized CompletableFuture<T> getCompletableFuture() {
+        if (completion == null) {
+            throw new IllegalStateException("start() must be called first!");
+        }
+
+        return completion.thenApply(Function.<T>identity());
+    }
+
     /**
      * Returns the {@code ExecutorService} that is actually used for executing
      * the background task. This method can be called after {@link #start()}
@@ -298,7 +378,29 @@ public abstract class BackgroundInitializer<T> implements
      * @return the {@code ExecutorService} to be used
      */
     private ExecutorService createExecutor() {
-        return Executors.newFixedThreadPool(getTaskCount());
+        return getExecutorStrategy().createExecutor(getTaskCount());
+    }
+
+    /**
+     * Completes a {@code CompletableFuture} with the outcome of a completed
+     * {@code Future}.
+     *
+     * @param <T> the type of the result
+     * @param future the completed {@code Future}
+     * @param completion the {@code CompletableFuture} to complete
+     */
+    private static <T> void complete(final Future<T> future, final CompletableFuture<T> completion) {
+        try {
+            completion.complete(future.get());
+        } catch (final ExecutionException execex) {
+            completion.completeExceptionally(execex.getCause());
+        } catch (final CancellationException cex) {
+            completion.cancel(false);
+        } catch (final InterruptedException iex) {
+            // cannot happen as the future is complete
+            Thread.currentThread().interrupt();
+            completion.completeExceptionally(iex);
+        }
     }
 
     private class InitializationTask implements Callable<T> {
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+/**
+ * <p>
+ * Definition of an interface for a computation producing a result for an
+ * argument.
+ * </p>
+ * <p>
+ * This interface is used by {@link Memoizer}, which calls {@link #compute}
+ * at most once for each argument at the same time and caches the results.
+ * </p>
+ *
+ * @since 3.2
+ * @version $Id$
+ * @param <I> the type of the argument
+ * @param <O> the type of the result
+ */
+public interface Computable<I, O> {
+    /**
+     * Computes the result for the given argument.
+     *
+     * @param arg the argument of the computation
+     * @return the result of the computation
+     * @throws Exception if an error occurs during the computation
+     */
+    O compute(I arg) throws Exception;
+}
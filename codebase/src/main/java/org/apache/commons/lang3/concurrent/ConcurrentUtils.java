@@ -256,7 +256,9 @@ public class ConcurrentUtils {
      * {@link #putIfAbsent(ConcurrentMap, Object, Object)} is called. This
      * handles the case that in the meantime another thread has added the key to
      * the map. Both the map and the initializer can be <b>null</b>; in this
-     * case this method simply returns <b>null</b>.
+     * case this method simply returns <b>null</b>. Note that several threads
+     * may call the initializer for the same key at the same time; if the
+     * value is expensive to create, {@link Memoizer} creates it only once.
      *
      * @param <K> the type of the keys of the map
      * @param <V> the type of the values of the map
@@ -266,6 +268,7 @@ public class ConcurrentUtils {
      * @return the value stored in the map after this operation; this may or may
      * not be the object created by the {@link ConcurrentInitializer}
      * @throws ConcurrentException if the initializer throws an exception
+     * @see Memoizer
      */
     public static <K, V> V createIfAbsent(final ConcurrentMap<K, V> map, final K key,
             final ConcurrentInitializer<V> init) throws ConcurrentException {
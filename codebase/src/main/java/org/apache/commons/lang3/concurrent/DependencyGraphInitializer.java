@@ -0,0 +1,557 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.lang3.SystemUtils;
+
+/**
+ * <p>
+ * A {@link MultiBackgroundInitializer} which starts its child initializers
+ * in the order of their dependencies, with a limit on the number of child
+ * initializers running at the same time.
+ * </p>
+ * <p>
+ * The child initializers and their dependencies are added as for a
+ * {@code MultiBackgroundInitializer}, using
+ * {@link #addInitializer(String, BackgroundInitializer, String...)}. When the
+ * initializer is started, the dependencies are checked first, so that a cycle
+ * or an unknown dependency fails at once with an
+ * {@code IllegalStateException} naming it. During the background
+ * initialization all the child initializers whose dependencies have completed
+ * successfully are ready; they are started in the order in which they became
+ * ready, as long as fewer than the maximum number of child initializers are
+ * running. When a child initializer fails, the child initializers depending on
+ * it, directly or indirectly, are not started, and the results report a
+ * {@code ConcurrentException} for each of them.
+ * </p>
+ * <p>
+ * The results are a {@link DependencyGraphResults} object. In addition to the
+ * results of the child initializers, it reports the time each of them took,
+ * and the critical path: the chain of dependencies which determined when the
+ * initialization completed. This tells which child initializers to make
+ * faster, or to split, for a faster startup:
+ * </p>
+ *
+ * <pre>
+ * DependencyGraphInitializer init = new DependencyGraphInitializer(4);
+ * init.addInitializer("config", configInit);
+ * init.addInitializer("db", dbInit, "config");
+ * init.addInitializer("cache", cacheInit, "config", "db");
+ * init.start();
+ * DependencyGraphResults results = init.get();
+ * System.out.println(results.getTimingReport());
+ * </pre>
+ *
+ * @since 3.2
+ * @version $Id$
+ */
+public class DependencyGraphInitializer extends MultiBackgroundInitializer {
+    /** The maximum number of child initializers running at the same time. */
+    private final int maxConcurrency;
+
+    /**
+     * Creates a new instance of {@code DependencyGraphInitializer} with the
+     * maximum number of child initializers running at the same time.
+     *
+     * @param maxConcurrency the maximum number of child initializers running
+     * at the same time
+     * @throws IllegalArgumentException if the maximum is less than 1
+     */
+    public DependencyGraphInitializer(final int maxConcurrency) {
+        this(maxConcurrency, null);
+    }
+
+    /**
+     * Creates a new instance of {@code DependencyGraphInitializer} with the
+     * maximum number of child initializers running at the same time and an
+     * external {@code ExecutorService}.
+     *
+     * @param maxConcurrency the maximum number of child initializers running
+     * at the same time
+     * @param exec the {@code ExecutorService} for executing the background
+     * tasks
+     * @throws IllegalArgumentException if the maximum is less than 1
+     */
+    public DependencyGraphInitializer(final int maxConcurrency, final ExecutorService exec) {
+        super(exec);
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Maximum concurrency must be greater 0!");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Returns the maximum number of child initializers running at the same
+     * time.
+     *
+     * @return the maximum number of running child initializers
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Returns the result of the background initialization. This is a
+     * {@link DependencyGraphResults} object.
+     *
+     * @return the results object
+     * @throws ConcurrentException if an error occurred during initialization
+     * @throws IllegalStateException if {@link #start()} has not been called
+     */
+    @Override
+    public DependencyGraphResults get() throws ConcurrentException {
+        return (DependencyGraphResults) super.get();
+    }
+
+    /**
+     * Returns the number of tasks needed for executing the child
+     * initializers. At most the maximum number of child initializers run at
+     * the same time, so this implementation sums up the required tasks of the
+     * child initializers needing the most tasks, up to this number. Then it
+     * adds 1 for the control task.
+     *
+     * @return the number of tasks required for background processing
+     */
+    @Override
+    protected int getTaskCount() {
+        final List<Integer> counts = new ArrayList<Integer>();
+        for (final BackgroundInitializer<?> bi : getChildInitializers().values()) {
+            counts.add(Integer.valueOf(bi.getTaskCount()));
+        }
+        Collections.sort(counts, Collections.reverseOrder());
+
+        int result = 1;
+        for (final Integer count : counts.subList(0, Math.min(maxConcurrency, counts.size()))) {
+            result += count.intValue();
+        }
+        return result;
+    }
+
+    /**
+     * Creates the results object. This implementation starts the child
+     * initializers when they are ready and fewer than the maximum number of
+     * them are running, and records when they start and complete. When all
+     * the child initializers which could be started have completed, it
+     * collects their results. Checked exceptions of the child initializers
+     * are added to the results object, as is an exception for each child
+     * initializer which was not started because a dependency failed. After an
+     * unchecked exception no further child initializer is started, and the
+     * exception is propagated when the running ones have completed.
+     *
+     * @return the results object
+     * @throws Exception if an error occurs
+     */
+    @Override
+    protected DependencyGraphResults initialize() throws Exception {
+        // create a snapshot to operate on
+        final Map<String, BackgroundInitializer<?>> inits = getChildInitializers();
+        final Map<String, String[]> deps = getChildDependencies();
+        final List<String> order = getStartOrder();
+
+        final Scheduler scheduler = new Scheduler(inits, deps, order, getActiveExecutor());
+        scheduler.run();
+        if (scheduler.unchecked instanceof Error) {
+            throw (Error) scheduler.unchecked;
+        }
+        if (scheduler.unchecked != null) {
+            throw (RuntimeException) scheduler.unchecked;
+        }
+
+        // collect the results, dependencies first
+        final Map<String, Object> results = new HashMap<String, Object>();
+        final Map<String, ConcurrentException> excepts = new HashMap<String, ConcurrentException>();
+        for (final String name : order) {
+            if (scheduler.startTimes.containsKey(name)) {
+                try {
+                    results.put(name, inits.get(name).get());
+                } catch (final ConcurrentException cex) {
+                    excepts.put(name, cex);
+                }
+            } else {
+                for (final String dependency : deps.get(name)) {
+                    if (excepts.containsKey(dependency)) {
+                        excepts.put(name, new ConcurrentException("Dependency "
+                                + dependency + " of child initializer " + name
+                                + " failed", excepts.get(dependency)));
+                        break;
+                    }
+                }
+            }
+        }
+
+        return new DependencyGraphResults(inits, results, excepts, deps, order,
+                scheduler.startTimes, scheduler.endTimes);
+    }
+
+    /**
+     * Returns the current value of the timer used for the timing of the child
+     * initializers, in nanoseconds. This implementation calls
+     * {@link System#nanoTime()}; it can be overridden for testing.
+     *
+     * @return the current time in nanoseconds
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Starts the child initializers of one background initialization as they
+     * become ready, and records their timing.
+     */
+    private class Scheduler {
+        /** The child initializers. */
+        private final Map<String, BackgroundInitializer<?>> initializers;
+
+        /** The executor for the child initializers. */
+        private final ExecutorService executor;
+
+        /** The number of dependencies not yet completed of each child. */
+        private final Map<String, Integer> pending = new HashMap<String, Integer>();
+
+        /** The names of the children depending on each child. */
+        private final Map<String, List<String>> dependents = new HashMap<String, List<String>>();
+
+        /** The names of the children ready to be started. */
+        private final Deque<String> ready = new ArrayDeque<String>(); // @GuardedBy("this")
+
+        /** The times at which the children were started. */
+        final Map<String, Long> startTimes = new HashMap<String, Long>(); // @GuardedBy("this")
+
+        /** The times at which the children completed. */
+        final Map<String, Long> endTimes = new HashMap<String, Long>(); // @GuardedBy("this")
+
+        /** Completed when no child is running and none can be started. */
+        private final CompletableFuture<Void> done = new CompletableFuture<Void>();
+
+        /** The number of children running. */
+        private int running; // @GuardedBy("this")
+
+        /** The first unchecked exception thrown by a child. */
+        Throwable unchecked; // @GuardedBy("this")
+
+        /**
+         * Creates a new instance of {@code Scheduler}.
+         *
+         * @param inits the child initializers
+         * @param deps the names of the dependencies of each child
+         * @param order the names of the children, dependencies first
+         * @param exec the executor for the child initializers
+         */
+        Scheduler(final Map<String, BackgroundInitializer<?>> inits, final Map<String, String[]> deps,
+                final List<String> order, final ExecutorService exec) {
+            initializers = inits;
+            executor = exec;
+            for (final String name : order) {
+                dependents.put(name, new ArrayList<String>());
+            }
+            for (final String name : order) {
+                final String[] dependencies = deps.get(name);
+                if (dependencies.length == 0) {
+                    ready.add(name);
+                } else {
+                    pending.put(name, Integer.valueOf(dependencies.length));
+                    for (final String dependency : dependencies) {
+                        dependents.get(dependency).add(name);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Starts the children and waits until no child is running and none
+         * can be started.
+         *
+         * @throws Exception if waiting fails
+         */
+        void run() throws Exception {
+            startReady();
+            done.get();
+        }
+
+        /**
+         * Starts ready children as long as fewer than the maximum number of
+         * them are running.
+         */
+        private void startReady() {
+            final List<String> names = new ArrayList<String>();
+            synchronized (this) {
+                while (unchecked == null && running < maxConcurrency && !ready.isEmpty()) {
+                    final String name = ready.poll();
+                    names.add(name);
+                    startTimes.put(name, Long.valueOf(nanoTime()));
+                    running++;
+                }
+                if (running == 0) {
+                    done.complete(null);
+                }
+            }
+
+            for (final String name : names) {
+                start(name);
+            }
+        }
+
+        /**
+         * Starts a child initializer and arranges for it to be reported when
+         * it completes.
+         *
+         * @param name the name of the child initializer
+         */
+        private void start(final String name) {
+            final BackgroundInitializer<?> bi = initializers.get(name);
+            try {
+                if (bi.getExternalExecutor() == null) {
+                    // share the executor service if necessary
+                    bi.setExternalExecutor(executor);
+                }
+                bi.start();
+            } catch (final RuntimeException rex) {
+                completed(name, false, rex);
+                return;
+            }
+
+            bi.getCompletableFuture().whenComplete(new BiConsumer<Object, Throwable>() {
+                @Override
+                public void accept(final Object result, final Throwable ex) {
+                    try {
+                        bi.get();
+                        completed(name, true, null);
+                    } catch (final ConcurrentException cex) {
+                        completed(name, false, null);
+                    } catch (final RuntimeException rex) {
+                        completed(name, false, rex);
+                    } catch (final Error err) {
+                        completed(name, false, err);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Records that a child initializer has completed, and starts the
+         * children which are ready now.
+         *
+         * @param name the name of the child initializer
+         * @param successful a flag whether the child completed successfully
+         * @param ex the unchecked exception thrown by the child, or
+         * <b>null</b>
+         */
+        private void completed(final String name, final boolean successful, final Throwable ex) {
+            synchronized (this) {
+                endTimes.put(name, Long.valueOf(nanoTime()));
+                running--;
+                if (unchecked == null) {
+                    unchecked = ex;
+                }
+                if (successful) {
+                    for (final String dependent : dependents.get(name)) {
+                        final int count = pending.get(dependent).intValue() - 1;
+                        pending.put(dependent, Integer.valueOf(count));
+                        if (count == 0) {
+                            ready.add(dependent);
+                        }
+                    }
+                }
+            }
+            startReady();
+        }
+    }
+
+    /**
+     * The results of the background initialization performed by
+     * {@code DependencyGraphInitializer}. In addition to the results of the
+     * child initializers, objects of this class report the time taken by each
+     * of them and the critical path of the initialization.
+     */
+    public static class DependencyGraphResults extends MultiBackgroundInitializerResults {
+        /** The names of the dependencies of the child initializers. */
+        private final Map<String, String[]> dependencies;
+
+        /** The names of the child initializers, dependencies first. */
+        private final List<String> order;
+
+        /** The times at which the child initializers were started. */
+        private final Map<String, Long> startTimes;
+
+        /** The times at which the child initializers completed. */
+        private final Map<String, Long> endTimes;
+
+        /**
+         * Creates a new instance of {@code DependencyGraphResults}.
+         *
+         * @param inits the {@code BackgroundInitializer} objects
+         * @param results the result objects
+         * @param excepts the exceptions
+         * @param deps the names of the dependencies
+         * @param names the names of the child initializers, dependencies first
+         * @param starts the times at which the child initializers were started
+         * @param ends the times at which the child initializers completed
+         */
+        DependencyGraphResults(final Map<String, BackgroundInitializer<?>> inits,
+                final Map<String, Object> results, final Map<String, ConcurrentException> excepts,
+                final Map<String, String[]> deps, final List<String> names,
+                final Map<String, Long> starts, final Map<String, Long> ends) {
+            super(inits, results, excepts);
+            dependencies = deps;
+            order = names;
+            startTimes = starts;
+            endTimes = ends;
+        }
+
+        /**
+         * Returns the time taken by the {@code BackgroundInitializer} with the
+         * given name, from its start to its completion. If it was not started
+         * because a dependency failed, the return value is -1.
+         *
+         * @param name the name of the {@code BackgroundInitializer}
+         * @param unit the unit of the result
+         * @return the time taken by this initializer, or -1
+         * @throws java.util.NoSuchElementException if the name cannot be
+         * resolved
+         */
+        public long getDuration(final String name, final TimeUnit unit) {
+            getInitializer(name);
+            if (!startTimes.containsKey(name)) {
+                return -1;
+            }
+            return unit.convert(durationNanos(name), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the critical path of the initialization. This is the chain
+         * of child initializers ending with the one that completed last, in
+         * which each child initializer is preceded by the dependency that
+         * completed last. If the maximum number of child initializers
+         * running at the same time was never reached, reducing the time taken
+         * by any other child initializer does not make the initialization
+         * complete earlier. Otherwise a child initializer on this path may
+         * have waited for others, not on this path, to make room for it, and
+         * these can delay the initialization as well.
+         *
+         * @return an (unmodifiable) list with the names of the child
+         * initializers on the critical path, dependencies first; empty if no
+         * child initializer was started
+         */
+        public List<String> getCriticalPath() {
+            String last = latest(order);
+            final LinkedList<String> path = new LinkedList<String>();
+            while (last != null) {
+                path.addFirst(last);
+                last = latest(Arrays.asList(dependencies.get(last)));
+            }
+            return Collections.unmodifiableList(path);
+        }
+
+        /**
+         * Returns the time taken by the child initializers on the critical
+         * path. This is the least time in which the initialization could
+         * complete with the same dependencies if enough child initializers
+         * could run at the same time. It does not include the time a child
+         * initializer waited to be started after its dependencies completed,
+         * because the maximum number of child initializers were running, so
+         * the initialization may have taken longer.
+         *
+         * @param unit the unit of the result
+         * @return the sum of the time taken by the child initializers on the
+         * critical path
+         */
+        public long getCriticalPathDuration(final TimeUnit unit) {
+            long nanos = 0;
+            for (final String name : getCriticalPath()) {
+                nanos += durationNanos(name);
+            }
+            return unit.convert(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns a report of the timing of the initialization. It lists the
+         * time taken by each child initializer, dependencies first, marking
+         * the ones on the critical path with an asterisk, followed by the
+         * critical path.
+         *
+         * @return the timing report
+         */
+        public String getTimingReport() {
+            final List<String> criticalPath = getCriticalPath();
+            final StringBuilder buf = new StringBuilder();
+            for (final String name : order) {
+                buf.append(name).append(": ");
+                if (startTimes.containsKey(name)) {
+                    buf.append(getDuration(name, TimeUnit.MILLISECONDS)).append(" ms");
+                    if (criticalPath.contains(name)) {
+                        buf.append(" *");
+                    }
+                } else {
+                    buf.append("not started");
+                }
+                buf.append(SystemUtils.LINE_SEPARATOR);
+            }
+
+            buf.append("Critical path: ");
+            for (int i = 0; i < criticalPath.size(); i++) {
+                if (i > 0) {
+                    buf.append(" -> ");
+                }
+                buf.append(criticalPath.get(i));
+            }
+            buf.append(" (").append(getCriticalPathDuration(TimeUnit.MILLISECONDS)).append(" ms)");
+            return buf.toString();
+        }
+
+        /**
+         * Returns the time taken by a child initializer which was started.
+         *
+         * @param name the name of the child initializer
+         * @return the time taken in nanoseconds
+         */
+        private long durationNanos(final String name) {
+            return endTimes.get(name).longValue() - startTimes.get(name).longValue();
+        }
+
+        /**
+         * Returns the child initializer which completed last.
+         *
+         * @param names the names of the child initializers to check
+         * @return the name of the child initializer which completed last, or
+         * <b>null</b> if none of them was started
+         */
+        private String latest(final Iterable<String> names) {
+            String result = null;
+            for (final String name : names) {
+                final Long end = endTimes.get(name);
+                if (end != null && (result == null || end.longValue() - endTimes.get(result).longValue() > 0)) {
+                    result = name;
+                }
+            }
+            return result;
+        }
+    }
+}
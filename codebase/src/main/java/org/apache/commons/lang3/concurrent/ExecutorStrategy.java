@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * The strategies for creating the temporary {@code ExecutorService} of a
+ * {@link BackgroundInitializer} which has no external executor.
+ * </p>
+ * <p>
+ * The temporary executor is shut down at the end of the background
+ * initialization. The common {@code ForkJoinPool} ignores this, so it is
+ * shared by all the initializers using {@link #COMMON_POOL}.
+ * </p>
+ *
+ * @see BackgroundInitializer#setExecutorStrategy(ExecutorStrategy)
+ * @since 3.2
+ * @version $Id$
+ */
+public enum ExecutorStrategy {
+
+    /**
+     * A new pool with a fixed number of threads, one per background task.
+     * This is the default strategy.
+     */
+    FIXED_THREAD_POOL {
+        @Override
+        public ExecutorService createExecutor(final int taskCount) {
+            return Executors.newFixedThreadPool(taskCount);
+        }
+    },
+
+    /**
+     * The common {@code ForkJoinPool}, so that no thread is created. Waiting
+     * for child initializers is managed so that the pool can compensate for
+     * the blocked threads, but the initializers should not block for long.
+     */
+    COMMON_POOL {
+        @Override
+        public ExecutorService createExecutor(final int taskCount) {
+            return ForkJoinPool.commonPool();
+        }
+    },
+
+    /**
+     * A new virtual thread per task, on Java 21 and later, so that blocking
+     * initializers cost no platform threads. On earlier versions of Java,
+     * falls back to {@link #FIXED_THREAD_POOL}.
+     */
+    VIRTUAL_THREADS {
+        @Override
+        public ExecutorService createExecutor(final int taskCount) {
+            final Method factory = VirtualThreads.FACTORY;
+            if (factory != null) {
+                try {
+                    return (ExecutorService) factory.invoke(null);
+                } catch (final Exception ex) {
+                    // fall back below
+                }
+            }
+            return FIXED_THREAD_POOL.createExecutor(taskCount);
+        }
+    };
+
+    /**
+     * Creates the executor for the background tasks of an initializer.
+     *
+     * @param taskCount the number of background tasks of the initializer
+     * @return the executor, to be shut down after the initialization
+     */
+    public abstract ExecutorService createExecutor(int taskCount);
+
+    /**
+     * Holds the factory of virtual thread executors, looked up on first use.
+     */
+    private static class VirtualThreads {
+        /** {@code Executors.newVirtualThreadPerTaskExecutor()}, or null before Java 21. */
+        static final Method FACTORY = lookup();
+
+        /**
+         * Looks up the factory method.
+         *
+         * @return the method, or null if it does not exist
+         */
+        private static Method lookup() {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (final NoSuchMethodException ex) {
+                return null;
+            }
+        }
+    }
+}
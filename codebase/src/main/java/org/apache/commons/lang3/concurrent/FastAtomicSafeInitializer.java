@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * A variant of {@link AtomicSafeInitializer} whose {@link #get()} method does
+ * not read an atomic variable once the object has been created.
+ * </p>
+ * <p>
+ * As {@code AtomicSafeInitializer} this class creates the object without
+ * synchronization and guarantees that {@link #initialize()} is called only
+ * once: the first thread to change the state of the initializer from
+ * <em>new</em> to <em>initializing</em> creates the object, while the others
+ * wait for it, yielding the processor. The created object is stored in the
+ * <b>final</b> field of a small holder object, and the holder is also cached
+ * in a plain field. The Java memory model guarantees that a thread which sees
+ * the holder also sees the object stored in its <b>final</b> field, so after
+ * the initialization {@code get()} is a plain field read.
+ * </p>
+ * <p>
+ * Unlike {@code AtomicSafeInitializer}, this class also stores a <b>null</b>
+ * object returned by {@code initialize()}. If {@code initialize()} throws an
+ * exception, the initializer returns to the <em>new</em> state, so that the
+ * next call of {@code get()} tries again.
+ * </p>
+ *
+ * @since 3.2
+ * @version $Id$
+ * @param <T> the type of the object managed by this initializer class
+ */
+public abstract class FastAtomicSafeInitializer<T> implements ConcurrentInitializer<T> {
+    /** The state of this initializer while the object is being created. */
+    private static final Object INITIALIZING = new Object();
+
+    /** The state: null, INITIALIZING or the holder of the managed object. */
+    private final AtomicReference<Object> state = new AtomicReference<Object>();
+
+    /** Caches the holder of the managed object; read without synchronization. */
+    private Holder<T> holder;
+
+    /**
+     * Get (and initialize, if not initialized yet) the required object
+     *
+     * @return lazily initialized object
+     * @throws ConcurrentException if the initialization of the object causes an
+     * exception
+     */
+    @Override
+    public final T get() throws ConcurrentException {
+        Holder<T> result = holder;
+
+        if (result == null) {
+            result = await();
+            holder = result;
+        }
+
+        return result.object;
+    }
+
+    /**
+     * Creates and initializes the object managed by this
+     * {@code FastAtomicSafeInitializer}. This method is called by
+     * {@link #get()} when the managed object is not available yet. An
+     * implementation can focus on the creation of the object. No
+     * synchronization is needed, as this is already handled by {@code get()}.
+     * This method is guaranteed to be called only once, unless it throws an
+     * exception.
+     *
+     * @return the managed data object
+     * @throws ConcurrentException if an error occurs during object creation
+     */
+    protected abstract T initialize() throws ConcurrentException;
+
+    /**
+     * Creates the object, or waits until another thread has created it.
+     *
+     * @return the holder of the managed object
+     * @throws ConcurrentException if the initialization of the object causes an
+     * exception
+     */
+    @SuppressWarnings("unchecked")
+    private Holder<T> await() throws ConcurrentException {
+        Object current;
+
+        while (!((current = state.get()) instanceof Holder)) {
+            if (current == null && state.compareAndSet(null, INITIALIZING)) {
+                boolean created = false;
+                try {
+                    final Holder<T> result = new Holder<T>(initialize());
+                    state.set(result);
+                    created = true;
+                    return result;
+                } finally {
+                    if (!created) {
+                        state.set(null);
+                    }
+                }
+            }
+            Thread.yield();
+        }
+
+        return (Holder<T>) current;
+    }
+
+    /**
+     * Holds the managed object in a <b>final</b> field, so that it can be
+     * published safely without synchronization.
+     *
+     * @param <T> the type of the managed object
+     */
+    private static final class Holder<T> {
+        /** The managed object. */
+        final T object;
+
+        Holder(final T object) {
+            this.object = object;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+/**
+ * <p>
+ * A variant of {@link LazyInitializer} whose {@link #get()} method does not
+ * read a <b>volatile</b> field once the object has been created.
+ * </p>
+ * <p>
+ * {@code LazyInitializer} publishes the managed object through a
+ * <b>volatile</b> field, which is read on every access. This class stores the
+ * object in the <b>final</b> field of a small holder object instead, and
+ * publishes the holder through a plain field. The Java memory model guarantees
+ * that a thread which sees the holder also sees the object stored in its
+ * <b>final</b> field, so after the initialization {@code get()} is a plain
+ * field read, which the compiler can move out of loops. A thread which does
+ * not see the holder yet falls back to synchronization, as with
+ * {@code LazyInitializer}, so that {@link #initialize()} is called only once.
+ * </p>
+ * <p>
+ * Unlike {@code LazyInitializer}, this class also stores a <b>null</b> object
+ * returned by {@code initialize()}. For a <b>static</b> field the lazy
+ * initialization holder class idiom is still the fastest alternative; this
+ * class is meant for instance fields, for example objects created lazily for
+ * each request.
+ * </p>
+ *
+ * @since 3.2
+ * @version $Id$
+ * @param <T> the type of the object managed by this initializer class
+ */
+public abstract class FastLazyInitializer<T> implements ConcurrentInitializer<T> {
+    /** Holds the managed object; read without synchronization. */
+    private Holder<T> holder;
+
+    /**
+     * Returns the object wrapped by this instance. On first access the object
+     * is created. After that it is cached and can be accessed without
+     * synchronization.
+     *
+     * @return the object initialized by this {@code FastLazyInitializer}
+     * @throws ConcurrentException if an error occurred during initialization of
+     * the object
+     */
+    @Override
+    public T get() throws ConcurrentException {
+        Holder<T> result = holder;
+
+        if (result == null) {
+            synchronized (this) {
+                result = holder;
+                if (result == null) {
+                    result = new Holder<T>(initialize());
+                    holder = result;
+                }
+            }
+        }
+
+        return result.object;
+    }
+
+    /**
+     * Creates and initializes the object managed by this {@code
+     * FastLazyInitializer}. This method is called by {@link #get()} when the
+     * object is accessed for the first time. An implementation can focus on
+     * the creation of the object. No synchronization is needed, as this is
+     * already handled by {@code get()}.
+     *
+     * @return the managed data object
+     * @throws ConcurrentException if an error occurs during object creation
+     */
+    protected abstract T initialize() throws ConcurrentException;
+
+    /**
+     * Holds the managed object in a <b>final</b> field, so that it can be
+     * published safely without synchronization.
+     *
+     * @param <T> the type of the managed object
+     */
+    private static final class Holder<T> {
+        /** The managed object. */
+        final T object;
+
+        Holder(final T object) {
+            this.object = object;
+        }
+    }
+}
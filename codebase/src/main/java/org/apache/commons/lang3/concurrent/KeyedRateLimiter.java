@@ -0,0 +1,530 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * A rate limiter granting a number of permits per key in each time period,
+ * for instance per tenant or per remote host, optionally together with a
+ * limit for all the keys.
+ * </p>
+ * <p>
+ * The state of each key is a single {@code long} packing the index of the
+ * period of its last permits and their number, updated with compare-and-set.
+ * No timer is used: a key whose state belongs to an earlier period has all
+ * its permits available again. The keys which have been idle for a whole
+ * period have no permits to remember, and are removed from time to time by
+ * the threads acquiring permits, a few keys by each thread, so that a limiter
+ * can serve millions of keys.
+ * </p>
+ * <p>
+ * The global limit, if any, is enforced by a {@link RateLimiter}. Permits are
+ * first acquired for the key, then globally; if the global limit is reached,
+ * the permits of the key are given back.
+ * </p>
+ *
+ * <pre>
+ * // 100 calls per second to each host, 1000 in total
+ * KeyedRateLimiter&lt;String&gt; limiter = new KeyedRateLimiter&lt;String&gt;(1, TimeUnit.SECONDS, 100, 1000);
+ * ...
+ * if (limiter.tryAcquire(host)) {
+ *     callHost(host);
+ * }
+ * </pre>
+ *
+ * @param <K> the type of the keys
+ * @since 3.2
+ * @version $Id$
+ */
+public class KeyedRateLimiter<K> {
+    /**
+     * Constant for a value representing no global limit. If the global limit
+     * is less or equal this constant, only the limit per key is enforced.
+     */
+    public static final int NO_LIMIT = 0;
+
+    /** The minimum time between two removals of idle keys, in nanoseconds. */
+    private static final long MIN_EVICTION_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /** The maximum number of keys examined for removal by a thread acquiring permits. */
+    private static final int EVICTION_SLICE = 64;
+
+    /** The state of a key removed from the map. */
+    private static final long REMOVED = -1L;
+
+    /** Marks the time of the last removal of idle keys as not set. */
+    private static final long UNSET = Long.MIN_VALUE;
+
+    /** Stores the period for this limiter. */
+    private final long period;
+
+    /** The time unit for the period. */
+    private final TimeUnit unit;
+
+    /** The period in nanoseconds. */
+    private final long periodNanos;
+
+    /** The number of permits per key in each period. */
+    private final int keyLimit;
+
+    /** The limiter of all the keys, or null. */
+    private final RateLimiter globalLimiter;
+
+    /** The state of each key. */
+    private final ConcurrentMap<K, AtomicLong> states = new ConcurrentHashMap<K, AtomicLong>();
+
+    /** The time of the start of the last removal of idle keys. */
+    private final AtomicLong lastEviction = new AtomicLong(UNSET);
+
+    /** The position of the removal of idle keys in progress, or null. */
+    private final AtomicReference<Iterator<Map.Entry<K, AtomicLong>>> evictionCursor =
+            new AtomicReference<Iterator<Map.Entry<K, AtomicLong>>>();
+
+    /** The minimum time between two removals of idle keys. */
+    private final long evictionInterval;
+
+    /**
+     * Creates a new instance of {@link KeyedRateLimiter} with a limit per key
+     * and no global limit.
+     *
+     * @param timePeriod the time period
+     * @param timeUnit the unit for the period, not null
+     * @param keyLimit the number of permits per key in each period
+     * @throws IllegalArgumentException if the period or limit is less or equals 0,
+     * or the unit is null
+     */
+    public KeyedRateLimiter(final long timePeriod, final TimeUnit timeUnit, final int keyLimit) {
+        this(timePeriod, timeUnit, keyLimit, NO_LIMIT);
+    }
+
+    /**
+     * Creates a new instance of {@link KeyedRateLimiter} with a limit per key
+     * and a global limit.
+     *
+     * @param timePeriod the time period
+     * @param timeUnit the unit for the period, not null
+     * @param keyLimit the number of permits per key in each period
+     * @param globalLimit the number of permits of all the keys in each period,
+     * or {@link #NO_LIMIT}
+     * @throws IllegalArgumentException if the period or limit per key is less
+     * or equals 0, or the unit is null
+     */
+    public KeyedRateLimiter(final long timePeriod, final TimeUnit timeUnit, final int keyLimit,
+            final int globalLimit) {
+        if (timePeriod <= 0) {
+            throw new IllegalArgumentException("Time period must be greater 0!");
+        }
+        if (timeUnit == null) {
+            throw new IllegalArgumentException("Time unit must not be null!");
+        }
+        if (keyLimit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater 0!");
+        }
+        period = timePeriod;
+        unit = timeUnit;
+        periodNanos = Math.max(1, timeUnit.toNanos(timePeriod));
+        evictionInterval = Math.max(periodNanos, MIN_EVICTION_INTERVAL);
+        this.keyLimit = keyLimit;
+        globalLimiter = globalLimit <= NO_LIMIT ? null : new RateLimiter(timePeriod, timeUnit, globalLimit) {
+            @Override
+            protected long nanoTime() {
+                return KeyedRateLimiter.this.nanoTime();
+            }
+        };
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Tries to acquire a permit for a key, without waiting.
+     *
+     * @param key the key, not null
+     * @return <b>true</b> if the permit was acquired
+     * @throws IllegalArgumentException if the key is null
+     */
+    public boolean tryAcquire(final K key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Tries to acquire a number of permits for a key, without waiting. Either
+     * all the permits are acquired or none.
+     *
+     * @param key the key, not null
+     * @param permits the number of permits to acquire
+     * @return <b>true</b> if the permits were acquired
+     * @throws IllegalArgumentException if the key is null, or the number of
+     * permits is less than 1 or greater than a limit
+     */
+    public boolean tryAcquire(final K key, final int permits) {
+        check(key, permits);
+        return acquirePermits(key, permits, nanoTime()) == 0;
+    }
+
+    /**
+     * Tries to acquire a number of permits for a key, waiting up to a timeout
+     * for them to become available. Either all the permits are acquired or none.
+     *
+     * @param key the key, not null
+     * @param permits the number of permits to acquire
+     * @param timeout the maximum time to wait
+     * @param timeUnit the unit of the timeout, not null
+     * @return <b>true</b> if the permits were acquired, <b>false</b> if the
+     * timeout elapsed first
+     * @throws InterruptedException if the thread gets interrupted
+     * @throws IllegalArgumentException if the key is null, or the number of
+     * permits is less than 1 or greater than a limit
+     */
+    public boolean tryAcquire(final K key, final int permits, final long timeout, final TimeUnit timeUnit)
+            throws InterruptedException {
+        check(key, permits);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        final long timeoutNanos = Math.max(0, timeUnit.toNanos(timeout));
+        final long start = nanoTime();
+        for (;;) {
+            final long now = nanoTime();
+            // the periods of the global limiter start at its first request, not with those of the keys
+            final long untilNextPeriod = acquirePermits(key, permits, now);
+            if (untilNextPeriod == 0) {
+                return true;
+            }
+            if (untilNextPeriod > timeoutNanos - (now - start)) {
+                return false;
+            }
+            sleep(untilNextPeriod);
+        }
+    }
+
+    /**
+     * Acquires a permit for a key, waiting for it to become available if
+     * necessary.
+     *
+     * @param key the key, not null
+     * @throws InterruptedException if the thread gets interrupted
+     * @throws IllegalArgumentException if the key is null
+     */
+    public void acquire(final K key) throws InterruptedException {
+        tryAcquire(key, 1, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Checks the arguments of a request for permits.
+     *
+     * @param key the key
+     * @param permits the number of permits
+     * @throws IllegalArgumentException if the key is null, or the number of
+     * permits is less than 1 or greater than a limit
+     */
+    private void check(final K key, final int permits) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key must not be null!");
+        }
+        final int limit = globalLimiter == null ? keyLimit : Math.min(keyLimit, globalLimiter.getLimit());
+        if (permits < 1 || permits > limit) {
+            throw new IllegalArgumentException("Permits must be between 1 and the limit " + limit + ": " + permits);
+        }
+    }
+
+    /**
+     * Acquires permits for a key, then globally.
+     *
+     * @param key the key
+     * @param permits the number of permits
+     * @param now the current time in nanoseconds
+     * @return 0 if the permits were acquired, otherwise the time in nanoseconds
+     * until the limiter which refused them starts a new period
+     */
+    private long acquirePermits(final K key, final int permits, final long now) {
+        evictIfDue(now);
+        final long currentPeriod = Math.floorDiv(now, periodNanos);
+        final int index = (int) currentPeriod;
+        for (;;) {
+            final AtomicLong state = getState(key, index);
+            final long s = state.get();
+            if (s == REMOVED) {
+                // removed as idle after being looked up: finish the removal, then use a new state
+                states.remove(key, state);
+                continue;
+            }
+            final long used = periodOf(s) == index ? countOf(s) : 0;
+            if (used + permits > keyLimit) {
+                return (currentPeriod + 1) * periodNanos - now;
+            }
+            if (state.compareAndSet(s, pack(index, used + permits))) {
+                if (globalLimiter != null && !globalLimiter.tryAcquire(permits)) {
+                    release(state, index, permits);
+                    return Math.max(1, globalLimiter.getDelayToNextPeriod());
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back the permits of a key, unless its period has ended.
+     *
+     * @param state the state of the key
+     * @param index the index of the period of the permits
+     * @param permits the number of permits
+     */
+    private static void release(final AtomicLong state, final int index, final int permits) {
+        for (;;) {
+            final long s = state.get();
+            if (s == REMOVED || periodOf(s) != index
+                    || state.compareAndSet(s, pack(index, countOf(s) - permits))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the state of a key, adding it if it is absent.
+     *
+     * @param key the key
+     * @param index the index of the current period
+     * @return the state of the key
+     */
+    private AtomicLong getState(final K key, final int index) {
+        final AtomicLong state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+        final AtomicLong newState = new AtomicLong(pack(index, 0));
+        final AtomicLong previous = states.putIfAbsent(key, newState);
+        return previous != null ? previous : newState;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Removes the keys which have acquired no permits in the current period,
+     * as they all have their permits available. This method examines all the
+     * keys. The removal is also done automatically by the threads acquiring
+     * permits, at most once per period or second, each thread examining a few
+     * keys only.
+     *
+     * @return the number of keys removed
+     */
+    public int evictIdleKeys() {
+        return evictIdleKeys(states.entrySet().iterator(), Integer.MAX_VALUE, nanoTime());
+    }
+
+    /**
+     * Removes the idle keys among the next ones of an iterator.
+     *
+     * @param entries the iterator of the keys
+     * @param maxKeys the maximum number of keys to examine
+     * @param now the current time in nanoseconds
+     * @return the number of keys removed
+     */
+    private int evictIdleKeys(final Iterator<Map.Entry<K, AtomicLong>> entries, final int maxKeys,
+            final long now) {
+        final int index = (int) Math.floorDiv(now, periodNanos);
+        int count = 0;
+        for (int i = 0; i < maxKeys && entries.hasNext(); i++) {
+            final Map.Entry<K, AtomicLong> entry = entries.next();
+            final AtomicLong state = entry.getValue();
+            final long s = state.get();
+            // the state is marked removed first, so that no permits are acquired on it
+            if (s != REMOVED && periodOf(s) != index && state.compareAndSet(s, REMOVED)) {
+                states.remove(entry.getKey(), state);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Continues the removal of the idle keys in progress, or starts a new one
+     * if the last one is old enough. At most {@link #EVICTION_SLICE} keys are
+     * examined, the next ones are left to the following threads.
+     *
+     * @param now the current time in nanoseconds
+     */
+    private void evictIfDue(final long now) {
+        Iterator<Map.Entry<K, AtomicLong>> entries = evictionCursor.get();
+        if (entries != null) {
+            // only one thread at a time moves the cursor
+            if (!evictionCursor.compareAndSet(entries, null)) {
+                return;
+            }
+        } else {
+            final long last = lastEviction.get();
+            if (last == UNSET) {
+                lastEviction.compareAndSet(UNSET, now);
+                return;
+            }
+            if (now - last < evictionInterval || !lastEviction.compareAndSet(last, now)) {
+                return;
+            }
+            entries = states.entrySet().iterator();
+        }
+        evictIdleKeys(entries, EVICTION_SLICE, now);
+        if (entries.hasNext()) {
+            evictionCursor.set(entries);
+        }
+    }
+
+    /**
+     * Returns the number of permits acquired for a key in the current period.
+     *
+     * @param key the key
+     * @return the current number of acquired permits
+     */
+    public int getAcquireCount(final K key) {
+        final AtomicLong state = states.get(key);
+        if (state == null) {
+            return 0;
+        }
+        final long s = state.get();
+        return s != REMOVED && periodOf(s) == (int) Math.floorDiv(nanoTime(), periodNanos) ? countOf(s) : 0;
+    }
+
+    /**
+     * Returns the number of permits which can still be acquired for a key in
+     * the current period, not taking the global limit into account.
+     *
+     * @param key the key
+     * @return the current number of available permits
+     */
+    public int getAvailablePermits(final K key) {
+        return keyLimit - getAcquireCount(key);
+    }
+
+    /**
+     * Returns the number of keys whose state is currently held. This includes
+     * idle keys which have not been removed yet.
+     *
+     * @return the number of keys
+     */
+    public int getKeyCount() {
+        return states.size();
+    }
+
+    /**
+     * Returns the number of permits per key in each period.
+     *
+     * @return the limit per key
+     */
+    public int getKeyLimit() {
+        return keyLimit;
+    }
+
+    /**
+     * Returns the number of permits of all the keys in each period.
+     *
+     * @return the global limit, or {@link #NO_LIMIT}
+     */
+    public int getGlobalLimit() {
+        return globalLimiter == null ? NO_LIMIT : globalLimiter.getLimit();
+    }
+
+    /**
+     * Returns the number of permits acquired by all the keys in the current
+     * period, if there is a global limit.
+     *
+     * @return the current number of permits acquired globally, or 0 if there
+     * is no global limit
+     */
+    public int getGlobalAcquireCount() {
+        return globalLimiter == null ? 0 : globalLimiter.getAcquireCount();
+    }
+
+    /**
+     * Returns the time period. This is the time in which only a given number
+     * of permits can be acquired.
+     *
+     * @return the time period
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the time unit. This is the unit used by {@link #getPeriod()}.
+     *
+     * @return the time unit
+     */
+    public TimeUnit getUnit() {
+        return unit;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns the current value of the time source, in nanoseconds. This
+     * implementation returns {@code System.nanoTime()}; it can be overridden
+     * for testing purposes.
+     *
+     * @return the current time in nanoseconds
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Waits until permits can be used. This implementation sleeps the current
+     * thread; it can be overridden for testing purposes.
+     *
+     * @param nanos the time to wait in nanoseconds
+     * @throws InterruptedException if the thread gets interrupted
+     */
+    protected void sleep(final long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Packs the index of a period, truncated to an int, and a number of
+     * permits. The truncated indexes are only compared for equality, and a
+     * key idle for long enough to wrap them around is removed much earlier.
+     *
+     * @param index the index of the period
+     * @param count the number of permits
+     * @return the packed state
+     */
+    private static long pack(final int index, final long count) {
+        return (long) index << 32 | count;
+    }
+
+    /**
+     * Returns the index of the period of a packed state.
+     *
+     * @param state the packed state
+     * @return the truncated index of the period
+     */
+    private static int periodOf(final long state) {
+        return (int) (state >>> 32);
+    }
+
+    /**
+     * Returns the number of permits of a packed state.
+     *
+     * @param state the packed state
+     * @return the number of permits
+     */
+    private static int countOf(final long state) {
+        return (int) state;
+    }
+}
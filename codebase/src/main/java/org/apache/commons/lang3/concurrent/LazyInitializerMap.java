@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * An implementation of the lazy initialization pattern for a family of
+ * objects, one for each key.
+ * </p>
+ * <p>
+ * A concrete subclass implements the {@link #initialize(Object)} method, which
+ * creates the object for a key. The {@link #get(Object)} method returns the
+ * object for a key, creating it on first access. The objects are stored in a
+ * {@code ConcurrentHashMap}, so once an object has been created it is returned
+ * without locking. Otherwise the key is mapped to one of a fixed number of
+ * locks, the stripes, and the object is created while holding this lock. This
+ * guarantees that {@code initialize()} is called only once for each key, as
+ * with {@link LazyInitializer}, while objects for keys mapped to different
+ * stripes are created in parallel. Unlike
+ * {@link ConcurrentUtils#createIfAbsent(ConcurrentMap, Object, ConcurrentInitializer)},
+ * no object is created just to be thrown away.
+ * </p>
+ * <p>
+ * An object returned by {@code initialize()} that is <b>null</b> is not
+ * stored, so that the next access of the key calls {@code initialize()} again.
+ * </p>
+ *
+ * <pre>
+ * LazyInitializerMap&lt;String, Codec&gt; codecs = new LazyInitializerMap&lt;String, Codec&gt;() {
+ *     &#064;Override
+ *     protected Codec initialize(String contentType) {
+ *         return new Codec(contentType);
+ *     }
+ * };
+ * ...
+ * Codec codec = codecs.get(request.getContentType());
+ * </pre>
+ *
+ * @since 3.2
+ * @version $Id$
+ * @param <K> the type of the keys
+ * @param <V> the type of the objects managed by this initializer class
+ */
+public abstract class LazyInitializerMap<K, V> {
+    /** The default number of locks. */
+    public static final int DEFAULT_STRIPES = 16;
+
+    /** The objects created so far. */
+    private final ConcurrentMap<K, V> objects = new ConcurrentHashMap<K, V>();
+
+    /** The locks, a power of two in number. */
+    private final Object[] locks;
+
+    /**
+     * Creates a new instance of {@code LazyInitializerMap} with the default
+     * number of locks.
+     */
+    public LazyInitializerMap() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates a new instance of {@code LazyInitializerMap} with the given
+     * number of locks. The number is rounded up to a power of two. The more
+     * locks, the less likely objects for different keys wait for each other.
+     *
+     * @param stripes the number of locks
+     * @throws IllegalArgumentException if the number of locks is less than 1
+     */
+    public LazyInitializerMap(final int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be greater 0!");
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        locks = new Object[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns the object for the given key. On first access of the key the
+     * object is created. After that it is cached and can be accessed without
+     * locking.
+     *
+     * @param key the key (must not be <b>null</b>)
+     * @return the object for this key
+     * @throws IllegalArgumentException if the key is <b>null</b>
+     * @throws ConcurrentException if an error occurred during initialization of
+     * the object
+     */
+    public V get(final K key) throws ConcurrentException {
+        if (key == null) {
+            throw new IllegalArgumentException("Key must not be null!");
+        }
+
+        V result = objects.get(key);
+        if (result == null) {
+            synchronized (lockFor(key)) {
+                result = objects.get(key);
+                if (result == null) {
+                    result = initialize(key);
+                    if (result != null) {
+                        objects.put(key, result);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a flag whether the object for the given key has been created.
+     *
+     * @param key the key
+     * @return a flag whether the object for this key exists
+     */
+    public boolean isInitialized(final K key) {
+        return key != null && objects.containsKey(key);
+    }
+
+    /**
+     * Removes the object for the given key, so that the next access of the key
+     * creates a new object.
+     *
+     * @param key the key
+     * @return the object removed, or <b>null</b> if there was none
+     */
+    public V remove(final K key) {
+        return key == null ? null : objects.remove(key);
+    }
+
+    /**
+     * Returns the number of objects created and not removed.
+     *
+     * @return the number of objects
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * Returns the number of locks.
+     *
+     * @return the number of locks
+     */
+    public int getStripes() {
+        return locks.length;
+    }
+
+    /**
+     * Creates the object for the given key. This method is called by
+     * {@link #get(Object)} when the key is accessed for the first time. No
+     * synchronization is needed, as this is already handled by {@code get()}.
+     *
+     * @param key the key
+     * @return the object for this key
+     * @throws ConcurrentException if an error occurs during object creation
+     */
+    protected abstract V initialize(K key) throws ConcurrentException;
+
+    /**
+     * Returns the lock for the given key.
+     *
+     * @param key the key
+     * @return the lock guarding the creation of the object for this key
+     */
+    private Object lockFor(final K key) {
+        final int hash = key.hashCode();
+        return locks[(hash ^ hash >>> 16) & (locks.length - 1)];
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A cache for the results of a {@link Computable}, which computes the result
+ * for each key only once even when many threads ask for it at the same time.
+ * </p>
+ * <p>
+ * {@link ConcurrentUtils#createIfAbsent(ConcurrentMap, Object, ConcurrentInitializer)}
+ * creates the value before trying to add it to the map, so under contention
+ * several threads may each create a value for the same key, all but one of
+ * them in vain. This class stores a future for each key instead: the first
+ * thread asking for a key adds the future and computes the result in its own
+ * thread, while the other threads asking for the same key wait for the
+ * future. Results for different keys are computed in parallel. With
+ * {@link #getFuture(Object)} a caller can wait for a result asynchronously
+ * rather than blocking.
+ * </p>
+ * <p>
+ * If the computation fails, its exception is reported to all the threads
+ * waiting for it, and the key is removed, so that the next request computes
+ * the result again. Results can also be given a maximum age, after which they
+ * are computed again, and the number of cached results can be limited. If the
+ * limit is exceeded, the least recently used results are removed,
+ * approximately: the keys are kept in a queue, as a clock, and a key used
+ * since it was last at the head of the queue gets a second chance.
+ * </p>
+ *
+ * <pre>
+ * Memoizer&lt;String, Schema&gt; schemas = new Memoizer&lt;String, Schema&gt;(
+ *         new Computable&lt;String, Schema&gt;() {
+ *             public Schema compute(String uri) throws IOException {
+ *                 return Schema.load(uri);
+ *             }
+ *         }, 1000, 10, TimeUnit.MINUTES);
+ * ...
+ * Schema schema = schemas.get(uri);
+ * </pre>
+ *
+ * @since 3.2
+ * @version $Id$
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ */
+public class Memoizer<K, V> {
+    /** Constant for no limit on the number of results or their age. */
+    public static final int NO_LIMIT = 0;
+
+    /** The computation of the results. */
+    private final Computable<K, V> computable;
+
+    /** The entries for the keys. */
+    private final ConcurrentMap<K, Entry<K, V>> entries = new ConcurrentHashMap<K, Entry<K, V>>();
+
+    /** The entries in the order of their creation, as a clock, if the number of entries is limited. */
+    private final Queue<Entry<K, V>> clock = new ConcurrentLinkedQueue<Entry<K, V>>();
+
+    /** The number of entries. */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /** The number of entries removed from the map since the clock was last purged. */
+    private final AtomicInteger removedCount = new AtomicInteger();
+
+    /** The maximum number of entries. */
+    private final int maximumSize;
+
+    /** The maximum age of the results in nanoseconds. */
+    private final long expiryNanos;
+
+    /**
+     * Creates a new instance of {@code Memoizer} which keeps all the results.
+     *
+     * @param computable the computation of the results
+     * @throws IllegalArgumentException if the computation is <b>null</b>
+     */
+    public Memoizer(final Computable<K, V> computable) {
+        this(computable, NO_LIMIT, NO_LIMIT, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new instance of {@code Memoizer} with a maximum number of
+     * results and a maximum age of the results.
+     *
+     * @param computable the computation of the results
+     * @param maximumSize the maximum number of results, or {@link #NO_LIMIT}
+     * @param expiry the maximum age of the results, or {@link #NO_LIMIT}
+     * @param unit the time unit of the maximum age
+     * @throws IllegalArgumentException if the computation or the unit is
+     * <b>null</b>, or the maximum number of results or age is negative
+     */
+    public Memoizer(final Computable<K, V> computable, final int maximumSize, final long expiry,
+            final TimeUnit unit) {
+        if (computable == null) {
+            throw new IllegalArgumentException("Computable must not be null!");
+        }
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative!");
+        }
+        if (expiry < 0) {
+            throw new IllegalArgumentException("Expiry must not be negative!");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("Time unit must not be null!");
+        }
+
+        this.computable = computable;
+        this.maximumSize = maximumSize;
+        expiryNanos = unit.toNanos(expiry);
+    }
+
+    /**
+     * Returns the result for the given key. If it is not cached, it is
+     * computed, in the current thread unless another thread is already
+     * computing it, in which case the current thread waits for it.
+     *
+     * @param key the key (must not be <b>null</b>)
+     * @return the result for this key
+     * @throws IllegalArgumentException if the key is <b>null</b>
+     * @throws ConcurrentException if the computation throws a checked
+     * exception, or the current thread is interrupted while waiting
+     */
+    public V get(final K key) throws ConcurrentException {
+        try {
+            return entry(key).future.get();
+        } catch (final ExecutionException execex) {
+            ConcurrentUtils.handleCause(execex);
+            return null; // should not be reached
+        } catch (final InterruptedException iex) {
+            // reset interrupted state
+            Thread.currentThread().interrupt();
+            throw new ConcurrentException(iex);
+        }
+    }
+
+    /**
+     * Returns a future for the result for the given key. If the result is not
+     * cached and no other thread is computing it, it is computed in the
+     * current thread, and the future returned is complete. Otherwise this
+     * method does not wait for the result.
+     *
+     * @param key the key (must not be <b>null</b>)
+     * @return the future for the result for this key
+     * @throws IllegalArgumentException if the key is <b>null</b>
+     */
+    public CompletableFuture<V> getFuture(final K key) {
+        return entry(key).future.thenApply(Function.<V>identity());
+    }
+
+    /**
+     * Removes the result for the given key, so that the next request computes
+     * it again. Threads already waiting for the result still receive it.
+     *
+     * @param key the key
+     * @return a flag whether there was a result for this key
+     */
+    public boolean remove(final K key) {
+        final Entry<K, V> entry = key == null ? null : entries.get(key);
+        return entry != null && remove(entry);
+    }
+
+    /**
+     * Returns the number of results cached or being computed.
+     *
+     * @return the number of results
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the maximum number of results.
+     *
+     * @return the maximum number of results, or {@link #NO_LIMIT}
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the maximum age of the results.
+     *
+     * @param unit the unit of the result
+     * @return the maximum age, or {@link #NO_LIMIT}
+     */
+    public long getExpiry(final TimeUnit unit) {
+        return unit.convert(expiryNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the current value of the timer used for the age of the results,
+     * in nanoseconds. This implementation calls {@link System#nanoTime()}; it
+     * can be overridden for testing.
+     *
+     * @return the current time in nanoseconds
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Returns the number of entries in the clock, including those removed
+     * from the map but not from the clock yet. This is for testing.
+     *
+     * @return the length of the clock
+     */
+    int getClockLength() {
+        return clock.size();
+    }
+
+    /**
+     * Returns the entry for the given key, computing its result if it has to
+     * be created.
+     *
+     * @param key the key
+     * @return the entry
+     * @throws IllegalArgumentException if the key is <b>null</b>
+     */
+    private Entry<K, V> entry(final K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key must not be null!");
+        }
+
+        while (true) {
+            final Entry<K, V> entry = entries.get(key);
+            if (entry != null) {
+                if (!isExpired(entry)) {
+                    if (!entry.referenced) {
+                        // avoid writing to shared memory on every hit
+                        entry.referenced = true;
+                    }
+                    return entry;
+                }
+                remove(entry);
+            } else {
+                final Entry<K, V> created = new Entry<K, V>(key);
+                if (entries.putIfAbsent(key, created) == null) {
+                    final int count = size.incrementAndGet();
+                    if (maximumSize != NO_LIMIT) {
+                        clock.offer(created);
+                        if (count > maximumSize) {
+                            evict();
+                        }
+                    }
+                    compute(created);
+                    return created;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the result of an entry. If the computation fails, the entry is
+     * removed before the exception is reported.
+     *
+     * @param entry the entry
+     */
+    private void compute(final Entry<K, V> entry) {
+        final V result;
+        try {
+            result = computable.compute(entry.key);
+        } catch (final Exception ex) {
+            remove(entry);
+            entry.future.completeExceptionally(ex);
+            return;
+        } catch (final Error err) {
+            remove(entry);
+            entry.future.completeExceptionally(err);
+            throw err;
+        }
+
+        entry.completed = nanoTime();
+        entry.future.complete(result);
+    }
+
+    /**
+     * Returns a flag whether the result of an entry is older than the
+     * maximum age.
+     *
+     * @param entry the entry
+     * @return a flag whether the result has expired
+     */
+    private boolean isExpired(final Entry<K, V> entry) {
+        return expiryNanos != NO_LIMIT && entry.future.isDone()
+                && nanoTime() - entry.completed >= expiryNanos;
+    }
+
+    /**
+     * Removes an entry unless it has been removed already. The entry stays
+     * in the clock until it is visited; the clock is purged of the removed
+     * entries once as many entries as the maximum have been removed.
+     *
+     * @param entry the entry
+     * @return a flag whether the entry was removed by this call
+     */
+    private boolean remove(final Entry<K, V> entry) {
+        if (!discard(entry)) {
+            return false;
+        }
+        if (maximumSize != NO_LIMIT) {
+            final int count = removedCount.incrementAndGet();
+            if (count > maximumSize && removedCount.compareAndSet(count, 0)) {
+                purge();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes an entry from the map unless it has been removed already.
+     *
+     * @param entry the entry
+     * @return a flag whether the entry was removed by this call
+     */
+    private boolean discard(final Entry<K, V> entry) {
+        if (entries.remove(entry.key, entry)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the entries no longer in the map from the clock.
+     */
+    private void purge() {
+        for (final Iterator<Entry<K, V>> it = clock.iterator(); it.hasNext();) {
+            final Entry<K, V> entry = it.next();
+            if (entries.get(entry.key) != entry) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes entries until the number of entries is within the maximum. The
+     * entries are visited in the order of the clock. An entry is removed if
+     * its result has expired or it has not been used since it was last
+     * visited; otherwise it is requeued. Entries still being computed are
+     * requeued, too.
+     */
+    private void evict() {
+        // each entry is requeued at most once, unless used again meanwhile
+        int budget = 2 * size.get() + 1;
+        while (size.get() > maximumSize && budget > 0) {
+            final Entry<K, V> entry = clock.poll();
+            if (entry == null) {
+                return;
+            }
+            if (entries.get(entry.key) != entry) {
+                // removed already, which does not use the budget
+                continue;
+            }
+            budget--;
+            if (isExpired(entry) || entry.future.isDone() && !entry.referenced) {
+                discard(entry);
+            } else {
+                entry.referenced = false;
+                clock.offer(entry);
+            }
+        }
+    }
+
+    /**
+     * The entry for a key, holding the future for its result.
+     *
+     * @param <K> the type of the key
+     * @param <V> the type of the result
+     */
+    private static final class Entry<K, V> {
+        /** The key. */
+        final K key;
+
+        /** The future for the result. */
+        final CompletableFuture<V> future = new CompletableFuture<V>();
+
+        /** The time at which the result was computed. */
+        volatile long completed;
+
+        /** A flag whether the result has been used since the entry was last visited by the clock. */
+        volatile boolean referenced;
+
+        Entry(final K key) {
+            this.key = key;
+        }
+    }
+}
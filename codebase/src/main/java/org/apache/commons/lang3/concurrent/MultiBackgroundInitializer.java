@@ -16,12 +16,19 @@
  */
 package org.apache.commons.lang3.concurrent;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 /**
  * <p>
@@ -90,6 +97,18 @@ import java.util.concurrent.ExecutorService;
  * is used, none of the background tasks can be executed, and the task created
  * by {@code MultiBackgroundInitializer} waits forever.
  * </p>
+ * <p>
+ * A child initializer can depend on other child initializers, given by name
+ * when it is added using
+ * {@link #addInitializer(String, BackgroundInitializer, String...)}. It is
+ * only started when all its dependencies have completed successfully; if one
+ * of them fails, it is not started, and the results report a
+ * {@code ConcurrentException} for it. The children are started as soon as
+ * they are ready, by the threads completing their dependencies, and the
+ * control task waits for all of them at once; when it runs in a
+ * {@code ForkJoinPool}, for instance with {@link ExecutorStrategy#COMMON_POOL},
+ * the pool compensates for the waiting thread.
+ * </p>
  *
  * @since 3.0
  * @version $Id$
@@ -101,6 +120,13 @@ public class MultiBackgroundInitializer
     private final Map<String, BackgroundInitializer<?>> childInitializers =
         new HashMap<String, BackgroundInitializer<?>>();
 
+    /** A map with the names of the dependencies of the child initializers. */
+    private final Map<String, String[]> childDependencies =
+        new HashMap<String, String[]>();
+
+    /** The names of the child initializers, dependencies first. */
+    private List<String> startOrder; // @GuardedBy("this")
+
     /**
      * Creates a new instance of {@code MultiBackgroundInitializer}.
      */
@@ -132,6 +158,28 @@ public class MultiBackgroundInitializer
      * @throws IllegalStateException if {@code start()} has already been called
      */
     public void addInitializer(final String name, final BackgroundInitializer<?> init) {
+        addInitializer(name, init, new String[0]);
+    }
+
+    /**
+     * Adds a new {@code BackgroundInitializer} to this object, which depends
+     * on other child initializers. When this {@code MultiBackgroundInitializer}
+     * is started, the given initializer will be started when all the child
+     * initializers it depends on have completed successfully. The dependencies
+     * must have been added when {@link #start()} is called. This method must
+     * not be called after {@link #start()} has been invoked.
+     *
+     * @param name the name of the initializer (must not be <b>null</b>)
+     * @param init the {@code BackgroundInitializer} to add (must not be
+     * <b>null</b>)
+     * @param dependencies the names of the child initializers to complete
+     * first (must not be <b>null</b> or contain <b>null</b>)
+     * @throws IllegalArgumentException if a required parameter is missing
+     * @throws IllegalStateException if {@code start()} has already been called
+     * @since 3.2
+     */
+    public void addInitializer(final String name, final BackgroundInitializer<?> init,
+            final String... dependencies) {
         if (name == null) {
             throw new IllegalArgumentException(
                     "Name of child initializer must not be null!");
@@ -140,6 +188,16 @@ public class MultiBackgroundInitializer
             throw new IllegalArgumentException(
                     "Child initializer must not be null!");
         }
+        if (dependencies == null) {
+            throw new IllegalArgumentException(
+                    "Dependencies must not be null!");
+        }
+        for (final String dependency : dependencies) {
+            if (dependency == null) {
+                throw new IllegalArgumentException(
+                        "Name of dependency must not be null!");
+            }
+        }
 
         synchronized (this) {
             if (isStarted()) {
@@ -147,7 +205,108 @@ public class MultiBackgroundInitializer
                         "addInitializer() must not be called after start()!");
             }
             childInitializers.put(name, init);
+            childDependencies.put(name, dependencies.clone());
+        }
+    }
+
+    /**
+     * Starts the background initialization. This implementation checks the
+     * dependencies of the child initializers first.
+     *
+     * @return a flag whether the initializer could be started successfully
+     * @throws IllegalStateException if a child initializer depends on an
+     * unknown name, or the dependencies contain a cycle
+     */
+    @Override
+    public synchronized boolean start() {
+        if (!isStarted()) {
+            startOrder = sortInitializers();
+        }
+        return super.start();
+    }
+
+    /**
+     * Sorts the names of the child initializers so that dependencies come
+     * before the initializers depending on them.
+     *
+     * @return the sorted names
+     * @throws IllegalStateException if a child initializer depends on an
+     * unknown name, or the dependencies contain a cycle
+     */
+    private List<String> sortInitializers() {
+        final List<String> sorted = new ArrayList<String>(childInitializers.size());
+        // false while visiting the dependencies of a name, true when done
+        final Map<String, Boolean> visited = new HashMap<String, Boolean>();
+        final List<String> path = new ArrayList<String>();
+        for (final String name : childInitializers.keySet()) {
+            visit(name, visited, path, sorted);
+        }
+        return sorted;
+    }
+
+    /**
+     * Adds a name to the sorted names after its dependencies, depth first.
+     *
+     * @param name the name of a child initializer
+     * @param visited the state of the names already visited
+     * @param path the names being visited, each depending on the next
+     * @param sorted the sorted names
+     * @throws IllegalStateException if the dependencies contain a cycle
+     */
+    private void visit(final String name, final Map<String, Boolean> visited, final List<String> path,
+            final List<String> sorted) {
+        final Boolean state = visited.get(name);
+        if (state != null) {
+            if (!state.booleanValue()) {
+                final StringBuilder cycle = new StringBuilder();
+                for (final String element : path.subList(path.indexOf(name), path.size())) {
+                    cycle.append(element).append(" -> ");
+                }
+                throw new IllegalStateException(
+                        "Cyclic dependency of child initializers: " + cycle + name);
+            }
+            return;
+        }
+        visited.put(name, Boolean.FALSE);
+        path.add(name);
+        for (final String dependency : childDependencies.get(name)) {
+            if (!childInitializers.containsKey(dependency)) {
+                throw new IllegalStateException("Child initializer " + name
+                        + " depends on unknown initializer " + dependency);
+            }
+            visit(dependency, visited, path, sorted);
         }
+        path.remove(path.size() - 1);
+        visited.put(name, Boolean.TRUE);
+        sorted.add(name);
+    }
+
+    /**
+     * Returns a snapshot of the child initializers.
+     *
+     * @return a copy of the map with the child initializers
+     */
+    synchronized Map<String, BackgroundInitializer<?>> getChildInitializers() {
+        return new HashMap<String, BackgroundInitializer<?>>(childInitializers);
+    }
+
+    /**
+     * Returns a snapshot of the dependencies of the child initializers.
+     *
+     * @return a copy of the map with the names of the dependencies
+     */
+    synchronized Map<String, String[]> getChildDependencies() {
+        return new HashMap<String, String[]>(childDependencies);
+    }
+
+    /**
+     * Returns the names of the child initializers, dependencies first. This
+     * is available after {@link #start()}.
+     *
+     * @return the sorted names
+     */
+    synchronized List<String> getStartOrder() {
+        return startOrder;
     }
 
     /**
@@ -173,47 +332,129 @@ public class MultiBackgroundInitializer
 
     /**
      * Creates the results object. This implementation starts all child {@code
-     * BackgroundInitializer} objects. Then it collects their results and
-     * creates a {@code MultiBackgroundInitializerResults} object with this
-     * data. If a child initializer throws a checked exceptions, it is added to
-     * the results object. Unchecked exceptions are propagated.
+     * BackgroundInitializer} objects without dependencies, and the others as
+     * soon as their dependencies have completed successfully. Then it waits
+     * for all of them, collects their results and creates a {@code
+     * MultiBackgroundInitializerResults} object with this data. If a child
+     * initializer throws a checked exceptions, it is added to the results
+     * object, as is an exception for each child initializer which was not
+     * started because a dependency failed. Unchecked exceptions are propagated.
      *
      * @return the results object
      * @throws Exception if an error occurs
      */
     @Override
     protected MultiBackgroundInitializerResults initialize() throws Exception {
-        Map<String, BackgroundInitializer<?>> inits;
-        synchronized (this) {
-            // create a snapshot to operate on
-            inits = new HashMap<String, BackgroundInitializer<?>>(
-                    childInitializers);
-        }
+        // create a snapshot to operate on
+        final Map<String, BackgroundInitializer<?>> inits = getChildInitializers();
+        final Map<String, String[]> deps = getChildDependencies();
+        final List<String> order = getStartOrder();
 
-        // start the child initializers
+        // start the child initializers, or arrange for them to be started
         final ExecutorService exec = getActiveExecutor();
-        for (final BackgroundInitializer<?> bi : inits.values()) {
+        final Map<String, CompletableFuture<?>> completions =
+            new LinkedHashMap<String, CompletableFuture<?>>();
+        for (final String name : order) {
+            final BackgroundInitializer<?> bi = inits.get(name);
             if (bi.getExternalExecutor() == null) {
                 // share the executor service if necessary
                 bi.setExternalExecutor(exec);
             }
-            bi.start();
+            final String[] dependencies = deps.get(name);
+            if (dependencies.length == 0) {
+                bi.start();
+                completions.put(name, bi.getCompletableFuture());
+            } else {
+                final CompletableFuture<?>[] before = new CompletableFuture<?>[dependencies.length];
+                for (int i = 0; i < dependencies.length; i++) {
+                    before[i] = completions.get(dependencies[i]);
+                }
+                completions.put(name, startAfter(bi, CompletableFuture.allOf(before)));
+            }
         }
 
-        // collect the results
+        // wait for all of them, ignoring their exceptions here
+        CompletableFuture.allOf(completions.values().toArray(new CompletableFuture<?>[completions.size()]))
+                .handle(new BiFunction<Void, Throwable, Void>() {
+                    @Override
+                    public Void apply(final Void result, final Throwable ex) {
+                        return null;
+                    }
+                }).get();
+
+        // collect the results, dependencies first
         final Map<String, Object> results = new HashMap<String, Object>();
         final Map<String, ConcurrentException> excepts = new HashMap<String, ConcurrentException>();
-        for (final Map.Entry<String, BackgroundInitializer<?>> e : inits.entrySet()) {
-            try {
-                results.put(e.getKey(), e.getValue().get());
-            } catch (final ConcurrentException cex) {
-                excepts.put(e.getKey(), cex);
+        for (final String name : order) {
+            final BackgroundInitializer<?> bi = inits.get(name);
+            if (bi.isStarted()) {
+                try {
+                    results.put(name, bi.get());
+                } catch (final ConcurrentException cex) {
+                    excepts.put(name, cex);
+                }
+            } else {
+                for (final String dependency : deps.get(name)) {
+                    if (excepts.containsKey(dependency)) {
+                        excepts.put(name, new ConcurrentException("Dependency "
+                                + dependency + " of child initializer " + name
+                                + " failed", excepts.get(dependency)));
+                        break;
+                    }
+                }
+                if (!excepts.containsKey(name)) {
+                    // start() failed, propagate its exception
+                    try {
+                        completions.get(name).get();
+                    } catch (final ExecutionException execex) {
+                        ConcurrentUtils.handleCauseUnchecked(execex);
+                    }
+                }
             }
         }
 
         return new MultiBackgroundInitializerResults(inits, results, excepts);
     }
 
+    /**
+     * Starts a child initializer when its dependencies have completed
+     * successfully.
+     *
+     * @param bi the child initializer
+     * @param dependencies completed when all the dependencies have completed
+     * @return completed when the child initializer has completed, or when a
+     * dependency has failed
+     */
+    private static CompletableFuture<?> startAfter(final BackgroundInitializer<?> bi,
+            final CompletableFuture<Void> dependencies) {
+        final CompletableFuture<Object> done = new CompletableFuture<Object>();
+        dependencies.whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(final Void result, final Throwable ex) {
+                if (ex != null) {
+                    done.completeExceptionally(ex);
+                    return;
+                }
+                try {
+                    bi.start();
+                    bi.getCompletableFuture().whenComplete(new BiConsumer<Object, Throwable>() {
+                        @Override
+                        public void accept(final Object value, final Throwable childEx) {
+                            if (childEx != null) {
+                                done.completeExceptionally(childEx);
+                            } else {
+                                done.complete(value);
+                            }
+                        }
+                    });
+                } catch (final RuntimeException rex) {
+                    done.completeExceptionally(rex);
+                }
+            }
+        });
+        return done;
+    }
+
     /**
      * A data class for storing the results of the background initialization
      * performed by {@code MultiBackgroundInitializer}. Objects of this inner
@@ -243,7 +484,7 @@ public class MultiBackgroundInitializer
          * @param results the result objects
          * @param excepts the exceptions
          */
-        private MultiBackgroundInitializerResults(
+        MultiBackgroundInitializerResults(
                 final Map<String, BackgroundInitializer<?>> inits,
                 final Map<String, Object> results,
                 final Map<String, ConcurrentException> excepts) {
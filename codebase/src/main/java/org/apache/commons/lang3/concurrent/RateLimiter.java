@@ -0,0 +1,440 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * A lock-free alternative to {@link TimedSemaphore}: a rate limiter which
+ * grants a number of permits in each time period.
+ * </p>
+ * <p>
+ * As with {@code TimedSemaphore}, there is no {@code release()} method: all
+ * permits become available again at the end of each period. The first period
+ * starts with the first request for permits. Unlike {@code TimedSemaphore},
+ * this class needs no timer: the periods are derived from
+ * {@code System.nanoTime()} whenever permits are requested, and the state of
+ * the current period is replaced atomically with compare-and-set, so that
+ * threads requesting permits never block each other on a monitor.
+ * </p>
+ * <p>
+ * Permits are requested with {@link #tryAcquire()}, which fails immediately if
+ * the permits of the current period are exhausted, with
+ * {@link #tryAcquire(int, long, TimeUnit)}, which waits up to a timeout, or
+ * with {@link #acquire()}, which waits as long as necessary:
+ * </p>
+ *
+ * <pre>
+ * RateLimiter limiter = new RateLimiter(1, TimeUnit.SECONDS, 100);
+ * ...
+ * if (limiter.tryAcquire(1, 50, TimeUnit.MILLISECONDS)) {
+ *     callRemoteService();
+ * }
+ * </pre>
+ *
+ * <p>
+ * A limiter is either unfair or fair. An unfair limiter only grants permits of
+ * the current period: waiting threads retry at the start of the next period
+ * and compete with the other threads for its permits. A fair limiter grants
+ * permits in the order they are requested: when the current period is
+ * exhausted, a request reserves permits of the following periods, and the
+ * thread waits for the start of the period of its last permit. A fair limiter
+ * therefore never fails a request it can satisfy within the timeout, but the
+ * permits reserved by a thread which is interrupted while waiting are lost.
+ * </p>
+ *
+ * @since 3.2
+ * @version $Id$
+ */
+public class RateLimiter {
+
+    /** Stores the period for this limiter. */
+    private final long period;
+
+    /** The time unit for the period. */
+    private final TimeUnit unit;
+
+    /** The period in nanoseconds. */
+    private final long periodNanos;
+
+    /** The number of permits in each period. */
+    private final int limit;
+
+    /** Whether permits are granted in the order they are requested. */
+    private final boolean fair;
+
+    /** The state of the current period, null until permits are first requested. */
+    private final AtomicReference<Window> window = new AtomicReference<Window>();
+
+    /**
+     * Creates a new, unfair instance of {@link RateLimiter} and initializes it
+     * with the given time period and the limit.
+     *
+     * @param timePeriod the time period
+     * @param timeUnit the unit for the period, not null
+     * @param limit the number of permits in each period
+     * @throws IllegalArgumentException if the period or limit is less or equals 0,
+     * or the unit is null
+     */
+    public RateLimiter(final long timePeriod, final TimeUnit timeUnit, final int limit) {
+        this(timePeriod, timeUnit, limit, false);
+    }
+
+    /**
+     * Creates a new instance of {@link RateLimiter} and initializes it with
+     * the given time period, the limit and the fairness.
+     *
+     * @param timePeriod the time period
+     * @param timeUnit the unit for the period, not null
+     * @param limit the number of permits in each period
+     * @param fair whether permits are granted in the order they are requested
+     * @throws IllegalArgumentException if the period or limit is less or equals 0,
+     * or the unit is null
+     */
+    public RateLimiter(final long timePeriod, final TimeUnit timeUnit, final int limit, final boolean fair) {
+        if (timePeriod <= 0) {
+            throw new IllegalArgumentException("Time period must be greater 0!");
+        }
+        if (timeUnit == null) {
+            throw new IllegalArgumentException("Time unit must not be null!");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater 0!");
+        }
+        period = timePeriod;
+        unit = timeUnit;
+        periodNanos = Math.max(1, timeUnit.toNanos(timePeriod));
+        this.limit = limit;
+        this.fair = fair;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Tries to acquire a permit of the current period, without waiting.
+     *
+     * @return <b>true</b> if the permit was acquired
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * Tries to acquire a number of permits of the current period, without
+     * waiting. Either all the permits are acquired or none.
+     *
+     * @param permits the number of permits to acquire
+     * @return <b>true</b> if the permits were acquired
+     * @throws IllegalArgumentException if the number of permits is less than 1
+     * or greater than the limit
+     */
+    public boolean tryAcquire(final int permits) {
+        checkPermits(permits);
+        return reserve(permits, 0) >= 0;
+    }
+
+    /**
+     * Tries to acquire a number of permits, waiting up to a timeout for them
+     * to become available. Either all the permits are acquired or none.
+     *
+     * @param permits the number of permits to acquire
+     * @param timeout the maximum time to wait
+     * @param timeUnit the unit of the timeout, not null
+     * @return <b>true</b> if the permits were acquired, <b>false</b> if the
+     * timeout elapsed first
+     * @throws InterruptedException if the thread gets interrupted
+     * @throws IllegalArgumentException if the number of permits is less than 1
+     * or greater than the limit
+     */
+    public boolean tryAcquire(final int permits, final long timeout, final TimeUnit timeUnit)
+            throws InterruptedException {
+        checkPermits(permits);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        final long timeoutNanos = Math.max(0, timeUnit.toNanos(timeout));
+        final long start = nanoTime();
+        for (;;) {
+            final long remaining = timeoutNanos - (nanoTime() - start);
+            final long delay = reserve(permits, Math.max(0, remaining));
+            if (delay >= 0) {
+                if (delay > 0) {
+                    sleep(delay);
+                }
+                return true;
+            }
+            if (fair) {
+                // later requests can only be granted later permits
+                return false;
+            }
+            final long untilNextPeriod = getDelayToNextPeriod();
+            if (untilNextPeriod > remaining) {
+                return false;
+            }
+            sleep(untilNextPeriod);
+        }
+    }
+
+    /**
+     * Acquires a permit, waiting for it to become available if necessary.
+     *
+     * @throws InterruptedException if the thread gets interrupted
+     */
+    public void acquire() throws InterruptedException {
+        acquire(1);
+    }
+
+    /**
+     * Acquires a number of permits, waiting for them to become available if
+     * necessary.
+     *
+     * @param permits the number of permits to acquire
+     * @throws InterruptedException if the thread gets interrupted
+     * @throws IllegalArgumentException if the number of permits is less than 1
+     * or greater than the limit
+     */
+    public void acquire(final int permits) throws InterruptedException {
+        tryAcquire(permits, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Checks the number of permits requested.
+     *
+     * @param permits the number of permits
+     * @throws IllegalArgumentException if the number is less than 1 or greater
+     * than the limit
+     */
+    private void checkPermits(final int permits) {
+        if (permits < 1 || permits > limit) {
+            throw new IllegalArgumentException("Permits must be between 1 and the limit " + limit + ": " + permits);
+        }
+    }
+
+    /**
+     * Reserves a number of permits if they can be used within a delay.
+     *
+     * @param permits the number of permits
+     * @param maxDelay the maximum delay in nanoseconds
+     * @return the delay in nanoseconds before the permits may be used, or -1
+     * if they were not reserved
+     */
+    private long reserve(final int permits, final long maxDelay) {
+        for (;;) {
+            final long now = nanoTime();
+            final Window current = window.get();
+            final Window base = current == null ? new Window(now, 0, 0, 0) : current.at(current.periodAt(now));
+            // the permits are numbered from the start of the period of the base window
+            final long last = base.used + permits - 1;
+            final long delay;
+            if (last < limit) {
+                delay = 0;
+            } else if (fair) {
+                delay = base.startOf(base.period + last / limit) - now;
+                if (delay > maxDelay) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+            if (window.compareAndSet(current, new Window(base.origin, base.period, base.used + permits,
+                    base.total + permits))) {
+                return delay;
+            }
+        }
+    }
+
+    /**
+     * Returns the time until the start of the next period.
+     *
+     * @return the delay in nanoseconds
+     */
+    long getDelayToNextPeriod() {
+        final Window current = window.get();
+        if (current == null) {
+            return 0;
+        }
+        final long now = nanoTime();
+        return Math.max(0, current.startOf(current.periodAt(now) + 1) - now);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns the number of permits acquired in the current period. If the
+     * limiter is fair, the permits reserved in the following periods are not
+     * included.
+     *
+     * @return the current number of acquired permits
+     */
+    public int getAcquireCount() {
+        final Window current = window.get();
+        if (current == null) {
+            return 0;
+        }
+        return (int) Math.min(limit, current.at(current.periodAt(nanoTime())).used);
+    }
+
+    /**
+     * Returns the number of permits which can still be acquired in the current
+     * period. There is no guarantee that a subsequent call to
+     * {@link #tryAcquire()} succeeds, as other threads may acquire permits in
+     * the mean time.
+     *
+     * @return the current number of available permits
+     */
+    public int getAvailablePermits() {
+        return limit - getAcquireCount();
+    }
+
+    /**
+     * Returns the average number of permits acquired in the periods which have
+     * ended since the first request for permits. This method can be used for
+     * instance for statistical calculations.
+     *
+     * @return the average number of permits acquired per period
+     */
+    public double getAverageCallsPerPeriod() {
+        final Window current = window.get();
+        if (current == null) {
+            return 0;
+        }
+        final Window now = current.at(current.periodAt(nanoTime()));
+        return now.period == 0 ? 0 : (double) (now.total - now.used) / (double) now.period;
+    }
+
+    /**
+     * Returns the number of permits in each period.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the time period. This is the time in which only a given number
+     * of permits can be acquired.
+     *
+     * @return the time period
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the time unit. This is the unit used by {@link #getPeriod()}.
+     *
+     * @return the time unit
+     */
+    public TimeUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns whether permits are granted in the order they are requested.
+     *
+     * @return <b>true</b> if this limiter is fair
+     */
+    public boolean isFair() {
+        return fair;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns the current value of the time source, in nanoseconds. This
+     * implementation returns {@code System.nanoTime()}; it can be overridden
+     * for testing purposes.
+     *
+     * @return the current time in nanoseconds
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Waits until permits can be used. This implementation sleeps the current
+     * thread; it can be overridden for testing purposes.
+     *
+     * @param nanos the time to wait in nanoseconds
+     * @throws InterruptedException if the thread gets interrupted
+     */
+    protected void sleep(final long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The immutable state of the periods from a given one.
+     */
+    private final class Window {
+        /** The start of the first period. */
+        final long origin;
+        /** The index of the period, from 0 for the first period. */
+        final long period;
+        /**
+         * The number of permits granted from the start of the period, which
+         * exceeds the limit if a fair limiter reserved permits of later periods.
+         */
+        final long used;
+        /** The total number of permits granted. */
+        final long total;
+
+        Window(final long origin, final long period, final long used, final long total) {
+            this.origin = origin;
+            this.period = period;
+            this.used = used;
+            this.total = total;
+        }
+
+        /**
+         * Returns the index of the period containing a time.
+         *
+         * @param now the time in nanoseconds
+         * @return the index of the period
+         */
+        long periodAt(final long now) {
+            return Math.max(period, (now - origin) / periodNanos);
+        }
+
+        /**
+         * Returns the start of a period.
+         *
+         * @param index the index of the period
+         * @return the time in nanoseconds
+         */
+        long startOf(final long index) {
+            return origin + index * periodNanos;
+        }
+
+        /**
+         * Returns the state from a later period, releasing the permits of the
+         * periods which have ended.
+         *
+         * @param index the index of the period, not before this period
+         * @return the state from the period
+         */
+        Window at(final long index) {
+            if (index == period) {
+                return this;
+            }
+            final long elapsed = index - period;
+            // compare without multiplying, as the limiter may have been idle for long
+            final long remaining = elapsed > (used - 1) / limit ? 0 : used - elapsed * limit;
+            return new Window(origin, index, remaining, total);
+        }
+    }
+}
@@ -22,13 +22,28 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.commons.lang3.Validate;
 
@@ -55,8 +70,24 @@ import org.apache.commons.lang3.Validate;
  * }
  * </pre></code>
  *
+ * By default the events are passed to the listeners through reflection, on
+ * the thread firing them. An instance created with
+ * {@link #createWithMethodHandles(Class)} calls the listeners through method
+ * handles instead, which are created once for each listener method; an
+ * exception thrown by a listener is then propagated as it is, rather than
+ * wrapped. An instance created with
+ * {@link #createAsync(Class, Executor, int, int)} returns from the event
+ * methods at once: the events are added to a bounded buffer and passed to the
+ * listeners by a task of an {@code Executor}, in batches. An instance created
+ * with {@link #createGenerated(Class)} uses a class generated for the listener
+ * interface, which calls each listener directly, without reflection and
+ * without allocating an array for the arguments.
+ *
+ * <p/>
  * Serializing an {@link EventListenerSupport} instance will result in any
- * non-{@link Serializable} listeners being silently dropped.
+ * non-{@link Serializable} listeners being silently dropped. The way events
+ * are passed to the listeners is not serialized either; a deserialized
+ * instance uses reflection.
  *
  * @param <L> the type of event listener that is supported by this proxy.
  *
@@ -86,6 +117,28 @@ public class EventListenerSupport<L> implements Serializable {
      */
     private transient L[] prototypeArray;
 
+    /**
+     * Whether the listeners are called through method handles.
+     */
+    private transient boolean methodHandles;
+
+    /**
+     * The dispatcher of the events fired asynchronously, or null.
+     */
+    private transient AsyncDispatcher dispatcher;
+
+    /**
+     * The array of the registered listeners read by a generated multicaster,
+     * or null. Updated while holding its own lock.
+     */
+    private transient AtomicReference<Object[]> listenerArray;
+
+    /**
+     * The maximum number of arguments passed to a method handle one by one
+     * rather than spread from the array of arguments.
+     */
+    private static final int MAX_UNSPREAD_ARGUMENTS = 3;
+
     /**
      * Creates an EventListenerSupport object which supports the specified
      * listener type.
@@ -106,6 +159,119 @@ public class EventListenerSupport<L> implements Serializable {
         return new EventListenerSupport<T>(listenerInterface);
     }
 
+    /**
+     * Creates an EventListenerSupport object which supports the specified
+     * listener type, and calls the listeners through method handles. The
+     * method handle of a listener method is created the first time it is
+     * fired, so an event costs no reflective access checks. An exception
+     * thrown by a listener is propagated to the caller as it is. Since the
+     * handles are not constants, calling them is not necessarily faster than
+     * reflection; {@link #createGenerated(Class)} is.
+     *
+     * @param <T> the type of the listener interface
+     * @param listenerInterface the type of listener interface that will receive
+     *        events posted using this class.
+     *
+     * @return an EventListenerSupport object which supports the specified
+     *         listener type.
+     *
+     * @throws NullPointerException if <code>listenerInterface</code> is
+     *         <code>null</code>.
+     * @throws IllegalArgumentException if <code>listenerInterface</code> is
+     *         not an interface.
+     * @since 3.2
+     */
+    public static <T> EventListenerSupport<T> createWithMethodHandles(final Class<T> listenerInterface) {
+        final EventListenerSupport<T> support = new EventListenerSupport<T>();
+        support.methodHandles = true;
+        support.initialize(listenerInterface, Thread.currentThread().getContextClassLoader());
+        return support;
+    }
+
+    /**
+     * Creates an EventListenerSupport object which supports the specified
+     * listener type, and calls the listeners through a generated class. The
+     * class implements the listener interface, each method calling the same
+     * method of the registered listeners with the arguments as they are; it is
+     * generated once for each listener interface. Firing an event thus costs
+     * the same as calling the listeners in a loop, and allocates no memory.
+     * The methods of the object returned by {@link #fire()} return zero,
+     * <code>false</code> or <code>null</code>, and are not called for
+     * the methods of {@code Object}. An exception thrown by a listener is
+     * propagated to the caller as it is. If no class can be generated, for
+     * instance because the listener interface is not public, the listeners are
+     * called through method handles as by {@link #createWithMethodHandles(Class)}.
+     *
+     * @param <T> the type of the listener interface
+     * @param listenerInterface the type of listener interface that will receive
+     *        events posted using this class.
+     *
+     * @return an EventListenerSupport object which supports the specified
+     *         listener type.
+     *
+     * @throws NullPointerException if <code>listenerInterface</code> is
+     *         <code>null</code>.
+     * @throws IllegalArgumentException if <code>listenerInterface</code> is
+     *         not an interface.
+     * @since 3.2
+     */
+    public static <T> EventListenerSupport<T> createGenerated(final Class<T> listenerInterface) {
+        final EventListenerSupport<T> support = createWithMethodHandles(listenerInterface);
+        final AtomicReference<Object[]> array = new AtomicReference<Object[]>(new Object[0]);
+        final T multicaster = MulticasterGenerator.newMulticaster(listenerInterface, array);
+        if (multicaster != null) {
+            support.listenerArray = array;
+            support.proxy = multicaster;
+        }
+        return support;
+    }
+
+    /**
+     * Creates an EventListenerSupport object which supports the specified
+     * listener type, and passes the events to the listeners asynchronously.
+     * The methods of the object returned by {@link #fire()} add the events to
+     * a bounded buffer and return <code>null</code>. A task of the given
+     * executor passes the events to the listeners registered at that time, in
+     * the order in which they were fired, up to <code>batchSize</code> events
+     * per task; only one task runs at a time. When the buffer is full, firing
+     * an event waits until there is space, so that slow listeners slow down
+     * the threads firing events rather than exhausting the memory. An
+     * exception thrown by a listener is passed to
+     * {@link #handleAsyncException(Throwable)}. An event fired by a listener
+     * when the buffer is full is passed to the listeners at once, on the
+     * thread of the task, as that thread cannot wait for itself to make space.
+     *
+     * @param <T> the type of the listener interface
+     * @param listenerInterface the type of listener interface that will receive
+     *        events posted using this class.
+     * @param executor the executor running the tasks passing the events to
+     *        the listeners.
+     * @param capacity the number of events the buffer holds, rounded up to a
+     *        power of two.
+     * @param batchSize the maximum number of events passed to the listeners
+     *        by a single task.
+     *
+     * @return an EventListenerSupport object which supports the specified
+     *         listener type.
+     *
+     * @throws NullPointerException if <code>listenerInterface</code> or
+     *         <code>executor</code> is <code>null</code>.
+     * @throws IllegalArgumentException if <code>listenerInterface</code> is
+     *         not an interface, or the capacity or batch size is not positive.
+     * @since 3.2
+     */
+    public static <T> EventListenerSupport<T> createAsync(final Class<T> listenerInterface,
+            final Executor executor, final int capacity, final int batchSize) {
+        Validate.notNull(executor, "Executor cannot be null.");
+        Validate.isTrue(capacity > 0, "The capacity must be positive: %d", capacity);
+        Validate.isTrue(batchSize > 0, "The batch size must be positive: %d", batchSize);
+        final EventListenerSupport<T> support = new EventListenerSupport<T>();
+        support.methodHandles = true;
+        support.dispatcher = support.new AsyncDispatcher(executor, capacity, batchSize);
+        support.initialize(listenerInterface, Thread.currentThread().getContextClassLoader());
+        return support;
+    }
+
     /**
      * Creates an EventListenerSupport object which supports the provided
      * listener interface.
@@ -137,11 +303,7 @@ public class EventListenerSupport<L> implements Serializable {
      */
     public EventListenerSupport(final Class<L> listenerInterface, final ClassLoader classLoader) {
         this();
-        Validate.notNull(listenerInterface, "Listener interface cannot be null.");
-        Validate.notNull(classLoader, "ClassLoader cannot be null.");
-        Validate.isTrue(listenerInterface.isInterface(), "Class {0} is not an interface",
-                listenerInterface.getName());
-        initializeTransientFields(listenerInterface, classLoader);
+        initialize(listenerInterface, classLoader);
     }
 
     /**
@@ -177,7 +339,14 @@ public class EventListenerSupport<L> implements Serializable {
      */
     public void addListener(final L listener) {
         Validate.notNull(listener, "Listener object cannot be null.");
-        listeners.add(listener);
+        if (listenerArray == null) {
+            listeners.add(listener);
+        } else {
+            synchronized (listenerArray) {
+                listeners.add(listener);
+                listenerArray.set(listeners.toArray());
+            }
+        }
     }
 
     /**
@@ -199,7 +368,14 @@ public class EventListenerSupport<L> implements Serializable {
      */
     public void removeListener(final L listener) {
         Validate.notNull(listener, "Listener object cannot be null.");
-        listeners.remove(listener);
+        if (listenerArray == null) {
+            listeners.remove(listener);
+        } else {
+            synchronized (listenerArray) {
+                listeners.remove(listener);
+                listenerArray.set(listeners.toArray());
+            }
+        }
     }
 
     /**
@@ -258,6 +434,20 @@ public class EventListenerSupport<L> implements Serializable {
         initializeTransientFields(listenerInterface, Thread.currentThread().getContextClassLoader());
     }
 
+    /**
+     * Checks the arguments of the constructor and initializes the transient
+     * fields, once the way events are passed to the listeners is set.
+     * @param listenerInterface the class of the listener interface
+     * @param classLoader the class loader to be used
+     */
+    private void initialize(final Class<L> listenerInterface, final ClassLoader classLoader) {
+        Validate.notNull(listenerInterface, "Listener interface cannot be null.");
+        Validate.notNull(classLoader, "ClassLoader cannot be null.");
+        Validate.isTrue(listenerInterface.isInterface(), "Class {0} is not an interface",
+                listenerInterface.getName());
+        initializeTransientFields(listenerInterface, classLoader);
+    }
+
     /**
      * Initialize transient fields.
      * @param listenerInterface the class of the listener interface
@@ -287,9 +477,100 @@ public class EventListenerSupport<L> implements Serializable {
      * @return ProxyInvocationHandler
      */
     protected InvocationHandler createInvocationHandler() {
+        if (dispatcher != null) {
+            return new AsyncInvocationHandler();
+        }
+        if (methodHandles) {
+            return new MethodHandleInvocationHandler();
+        }
         return new ProxyInvocationHandler();
     }
 
+    /**
+     * Handles an exception thrown by a listener to which an event was passed
+     * asynchronously. This implementation passes it to the uncaught exception
+     * handler of the current thread, and the event is still passed to the
+     * other listeners. Subclasses can override to provide custom behavior.
+     *
+     * @param ex the exception thrown by the listener
+     * @since 3.2
+     */
+    protected void handleAsyncException(final Throwable ex) {
+        final Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+    }
+
+    /**
+     * A listener method with the method handle calling it.
+     */
+    private static final class ListenerMethod {
+        /** The listener method. */
+        final Method method;
+
+        /**
+         * The method handle taking the listener and the arguments, spread
+         * from an array beyond {@link #MAX_UNSPREAD_ARGUMENTS}, or null if the
+         * method is called through reflection.
+         */
+        private final MethodHandle handle;
+
+        /** The number of parameters. */
+        private final int parameterCount;
+
+        /**
+         * Creates a new instance of {@code ListenerMethod}.
+         *
+         * @param method the listener method
+         */
+        ListenerMethod(final Method method) {
+            this.method = method;
+            parameterCount = method.getParameterTypes().length;
+            MethodHandle methodHandle;
+            try {
+                methodHandle = MethodHandles.lookup().unreflect(method)
+                        .asType(MethodType.genericMethodType(parameterCount + 1));
+                if (parameterCount > MAX_UNSPREAD_ARGUMENTS) {
+                    methodHandle = methodHandle.asSpreader(Object[].class, parameterCount);
+                }
+            } catch (final IllegalAccessException ex) {
+                // not accessible, called through reflection
+                methodHandle = null;
+            }
+            handle = methodHandle;
+        }
+
+        /**
+         * Calls the method on a listener, propagating the exception thrown by
+         * the listener as it is.
+         *
+         * @param listener the listener
+         * @param args the arguments
+         * @return the result of the method call
+         * @throws Throwable if the listener throws an exception
+         */
+        Object invoke(final Object listener, final Object[] args) throws Throwable {
+            if (handle == null) {
+                try {
+                    return method.invoke(listener, args);
+                } catch (final InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+            switch (parameterCount) {
+            case 0:
+                return (Object) handle.invokeExact(listener);
+            case 1:
+                return (Object) handle.invokeExact(listener, args[0]);
+            case 2:
+                return (Object) handle.invokeExact(listener, args[0], args[1]);
+            case 3:
+                return (Object) handle.invokeExact(listener, args[0], args[1], args[2]);
+            default:
+                return (Object) handle.invokeExact(listener, args);
+            }
+        }
+    }
+
     /**
      * An invocation handler used to dispatch the event(s) to all the listeners.
      */
@@ -315,4 +596,286 @@ public class EventListenerSupport<L> implements Serializable {
             return null;
         }
     }
+
+    /**
+     * An invocation handler dispatching the event(s) to all the listeners
+     * through method handles.
+     */
+    private class MethodHandleInvocationHandler implements InvocationHandler {
+        /** The listener methods fired so far. */
+        private final ConcurrentMap<Method, ListenerMethod> listenerMethods =
+                new ConcurrentHashMap<Method, ListenerMethod>();
+
+        /** The listener method fired last. */
+        private volatile ListenerMethod last;
+
+        /**
+         * Returns the listener method with its method handle, creating the
+         * handle the first time the method is fired. The proxy passes the same
+         * {@code Method} object for each call of a method, so a listener
+         * interface with a single method needs no lookup.
+         *
+         * @param method the listener method
+         * @return the listener method with its method handle
+         */
+        ListenerMethod listenerMethod(final Method method) {
+            ListenerMethod listenerMethod = last;
+            if (listenerMethod == null || listenerMethod.method != method) {
+                listenerMethod = listenerMethods.get(method);
+                if (listenerMethod == null) {
+                    listenerMethod = new ListenerMethod(method);
+                    final ListenerMethod other = listenerMethods.putIfAbsent(method, listenerMethod);
+                    if (other != null) {
+                        listenerMethod = other;
+                    }
+                }
+                last = listenerMethod;
+            }
+            return listenerMethod;
+        }
+
+        /**
+         * Propagates the method call to all registered listeners.
+         *
+         * @param proxy the proxy object representing a listener on which the
+         *        invocation was called.
+         * @param method the listener method that will be called on all of the
+         *        listeners.
+         * @param args event arguments to propagate to the listeners.
+         * @return the result of the method call
+         * @throws Throwable if a listener throws an exception
+         */
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final ListenerMethod listenerMethod = listenerMethod(method);
+            for (final L listener : listeners) {
+                listenerMethod.invoke(listener, args);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * An invocation handler passing the event(s) to the asynchronous
+     * dispatcher.
+     */
+    private class AsyncInvocationHandler extends MethodHandleInvocationHandler {
+
+        /**
+         * Adds the method call to the buffer of the dispatcher.
+         *
+         * @param proxy the proxy object representing a listener on which the
+         *        invocation was called.
+         * @param method the listener method that will be called on all of the
+         *        listeners.
+         * @param args event arguments to propagate to the listeners.
+         * @return <code>null</code>
+         */
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            dispatcher.fire(new Event(listenerMethod(method), args));
+            return null;
+        }
+    }
+
+    /**
+     * An event fired asynchronously.
+     */
+    private static final class Event {
+        /** The listener method. */
+        final ListenerMethod method;
+
+        /** The arguments. */
+        final Object[] args;
+
+        Event(final ListenerMethod method, final Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+    }
+
+    /**
+     * Passes the events fired asynchronously to the listeners. The events are
+     * held in a bounded ring buffer, to which many threads add events and from
+     * which one task at a time takes them. Each slot of the buffer has a
+     * sequence number telling whether it is free for the event with a given
+     * position, or holds it, so that neither side needs a lock.
+     */
+    private final class AsyncDispatcher implements Runnable {
+        /** The time to wait for space in the buffer, in nanoseconds. */
+        private final long parkNanos = TimeUnit.MICROSECONDS.toNanos(100);
+
+        /** The executor running the task. */
+        private final Executor executor;
+
+        /** The maximum number of events passed on by one task. */
+        private final int batchSize;
+
+        /** The events. */
+        private final AtomicReferenceArray<Event> buffer;
+
+        /**
+         * The sequence numbers of the slots: the position of the event for
+         * which the slot is free, or this position + 1 while it holds it.
+         */
+        private final AtomicLongArray sequences;
+
+        /** The position of the next event added. */
+        private final AtomicLong tail = new AtomicLong();
+
+        /** Whether the task is scheduled or running. */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** The position of the next event taken, only accessed by the task. */
+        private long head;
+
+        /** The thread running the task, or null. */
+        private volatile Thread consumer;
+
+        /**
+         * Creates a new instance of {@code AsyncDispatcher}.
+         *
+         * @param executor the executor running the task
+         * @param capacity the minimum capacity of the buffer
+         * @param batchSize the maximum number of events passed on by one task
+         */
+        AsyncDispatcher(final Executor executor, final int capacity, final int batchSize) {
+            int size = 1;
+            while (size < capacity) {
+                size <<= 1;
+            }
+            this.executor = executor;
+            this.batchSize = batchSize;
+            buffer = new AtomicReferenceArray<Event>(size);
+            sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        /**
+         * Adds an event to the buffer, waiting for space if necessary, and
+         * schedules the task. If the buffer is full and the event is fired by
+         * a listener called by the task, no space can be made while it waits:
+         * the event is passed to the listeners at once instead.
+         *
+         * @param event the event
+         */
+        void fire(final Event event) {
+            while (!offer(event)) {
+                if (Thread.currentThread() == consumer) {
+                    dispatch(event);
+                    return;
+                }
+                schedule();
+                LockSupport.parkNanos(parkNanos);
+            }
+            schedule();
+        }
+
+        /**
+         * Passes an event to the listeners registered now.
+         *
+         * @param event the event
+         */
+        private void dispatch(final Event event) {
+            for (final L listener : listeners) {
+                try {
+                    event.method.invoke(listener, event.args);
+                } catch (final Throwable ex) {
+                    handleAsyncException(ex);
+                }
+            }
+        }
+
+        /**
+         * Passes a batch of events to the listeners, and schedules the task
+         * again if there are more.
+         */
+        @Override
+        public void run() {
+            final long next;
+            consumer = Thread.currentThread();
+            try {
+                Event event;
+                for (int count = 0; count < batchSize && (event = poll()) != null; count++) {
+                    dispatch(event);
+                }
+            } finally {
+                consumer = null;
+                next = head;
+                scheduled.set(false);
+            }
+            if (sequences.get(index(next)) == next + 1) {
+                // events were added meanwhile, or the batch was full
+                schedule();
+            }
+        }
+
+        /**
+         * Schedules the task unless it is scheduled or running already.
+         */
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (final RejectedExecutionException ex) {
+                    scheduled.set(false);
+                    throw ex;
+                }
+            }
+        }
+
+        /**
+         * Adds an event to the buffer.
+         *
+         * @param event the event
+         * @return a flag whether there was space for the event
+         */
+        private boolean offer(final Event event) {
+            while (true) {
+                final long position = tail.get();
+                final int index = index(position);
+                final long sequence = sequences.get(index);
+                if (sequence == position) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        buffer.lazySet(index, event);
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                } else if (sequence < position) {
+                    // the slot still holds the event of the previous round
+                    return false;
+                }
+                // else another thread took the position, try the next one
+            }
+        }
+
+        /**
+         * Takes the next event from the buffer.
+         *
+         * @return the event, or <code>null</code> if none has been added
+         */
+        private Event poll() {
+            final int index = index(head);
+            if (sequences.get(index) != head + 1) {
+                return null;
+            }
+            final Event event = buffer.get(index);
+            buffer.lazySet(index, null);
+            sequences.set(index, head + buffer.length());
+            head++;
+            return event;
+        }
+
+        /**
+         * Returns the slot of a position.
+         *
+         * @param position the position
+         * @return the index of the slot
+         */
+        private int index(final long position) {
+            return (int) position & (buffer.length() - 1);
+        }
+    }
 }
@@ -21,10 +21,17 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.reflect.MethodUtils;
 
 /**
@@ -35,6 +42,19 @@ import org.apache.commons.lang3.reflect.MethodUtils;
  */
 public class EventUtils {
 
+    /**
+     * The methods of the targets bound to listener methods, for each target
+     * class, keyed by the method name and the parameter types of the listener
+     * method.
+     */
+    private static final ClassValue<ConcurrentMap<List<Object>, TargetMethod>> TARGET_METHODS =
+        new ClassValue<ConcurrentMap<List<Object>, TargetMethod>>() {
+            @Override
+            protected ConcurrentMap<List<Object>, TargetMethod> computeValue(final Class<?> targetClass) {
+                return new ConcurrentHashMap<List<Object>, TargetMethod>();
+            }
+        };
+
     /**
      * Adds an event listener to the specified source.  This looks for an "add" method corresponding to the event
      * type (addActionListener, for example).
@@ -63,6 +83,12 @@ public class EventUtils {
 
     /**
      * Binds an event listener to a specific method on a specific object.
+     * If the target has a method taking the parameter types of a listener
+     * method, the events are passed to the overload of the method matching the
+     * classes of their arguments, otherwise the method taking no parameters is
+     * called. The methods of the target are cached for the target class, so
+     * that an event with the same classes of arguments does not search the
+     * methods of the target again.
      *
      * @param <L>          the event listener type
      * @param target       the target object
@@ -75,26 +101,150 @@ public class EventUtils {
     public static <L> void bindEventsToMethod(final Object target, final String methodName, final Object eventSource,
             final Class<L> listenerType, final String... eventTypes) {
         final L listener = listenerType.cast(Proxy.newProxyInstance(target.getClass().getClassLoader(),
-                new Class[] { listenerType }, new EventBindingInvocationHandler(target, methodName, eventTypes)));
+                new Class[] { listenerType }, new EventBindingInvocationHandler(target, methodName, listenerType, eventTypes)));
         addEventListener(eventSource, listenerType, listener);
     }
 
+    /**
+     * Returns the method of a target class to be called for a listener
+     * method: the method with the given name matching the classes of the
+     * arguments if there is a method taking the parameters of the listener
+     * method, otherwise the method with this name taking no parameters.
+     *
+     * @param targetClass the class of the target object
+     * @param methodName the name of the method to be invoked
+     * @param parameterTypes the parameter types of the listener method
+     * @return the method of the target, cached for the target class
+     */
+    private static TargetMethod getTargetMethod(final Class<?> targetClass, final String methodName,
+            final Class<?>[] parameterTypes) {
+        final List<Object> key = new ArrayList<Object>(parameterTypes.length + 1);
+        key.add(methodName);
+        key.addAll(Arrays.asList(parameterTypes));
+        final ConcurrentMap<List<Object>, TargetMethod> methods = TARGET_METHODS.get(targetClass);
+        TargetMethod result = methods.get(key);
+        if (result == null) {
+            final Method method = MethodUtils.getAccessibleMethod(targetClass, methodName, parameterTypes);
+            if (method != null) {
+                result = new TargetMethod(methodName, method, true);
+            } else {
+                result = new TargetMethod(methodName, MethodUtils.getAccessibleMethod(targetClass, methodName),
+                        false);
+            }
+            final TargetMethod other = methods.putIfAbsent(key, result);
+            if (other != null) {
+                result = other;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The method of a target called for a listener method.
+     */
+    private static final class TargetMethod {
+        /** The name of the method. */
+        private final String methodName;
+        /** The method of the target, or null if there is no accessible method. */
+        private final Method method;
+        /** Whether the method takes the parameters of the listener method. */
+        private final boolean passParameters;
+        /**
+         * The methods matching the classes of the arguments, keyed by the class
+         * of a single argument, or the list of the classes of the arguments.
+         */
+        private final ConcurrentMap<Object, Method> matchingMethods = new ConcurrentHashMap<Object, Method>();
+
+        /**
+         * Creates a new instance of {@code TargetMethod}.
+         *
+         * @param methodName the name of the method
+         * @param method the method of the target taking the parameters of the
+         * listener method, or the one taking no parameters, or null
+         * @param passParameters whether the method takes the parameters of the listener method
+         */
+        TargetMethod(final String methodName, final Method method, final boolean passParameters) {
+            this.methodName = methodName;
+            this.method = method;
+            this.passParameters = passParameters;
+        }
+
+        /**
+         * Invokes the method on a target. If the method takes the parameters
+         * of the listener method, the overload matching the classes of the
+         * arguments is invoked, as {@link MethodUtils#invokeMethod(Object, String, Object...)}
+         * would do.
+         *
+         * @param target the target object
+         * @param parameters the parameters of the listener method
+         * @return the result of the method call
+         * @throws NoSuchMethodException if there is no such accessible method
+         * @throws IllegalAccessException if the method is not accessible
+         * @throws InvocationTargetException wraps an exception thrown by the method invoked
+         */
+        Object invoke(final Object target, final Object[] parameters) throws NoSuchMethodException,
+                IllegalAccessException, InvocationTargetException {
+            if (!passParameters) {
+                return checkMethod(method, target).invoke(target);
+            }
+            final Object[] args = parameters == null ? ArrayUtils.EMPTY_OBJECT_ARRAY : parameters;
+            // avoid creating a list for the common single argument
+            final Object key = args.length == 1 && args[0] != null ? args[0].getClass()
+                    : Arrays.asList(ClassUtils.toClass(args));
+            Method matching = matchingMethods.get(key);
+            if (matching == null) {
+                matching = checkMethod(MethodUtils.getMatchingAccessibleMethod(target.getClass(), methodName,
+                        ClassUtils.toClass(args)), target);
+                matchingMethods.putIfAbsent(key, matching);
+            }
+            return matching.invoke(target, args);
+        }
+
+        /**
+         * Checks that an accessible method was found.
+         *
+         * @param found the method found, or null
+         * @param target the target object
+         * @return the method found
+         * @throws NoSuchMethodException if no method was found
+         */
+        private Method checkMethod(final Method found, final Object target) throws NoSuchMethodException {
+            if (found == null) {
+                throw new NoSuchMethodException("No such accessible method: "
+                        + methodName + "() on object: "
+                        + target.getClass().getName());
+            }
+            return found;
+        }
+    }
+
     private static class EventBindingInvocationHandler implements InvocationHandler {
         private final Object target;
         private final String methodName;
         private final Set<String> eventTypes;
+        private final Map<Method, TargetMethod> targetMethods = new ConcurrentHashMap<Method, TargetMethod>();
 
         /**
-         * Creates a new instance of {@code EventBindingInvocationHandler}.
+         * Creates a new instance of {@code EventBindingInvocationHandler}. The
+         * methods of the target called for the supported methods of the
+         * listener interface are looked up at once.
          *
          * @param target the target object for method invocations
          * @param methodName the name of the method to be invoked
+         * @param listenerType the listener interface
          * @param eventTypes the names of the supported event types
          */
-        EventBindingInvocationHandler(final Object target, final String methodName, final String[] eventTypes) {
+        EventBindingInvocationHandler(final Object target, final String methodName, final Class<?> listenerType,
+                final String[] eventTypes) {
             this.target = target;
             this.methodName = methodName;
             this.eventTypes = new HashSet<String>(Arrays.asList(eventTypes));
+            for (final Method method : listenerType.getMethods()) {
+                if (isSupported(method)) {
+                    targetMethods.put(method, getTargetMethod(target.getClass(), methodName,
+                            method.getParameterTypes()));
+                }
+            }
         }
 
         /**
@@ -108,24 +258,26 @@ public class EventUtils {
          */
         @Override
         public Object invoke(final Object proxy, final Method method, final Object[] parameters) throws Throwable {
-            if (eventTypes.isEmpty() || eventTypes.contains(method.getName())) {
-                if (hasMatchingParametersMethod(method)) {
-                    return MethodUtils.invokeMethod(target, methodName, parameters);
-                } else {
-                    return MethodUtils.invokeMethod(target, methodName);
+            if (isSupported(method)) {
+                TargetMethod targetMethod = targetMethods.get(method);
+                if (targetMethod == null) {
+                    // a method of Object
+                    targetMethod = getTargetMethod(target.getClass(), methodName, method.getParameterTypes());
+                    targetMethods.put(method, targetMethod);
                 }
+                return targetMethod.invoke(target, parameters);
             }
             return null;
         }
 
         /**
-         * Checks whether a method for the passed in parameters can be found.
+         * Checks whether a listener method is bound to the target.
          *
-         * @param method the listener method invoked
-         * @return a flag whether the parameters could be matched
+         * @param method the listener method
+         * @return a flag whether events of this type are passed to the target
          */
-        private boolean hasMatchingParametersMethod(final Method method) {
-            return MethodUtils.getAccessibleMethod(target.getClass(), methodName, method.getParameterTypes()) != null;
+        private boolean isSupported(final Method method) {
+            return eventTypes.isEmpty() || eventTypes.contains(method.getName());
         }
     }
 }
@@ -0,0 +1,681 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Generates multicasters: classes implementing a listener interface, whose
+ * methods call the same method of each listener in an array.</p>
+ *
+ * <p>For a listener interface such as {@code VetoableChangeListener} the
+ * generated class is equivalent to:</p>
+ *
+ * <pre>
+ * public final class EventMulticaster$1 implements VetoableChangeListener {
+ *     private final AtomicReference listeners;
+ *
+ *     public EventMulticaster$1(AtomicReference listeners) {
+ *         this.listeners = listeners;
+ *     }
+ *
+ *     public void vetoableChange(PropertyChangeEvent e) {
+ *         Object[] array = (Object[]) listeners.get();
+ *         for (int i = 0; i &lt; array.length; i++) {
+ *             ((VetoableChangeListener) array[i]).vetoableChange(e);
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>The arguments are passed on as they are, so firing an event allocates
+ * nothing. Methods with a result return zero, <code>false</code> or
+ * <code>null</code>. The class is generated once for each listener interface,
+ * in a class loader whose parent is the class loader of the interface, and it
+ * only uses classes of the Java runtime, so that it does not depend on the
+ * class loader of this library.</p>
+ *
+ * @since 3.2
+ * @version $Id$
+ */
+final class MulticasterGenerator {
+
+    /** The internal name of the superclass. */
+    private static final String OBJECT = "java/lang/Object";
+
+    /** The internal name of the type of the field holding the listeners. */
+    private static final String REFERENCE = "java/util/concurrent/atomic/AtomicReference";
+
+    /** The name of the field holding the listeners. */
+    private static final String FIELD = "listeners";
+
+    /** The constructors of the multicasters, or null for the interfaces without one. */
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(final Class<?> listenerInterface) {
+            return generate(listenerInterface);
+        }
+    };
+
+    /** The counter for the names of the generated classes. */
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    /**
+     * <p>MulticasterGenerator instances should NOT be constructed in standard
+     * programming.</p>
+     */
+    private MulticasterGenerator() {
+    }
+
+    /**
+     * <p>Creates a multicaster for a listener interface.</p>
+     *
+     * @param <L> the type of the listener interface
+     * @param listenerInterface the listener interface
+     * @param listeners holds the array of listeners to which the events are passed
+     * @return the multicaster, or <code>null</code> if it cannot be generated for
+     *  this interface, for instance because it is not public
+     */
+    static <L> L newMulticaster(final Class<L> listenerInterface, final AtomicReference<Object[]> listeners) {
+        final Constructor<?> constructor = CONSTRUCTORS.get(listenerInterface);
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return listenerInterface.cast(constructor.newInstance(listeners));
+        } catch (final Exception ex) {
+            return null;
+        } catch (final LinkageError err) {
+            return null;
+        }
+    }
+
+    /**
+     * <p>Generates and loads the multicaster class of a listener interface.</p>
+     *
+     * @param listenerInterface the listener interface
+     * @return the constructor of the class, or <code>null</code> if it cannot be
+     *  generated
+     */
+    private static Constructor<?> generate(final Class<?> listenerInterface) {
+        if (!listenerInterface.isInterface() || !Modifier.isPublic(listenerInterface.getModifiers())) {
+            return null;
+        }
+        final String name = MulticasterGenerator.class.getPackage().getName().replace('.', '/')
+                + "/EventMulticaster$" + COUNTER.incrementAndGet();
+        try {
+            final byte[] bytes = new ClassWriter(name, listenerInterface).toByteArray();
+            final Class<?> multicaster = new GeneratorClassLoader(listenerInterface.getClassLoader())
+                    .define(name.replace('/', '.'), bytes);
+            return multicaster.getConstructor(AtomicReference.class);
+        } catch (final Exception ex) {
+            return null;
+        } catch (final LinkageError err) {
+            // the interface or a type in its methods is not accessible
+            return null;
+        }
+    }
+
+    /**
+     * <p>The class loader of a generated class.</p>
+     */
+    private static final class GeneratorClassLoader extends ClassLoader {
+
+        /**
+         * <p>Creates a new class loader.</p>
+         *
+         * @param parent the class loader of the listener interface
+         */
+        GeneratorClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        /**
+         * <p>Defines the generated class.</p>
+         *
+         * @param name the binary name of the class
+         * @param bytes the class file
+         * @return the class
+         */
+        Class<?> define(final String name, final byte[] bytes) {
+            final Class<?> result = defineClass(name, bytes, 0, bytes.length);
+            resolveClass(result);
+            return result;
+        }
+    }
+
+    /**
+     * <p>Writes the class file of a multicaster.</p>
+     */
+    private static final class ClassWriter {
+        /** Constant pool tag of a UTF-8 string. */
+        private static final int UTF8 = 1;
+        /** Constant pool tag of a class. */
+        private static final int CLASS = 7;
+        /** Constant pool tag of a field reference. */
+        private static final int FIELD_REF = 9;
+        /** Constant pool tag of a method reference. */
+        private static final int METHOD_REF = 10;
+        /** Constant pool tag of an interface method reference. */
+        private static final int INTERFACE_METHOD_REF = 11;
+        /** Constant pool tag of a name and type. */
+        private static final int NAME_AND_TYPE = 12;
+
+        /** The stack map frame type listing all locals. */
+        private static final int FULL_FRAME = 255;
+        /** The verification type of an int. */
+        private static final int ITEM_INTEGER = 1;
+        /** The verification type of a float. */
+        private static final int ITEM_FLOAT = 2;
+        /** The verification type of a double. */
+        private static final int ITEM_DOUBLE = 3;
+        /** The verification type of a long. */
+        private static final int ITEM_LONG = 4;
+        /** The verification type of a reference. */
+        private static final int ITEM_OBJECT = 7;
+
+        /** The constant pool. */
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        /** Writes the constant pool. */
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+        /** The indexes of the constants written. */
+        private final Map<String, Integer> constants = new HashMap<String, Integer>();
+        /** The index of the next constant. */
+        private int nextConstant = 1;
+
+        /** The methods. */
+        private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+        /** Writes the methods. */
+        private final DataOutputStream methods = new DataOutputStream(methodBytes);
+        /** The number of methods. */
+        private int methodCount;
+
+        /** The internal name of the generated class. */
+        private final String name;
+        /** The listener interface. */
+        private final Class<?> listenerInterface;
+        /** The internal name of the listener interface. */
+        private final String interfaceName;
+
+        /**
+         * <p>Writes the methods of a multicaster.</p>
+         *
+         * @param name the internal name of the generated class
+         * @param listenerInterface the listener interface
+         * @throws IOException if an error occurs
+         */
+        ClassWriter(final String name, final Class<?> listenerInterface) throws IOException {
+            this.name = name;
+            this.listenerInterface = listenerInterface;
+            interfaceName = internalName(listenerInterface);
+            writeConstructor();
+            // methods inherited from several interfaces are implemented once
+            final Map<String, Method> listenerMethods = new LinkedHashMap<String, Method>();
+            for (final Method method : listenerInterface.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    listenerMethods.put(method.getName() + descriptor(method), method);
+                }
+            }
+            for (final Method method : listenerMethods.values()) {
+                writeMethod(method);
+            }
+        }
+
+        /**
+         * <p>Returns the class file.</p>
+         *
+         * @return the bytes of the class file
+         * @throws IOException if an error occurs
+         */
+        byte[] toByteArray() throws IOException {
+            final int thisClass = classConstant(name);
+            final int superClass = classConstant(OBJECT);
+            final int interfaceClass = classConstant(interfaceName);
+            final int fieldName = utf8(FIELD);
+            final int fieldType = utf8("L" + REFERENCE + ";");
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            // Java 8
+            out.writeShort(52);
+            out.writeShort(nextConstant);
+            pool.flush();
+            poolBytes.writeTo(out);
+            // public final super
+            out.writeShort(0x0031);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+            // private final listeners
+            out.writeShort(1);
+            out.writeShort(0x0012);
+            out.writeShort(fieldName);
+            out.writeShort(fieldType);
+            out.writeShort(0);
+            out.writeShort(methodCount);
+            methods.flush();
+            methodBytes.writeTo(out);
+            // no attributes
+            out.writeShort(0);
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        /**
+         * <p>Writes the constructor storing the listeners.</p>
+         *
+         * @throws IOException if an error occurs
+         */
+        private void writeConstructor() throws IOException {
+            final ByteArrayOutputStream code = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(code);
+            // super()
+            out.writeByte(0x2a); // aload_0
+            out.writeByte(0xb7); // invokespecial
+            out.writeShort(memberConstant(METHOD_REF, OBJECT, "<init>", "()V"));
+            // this.listeners = listeners
+            out.writeByte(0x2a); // aload_0
+            out.writeByte(0x2b); // aload_1
+            out.writeByte(0xb5); // putfield
+            out.writeShort(memberConstant(FIELD_REF, name, FIELD, "L" + REFERENCE + ";"));
+            out.writeByte(0xb1); // return
+            out.flush();
+            writeMethod(0x0001, "<init>", "(L" + REFERENCE + ";)V", 2, 2, code.toByteArray(), null);
+        }
+
+        /**
+         * <p>Writes a listener method, calling the method of each listener.</p>
+         *
+         * @param method the listener method
+         * @throws IOException if an error occurs
+         */
+        private void writeMethod(final Method method) throws IOException {
+            final Class<?>[] params = method.getParameterTypes();
+            int argSlots = 0;
+            for (final Class<?> param : params) {
+                argSlots += slots(param);
+            }
+            final int arrayLocal = 1 + argSlots;
+            final int indexLocal = arrayLocal + 1;
+
+            final ByteArrayOutputStream code = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(code);
+            // Object[] array = (Object[]) listeners.get()
+            out.writeByte(0x2a); // aload_0
+            out.writeByte(0xb4); // getfield
+            out.writeShort(memberConstant(FIELD_REF, name, FIELD, "L" + REFERENCE + ";"));
+            out.writeByte(0xb6); // invokevirtual
+            out.writeShort(memberConstant(METHOD_REF, REFERENCE, "get", "()Ljava/lang/Object;"));
+            out.writeByte(0xc0); // checkcast
+            out.writeShort(classConstant("[Ljava/lang/Object;"));
+            writeLocal(out, 0x3a, arrayLocal); // astore
+            // int i = 0
+            out.writeByte(0x03); // iconst_0
+            writeLocal(out, 0x36, indexLocal); // istore
+
+            // loop: if (i >= array.length) goto end
+            final int loop = out.size();
+            writeLocal(out, 0x15, indexLocal); // iload
+            writeLocal(out, 0x19, arrayLocal); // aload
+            out.writeByte(0xbe); // arraylength
+            final int exitJump = out.size();
+            out.writeByte(0xa2); // if_icmpge
+            out.writeShort(0); // patched below
+
+            // ((L) array[i]).method(args)
+            writeLocal(out, 0x19, arrayLocal); // aload
+            writeLocal(out, 0x15, indexLocal); // iload
+            out.writeByte(0x32); // aaload
+            out.writeByte(0xc0); // checkcast
+            out.writeShort(classConstant(interfaceName));
+            int local = 1;
+            for (final Class<?> param : params) {
+                writeLocal(out, loadOpcode(param), local);
+                local += slots(param);
+            }
+            out.writeByte(0xb9); // invokeinterface
+            out.writeShort(memberConstant(INTERFACE_METHOD_REF, internalName(method.getDeclaringClass()),
+                    method.getName(), descriptor(method)));
+            out.writeByte(1 + argSlots);
+            out.writeByte(0);
+            final int resultSlots = slots(method.getReturnType());
+            if (resultSlots == 1) {
+                out.writeByte(0x57); // pop
+            } else if (resultSlots == 2) {
+                out.writeByte(0x58); // pop2
+            }
+
+            // i++, goto loop
+            out.writeByte(0x84); // iinc
+            if (indexLocal > 0xff) {
+                throw new IOException("Too many arguments: " + method);
+            }
+            out.writeByte(indexLocal);
+            out.writeByte(1);
+            final int backJump = out.size();
+            out.writeByte(0xa7); // goto
+            out.writeShort(loop - backJump);
+
+            // end: return a default value
+            final int end = out.size();
+            writeReturn(out, method.getReturnType());
+            out.flush();
+
+            final byte[] bytes = code.toByteArray();
+            final int exitOffset = end - exitJump;
+            bytes[exitJump + 1] = (byte) (exitOffset >> 8);
+            bytes[exitJump + 2] = (byte) exitOffset;
+
+            // the same locals at the start and the end of the loop
+            final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            final DataOutputStream frameOut = new DataOutputStream(frames);
+            frameOut.writeShort(2);
+            writeFrame(frameOut, loop, params, arrayLocal);
+            writeFrame(frameOut, end - loop - 1, params, arrayLocal);
+            frameOut.flush();
+
+            final int maxStack = Math.max(2, 1 + argSlots);
+            writeMethod(0x0001, method.getName(), descriptor(method), maxStack, indexLocal + 1, bytes,
+                    frames.toByteArray());
+        }
+
+        /**
+         * <p>Writes a stack map frame of the loop of a listener method.</p>
+         *
+         * @param out the output
+         * @param offsetDelta the offset of the frame relative to the previous one
+         * @param params the parameter types of the method
+         * @param arrayLocal the local variable holding the array
+         * @throws IOException if an error occurs
+         */
+        private void writeFrame(final DataOutputStream out, final int offsetDelta, final Class<?>[] params,
+                final int arrayLocal) throws IOException {
+            out.writeByte(FULL_FRAME);
+            out.writeShort(offsetDelta);
+            out.writeShort(params.length + 3);
+            out.writeByte(ITEM_OBJECT);
+            out.writeShort(classConstant(name));
+            for (final Class<?> param : params) {
+                writeVerificationType(out, param);
+            }
+            out.writeByte(ITEM_OBJECT);
+            out.writeShort(classConstant("[Ljava/lang/Object;"));
+            out.writeByte(ITEM_INTEGER);
+            // empty stack
+            out.writeShort(0);
+        }
+
+        /**
+         * <p>Writes the verification type of a parameter.</p>
+         *
+         * @param out the output
+         * @param type the parameter type
+         * @throws IOException if an error occurs
+         */
+        private void writeVerificationType(final DataOutputStream out, final Class<?> type) throws IOException {
+            if (type == long.class) {
+                out.writeByte(ITEM_LONG);
+            } else if (type == double.class) {
+                out.writeByte(ITEM_DOUBLE);
+            } else if (type == float.class) {
+                out.writeByte(ITEM_FLOAT);
+            } else if (type.isPrimitive()) {
+                out.writeByte(ITEM_INTEGER);
+            } else {
+                out.writeByte(ITEM_OBJECT);
+                out.writeShort(classConstant(internalName(type)));
+            }
+        }
+
+        /**
+         * <p>Writes the instructions returning the default value of a type.</p>
+         *
+         * @param out the output
+         * @param type the return type
+         * @throws IOException if an error occurs
+         */
+        private void writeReturn(final DataOutputStream out, final Class<?> type) throws IOException {
+            if (type == void.class) {
+                out.writeByte(0xb1); // return
+            } else if (type == long.class) {
+                out.writeByte(0x09); // lconst_0
+                out.writeByte(0xad); // lreturn
+            } else if (type == double.class) {
+                out.writeByte(0x0e); // dconst_0
+                out.writeByte(0xaf); // dreturn
+            } else if (type == float.class) {
+                out.writeByte(0x0b); // fconst_0
+                out.writeByte(0xae); // freturn
+            } else if (type.isPrimitive()) {
+                out.writeByte(0x03); // iconst_0
+                out.writeByte(0xac); // ireturn
+            } else {
+                out.writeByte(0x01); // aconst_null
+                out.writeByte(0xb0); // areturn
+            }
+        }
+
+        /**
+         * <p>Writes a method with its code.</p>
+         *
+         * @param access the access flags
+         * @param methodName the name of the method
+         * @param descriptor the descriptor of the method
+         * @param maxStack the maximum depth of the operand stack
+         * @param maxLocals the number of local variables
+         * @param code the bytecode
+         * @param frames the stack map frames, or <code>null</code> if there is no branch
+         * @throws IOException if an error occurs
+         */
+        private void writeMethod(final int access, final String methodName, final String descriptor,
+                final int maxStack, final int maxLocals, final byte[] code, final byte[] frames)
+                throws IOException {
+            methods.writeShort(access);
+            methods.writeShort(utf8(methodName));
+            methods.writeShort(utf8(descriptor));
+            methods.writeShort(1);
+            methods.writeShort(utf8("Code"));
+            final int framesLength = frames == null ? 0 : 6 + frames.length;
+            methods.writeInt(12 + code.length + framesLength);
+            methods.writeShort(maxStack);
+            methods.writeShort(maxLocals);
+            methods.writeInt(code.length);
+            methods.write(code);
+            // no exception handlers
+            methods.writeShort(0);
+            if (frames == null) {
+                methods.writeShort(0);
+            } else {
+                methods.writeShort(1);
+                methods.writeShort(utf8("StackMapTable"));
+                methods.writeInt(frames.length);
+                methods.write(frames);
+            }
+            methodCount++;
+        }
+
+        /**
+         * <p>Writes an instruction accessing a local variable.</p>
+         *
+         * @param out the output
+         * @param opcode the opcode of the instruction taking the index as operand
+         * @param index the index of the local variable
+         * @throws IOException if an error occurs
+         */
+        private static void writeLocal(final DataOutputStream out, final int opcode, final int index)
+                throws IOException {
+            if (index > 0xff) {
+                out.writeByte(0xc4); // wide
+                out.writeByte(opcode);
+                out.writeShort(index);
+            } else {
+                out.writeByte(opcode);
+                out.writeByte(index);
+            }
+        }
+
+        /**
+         * <p>Returns the opcode loading a parameter of a type.</p>
+         *
+         * @param type the parameter type
+         * @return the opcode taking the index of the local variable as operand
+         */
+        private static int loadOpcode(final Class<?> type) {
+            if (type == long.class) {
+                return 0x16; // lload
+            } else if (type == double.class) {
+                return 0x18; // dload
+            } else if (type == float.class) {
+                return 0x17; // fload
+            } else if (type.isPrimitive()) {
+                return 0x15; // iload
+            }
+            return 0x19; // aload
+        }
+
+        /**
+         * <p>Returns the number of local variable or stack slots of a type.</p>
+         *
+         * @param type the type
+         * @return the number of slots
+         */
+        private static int slots(final Class<?> type) {
+            if (type == void.class) {
+                return 0;
+            }
+            return type == long.class || type == double.class ? 2 : 1;
+        }
+
+        /**
+         * <p>Returns the descriptor of a method.</p>
+         *
+         * @param method the method
+         * @return the descriptor
+         */
+        private static String descriptor(final Method method) {
+            return MethodType.methodType(method.getReturnType(), method.getParameterTypes())
+                    .toMethodDescriptorString();
+        }
+
+        /**
+         * <p>Returns the internal name of a class, as used in the constant pool.</p>
+         *
+         * @param type the class
+         * @return the internal name
+         */
+        private static String internalName(final Class<?> type) {
+            return type.getName().replace('.', '/');
+        }
+
+        /**
+         * <p>Adds a UTF-8 constant unless it exists.</p>
+         *
+         * @param value the string
+         * @return the index of the constant
+         * @throws IOException if an error occurs
+         */
+        private int utf8(final String value) throws IOException {
+            final String key = "U" + value;
+            Integer index = constants.get(key);
+            if (index == null) {
+                pool.writeByte(UTF8);
+                pool.writeUTF(value);
+                index = add(key);
+            }
+            return index.intValue();
+        }
+
+        /**
+         * <p>Adds a class constant unless it exists.</p>
+         *
+         * @param internalName the internal name of the class
+         * @return the index of the constant
+         * @throws IOException if an error occurs
+         */
+        private int classConstant(final String internalName) throws IOException {
+            final String key = "C" + internalName;
+            Integer index = constants.get(key);
+            if (index == null) {
+                final int nameIndex = utf8(internalName);
+                pool.writeByte(CLASS);
+                pool.writeShort(nameIndex);
+                index = add(key);
+            }
+            return index.intValue();
+        }
+
+        /**
+         * <p>Adds a field or method reference constant unless it exists.</p>
+         *
+         * @param tag the tag of the constant
+         * @param owner the internal name of the class declaring the member
+         * @param memberName the name of the member
+         * @param descriptor the descriptor of the member
+         * @return the index of the constant
+         * @throws IOException if an error occurs
+         */
+        private int memberConstant(final int tag, final String owner, final String memberName,
+                final String descriptor) throws IOException {
+            final String key = tag + owner + "." + memberName + descriptor;
+            Integer index = constants.get(key);
+            if (index == null) {
+                final int classIndex = classConstant(owner);
+                final String nameAndTypeKey = "N" + memberName + descriptor;
+                Integer nameAndType = constants.get(nameAndTypeKey);
+                if (nameAndType == null) {
+                    final int nameIndex = utf8(memberName);
+                    final int typeIndex = utf8(descriptor);
+                    pool.writeByte(NAME_AND_TYPE);
+                    pool.writeShort(nameIndex);
+                    pool.writeShort(typeIndex);
+                    nameAndType = add(nameAndTypeKey);
+                }
+                pool.writeByte(tag);
+                pool.writeShort(classIndex);
+                pool.writeShort(nameAndType.intValue());
+                index = add(key);
+            }
+            return index.intValue();
+        }
+
+        /**
+         * <p>Records the index of the constant just written.</p>
+         *
+         * @param key the key of the constant
+         * @return the index of the constant
+         */
+        private Integer add(final String key) {
+            final Integer index = Integer.valueOf(nextConstant++);
+            constants.put(key, index);
+            return index;
+        }
+    }
+}
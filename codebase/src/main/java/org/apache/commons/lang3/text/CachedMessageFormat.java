@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.text;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.ObjectUtils;
+
+/**
+ * <p>A thread-safe, cached template for an {@link ExtendedMessageFormat}.</p>
+ *
+ * <p>Constructing an <code>ExtendedMessageFormat</code> parses the pattern and
+ * consults the registry of <code>FormatFactory</code> instances every time.
+ * Instances of this class are obtained through the <code>getInstance</code>
+ * methods, which parse each combination of pattern, locale and registry only
+ * once. The registry is compared by identity, so the same <code>Map</code>
+ * instance should be passed on every call and must not be changed after
+ * first use. At most a few hundred templates are cached; when the cache is
+ * full it is cleared, so that patterns built at runtime do not grow it
+ * without limit.</p>
+ *
+ * <p>As <code>MessageFormat</code> is not thread-safe, the parsed format is
+ * never used directly. Each call to {@link #format(Object...)} borrows a clone
+ * from a small pool, or clones the parsed format if the pool is empty, and
+ * returns it to the pool afterwards.</p>
+ *
+ * @since 3.2
+ * @version $Id$
+ */
+public final class CachedMessageFormat {
+
+    /** The maximum number of idle formats to pool per template. */
+    private static final int MAX_POOL_SIZE = 16;
+
+    /** The maximum number of cached templates, before the cache is cleared. */
+    private static final int MAX_CACHED = 256;
+
+    /** The cache of templates. */
+    private static final ConcurrentMap<Key, CachedMessageFormat> cInstanceCache
+        = new ConcurrentHashMap<Key, CachedMessageFormat>(7);
+
+    /** The parsed format, cloned and never used for formatting. */
+    private final ExtendedMessageFormat prototype;
+    /** The idle clones of the prototype. */
+    private final Queue<ExtendedMessageFormat> pool = new ConcurrentLinkedQueue<ExtendedMessageFormat>();
+    /** The approximate size of the pool. */
+    private final AtomicInteger poolSize = new AtomicInteger();
+
+    //-----------------------------------------------------------------------
+    /**
+     * <p>Gets a cached format for the pattern using the default locale.</p>
+     *
+     * @param pattern  the pattern to use, not null
+     * @return the cached format
+     * @throws IllegalArgumentException in case of a bad pattern
+     */
+    public static CachedMessageFormat getInstance(final String pattern) {
+        return getInstance(pattern, Locale.getDefault(), null);
+    }
+
+    /**
+     * <p>Gets a cached format for the pattern and locale.</p>
+     *
+     * @param pattern  the pattern to use, not null
+     * @param locale  the locale to use, may be null
+     * @return the cached format
+     * @throws IllegalArgumentException in case of a bad pattern
+     */
+    public static CachedMessageFormat getInstance(final String pattern, final Locale locale) {
+        return getInstance(pattern, locale, null);
+    }
+
+    /**
+     * <p>Gets a cached format for the pattern, locale and registry.</p>
+     *
+     * @param pattern  the pattern to use, not null
+     * @param locale  the locale to use, may be null
+     * @param registry  the registry of format factories, compared by identity, may be null
+     * @return the cached format
+     * @throws IllegalArgumentException in case of a bad pattern
+     */
+    public static CachedMessageFormat getInstance(final String pattern, final Locale locale,
+            final Map<String, ? extends FormatFactory> registry) {
+        if (pattern == null) {
+            throw new NullPointerException("pattern must not be null");
+        }
+        final Key key = new Key(pattern, locale, registry);
+        CachedMessageFormat format = cInstanceCache.get(key);
+        if (format == null) {
+            format = new CachedMessageFormat(new ExtendedMessageFormat(pattern, locale, registry));
+            if (cInstanceCache.size() >= MAX_CACHED) {
+                // patterns built on the fly should not grow the cache forever,
+                // nor keep their registries reachable; the patterns in use are
+                // cached again on their next call
+                cInstanceCache.clear();
+            }
+            final CachedMessageFormat previousValue = cInstanceCache.putIfAbsent(key, format);
+            if (previousValue != null) {
+                // another thread snuck in and did the same work
+                format = previousValue;
+            }
+        }
+        return format;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Constructs a template around a parsed format.
+     *
+     * @param prototype  the parsed format, not null
+     */
+    private CachedMessageFormat(final ExtendedMessageFormat prototype) {
+        this.prototype = prototype;
+    }
+
+    /**
+     * <p>Formats an array of objects, as {@link java.text.MessageFormat#format(Object)}.</p>
+     *
+     * <p>This method is thread-safe.</p>
+     *
+     * @param arguments  the objects to format, may be null
+     * @return the formatted message
+     * @throws IllegalArgumentException if an argument cannot be formatted
+     */
+    public String format(final Object... arguments) {
+        ExtendedMessageFormat format = pool.poll();
+        if (format == null) {
+            format = newFormat();
+        } else {
+            poolSize.decrementAndGet();
+        }
+        final String result = format.format(arguments);
+        if (poolSize.incrementAndGet() <= MAX_POOL_SIZE) {
+            pool.offer(format);
+        } else {
+            poolSize.decrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * <p>Gets a new, unshared copy of the parsed format.</p>
+     *
+     * <p>The copy is not thread-safe, but can be used without reparsing
+     * the pattern.</p>
+     *
+     * @return a new format for the pattern, locale and registry of this template
+     */
+    public ExtendedMessageFormat newFormat() {
+        return (ExtendedMessageFormat) prototype.clone();
+    }
+
+    /**
+     * <p>Gets the pattern of the parsed format.</p>
+     *
+     * @return the pattern, as {@link ExtendedMessageFormat#toPattern()}
+     */
+    public String toPattern() {
+        return prototype.toPattern();
+    }
+
+    /**
+     * <p>Gets the locale of the parsed format.</p>
+     *
+     * @return the locale, may be null
+     */
+    public Locale getLocale() {
+        return prototype.getLocale();
+    }
+
+    /**
+     * <p>Gets a debugging string version of this template.</p>
+     *
+     * @return a debugging string
+     */
+    @Override
+    public String toString() {
+        return "CachedMessageFormat[" + toPattern() + "]";
+    }
+
+    // ----------------------------------------------------------------------
+    /**
+     * <p>Cache key comparing the pattern and locale by value and the
+     * registry by identity.</p>
+     */
+    private static final class Key {
+        private final String pattern;
+        private final Locale locale;
+        private final Map<String, ? extends FormatFactory> registry;
+        private final int hashCode;
+
+        /**
+         * Constructs a key.
+         *
+         * @param pattern  the pattern, not null
+         * @param locale  the locale, may be null
+         * @param registry  the registry, may be null
+         */
+        Key(final String pattern, final Locale locale, final Map<String, ? extends FormatFactory> registry) {
+            this.pattern = pattern;
+            this.locale = locale;
+            this.registry = registry;
+            this.hashCode = (pattern.hashCode() * 7 + ObjectUtils.hashCode(locale)) * 7
+                    + System.identityHashCode(registry);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return registry == other.registry
+                    && pattern.equals(other.pattern)
+                    && ObjectUtils.equals(locale, other.locale);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+}
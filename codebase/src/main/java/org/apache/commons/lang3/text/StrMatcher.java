@@ -16,8 +16,6 @@
  */
 package org.apache.commons.lang3.text;
 
-import java.util.Arrays;
-
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -196,6 +194,150 @@ public abstract class StrMatcher {
         return new CharSetMatcher(chars.toCharArray());
     }
 
+    /**
+     * Returns a matcher which matches if any of the given matchers match.
+     * <p>
+     * The matchers are tried in order and the length of the first match is
+     * returned. If every matcher only ever matches a single character, such
+     * as those returned by {@link #charMatcher(char)} and
+     * {@link #charSetMatcher(char...)}, the result is compiled to a single
+     * lookup table rather than a chain of matchers.
+     *
+     * @param matchers  the matchers to combine, null or empty matches nothing
+     * @return a new matcher matching any of the given matchers
+     * @throws IllegalArgumentException if any matcher is null
+     * @since 3.2
+     */
+    public static StrMatcher orMatcher(final StrMatcher... matchers) {
+        if (matchers == null || matchers.length == 0) {
+            return NONE_MATCHER;
+        }
+        validateMatchers(matchers);
+        if (matchers.length == 1) {
+            return matchers[0];
+        }
+        long[] table = new long[0];
+        for (final StrMatcher matcher : matchers) {
+            final long[] other = toTable(matcher);
+            if (other == null) {
+                return new OrMatcher(matchers);
+            }
+            if (other.length > table.length) {
+                final long[] tmp = other.clone();
+                for (int i = 0; i < table.length; i++) {
+                    tmp[i] |= table[i];
+                }
+                table = tmp;
+            } else {
+                for (int i = 0; i < other.length; i++) {
+                    table[i] |= other[i];
+                }
+            }
+        }
+        return new CharSetMatcher(table);
+    }
+
+    /**
+     * Returns a matcher which matches only if all of the given matchers match.
+     * <p>
+     * The length of the shortest match is returned. If every matcher only
+     * ever matches a single character the result is compiled to a single
+     * lookup table rather than a chain of matchers.
+     *
+     * @param matchers  the matchers to combine, null or empty matches nothing
+     * @return a new matcher matching only where all of the given matchers match
+     * @throws IllegalArgumentException if any matcher is null
+     * @since 3.2
+     */
+    public static StrMatcher andMatcher(final StrMatcher... matchers) {
+        if (matchers == null || matchers.length == 0) {
+            return NONE_MATCHER;
+        }
+        validateMatchers(matchers);
+        if (matchers.length == 1) {
+            return matchers[0];
+        }
+        long[] table = null;
+        for (final StrMatcher matcher : matchers) {
+            final long[] other = toTable(matcher);
+            if (other == null) {
+                return new AndMatcher(matchers);
+            }
+            if (table == null) {
+                table = other.clone();
+            } else {
+                final long[] tmp = new long[Math.min(table.length, other.length)];
+                for (int i = 0; i < tmp.length; i++) {
+                    tmp[i] = table[i] & other[i];
+                }
+                table = tmp;
+            }
+        }
+        return new CharSetMatcher(table);
+    }
+
+    /**
+     * Returns a matcher which matches a single character wherever the given
+     * matcher does not match.
+     * <p>
+     * If the given matcher only ever matches a single character the result
+     * is compiled to a lookup table.
+     *
+     * @param matcher  the matcher to negate, null matches every character
+     * @return a new matcher matching one character where the given matcher does not
+     * @since 3.2
+     */
+    public static StrMatcher notMatcher(final StrMatcher matcher) {
+        final long[] table = matcher == null ? new long[0] : toTable(matcher);
+        if (table == null) {
+            return new NotMatcher(matcher);
+        }
+        final long[] negated = new long[CharSetMatcher.TABLE_SIZE];
+        for (int i = 0; i < negated.length; i++) {
+            negated[i] = i < table.length ? ~table[i] : -1L;
+        }
+        return new CharSetMatcher(negated);
+    }
+
+    /**
+     * Checks that none of the matchers to combine is null.
+     *
+     * @param matchers  the matchers to check, not null
+     * @throws IllegalArgumentException if any matcher is null
+     */
+    private static void validateMatchers(final StrMatcher[] matchers) {
+        for (final StrMatcher matcher : matchers) {
+            if (matcher == null) {
+                throw new IllegalArgumentException("The matchers must not contain null");
+            }
+        }
+    }
+
+    /**
+     * Gets the lookup table equivalent to a single character matcher.
+     * <p>
+     * The returned array must not be changed by the caller.
+     *
+     * @param matcher  the matcher to convert, not null
+     * @return the table of matching characters, null if the matcher may
+     *  match more than one character or is not known to this class
+     */
+    private static long[] toTable(final StrMatcher matcher) {
+        if (matcher instanceof CharSetMatcher) {
+            return ((CharSetMatcher) matcher).table;
+        }
+        if (matcher instanceof CharMatcher) {
+            return CharSetMatcher.createTable(new char[] {((CharMatcher) matcher).ch});
+        }
+        if (matcher instanceof NoMatcher) {
+            return new long[0];
+        }
+        if (matcher instanceof TrimMatcher) {
+            return new long[] {(1L << 33) - 1};
+        }
+        return null;
+    }
+
     /**
      * Constructor that creates a matcher from a string.
      *
@@ -273,8 +415,14 @@ public abstract class StrMatcher {
      * Class used to define a set of characters for matching purposes.
      */
     static final class CharSetMatcher extends StrMatcher {
-        /** The set of characters to match. */
-        private final char[] chars;
+        /** The number of words needed to hold a bit for every <code>char</code>. */
+        static final int TABLE_SIZE = (Character.MAX_VALUE >>> 6) + 1;
+
+        /**
+         * The set of characters to match, one bit per character, trimmed
+         * after the word holding the highest character in the set.
+         */
+        private final long[] table;
 
         /**
          * Constructor that creates a matcher from a character array.
@@ -282,9 +430,37 @@ public abstract class StrMatcher {
          * @param chars  the characters to match, must not be null
          */
         CharSetMatcher(final char chars[]) {
+            this(createTable(chars));
+        }
+
+        /**
+         * Constructor that creates a matcher from a lookup table.
+         *
+         * @param table  the table of characters to match, not copied, must not be null
+         */
+        CharSetMatcher(final long[] table) {
             super();
-            this.chars = chars.clone();
-            Arrays.sort(this.chars);
+            this.table = table;
+        }
+
+        /**
+         * Creates the lookup table for a set of characters.
+         *
+         * @param chars  the characters to match, must not be null
+         * @return the lookup table, sized to hold the highest character
+         */
+        static long[] createTable(final char[] chars) {
+            int max = -1;
+            for (final char ch : chars) {
+                if (ch > max) {
+                    max = ch;
+                }
+            }
+            final long[] table = new long[(max >>> 6) + 1];
+            for (final char ch : chars) {
+                table[ch >>> 6] |= 1L << ch;
+            }
+            return table;
         }
 
         /**
@@ -298,7 +474,9 @@ public abstract class StrMatcher {
          */
         @Override
         public int isMatch(final char[] buffer, final int pos, final int bufferStart, final int bufferEnd) {
-            return Arrays.binarySearch(chars, buffer[pos]) >= 0 ? 1 : 0;
+            final char ch = buffer[pos];
+            final int word = ch >>> 6;
+            return word < table.length && (table[word] & 1L << ch) != 0 ? 1 : 0;
         }
     }
 
@@ -335,6 +513,121 @@ public abstract class StrMatcher {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Class used to match if any of a number of matchers match.
+     */
+    static final class OrMatcher extends StrMatcher {
+        /** The matchers to try in order. */
+        private final StrMatcher[] matchers;
+
+        /**
+         * Constructor that creates a matcher from other matchers.
+         *
+         * @param matchers  the matchers to combine, must not be null
+         */
+        OrMatcher(final StrMatcher[] matchers) {
+            super();
+            this.matchers = matchers.clone();
+        }
+
+        /**
+         * Returns the length of the first match of any matcher.
+         *
+         * @param buffer  the text content to match against, do not change
+         * @param pos  the starting position for the match, valid for buffer
+         * @param bufferStart  the first active index in the buffer, valid for buffer
+         * @param bufferEnd  the end index of the active buffer, valid for buffer
+         * @return the number of matching characters, zero for no match
+         */
+        @Override
+        public int isMatch(final char[] buffer, final int pos, final int bufferStart, final int bufferEnd) {
+            for (final StrMatcher matcher : matchers) {
+                final int len = matcher.isMatch(buffer, pos, bufferStart, bufferEnd);
+                if (len > 0) {
+                    return len;
+                }
+            }
+            return 0;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Class used to match only if all of a number of matchers match.
+     */
+    static final class AndMatcher extends StrMatcher {
+        /** The matchers which must all match. */
+        private final StrMatcher[] matchers;
+
+        /**
+         * Constructor that creates a matcher from other matchers.
+         *
+         * @param matchers  the matchers to combine, must not be null
+         */
+        AndMatcher(final StrMatcher[] matchers) {
+            super();
+            this.matchers = matchers.clone();
+        }
+
+        /**
+         * Returns the length of the shortest match if all matchers match.
+         *
+         * @param buffer  the text content to match against, do not change
+         * @param pos  the starting position for the match, valid for buffer
+         * @param bufferStart  the first active index in the buffer, valid for buffer
+         * @param bufferEnd  the end index of the active buffer, valid for buffer
+         * @return the number of matching characters, zero for no match
+         */
+        @Override
+        public int isMatch(final char[] buffer, final int pos, final int bufferStart, final int bufferEnd) {
+            int shortest = Integer.MAX_VALUE;
+            for (final StrMatcher matcher : matchers) {
+                final int len = matcher.isMatch(buffer, pos, bufferStart, bufferEnd);
+                if (len == 0) {
+                    return 0;
+                }
+                if (len < shortest) {
+                    shortest = len;
+                }
+            }
+            return shortest;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Class used to match a single character where another matcher does not match.
+     */
+    static final class NotMatcher extends StrMatcher {
+        /** The matcher to negate. */
+        private final StrMatcher matcher;
+
+        /**
+         * Constructor that creates a matcher negating another matcher.
+         *
+         * @param matcher  the matcher to negate, must not be null
+         */
+        NotMatcher(final StrMatcher matcher) {
+            super();
+            this.matcher = matcher;
+        }
+
+        /**
+         * Returns one if the negated matcher does not match.
+         *
+         * @param buffer  the text content to match against, do not change
+         * @param pos  the starting position for the match, valid for buffer
+         * @param bufferStart  the first active index in the buffer, valid for buffer
+         * @param bufferEnd  the end index of the active buffer, valid for buffer
+         * @return the number of matching characters, zero for no match
+         */
+        @Override
+        public int isMatch(final char[] buffer, final int pos, final int bufferStart, final int bufferEnd) {
+            return matcher.isMatch(buffer, pos, bufferStart, bufferEnd) == 0 ? 1 : 0;
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Class used to define a set of characters for matching purposes.
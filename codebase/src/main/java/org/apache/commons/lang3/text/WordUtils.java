@@ -16,6 +16,8 @@
  */
 package org.apache.commons.lang3.text;
 
+import java.io.IOException;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 
@@ -96,38 +98,85 @@ public class WordUtils {
             wrapLength = 1;
         }
         final int inputLineLength = str.length();
+        // at most one new line per wrapLength characters of input
+        final long estimate = inputLineLength + (long) (inputLineLength / wrapLength) * newLineStr.length();
+        final StringBuilder wrappedLine = new StringBuilder((int) Math.min(estimate, Integer.MAX_VALUE - 8));
+        try {
+            wrap(str, wrapLength, newLineStr, wrapLongWords, wrappedLine);
+        } catch (final IOException ioe) {
+            // this should never ever happen while writing to a StringBuilder
+            throw new RuntimeException(ioe);
+        }
+        return wrappedLine.toString();
+    }
+
+    /**
+     * <p>Wraps a single line of text, identifying words by <code>' '</code>,
+     * writing the result to an <code>Appendable</code>.</p>
+     * 
+     * <p>The output is identical to {@link #wrap(String, int, String, boolean)},
+     * but the input may be any <code>CharSequence</code>, such as a
+     * <code>java.nio.CharBuffer</code>, and each line is appended directly
+     * from the input without creating intermediate strings.</p>
+     * 
+     * <p>A <code>null</code> input appends nothing.</p>
+     *
+     * @param str  the text to be word wrapped, may be null
+     * @param wrapLength  the column to wrap the words at, less than 1 is treated as 1
+     * @param newLineStr  the string to insert for a new line, 
+     *  <code>null</code> uses the system property line separator
+     * @param wrapLongWords  true if long words (such as URLs) should be wrapped
+     * @param out  the <code>Appendable</code> to write the wrapped text to, not null
+     * @throws IllegalArgumentException if the <code>Appendable</code> is null
+     * @throws IOException if and only if the <code>Appendable</code> produces an IOException
+     * @since 3.2
+     */
+    public static void wrap(final CharSequence str, int wrapLength, String newLineStr, final boolean wrapLongWords,
+            final Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("The Appendable must not be null");
+        }
+        if (str == null) {
+            return;
+        }
+        if (newLineStr == null) {
+            newLineStr = SystemUtils.LINE_SEPARATOR;
+        }
+        if (wrapLength < 1) {
+            wrapLength = 1;
+        }
+        final int inputLineLength = str.length();
         int offset = 0;
-        final StringBuilder wrappedLine = new StringBuilder(inputLineLength + 32);
         
         while (inputLineLength - offset > wrapLength) {
             if (str.charAt(offset) == ' ') {
                 offset++;
                 continue;
             }
-            int spaceToWrapAt = str.lastIndexOf(' ', wrapLength + offset);
+            int spaceToWrapAt = lastIndexOfSpace(str, wrapLength + offset);
 
             if (spaceToWrapAt >= offset) {
                 // normal case
-                wrappedLine.append(str.substring(offset, spaceToWrapAt));
-                wrappedLine.append(newLineStr);
+                out.append(str, offset, spaceToWrapAt);
+                out.append(newLineStr);
                 offset = spaceToWrapAt + 1;
                 
             } else {
                 // really long word or URL
                 if (wrapLongWords) {
                     // wrap really long word one line at a time
-                    wrappedLine.append(str.substring(offset, wrapLength + offset));
-                    wrappedLine.append(newLineStr);
+                    out.append(str, offset, wrapLength + offset);
+                    out.append(newLineStr);
                     offset += wrapLength;
                 } else {
                     // do not wrap really long word, just extend beyond limit
-                    spaceToWrapAt = str.indexOf(' ', wrapLength + offset);
+                    spaceToWrapAt = indexOfSpace(str, wrapLength + offset);
                     if (spaceToWrapAt >= 0) {
-                        wrappedLine.append(str.substring(offset, spaceToWrapAt));
-                        wrappedLine.append(newLineStr);
+                        out.append(str, offset, spaceToWrapAt);
+                        out.append(newLineStr);
                         offset = spaceToWrapAt + 1;
                     } else {
-                        wrappedLine.append(str.substring(offset));
+                        out.append(str, offset, inputLineLength);
                         offset = inputLineLength;
                     }
                 }
@@ -135,9 +184,40 @@ public class WordUtils {
         }
 
         // Whatever is left in line is short enough to just pass through
-        wrappedLine.append(str.substring(offset));
+        out.append(str, offset, inputLineLength);
+    }
 
-        return wrappedLine.toString();
+    /**
+     * Finds the first space at or after an index.
+     *
+     * @param str  the text to search, not null
+     * @param start  the index to start searching from
+     * @return the index of the space, -1 if not found
+     */
+    private static int indexOfSpace(final CharSequence str, final int start) {
+        final int len = str.length();
+        for (int i = start; i < len; i++) {
+            if (str.charAt(i) == ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the last space at or before an index.
+     *
+     * @param str  the text to search, not null
+     * @param start  the index to start searching backwards from
+     * @return the index of the space, -1 if not found
+     */
+    private static int lastIndexOfSpace(final CharSequence str, final int start) {
+        for (int i = Math.min(start, str.length() - 1); i >= 0; i--) {
+            if (str.charAt(i) == ' ') {
+                return i;
+            }
+        }
+        return -1;
     }
 
     // Capitalizing
@@ -216,6 +296,55 @@ public class WordUtils {
         return new String(buffer);
     }
 
+    /**
+     * <p>Capitalizes all the whitespace separated words in a range of a
+     * character array, changing the array in place.</p>
+     *
+     * <p>Whitespace is defined by {@link Character#isWhitespace(char)}.</p>
+     *
+     * @param buffer  the characters to capitalize, may be null
+     * @param start  the first index to capitalize, inclusive
+     * @param end  the last index to capitalize, exclusive
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @see #capitalize(String)
+     * @since 3.2
+     */
+    public static void capitalizeInPlace(final char[] buffer, final int start, final int end) {
+        capitalizeInPlace(buffer, start, end, (char[]) null);
+    }
+
+    /**
+     * <p>Capitalizes all the delimiter separated words in a range of a
+     * character array, changing the array in place.</p>
+     *
+     * <p>This is the batch equivalent of {@link #capitalize(String, char...)}
+     * for callers that already hold the text in a buffer. The first character
+     * of the range is always treated as the start of a word.</p>
+     *
+     * @param buffer  the characters to capitalize, may be null
+     * @param start  the first index to capitalize, inclusive
+     * @param end  the last index to capitalize, exclusive
+     * @param delimiters  set of characters to determine capitalization, null means whitespace
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @since 3.2
+     */
+    public static void capitalizeInPlace(final char[] buffer, final int start, final int end, final char... delimiters) {
+        if (buffer == null || delimiters != null && delimiters.length == 0) {
+            return;
+        }
+        checkRange(buffer, start, end);
+        boolean capitalizeNext = true;
+        for (int i = start; i < end; i++) {
+            final char ch = buffer[i];
+            if (isDelimiter(ch, delimiters)) {
+                capitalizeNext = true;
+            } else if (capitalizeNext) {
+                buffer[i] = Character.toTitleCase(ch);
+                capitalizeNext = false;
+            }
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * <p>Converts all the whitespace separated words in a String into capitalized words, 
@@ -275,6 +404,59 @@ public class WordUtils {
         return capitalize(str, delimiters);
     }
 
+    /**
+     * <p>Converts all the whitespace separated words in a range of a character
+     * array into capitalized words, changing the array in place.</p>
+     *
+     * <p>Whitespace is defined by {@link Character#isWhitespace(char)}.</p>
+     *
+     * @param buffer  the characters to capitalize, may be null
+     * @param start  the first index to capitalize, inclusive
+     * @param end  the last index to capitalize, exclusive
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @see #capitalizeFully(String)
+     * @since 3.2
+     */
+    public static void capitalizeFullyInPlace(final char[] buffer, final int start, final int end) {
+        capitalizeFullyInPlace(buffer, start, end, (char[]) null);
+    }
+
+    /**
+     * <p>Converts all the delimiter separated words in a range of a character
+     * array into capitalized words, changing the array in place.</p>
+     *
+     * <p>This is the batch equivalent of {@link #capitalizeFully(String, char...)}.
+     * As the length of the range cannot change, characters are lowercased one
+     * at a time using {@link Character#toLowerCase(char)} rather than with the
+     * locale sensitive {@link String#toLowerCase()}.</p>
+     *
+     * @param buffer  the characters to capitalize, may be null
+     * @param start  the first index to capitalize, inclusive
+     * @param end  the last index to capitalize, exclusive
+     * @param delimiters  set of characters to determine capitalization, null means whitespace
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @since 3.2
+     */
+    public static void capitalizeFullyInPlace(final char[] buffer, final int start, final int end,
+            final char... delimiters) {
+        if (buffer == null || delimiters != null && delimiters.length == 0) {
+            return;
+        }
+        checkRange(buffer, start, end);
+        boolean capitalizeNext = true;
+        for (int i = start; i < end; i++) {
+            final char ch = buffer[i];
+            if (isDelimiter(ch, delimiters)) {
+                capitalizeNext = true;
+            } else if (capitalizeNext) {
+                buffer[i] = Character.toTitleCase(Character.toLowerCase(ch));
+                capitalizeNext = false;
+            } else {
+                buffer[i] = Character.toLowerCase(ch);
+            }
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * <p>Uncapitalizes all the whitespace separated words in a String.
@@ -474,6 +656,79 @@ public class WordUtils {
         return new String(buf, 0, count);
     }
 
+    /**
+     * <p>Extracts the initial letters from each whitespace separated word in
+     * a range of a character array, moving them to the start of the range
+     * in place.</p>
+     *
+     * <p>Whitespace is defined by {@link Character#isWhitespace(char)}.</p>
+     *
+     * @param buffer  the characters to get initials from, may be null
+     * @param start  the first index to read, inclusive
+     * @param end  the last index to read, exclusive
+     * @return the number of initials written, zero if null array input
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @see #initials(String)
+     * @since 3.2
+     */
+    public static int initialsInPlace(final char[] buffer, final int start, final int end) {
+        return initialsInPlace(buffer, start, end, (char[]) null);
+    }
+
+    /**
+     * <p>Extracts the initial letters from each word in a range of a character
+     * array, moving them to the start of the range in place.</p>
+     *
+     * <p>This is the batch equivalent of {@link #initials(String, char...)}.
+     * The initials are written from <code>start</code> onwards and the number
+     * written is returned, so the result is
+     * <code>new String(buffer, start, count)</code>. Characters after the
+     * initials are left unchanged.</p>
+     *
+     * @param buffer  the characters to get initials from, may be null
+     * @param start  the first index to read, inclusive
+     * @param end  the last index to read, exclusive
+     * @param delimiters  set of characters to determine words, null means whitespace
+     * @return the number of initials written, zero if null array input
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @since 3.2
+     */
+    public static int initialsInPlace(final char[] buffer, final int start, final int end, final char... delimiters) {
+        if (buffer == null || delimiters != null && delimiters.length == 0) {
+            return 0;
+        }
+        checkRange(buffer, start, end);
+        int count = start;
+        boolean lastWasGap = true;
+        for (int i = start; i < end; i++) {
+            final char ch = buffer[i];
+            if (isDelimiter(ch, delimiters)) {
+                lastWasGap = true;
+            } else if (lastWasGap) {
+                // count never passes i, so no unread character is overwritten
+                buffer[count++] = ch;
+                lastWasGap = false;
+            }
+        }
+        return count - start;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks that a range is valid for an array.
+     *
+     * @param buffer  the array, not null
+     * @param start  the start index, inclusive
+     * @param end  the end index, exclusive
+     * @throws IndexOutOfBoundsException if the range is invalid
+     */
+    private static void checkRange(final char[] buffer, final int start, final int end) {
+        if (start < 0 || end > buffer.length || start > end) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ") for length "
+                    + buffer.length);
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Is the character a delimiter.
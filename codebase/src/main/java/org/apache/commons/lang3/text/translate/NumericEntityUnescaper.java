@@ -113,21 +113,18 @@ public class NumericEntityUnescaper extends CharSequenceTranslator {
                 }
             }
 
-            int entityValue;
-            try {
-                if(isHex) {
-                    entityValue = Integer.parseInt(input.subSequence(start, end).toString(), 16);
-                } else {
-                    entityValue = Integer.parseInt(input.subSequence(start, end).toString(), 10);
-                }
-            } catch(final NumberFormatException nfe) {
+            final int entityValue = parseInt(input, start, end, isHex ? 16 : 10);
+            if(entityValue < 0) {
                 return 0;
             }
 
             if(entityValue > 0xFFFF) {
-                final char[] chrs = Character.toChars(entityValue);
-                out.write(chrs[0]);
-                out.write(chrs[1]);
+                if(!Character.isValidCodePoint(entityValue)) {
+                    // fails with the same exception as before
+                    Character.toChars(entityValue);
+                }
+                out.write(Character.highSurrogate(entityValue));
+                out.write(Character.lowSurrogate(entityValue));
             } else {
                 out.write(entityValue);
             }
@@ -136,4 +133,29 @@ public class NumericEntityUnescaper extends CharSequenceTranslator {
         }
         return 0;
     }
+
+    /**
+     * Parses the digits of an entity in place, without creating a String.
+     *
+     * @param input the sequence holding the digits
+     * @param start the index of the first digit
+     * @param end the index after the last digit
+     * @param radix the radix of the digits, 10 or 16
+     * @return the value of the digits, or -1 if there are none, they are not
+     *  valid in the radix or the value overflows an int
+     */
+    private static int parseInt(final CharSequence input, final int start, final int end, final int radix) {
+        if(start == end) {
+            return -1;
+        }
+        int value = 0;
+        for(int i = start; i < end; i++) {
+            final int digit = Character.digit(input.charAt(i), radix);
+            if(digit < 0 || value > (Integer.MAX_VALUE - digit) / radix) {
+                return -1;
+            }
+            value = value * radix + digit;
+        }
+        return value;
+    }
 }
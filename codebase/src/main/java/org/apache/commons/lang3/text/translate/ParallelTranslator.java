@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.text.translate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Translates large inputs by splitting them into chunks which are translated
+ * in parallel on a {@link ForkJoinPool}, writing the results in order.
+ *
+ * <p>Chunks are split just after a whitespace character, never between the
+ * characters of a surrogate pair and never inside an entity such as
+ * <code>&amp;amp;</code> or <code>&amp;#x41;</code>. The wrapped translator
+ * must therefore produce the same output for the whole input as for the
+ * concatenation of its translated chunks, which is true of the escape and
+ * unescape translators in {@link org.apache.commons.lang3.StringEscapeUtils}
+ * except the CSV translators, which treat their whole input as one value.
+ * An input without whitespace is translated as a single chunk.</p>
+ *
+ * <p>Only a bounded number of translated chunks is held in memory at any
+ * time, so the output is streamed to the <code>Writer</code> as the input is
+ * processed. For example:</p>
+ *
+ * <pre>
+ * new ParallelTranslator(StringEscapeUtils.ESCAPE_XML).translate(hugeDocument, writer);
+ * </pre>
+ *
+ * <p>This class is thread-safe if the wrapped translator is.</p>
+ *
+ * @since 3.2
+ * @version $Id$
+ */
+public class ParallelTranslator {
+
+    /** The default number of characters in each chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final CharSequenceTranslator translator;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Creates a parallel translator using the common pool and the default chunk size.
+     *
+     * @param translator  the translator to run on each chunk, not null
+     * @throws IllegalArgumentException if the translator is null
+     */
+    public ParallelTranslator(final CharSequenceTranslator translator) {
+        this(translator, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a parallel translator.
+     *
+     * @param translator  the translator to run on each chunk, not null
+     * @param pool  the pool to run chunks on, not null
+     * @param chunkSize  the target number of characters in each chunk, positive
+     * @throws IllegalArgumentException if the translator or pool is null, or the chunk size is not positive
+     */
+    public ParallelTranslator(final CharSequenceTranslator translator, final ForkJoinPool pool, final int chunkSize) {
+        if (translator == null) {
+            throw new IllegalArgumentException("The translator must not be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool must not be null");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        this.translator = translator;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Helper for non-Writer usage.
+     *
+     * @param input CharSequence to be translated
+     * @return String output of translation
+     */
+    public String translate(final CharSequence input) {
+        if (input == null) {
+            return null;
+        }
+        try {
+            final StringWriter writer = new StringWriter(input.length() * 2);
+            translate(input, writer);
+            return writer.toString();
+        } catch (final IOException ioe) {
+            // this should never ever happen while writing to a StringWriter
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    /**
+     * Translate an input onto a Writer, translating chunks of the input in parallel.
+     *
+     * @param input CharSequence that is being translated
+     * @param out Writer to translate the text to
+     * @throws IOException if and only if the Writer produces an IOException,
+     *  or the current thread is interrupted
+     */
+    public void translate(final CharSequence input, final Writer out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("The Writer must not be null");
+        }
+        if (input == null) {
+            return;
+        }
+        final int len = input.length();
+        if (len <= chunkSize) {
+            translator.translate(input, out);
+            return;
+        }
+        final int window = Math.max(2, pool.getParallelism() * 2);
+        final Deque<ForkJoinTask<String>> pending = new ArrayDeque<ForkJoinTask<String>>(window);
+        try {
+            int start = 0;
+            while (start < len) {
+                final int end = findBoundary(input, start, len);
+                pending.addLast(pool.submit(newChunkTask(input.subSequence(start, end))));
+                start = end;
+                if (pending.size() >= window) {
+                    out.write(join(pending.removeFirst()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(join(pending.removeFirst()));
+            }
+        } finally {
+            for (final ForkJoinTask<String> task : pending) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the chunk starting at an index.
+     *
+     * @param input  the input being split, not null
+     * @param start  the start of the chunk
+     * @param len  the length of the input
+     * @return the end of the chunk, exclusive, just after a whitespace character or the end of the input
+     */
+    int findBoundary(final CharSequence input, final int start, final int len) {
+        final int target = start + chunkSize;
+        if (target >= len) {
+            return len;
+        }
+        // prefer a slightly short chunk to an overly long one
+        final int floor = start + chunkSize / 2;
+        for (int i = target; i > floor; i--) {
+            if (isSplitChar(input.charAt(i - 1))) {
+                return i;
+            }
+        }
+        for (int i = target + 1; i < len; i++) {
+            if (isSplitChar(input.charAt(i - 1))) {
+                return i;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Is it safe to end a chunk after the character.
+     * A carriage return is excluded so that CR LF pairs stay in one chunk.
+     *
+     * @param ch  the character to check
+     * @return true if the chunk may end after the character
+     */
+    private static boolean isSplitChar(final char ch) {
+        return ch != '\r' && Character.isWhitespace(ch);
+    }
+
+    /**
+     * Creates the task translating a chunk.
+     *
+     * @param chunk  the chunk to translate, not null
+     * @return the task
+     */
+    private Callable<String> newChunkTask(final CharSequence chunk) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                return translator.translate(chunk);
+            }
+        };
+    }
+
+    /**
+     * Waits for a chunk to be translated.
+     *
+     * @param task  the task translating the chunk, not null
+     * @return the translated chunk
+     * @throws IOException if the current thread is interrupted
+     */
+    private static String join(final ForkJoinTask<String> task) throws IOException {
+        try {
+            return task.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException ioe = new InterruptedIOException("Interrupted while translating");
+            ioe.initCause(ie);
+            throw ioe;
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+}
@@ -47,14 +47,12 @@ public class UnicodeUnescaper extends CharSequenceTranslator {
 
             if (index + i + 4 <= input.length()) {
                 // Get 4 hex digits
-                final CharSequence unicode = input.subSequence(index + i, index + i + 4);
-
-                try {
-                    final int value = Integer.parseInt(unicode.toString(), 16);
-                    out.write((char) value);
-                } catch (final NumberFormatException nfe) {
-                    throw new IllegalArgumentException("Unable to parse unicode value: " + unicode, nfe);
+                final int value = parseHex(input, index + i, index + i + 4);
+                if (value == Integer.MIN_VALUE) {
+                    throw new IllegalArgumentException("Unable to parse unicode value: "
+                            + input.subSequence(index + i, index + i + 4));
                 }
+                out.write((char) value);
                 return i + 4;
             } else {
                 throw new IllegalArgumentException("Less than 4 hex digits in unicode value: '" + input.subSequence(index, input.length())
@@ -63,4 +61,32 @@ public class UnicodeUnescaper extends CharSequenceTranslator {
         }
         return 0;
     }
+
+    /**
+     * Parses hex digits in place, without creating a String, accepting the
+     * same input as {@link Integer#parseInt(String, int)} with a radix of 16.
+     *
+     * @param input the sequence holding the digits
+     * @param start the index of the first digit, or sign
+     * @param end the index after the last digit
+     * @return the parsed value, or {@link Integer#MIN_VALUE} if the input is not valid
+     */
+    private static int parseHex(final CharSequence input, int start, final int end) {
+        final char sign = input.charAt(start);
+        if (sign == '+' || sign == '-') {
+            start++;
+        }
+        if (start == end) {
+            return Integer.MIN_VALUE;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            final int digit = Character.digit(input.charAt(i), 16);
+            if (digit < 0) {
+                return Integer.MIN_VALUE;
+            }
+            value = value * 16 + digit;
+        }
+        return sign == '-' ? -value : value;
+    }
 }
@@ -16,11 +16,14 @@
  */
 package org.apache.commons.lang3.time;
 
+import java.nio.CharBuffer;
 import java.text.ParseException;
 import java.text.ParsePosition;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <p>DateParser is the "missing" interface for the parsing methods of 
@@ -30,6 +33,15 @@ import java.util.TimeZone;
  */
 public interface DateParser {
 
+    /**
+     * The value returned by the <code>tryParse</code> methods if the text cannot be parsed,
+     * which is <code>Long.MIN_VALUE</code>. A date of exactly this many milliseconds since
+     * the epoch cannot be told apart from a failure.
+     * 
+     * @since 3.2
+     */
+    long PARSE_FAILED = Long.MIN_VALUE;
+
     /**
      * Equivalent to DateFormat.parse(String). 
      * 
@@ -53,6 +65,85 @@ public interface DateParser {
      */
     Date parse(String source, ParsePosition pos);
 
+    /**
+     * <p>Parse the beginning of a string, as {@link #parse(String)} does,
+     * without throwing an exception if it cannot be parsed.</p>
+     * 
+     * <p>No <code>ParseException</code> or <code>Date</code> is created,
+     * so this is faster when much of the text is not a valid date.</p>
+     * 
+     * @param source A <code>String</code> whose beginning should be parsed, not null
+     * @return The milliseconds since the epoch, or {@link #PARSE_FAILED} if the text cannot be parsed
+     * @since 3.2
+     */
+    long tryParse(String source);
+
+    /**
+     * <p>Parse part of a string, as {@link #parse(String, ParsePosition)} does,
+     * without throwing an exception if it cannot be parsed.</p>
+     * 
+     * @param source A <code>String</code>, part of which should be parsed, not null
+     * @param pos The position to start parsing at, updated to the index after the date on success
+     * @return The milliseconds since the epoch, or {@link #PARSE_FAILED} if the text cannot be parsed
+     * @since 3.2
+     */
+    long tryParse(String source, ParsePosition pos);
+
+    /**
+     * <p>Parse many dates into an array of milliseconds since the epoch.</p>
+     * 
+     * <p>The whole of each value must be parsed. Values which cannot be parsed,
+     * including null values, set their bit in the errors, leaving the milliseconds
+     * unchanged, and all other bits of the values are cleared. No exception is thrown
+     * for such values, and no <code>Date</code> is created for any value.</p>
+     * 
+     * @param sources The values to parse, not null
+     * @param millis The array to store the milliseconds of each value in, at least as long as the values
+     * @param errors The bits to set for the values which cannot be parsed, not null
+     * @return The number of values which cannot be parsed
+     * @throws IllegalArgumentException if the array of milliseconds is shorter than the values
+     * @since 3.2
+     */
+    int parseInto(CharSequence[] sources, long[] millis, BitSet errors);
+
+    /**
+     * <p>Parse many dates into an array of milliseconds since the epoch,
+     * parsing parts of the values in parallel.</p>
+     * 
+     * <p>The values are parsed as {@link #parseInto(CharSequence[], long[], BitSet)}
+     * does. The calling thread waits for all parts to be parsed.</p>
+     * 
+     * @param sources The values to parse, not null
+     * @param millis The array to store the milliseconds of each value in, at least as long as the values
+     * @param errors The bits to set for the values which cannot be parsed, not null
+     * @param pool The pool to parse parts of the values on, not null
+     * @return The number of values which cannot be parsed
+     * @throws IllegalArgumentException if the array of milliseconds is shorter than the values
+     * @since 3.2
+     */
+    int parseInto(CharSequence[] sources, long[] millis, BitSet errors, ForkJoinPool pool);
+
+    /**
+     * <p>Parse the delimited dates of a buffer into an array of milliseconds since the epoch.</p>
+     * 
+     * <p>The values are read from the position of the buffer. Each value ends at the next
+     * delimiter or at the limit of the buffer, and a delimiter just before the limit does not
+     * start another value. The position is moved past each value read and its delimiter.
+     * Reading stops at the limit, or when the array of milliseconds is full.</p>
+     * 
+     * <p>The whole of each value must be parsed. Values which cannot be parsed set their bit
+     * in the errors, leaving the milliseconds unchanged, and all other bits of the values
+     * read are cleared.</p>
+     * 
+     * @param source The buffer of delimited values, not null
+     * @param delimiter The character ending each value
+     * @param millis The array to store the milliseconds of each value in, not null
+     * @param errors The bits to set for the values which cannot be parsed, not null
+     * @return The number of values read
+     * @since 3.2
+     */
+    int parseInto(CharBuffer source, char delimiter, long[] millis, BitSet errors);
+
     // Accessors
     //-----------------------------------------------------------------------
     /**
@@ -16,6 +16,7 @@
  */
 package org.apache.commons.lang3.time;
 
+import java.io.IOException;
 import java.text.FieldPosition;
 import java.util.Calendar;
 import java.util.Date;
@@ -85,6 +86,45 @@ public interface DatePrinter {
      */
     StringBuffer format(Calendar calendar, StringBuffer buf);
 
+    /**
+     * <p>Formats a millisecond {@code long} value into the
+     * supplied {@code StringBuilder}.</p>
+     *
+     * @param millis  the millisecond value to format
+     * @param buf  the buffer to format into
+     * @return the specified string builder
+     * @since 3.2
+     */
+    StringBuilder format(long millis, StringBuilder buf);
+
+    /**
+     * <p>Formats a millisecond {@code long} value into the
+     * supplied {@code Appendable}, such as a {@code Writer}
+     * or a {@code CharBuffer}.</p>
+     *
+     * @param <B> the type of the {@code Appendable}
+     * @param millis  the millisecond value to format
+     * @param buf  the {@code Appendable} to format into
+     * @return the specified {@code Appendable}
+     * @throws IOException if the {@code Appendable} throws one
+     * @since 3.2
+     */
+    <B extends Appendable> B format(long millis, B buf) throws IOException;
+
+    /**
+     * <p>Formats a millisecond {@code long} value into the
+     * supplied {@code char} array.</p>
+     *
+     * @param millis  the millisecond value to format
+     * @param buf  the array to format into
+     * @param offset  the index in the array to format to
+     * @return the index after the last character written
+     * @throws ArrayIndexOutOfBoundsException if the formatted value does not fit
+     *  in the array from the offset, in which case the array is unchanged
+     * @since 3.2
+     */
+    int format(long millis, char[] buf, int offset);
+
     // Accessors
     //-----------------------------------------------------------------------
     /**
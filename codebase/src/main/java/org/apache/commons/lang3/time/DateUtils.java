@@ -21,9 +21,11 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.NoSuchElementException;
+import java.util.TimeZone;
 
 /**
  * <p>A suite of utilities surrounding the use of the
@@ -125,6 +127,27 @@ public class DateUtils {
      */
     private static final int MODIFY_CEILING = 2;
 
+    /**
+     * The largest number of milliseconds from the epoch truncated by arithmetic,
+     * about 35,000 years.
+     */
+    private static final long MAX_ARITHMETIC_MILLIS = 1L << 50;
+    /**
+     * The earliest wall time of a day truncated by arithmetic, 2 January 1584,
+     * safely after the Gregorian cutover.
+     */
+    private static final long MIN_ARITHMETIC_WALL = -12180931200000L;
+    /**
+     * The time either side of a truncated wall time without a change of time zone offset,
+     * so that the wall time exists exactly once. This is more than the largest change of
+     * offset, such as the day skipped by Pacific/Apia in 2011.
+     */
+    private static final long TRANSITION_MARGIN = 26 * MILLIS_PER_HOUR;
+    /**
+     * The result of truncating by arithmetic if a {@code Calendar} must be used.
+     */
+    private static final long NEEDS_CALENDAR = Long.MIN_VALUE;
+
     /**
      * <p>{@code DateUtils} instances should NOT be constructed in
      * standard programming. Instead, the static methods on the class should
@@ -355,17 +378,30 @@ public class DateUtils {
             throw new IllegalArgumentException("Date and Patterns must not be null");
         }
         
-        SimpleDateFormat parser;
-        if (locale == null) {
-            parser = new SimpleDateFormat();
-        } else {
-            parser = new SimpleDateFormat("", locale);
-        }
-        
-        parser.setLenient(lenient);
+        SimpleDateFormat parser = null;
         final ParsePosition pos = new ParsePosition(0);
         for (final String parsePattern : parsePatterns) {
 
+            if (lenient) {
+                final DateParser fastParser = getLenientParser(parsePattern, locale);
+                if (fastParser != null) {
+                    pos.setIndex(0);
+                    final long millis = fastParser.tryParse(str, pos);
+                    if (millis != DateParser.PARSE_FAILED && pos.getIndex() == str.length()) {
+                        return new Date(millis);
+                    }
+                    // SimpleDateFormat accepts more, such as negative years
+                }
+            }
+            if (parser == null) {
+                if (locale == null) {
+                    parser = new SimpleDateFormat();
+                } else {
+                    parser = new SimpleDateFormat("", locale);
+                }
+                parser.setLenient(lenient);
+            }
+
             String pattern = parsePattern;
 
             // LANG-530 - need to make sure 'ZZ' output doesn't get passed to SimpleDateFormat
@@ -390,6 +426,66 @@ public class DateUtils {
         throw new ParseException("Unable to parse the date: " + str, -1);
     }
 
+    /**
+     * <p>Gets a cached, lenient parser for a pattern, if the pattern is
+     * supported by {@link FastDateParser}.</p>
+     * 
+     * @param pattern  the date format pattern, see SimpleDateFormat
+     * @param locale  the locale to use, null means the default locale
+     * @return the parser, or null if the pattern must be parsed by SimpleDateFormat
+     */
+    private static DateParser getLenientParser(final String pattern, final Locale locale) {
+        if (hasSimpleDateFormatField(pattern)) {
+            return null;
+        }
+        try {
+            return FastDateFormat.getInstance(pattern, locale);
+        } catch (final IllegalArgumentException e) {
+            // pattern letters such as 'u' or 'X' are only supported by SimpleDateFormat
+            return null;
+        }
+    }
+
+    /**
+     * <p>Checks whether a pattern has a field which {@link FastDateParser}
+     * parses differently from SimpleDateFormat, outside quotes:</p>
+     * <ul>
+     * <li>a time zone, <code>z</code> or <code>Z</code>: SimpleDateFormat parses
+     * GMT offsets and full names differently, and treats names such as "PST" as
+     * fixed offsets rather than zones with DST</li>
+     * <li>an abbreviated year, <code>y</code> or <code>yy</code>: SimpleDateFormat
+     * only adjusts the century of exactly two digits, so that "5" or "013" are
+     * the years 5 and 13</li>
+     * </ul>
+     * 
+     * @param pattern  the date format pattern, see SimpleDateFormat
+     * @return true if the pattern must be parsed by SimpleDateFormat
+     */
+    private static boolean hasSimpleDateFormatField(final String pattern) {
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (c == 'z' || c == 'Z') {
+                    return true;
+                }
+                if (c == 'y') {
+                    int end = i + 1;
+                    while (end < pattern.length() && pattern.charAt(end) == 'y') {
+                        end++;
+                    }
+                    if (end - i <= 2) {
+                        return true;
+                    }
+                    i = end - 1;
+                }
+            }
+        }
+        return false;
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Adds a number of years to a date returning a new object.
@@ -691,6 +787,11 @@ public class DateUtils {
      * </ul>
      * </p>
      * 
+     * <p>Unlike {@link #truncate(Date, int)}, this method always uses a
+     * {@code Calendar}: rounding looks at the actual maximum of each field
+     * dropped, and the results around a change of the offset, as above, are
+     * those of the {@code Calendar} arithmetic.</p>
+     * 
      * @param date  the date to work with, not null
      * @param field  the field from {@code Calendar} or {@code SEMI_MONTH}
      * @return the different rounded date, not null
@@ -803,6 +904,9 @@ public class DateUtils {
         if (date == null) {
             throw new IllegalArgumentException("The date must not be null");
         }
+        if (isGregorian(Locale.getDefault(Locale.Category.FORMAT))) {
+            return new Date(truncateMillis(date.getTime(), field, TimeZone.getDefault()));
+        }
         final Calendar gval = Calendar.getInstance();
         gval.setTime(date);
         modify(gval, field, MODIFY_TRUNCATE);
@@ -861,6 +965,153 @@ public class DateUtils {
             throw new ClassCastException("Could not truncate " + date);
         }
     }
+
+    /**
+     * <p>Truncates a number of milliseconds since the epoch in a time zone,
+     * leaving the field specified as the most significant field.</p>
+     *
+     * <p>The result is the same as truncating a {@code GregorianCalendar} in the
+     * time zone, see {@link #truncate(Calendar, int)}. The wall time is truncated
+     * by arithmetic, unless it is near a change of the offset of the time zone,
+     * is before 1584 or is very far from the epoch, when a {@code Calendar} is used.</p>
+     *
+     * @param millis  the milliseconds since the epoch
+     * @param field  the field from {@code Calendar} or <code>SEMI_MONTH</code>
+     * @param timeZone  the time zone of the fields, not null
+     * @return the truncated milliseconds since the epoch
+     * @throws IllegalArgumentException if the time zone is <code>null</code>, or the field is not supported
+     * @throws ArithmeticException if the year is over 280 million
+     * @since 3.2
+     */
+    public static long truncateMillis(final long millis, final int field, final TimeZone timeZone) {
+        if (timeZone == null) {
+            throw new IllegalArgumentException("The time zone must not be null");
+        }
+        if (millis > -MAX_ARITHMETIC_MILLIS && millis < MAX_ARITHMETIC_MILLIS) {
+            final long truncated = truncateWall(millis, field, timeZone);
+            if (truncated != NEEDS_CALENDAR) {
+                return truncated;
+            }
+        }
+        final Calendar gval = new GregorianCalendar(timeZone);
+        gval.setTimeInMillis(millis);
+        modify(gval, field, MODIFY_TRUNCATE);
+        return gval.getTimeInMillis();
+    }
+
+    /**
+     * <p>Truncates the wall time of a number of milliseconds since the epoch by arithmetic,
+     * as {@link #modify(Calendar, int, int)} would.</p>
+     *
+     * <p>{@code modify} first subtracts the milliseconds, seconds and minutes of the wall time
+     * from the instant, so that these only need the offset to be the same before and after.
+     * The hour, day and month are then set on the {@code Calendar}, which converts the wall
+     * time back to an instant; this only gives the same result as arithmetic if the offset
+     * does not change near any wall time converted.</p>
+     *
+     * @param millis  the milliseconds since the epoch
+     * @param field  the field from {@code Calendar} or <code>SEMI_MONTH</code>
+     * @param timeZone  the time zone of the fields, not null
+     * @return the truncated milliseconds since the epoch, or {@code NEEDS_CALENDAR}
+     */
+    private static long truncateWall(final long millis, final int field, final TimeZone timeZone) {
+        final int offset = timeZone.getOffset(millis);
+        final long wall = millis + offset;
+        switch (field) {
+            case Calendar.MILLISECOND:
+                return millis;
+            case Calendar.SECOND:
+                return sameOffset(millis - Math.floorMod(wall, MILLIS_PER_SECOND), offset, timeZone);
+            case Calendar.MINUTE:
+                return sameOffset(millis - Math.floorMod(wall, MILLIS_PER_MINUTE), offset, timeZone);
+            case Calendar.HOUR_OF_DAY:
+            case Calendar.HOUR:
+                return sameOffset(millis - Math.floorMod(wall, MILLIS_PER_HOUR), offset, timeZone);
+            default:
+                break;
+        }
+        if (wall < MIN_ARITHMETIC_WALL
+                || sameOffset(millis - Math.floorMod(wall, MILLIS_PER_HOUR), offset, timeZone) == NEEDS_CALENDAR) {
+            return NEEDS_CALENDAR;
+        }
+        final long day = Math.floorDiv(wall, MILLIS_PER_DAY);
+        switch (field) {
+            case Calendar.AM_PM:
+                return toInstant(wall - Math.floorMod(wall, 12 * MILLIS_PER_HOUR), timeZone);
+            case Calendar.DATE:
+                return toInstant(day * MILLIS_PER_DAY, timeZone);
+            default:
+                break;
+        }
+        // the start of the day is converted before the day of the month is set
+        if (toInstant(day * MILLIS_PER_DAY, timeZone) == NEEDS_CALENDAR) {
+            return NEEDS_CALENDAR;
+        }
+        final int[] date = new int[Calendar.FIELD_COUNT];
+        FastDateParser.civilFields(day, date);
+        final long monthStart = day - date[Calendar.DAY_OF_MONTH] + 1;
+        switch (field) {
+            case SEMI_MONTH:
+                final long semiMonthStart = date[Calendar.DAY_OF_MONTH] > 15 ? monthStart + 15 : monthStart;
+                return toInstant(semiMonthStart * MILLIS_PER_DAY, timeZone);
+            case Calendar.MONTH:
+                return toInstant(monthStart * MILLIS_PER_DAY, timeZone);
+            case Calendar.YEAR:
+                // the start of the month is converted before the month is set
+                if (toInstant(monthStart * MILLIS_PER_DAY, timeZone) == NEEDS_CALENDAR) {
+                    return NEEDS_CALENDAR;
+                }
+                return toInstant(FastDateParser.epochDay(date[Calendar.YEAR], 0) * MILLIS_PER_DAY, timeZone);
+            default:
+                return NEEDS_CALENDAR;
+        }
+    }
+
+    /**
+     * Checks that the offset of a time zone is the same at a truncated instant.
+     *
+     * @param truncated  the truncated milliseconds since the epoch
+     * @param offset  the offset before truncating
+     * @param timeZone  the time zone
+     * @return the truncated milliseconds, or {@code NEEDS_CALENDAR} if the offset is different
+     */
+    private static long sameOffset(final long truncated, final int offset, final TimeZone timeZone) {
+        return timeZone.getOffset(truncated) == offset ? truncated : NEEDS_CALENDAR;
+    }
+
+    /**
+     * Converts a wall time to an instant, if the offset of the time zone
+     * does not change near the wall time.
+     *
+     * @param wall  the wall time in milliseconds
+     * @param timeZone  the time zone
+     * @return the milliseconds since the epoch, or {@code NEEDS_CALENDAR} if the offset changes
+     */
+    private static long toInstant(final long wall, final TimeZone timeZone) {
+        final int offset = timeZone.getOffset(wall - timeZone.getRawOffset());
+        final long instant = wall - offset;
+        if (timeZone.getOffset(instant) != offset
+                || timeZone.getOffset(instant - TRANSITION_MARGIN) != offset
+                || timeZone.getOffset(instant + TRANSITION_MARGIN) != offset) {
+            return NEEDS_CALENDAR;
+        }
+        return instant;
+    }
+
+    /**
+     * Checks whether {@code Calendar.getInstance} uses a {@code GregorianCalendar}
+     * for a locale, rather than for instance the Buddhist or Japanese calendar.
+     *
+     * @param locale  the locale
+     * @return true if the locale certainly uses the Gregorian calendar
+     */
+    private static boolean isGregorian(final Locale locale) {
+        final String type = locale.getUnicodeLocaleType("ca");
+        if (type != null) {
+            return "gregory".equals(type);
+        }
+        return !"th".equals(locale.getLanguage()) && !"JP".equals(locale.getVariant());
+    }
     
   //-----------------------------------------------------------------------
     /**
@@ -872,6 +1123,12 @@ public class DateUtils {
      * 2002 14:00:00.000.  If this was passed with MONTH, it would
      * return 1 Apr 2002 0:00:00.000.</p>
      * 
+     * <p>Unlike {@link #truncate(Date, int)}, this method always uses a
+     * {@code Calendar}: in the hour repeated when daylight saving time ends,
+     * the {@code Calendar} adds the field after resolving the truncated wall
+     * time to the later offset, which arithmetic on the wall time would not
+     * reproduce.</p>
+     * 
      * @param date  the date to work with, not null
      * @param field  the field from {@code Calendar} or <code>SEMI_MONTH</code>
      * @return the different ceil date, not null
@@ -0,0 +1,542 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>A compiled duration format pattern, as used by {@link DurationFormatUtils}.</p>
+ *
+ * <p>The pattern is parsed once, so formatting many durations with the same
+ * pattern avoids the cost of parsing it on each call. The numbers are written
+ * digit by digit into the output, which may be any {@code Appendable}:</p>
+ *
+ * <pre>
+ * private static final DurationFormat ELAPSED = DurationFormat.getInstance("HH:mm:ss.SSS");
+ * ...
+ * ELAPSED.formatDuration(elapsedMillis, writer);
+ * </pre>
+ *
+ * <p>The output is the same as that of the equivalent methods of
+ * {@link DurationFormatUtils}, which use the cached instances of this class.
+ * Instances are immutable and thread-safe.</p>
+ *
+ * @since 3.2
+ * @version $Id$
+ */
+public final class DurationFormat {
+
+    /** The maximum number of cached instances of each padding, before the cache is cleared. */
+    private static final int MAX_CACHED = 64;
+
+    private static final ConcurrentMap<String, DurationFormat> paddedCache
+        = new ConcurrentHashMap<String, DurationFormat>(7);
+    private static final ConcurrentMap<String, DurationFormat> unpaddedCache
+        = new ConcurrentHashMap<String, DurationFormat>(7);
+
+    // the kinds of the elements of the pattern, also the indexes of the field values
+    private static final int YEARS = 0;
+    private static final int MONTHS = 1;
+    private static final int DAYS = 2;
+    private static final int HOURS = 3;
+    private static final int MINUTES = 4;
+    private static final int SECONDS = 5;
+    private static final int MILLISECONDS = 6;
+    /** Milliseconds following seconds, with only literals between, as the fraction of a second. */
+    private static final int FRACTION = 7;
+    private static final int LITERAL = 8;
+
+    private final String pattern;
+    private final boolean padWithZeros;
+    /** The kind of each element of the pattern. */
+    private final int[] kinds;
+    /** The number of pattern letters of each field, or 0. */
+    private final int[] widths;
+    /** The text of each literal, or null. */
+    private final String[] literals;
+    /** Whether the pattern contains each field. */
+    private final boolean[] present = new boolean[MILLISECONDS + 1];
+
+    /**
+     * <p>Gets a duration format for a pattern, padding the numbers with zeros.</p>
+     *
+     * @param pattern  the way in which to format the duration, not null
+     * @return a duration format, possibly shared
+     * @throws IllegalArgumentException if the pattern is null
+     */
+    public static DurationFormat getInstance(final String pattern) {
+        return getInstance(pattern, true);
+    }
+
+    /**
+     * <p>Gets a duration format for a pattern.</p>
+     *
+     * <p>The instances of the most recently used patterns are cached.</p>
+     *
+     * @param pattern  the way in which to format the duration, not null
+     * @param padWithZeros  whether to pad the left hand side of numbers with 0's
+     * @return a duration format, possibly shared
+     * @throws IllegalArgumentException if the pattern is null
+     */
+    public static DurationFormat getInstance(final String pattern, final boolean padWithZeros) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("The pattern must not be null");
+        }
+        final ConcurrentMap<String, DurationFormat> cache = padWithZeros ? paddedCache : unpaddedCache;
+        DurationFormat format = cache.get(pattern);
+        if (format == null) {
+            if (cache.size() >= MAX_CACHED) {
+                // patterns built on the fly should not grow the cache forever;
+                // the patterns in use are cached again on their next call
+                cache.clear();
+            }
+            format = new DurationFormat(pattern, padWithZeros);
+            final DurationFormat previous = cache.putIfAbsent(pattern, format);
+            if (previous != null) {
+                format = previous;
+            }
+        }
+        return format;
+    }
+
+    /**
+     * <p>Compiles a duration format pattern.</p>
+     *
+     * @param pattern  the way in which to format the duration, not null
+     * @param padWithZeros  whether to pad the left hand side of numbers with 0's
+     * @throws IllegalArgumentException if the pattern is null
+     */
+    public DurationFormat(final String pattern, final boolean padWithZeros) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("The pattern must not be null");
+        }
+        this.pattern = pattern;
+        this.padWithZeros = padWithZeros;
+        final DurationFormatUtils.Token[] tokens = DurationFormatUtils.lexx(pattern);
+        kinds = new int[tokens.length];
+        widths = new int[tokens.length];
+        literals = new String[tokens.length];
+        int lastField = LITERAL;
+        for (int i = 0; i < tokens.length; i++) {
+            final Object value = tokens[i].getValue();
+            final int kind = kindOf(value);
+            if (kind == LITERAL) {
+                literals[i] = value.toString();
+                kinds[i] = LITERAL;
+            } else {
+                present[kind] = true;
+                widths[i] = tokens[i].getCount();
+                kinds[i] = kind == MILLISECONDS && lastField == SECONDS ? FRACTION : kind;
+                lastField = kind;
+            }
+        }
+    }
+
+    /**
+     * Gets the kind of element of a token value.
+     *
+     * @param value  the value of the token
+     * @return the kind of element
+     */
+    private static int kindOf(final Object value) {
+        if (value == DurationFormatUtils.y) {
+            return YEARS;
+        } else if (value == DurationFormatUtils.M) {
+            return MONTHS;
+        } else if (value == DurationFormatUtils.d) {
+            return DAYS;
+        } else if (value == DurationFormatUtils.H) {
+            return HOURS;
+        } else if (value == DurationFormatUtils.m) {
+            return MINUTES;
+        } else if (value == DurationFormatUtils.s) {
+            return SECONDS;
+        } else if (value == DurationFormatUtils.S) {
+            return MILLISECONDS;
+        }
+        return LITERAL;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * <p>Gets the pattern of this format.</p>
+     *
+     * @return the pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * <p>Whether this format pads the left hand side of numbers with 0's.</p>
+     *
+     * @return true if numbers are padded
+     */
+    public boolean isPadWithZeros() {
+        return padWithZeros;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * <p>Formats the time gap as a string.</p>
+     *
+     * <p>This method formats durations using the days and lower fields of the
+     * format pattern. Months and larger are not used.</p>
+     *
+     * @param durationMillis  the duration to format
+     * @return the formatted duration, not null
+     * @see DurationFormatUtils#formatDuration(long, String, boolean)
+     */
+    public String formatDuration(final long durationMillis) {
+        return formatDuration(durationMillis, new StringBuilder(pattern.length() + 8)).toString();
+    }
+
+    /**
+     * <p>Formats the time gap into a {@code StringBuilder}.</p>
+     *
+     * @param durationMillis  the duration to format
+     * @param buf  the buffer to format into, not null
+     * @return the specified buffer
+     */
+    public StringBuilder formatDuration(final long durationMillis, final StringBuilder buf) {
+        try {
+            formatDuration(durationMillis, (Appendable) buf);
+        } catch (final IOException ioe) {
+            // this should never ever happen while writing to a StringBuilder
+            throw new RuntimeException(ioe);
+        }
+        return buf;
+    }
+
+    /**
+     * <p>Formats the time gap into an {@code Appendable}, such as a {@code Writer}.</p>
+     *
+     * @param <B> the type of the {@code Appendable}
+     * @param durationMillis  the duration to format
+     * @param buf  the {@code Appendable} to format into, not null
+     * @return the specified {@code Appendable}
+     * @throws IOException if the {@code Appendable} throws one
+     */
+    public <B extends Appendable> B formatDuration(long durationMillis, final B buf) throws IOException {
+        final int[] values = new int[MILLISECONDS + 1];
+        if (present[DAYS]) {
+            values[DAYS] = (int) (durationMillis / DateUtils.MILLIS_PER_DAY);
+            durationMillis = durationMillis - (values[DAYS] * DateUtils.MILLIS_PER_DAY);
+        }
+        if (present[HOURS]) {
+            values[HOURS] = (int) (durationMillis / DateUtils.MILLIS_PER_HOUR);
+            durationMillis = durationMillis - (values[HOURS] * DateUtils.MILLIS_PER_HOUR);
+        }
+        if (present[MINUTES]) {
+            values[MINUTES] = (int) (durationMillis / DateUtils.MILLIS_PER_MINUTE);
+            durationMillis = durationMillis - (values[MINUTES] * DateUtils.MILLIS_PER_MINUTE);
+        }
+        if (present[SECONDS]) {
+            values[SECONDS] = (int) (durationMillis / DateUtils.MILLIS_PER_SECOND);
+            durationMillis = durationMillis - (values[SECONDS] * DateUtils.MILLIS_PER_SECOND);
+        }
+        if (present[MILLISECONDS]) {
+            values[MILLISECONDS] = (int) durationMillis;
+        }
+        format(values, buf);
+        return buf;
+    }
+
+    /**
+     * <p>Formats the time gap between two instants as a string.</p>
+     *
+     * @param startMillis  the start of the duration
+     * @param endMillis  the end of the duration
+     * @param timezone  the millis are defined in, not null
+     * @return the formatted duration, not null
+     * @see DurationFormatUtils#formatPeriod(long, long, String, boolean, TimeZone)
+     */
+    public String formatPeriod(final long startMillis, final long endMillis, final TimeZone timezone) {
+        final StringBuilder buf = new StringBuilder(pattern.length() + 8);
+        try {
+            return formatPeriod(startMillis, endMillis, timezone, buf).toString();
+        } catch (final IOException ioe) {
+            // this should never ever happen while writing to a StringBuilder
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    /**
+     * <p>Formats the time gap between two instants into an {@code Appendable},
+     * such as a {@code Writer}.</p>
+     *
+     * <p>When calculating the difference between months/days, it chooses to
+     * calculate months first. So when working out the number of months and
+     * days between January 15th and March 10th, it choose 1 month and
+     * 23 days gained by choosing January->February = 1 month and then
+     * calculating days forwards, and not the 1 month and 26 days gained by
+     * choosing March -> February = 1 month and then calculating days
+     * backwards. </p>
+     *
+     * @param <B> the type of the {@code Appendable}
+     * @param startMillis  the start of the duration
+     * @param endMillis  the end of the duration
+     * @param timezone  the millis are defined in, not null
+     * @param buf  the {@code Appendable} to format into, not null
+     * @return the specified {@code Appendable}
+     * @throws IOException if the {@code Appendable} throws one
+     */
+    public <B extends Appendable> B formatPeriod(final long startMillis, final long endMillis,
+            final TimeZone timezone, final B buf) throws IOException {
+        // timezones get funky around 0, so normalizing everything to GMT
+        // stops the hours being off
+        final Calendar start = Calendar.getInstance(timezone);
+        start.setTime(new Date(startMillis));
+        final Calendar end = Calendar.getInstance(timezone);
+        end.setTime(new Date(endMillis));
+
+        // initial estimates
+        int milliseconds = end.get(Calendar.MILLISECOND) - start.get(Calendar.MILLISECOND);
+        int seconds = end.get(Calendar.SECOND) - start.get(Calendar.SECOND);
+        int minutes = end.get(Calendar.MINUTE) - start.get(Calendar.MINUTE);
+        int hours = end.get(Calendar.HOUR_OF_DAY) - start.get(Calendar.HOUR_OF_DAY);
+        int days = end.get(Calendar.DAY_OF_MONTH) - start.get(Calendar.DAY_OF_MONTH);
+        int months = end.get(Calendar.MONTH) - start.get(Calendar.MONTH);
+        int years = end.get(Calendar.YEAR) - start.get(Calendar.YEAR);
+
+        // each initial estimate is adjusted in case it is under 0
+        while (milliseconds < 0) {
+            milliseconds += 1000;
+            seconds -= 1;
+        }
+        while (seconds < 0) {
+            seconds += 60;
+            minutes -= 1;
+        }
+        while (minutes < 0) {
+            minutes += 60;
+            hours -= 1;
+        }
+        while (hours < 0) {
+            hours += 24;
+            days -= 1;
+        }
+
+        if (present[MONTHS]) {
+            while (days < 0) {
+                days += start.getActualMaximum(Calendar.DAY_OF_MONTH);
+                months -= 1;
+                start.add(Calendar.MONTH, 1);
+            }
+
+            while (months < 0) {
+                months += 12;
+                years -= 1;
+            }
+
+            if (!present[YEARS] && years != 0) {
+                while (years != 0) {
+                    months += 12 * years;
+                    years = 0;
+                }
+            }
+        } else {
+            // there are no M's in the format string
+
+            if (!present[YEARS]) {
+                int target = end.get(Calendar.YEAR);
+                if (months < 0) {
+                    // target is end-year -1
+                    target -= 1;
+                }
+
+                while (start.get(Calendar.YEAR) != target) {
+                    days += start.getActualMaximum(Calendar.DAY_OF_YEAR) - start.get(Calendar.DAY_OF_YEAR);
+
+                    // Not sure I grok why this is needed, but the brutal tests show it is
+                    if (start instanceof GregorianCalendar &&
+                            start.get(Calendar.MONTH) == Calendar.FEBRUARY &&
+                            start.get(Calendar.DAY_OF_MONTH) == 29) {
+                        days += 1;
+                    }
+
+                    start.add(Calendar.YEAR, 1);
+
+                    days += start.get(Calendar.DAY_OF_YEAR);
+                }
+
+                years = 0;
+            }
+
+            while (start.get(Calendar.MONTH) != end.get(Calendar.MONTH)) {
+                days += start.getActualMaximum(Calendar.DAY_OF_MONTH);
+                start.add(Calendar.MONTH, 1);
+            }
+
+            months = 0;
+
+            while (days < 0) {
+                days += start.getActualMaximum(Calendar.DAY_OF_MONTH);
+                months -= 1;
+                start.add(Calendar.MONTH, 1);
+            }
+
+        }
+
+        // The rest of this code adds in values that
+        // aren't requested. This allows the user to ask for the
+        // number of months and get the real count and not just 0->11.
+
+        if (!present[DAYS]) {
+            hours += 24 * days;
+            days = 0;
+        }
+        if (!present[HOURS]) {
+            minutes += 60 * hours;
+            hours = 0;
+        }
+        if (!present[MINUTES]) {
+            seconds += 60 * minutes;
+            minutes = 0;
+        }
+        if (!present[SECONDS]) {
+            milliseconds += 1000 * seconds;
+            seconds = 0;
+        }
+
+        format(new int[] { years, months, days, hours, minutes, seconds, milliseconds }, buf);
+        return buf;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes the elements of the pattern.
+     *
+     * @param values  the value of each field, indexed by kind
+     * @param buf  the {@code Appendable} to format into
+     * @throws IOException if the {@code Appendable} throws one
+     */
+    private void format(final int[] values, final Appendable buf) throws IOException {
+        for (int i = 0; i < kinds.length; i++) {
+            final int kind = kinds[i];
+            if (kind == LITERAL) {
+                buf.append(literals[i]);
+            } else if (kind == FRACTION) {
+                // as in earlier versions, any later milliseconds include the added thousand
+                values[MILLISECONDS] += 1000;
+                appendFraction(buf, values[MILLISECONDS], widths[i]);
+            } else {
+                appendNumber(buf, values[kind], widths[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes a number, padded with zeros to a width if required.
+     *
+     * @param buf  the {@code Appendable} to format into
+     * @param value  the number to write
+     * @param width  the minimum number of characters if padding
+     * @throws IOException if the {@code Appendable} throws one
+     */
+    private void appendNumber(final Appendable buf, final int value, final int width) throws IOException {
+        if (value < 0) {
+            // the sign is padded as if it were a digit
+            final String str = Integer.toString(value);
+            buf.append(padWithZeros ? StringUtils.leftPad(str, width, '0') : str);
+            return;
+        }
+        int digits = 1;
+        int divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+            digits++;
+        }
+        if (padWithZeros) {
+            for (int i = digits; i < width; i++) {
+                buf.append('0');
+            }
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buf.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Writes the milliseconds following the seconds, as the fraction of a second:
+     * a thousand is added to the milliseconds, which are formatted without
+     * their first character, so that the three digits are always written.
+     *
+     * @param buf  the {@code Appendable} to format into
+     * @param value  the number of milliseconds plus a thousand
+     * @param width  the number of pattern letters
+     * @throws IOException if the {@code Appendable} throws one
+     */
+    private void appendFraction(final Appendable buf, final int value, final int width) throws IOException {
+        if (value < 1000 || value > 9999) {
+            final String str = Integer.toString(value);
+            buf.append((padWithZeros ? StringUtils.leftPad(str, width, '0') : str).substring(1));
+        } else if (padWithZeros && width > 4) {
+            // only a padding zero is dropped
+            appendNumber(buf, value, width - 1);
+        } else {
+            buf.append((char) ('0' + value / 100 % 10));
+            buf.append((char) ('0' + value / 10 % 10));
+            buf.append((char) ('0' + value % 10));
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * <p>Compares two objects for equality.</p>
+     *
+     * @param obj  the object to compare to
+     * @return {@code true} if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof DurationFormat)) {
+            return false;
+        }
+        final DurationFormat other = (DurationFormat) obj;
+        return pattern.equals(other.pattern) && padWithZeros == other.padWithZeros;
+    }
+
+    /**
+     * <p>Returns a hashcode compatible with equals.</p>
+     *
+     * @return a hashcode compatible with equals
+     */
+    @Override
+    public int hashCode() {
+        return pattern.hashCode() * 2 + (padWithZeros ? 1 : 0);
+    }
+
+    /**
+     * <p>Gets a debugging string version of this formatter.</p>
+     *
+     * @return a debugging string
+     */
+    @Override
+    public String toString() {
+        return "DurationFormat[" + pattern + "]";
+    }
+
+}
@@ -17,9 +17,6 @@
 package org.apache.commons.lang3.time;
 
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.GregorianCalendar;
 import java.util.TimeZone;
 
 import org.apache.commons.lang3.StringUtils;
@@ -119,37 +116,8 @@ public class DurationFormatUtils {
      * @param padWithZeros  whether to pad the left hand side of numbers with 0's
      * @return the formatted duration, not null
      */
-    public static String formatDuration(long durationMillis, final String format, final boolean padWithZeros) {
-
-        final Token[] tokens = lexx(format);
-
-        int days         = 0;
-        int hours        = 0;
-        int minutes      = 0;
-        int seconds      = 0;
-        int milliseconds = 0;
-        
-        if (Token.containsTokenWithValue(tokens, d) ) {
-            days = (int) (durationMillis / DateUtils.MILLIS_PER_DAY);
-            durationMillis = durationMillis - (days * DateUtils.MILLIS_PER_DAY);
-        }
-        if (Token.containsTokenWithValue(tokens, H) ) {
-            hours = (int) (durationMillis / DateUtils.MILLIS_PER_HOUR);
-            durationMillis = durationMillis - (hours * DateUtils.MILLIS_PER_HOUR);
-        }
-        if (Token.containsTokenWithValue(tokens, m) ) {
-            minutes = (int) (durationMillis / DateUtils.MILLIS_PER_MINUTE);
-            durationMillis = durationMillis - (minutes * DateUtils.MILLIS_PER_MINUTE);
-        }
-        if (Token.containsTokenWithValue(tokens, s) ) {
-            seconds = (int) (durationMillis / DateUtils.MILLIS_PER_SECOND);
-            durationMillis = durationMillis - (seconds * DateUtils.MILLIS_PER_SECOND);
-        }
-        if (Token.containsTokenWithValue(tokens, S) ) {
-            milliseconds = (int) durationMillis;
-        }
-
-        return format(tokens, 0, 0, days, hours, minutes, seconds, milliseconds, padWithZeros);
+    public static String formatDuration(final long durationMillis, final String format, final boolean padWithZeros) {
+        return DurationFormat.getInstance(format, padWithZeros).formatDuration(durationMillis);
     }
 
     /**
@@ -268,204 +236,10 @@ public class DurationFormatUtils {
      */
     public static String formatPeriod(final long startMillis, final long endMillis, final String format, final boolean padWithZeros, 
             final TimeZone timezone) {
-
-        // Used to optimise for differences under 28 days and 
-        // called formatDuration(millis, format); however this did not work 
-        // over leap years. 
-        // TODO: Compare performance to see if anything was lost by 
-        // losing this optimisation. 
-        
-        final Token[] tokens = lexx(format);
-
-        // timezones get funky around 0, so normalizing everything to GMT 
-        // stops the hours being off
-        final Calendar start = Calendar.getInstance(timezone);
-        start.setTime(new Date(startMillis));
-        final Calendar end = Calendar.getInstance(timezone);
-        end.setTime(new Date(endMillis));
-
-        // initial estimates
-        int milliseconds = end.get(Calendar.MILLISECOND) - start.get(Calendar.MILLISECOND);
-        int seconds = end.get(Calendar.SECOND) - start.get(Calendar.SECOND);
-        int minutes = end.get(Calendar.MINUTE) - start.get(Calendar.MINUTE);
-        int hours = end.get(Calendar.HOUR_OF_DAY) - start.get(Calendar.HOUR_OF_DAY);
-        int days = end.get(Calendar.DAY_OF_MONTH) - start.get(Calendar.DAY_OF_MONTH);
-        int months = end.get(Calendar.MONTH) - start.get(Calendar.MONTH);
-        int years = end.get(Calendar.YEAR) - start.get(Calendar.YEAR);
-
-        // each initial estimate is adjusted in case it is under 0
-        while (milliseconds < 0) {
-            milliseconds += 1000;
-            seconds -= 1;
-        }
-        while (seconds < 0) {
-            seconds += 60;
-            minutes -= 1;
-        }
-        while (minutes < 0) {
-            minutes += 60;
-            hours -= 1;
-        }
-        while (hours < 0) {
-            hours += 24;
-            days -= 1;
-        }
-       
-        if (Token.containsTokenWithValue(tokens, M)) {
-            while (days < 0) {
-                days += start.getActualMaximum(Calendar.DAY_OF_MONTH);
-                months -= 1;
-                start.add(Calendar.MONTH, 1);
-            }
-
-            while (months < 0) {
-                months += 12;
-                years -= 1;
-            }
-
-            if (!Token.containsTokenWithValue(tokens, y) && years != 0) {
-                while (years != 0) {
-                    months += 12 * years;
-                    years = 0;
-                }
-            }
-        } else {
-            // there are no M's in the format string
-
-            if( !Token.containsTokenWithValue(tokens, y) ) {
-                int target = end.get(Calendar.YEAR);
-                if (months < 0) {
-                    // target is end-year -1
-                    target -= 1;
-                }
-                
-                while (start.get(Calendar.YEAR) != target) {
-                    days += start.getActualMaximum(Calendar.DAY_OF_YEAR) - start.get(Calendar.DAY_OF_YEAR);
-                    
-                    // Not sure I grok why this is needed, but the brutal tests show it is
-                    if (start instanceof GregorianCalendar &&
-                            start.get(Calendar.MONTH) == Calendar.FEBRUARY &&
-                            start.get(Calendar.DAY_OF_MONTH) == 29) {
-                        days += 1;
-                    }
-                    
-                    start.add(Calendar.YEAR, 1);
-                    
-                    days += start.get(Calendar.DAY_OF_YEAR);
-                }
-                
-                years = 0;
-            }
-            
-            while( start.get(Calendar.MONTH) != end.get(Calendar.MONTH) ) {
-                days += start.getActualMaximum(Calendar.DAY_OF_MONTH);
-                start.add(Calendar.MONTH, 1);
-            }
-            
-            months = 0;            
-
-            while (days < 0) {
-                days += start.getActualMaximum(Calendar.DAY_OF_MONTH);
-                months -= 1;
-                start.add(Calendar.MONTH, 1);
-            }
-            
-        }
-
-        // The rest of this code adds in values that 
-        // aren't requested. This allows the user to ask for the 
-        // number of months and get the real count and not just 0->11.
-
-        if (!Token.containsTokenWithValue(tokens, d)) {
-            hours += 24 * days;
-            days = 0;
-        }
-        if (!Token.containsTokenWithValue(tokens, H)) {
-            minutes += 60 * hours;
-            hours = 0;
-        }
-        if (!Token.containsTokenWithValue(tokens, m)) {
-            seconds += 60 * minutes;
-            minutes = 0;
-        }
-        if (!Token.containsTokenWithValue(tokens, s)) {
-            milliseconds += 1000 * seconds;
-            seconds = 0;
-        }
-
-        return format(tokens, years, months, days, hours, minutes, seconds, milliseconds, padWithZeros);
+        return DurationFormat.getInstance(format, padWithZeros).formatPeriod(startMillis, endMillis, timezone);
     }
 
     //-----------------------------------------------------------------------
-    /**
-     * <p>The internal method to do the formatting.</p>
-     * 
-     * @param tokens  the tokens
-     * @param years  the number of years
-     * @param months  the number of months
-     * @param days  the number of days
-     * @param hours  the number of hours
-     * @param minutes  the number of minutes
-     * @param seconds  the number of seconds
-     * @param milliseconds  the number of millis
-     * @param padWithZeros  whether to pad
-     * @return the formatted string
-     */
-    static String format(final Token[] tokens, final int years, final int months, final int days, final int hours, final int minutes, final int seconds,
-            int milliseconds, final boolean padWithZeros) {
-        final StringBuilder buffer = new StringBuilder();
-        boolean lastOutputSeconds = false;
-        final int sz = tokens.length;
-        for (int i = 0; i < sz; i++) {
-            final Token token = tokens[i];
-            final Object value = token.getValue();
-            final int count = token.getCount();
-            if (value instanceof StringBuilder) {
-                buffer.append(value.toString());
-            } else {
-                if (value == y) {
-                    buffer.append(padWithZeros ? StringUtils.leftPad(Integer.toString(years), count, '0') : Integer
-                            .toString(years));
-                    lastOutputSeconds = false;
-                } else if (value == M) {
-                    buffer.append(padWithZeros ? StringUtils.leftPad(Integer.toString(months), count, '0') : Integer
-                            .toString(months));
-                    lastOutputSeconds = false;
-                } else if (value == d) {
-                    buffer.append(padWithZeros ? StringUtils.leftPad(Integer.toString(days), count, '0') : Integer
-                            .toString(days));
-                    lastOutputSeconds = false;
-                } else if (value == H) {
-                    buffer.append(padWithZeros ? StringUtils.leftPad(Integer.toString(hours), count, '0') : Integer
-                            .toString(hours));
-                    lastOutputSeconds = false;
-                } else if (value == m) {
-                    buffer.append(padWithZeros ? StringUtils.leftPad(Integer.toString(minutes), count, '0') : Integer
-                            .toString(minutes));
-                    lastOutputSeconds = false;
-                } else if (value == s) {
-                    buffer.append(padWithZeros ? StringUtils.leftPad(Integer.toString(seconds), count, '0') : Integer
-                            .toString(seconds));
-                    lastOutputSeconds = true;
-                } else if (value == S) {
-                    if (lastOutputSeconds) {
-                        milliseconds += 1000;
-                        final String str = padWithZeros
-                                ? StringUtils.leftPad(Integer.toString(milliseconds), count, '0')
-                                : Integer.toString(milliseconds);
-                        buffer.append(str.substring(1));
-                    } else {
-                        buffer.append(padWithZeros
-                                ? StringUtils.leftPad(Integer.toString(milliseconds), count, '0')
-                                : Integer.toString(milliseconds));
-                    }
-                    lastOutputSeconds = false;
-                }
-            }
-        }
-        return buffer.toString();
-    }
-
     static final Object y = "y";
     static final Object M = "M";
     static final Object d = "d";
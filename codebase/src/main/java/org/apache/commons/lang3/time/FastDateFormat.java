@@ -16,15 +16,19 @@
  */
 package org.apache.commons.lang3.time;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
 import java.text.DateFormat;
 import java.text.FieldPosition;
 import java.text.Format;
 import java.text.ParseException;
 import java.text.ParsePosition;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <p>FastDateFormat is a fast and thread-safe version of
@@ -92,6 +96,13 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
         }
     };
 
+    private static final FormatCache<FastDateFormat> secondCachingCache= new FormatCache<FastDateFormat>() {
+        @Override
+        protected FastDateFormat createInstance(final String pattern, final TimeZone timeZone, final Locale locale) {
+            return new FastDateFormat(pattern, timeZone, locale, true);
+        }
+    };
+
     private final FastDatePrinter printer;
     private final FastDateParser parser;
     
@@ -165,6 +176,30 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
         return cache.getInstance(pattern, timeZone, locale);
     }
 
+    /**
+     * <p>Gets a formatter instance using the specified pattern, time zone
+     * and locale, which caches the text of the last formatted second.</p>
+     *
+     * <p>Formatting the current time many times a second, as a logger does,
+     * then only formats the milliseconds of each value. Patterns with more
+     * than one millisecond field are formatted in full. The instance formats
+     * and parses exactly as one from {@link #getInstance(String, TimeZone, Locale)}.</p>
+     *
+     * @param pattern  {@link java.text.SimpleDateFormat} compatible
+     *  pattern
+     * @param timeZone  optional time zone, overrides time zone of
+     *  formatted date
+     * @param locale  optional locale, overrides system locale
+     * @return a pattern based date/time formatter
+     * @throws IllegalArgumentException if pattern is invalid
+     *  or {@code null}
+     * @since 3.2
+     */
+    public static FastDateFormat getSecondCachingInstance(final String pattern, final TimeZone timeZone,
+            final Locale locale) {
+        return secondCachingCache.getInstance(pattern, timeZone, locale);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * <p>Gets a date formatter instance using the specified style in the
@@ -355,6 +390,41 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
         return cache.getDateTimeInstance(dateStyle, timeStyle, timeZone, locale);
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * <p>Sets the maximum number of formatters cached by the
+     * {@code get...Instance} methods, evicting formatters if necessary.</p>
+     *
+     * <p>By default the cache is unbounded, which suits a fixed set of
+     * patterns, time zones and locales. When these come from users, a
+     * maximum size keeps the cache from growing without limit. The least
+     * recently used formatters are evicted, approximately, and created
+     * again when next requested. The limit applies separately to the
+     * formatters from {@link #getSecondCachingInstance(String, TimeZone, Locale)}
+     * and to the patterns of the date and time styles.</p>
+     *
+     * @param maximumSize  the maximum number of formatters,
+     *  {@code Integer.MAX_VALUE} for no limit
+     * @throws IllegalArgumentException if the maximum size is not positive
+     * @since 3.2
+     */
+    public static void setCacheMaximumSize(final int maximumSize) {
+        cache.setMaximumSize(maximumSize);
+        secondCachingCache.setMaximumSize(maximumSize);
+        FormatCache.setPatternCacheMaximumSize(maximumSize);
+    }
+
+    /**
+     * <p>Gets the statistics of the cache of formatters behind the
+     * {@code get...Instance} methods.</p>
+     *
+     * @return a snapshot of the statistics
+     * @since 3.2
+     */
+    public static FormatCacheStats getCacheStats() {
+        return cache.getStats().plus(secondCachingCache.getStats());
+    }
+
     // Constructor
     //-----------------------------------------------------------------------
     /**
@@ -366,7 +436,23 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
      * @throws NullPointerException if pattern, timeZone, or locale is null.
      */
     protected FastDateFormat(final String pattern, final TimeZone timeZone, final Locale locale) {
-        printer= new FastDatePrinter(pattern, timeZone, locale);
+        this(pattern, timeZone, locale, false);
+    }
+
+    /**
+     * <p>Constructs a new FastDateFormat, optionally caching the text
+     * of the last formatted second.</p>
+     *
+     * @param pattern  {@link java.text.SimpleDateFormat} compatible pattern
+     * @param timeZone  non-null time zone to use
+     * @param locale  non-null locale to use
+     * @param cacheSeconds  whether to cache the text of the last formatted second
+     * @throws NullPointerException if pattern, timeZone, or locale is null.
+     * @since 3.2
+     */
+    protected FastDateFormat(final String pattern, final TimeZone timeZone, final Locale locale,
+            final boolean cacheSeconds) {
+        printer= new FastDatePrinter(pattern, timeZone, locale, cacheSeconds);
         parser= new FastDateParser(pattern, timeZone, locale);
     }
 
@@ -460,6 +546,54 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
         return printer.format(calendar, buf);
     }
 
+    /**
+     * <p>Formats a millisecond {@code long} value into the
+     * supplied {@code StringBuilder}.</p>
+     *
+     * @param millis  the millisecond value to format
+     * @param buf  the buffer to format into
+     * @return the specified string builder
+     * @since 3.2
+     */
+    @Override
+    public StringBuilder format(final long millis, final StringBuilder buf) {
+        return printer.format(millis, buf);
+    }
+
+    /**
+     * <p>Formats a millisecond {@code long} value into the
+     * supplied {@code Appendable}, such as a {@code Writer}
+     * or a {@code CharBuffer}.</p>
+     *
+     * @param <B> the type of the {@code Appendable}
+     * @param millis  the millisecond value to format
+     * @param buf  the {@code Appendable} to format into
+     * @return the specified {@code Appendable}
+     * @throws IOException if the {@code Appendable} throws one
+     * @since 3.2
+     */
+    @Override
+    public <B extends Appendable> B format(final long millis, final B buf) throws IOException {
+        return printer.format(millis, buf);
+    }
+
+    /**
+     * <p>Formats a millisecond {@code long} value into the
+     * supplied {@code char} array.</p>
+     *
+     * @param millis  the millisecond value to format
+     * @param buf  the array to format into
+     * @param offset  the index in the array to format to
+     * @return the index after the last character written
+     * @throws ArrayIndexOutOfBoundsException if the formatted value does not fit
+     *  in the array from the offset, in which case the array is unchanged
+     * @since 3.2
+     */
+    @Override
+    public int format(final long millis, final char[] buf, final int offset) {
+        return printer.format(millis, buf, offset);
+    }
+
     // Parsing
     //-----------------------------------------------------------------------
 
@@ -480,6 +614,46 @@ public class FastDateFormat extends Format implements DateParser, DatePrinter {
             return parser.parse(source, pos);
     }
 
+    /* (non-Javadoc)
+     * @see DateParser#tryParse(java.lang.String)
+     */
+    @Override
+    public long tryParse(final String source) {
+        return parser.tryParse(source);
+    }
+
+    /* (non-Javadoc)
+     * @see DateParser#tryParse(java.lang.String, java.text.ParsePosition)
+     */
+    @Override
+    public long tryParse(final String source, final ParsePosition pos) {
+        return parser.tryParse(source, pos);
+    }
+
+    /* (non-Javadoc)
+     * @see DateParser#parseInto(java.lang.CharSequence[], long[], java.util.BitSet)
+     */
+    @Override
+    public int parseInto(final CharSequence[] sources, final long[] millis, final BitSet errors) {
+        return parser.parseInto(sources, millis, errors);
+    }
+
+    /* (non-Javadoc)
+     * @see DateParser#parseInto(java.lang.CharSequence[], long[], java.util.BitSet, java.util.concurrent.ForkJoinPool)
+     */
+    @Override
+    public int parseInto(final CharSequence[] sources, final long[] millis, final BitSet errors, final ForkJoinPool pool) {
+        return parser.parseInto(sources, millis, errors, pool);
+    }
+
+    /* (non-Javadoc)
+     * @see DateParser#parseInto(java.nio.CharBuffer, char, long[], java.util.BitSet)
+     */
+    @Override
+    public int parseInto(final CharBuffer source, final char delimiter, final long[] millis, final BitSet errors) {
+        return parser.parseInto(source, delimiter, millis, errors);
+    }
+
     /* (non-Javadoc)
      * @see java.text.Format#parseObject(java.lang.String, java.text.ParsePosition)
      */
@@ -19,19 +19,26 @@ package org.apache.commons.lang3.time;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.CharBuffer;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.SortedMap;
+import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -53,6 +60,17 @@ import java.util.regex.Pattern;
  * <p>Timing tests indicate this class is as about as fast as SimpleDateFormat
  * in single thread applications and about 25% faster in multi-thread applications.</p>
  *
+ * <p>The text is matched field by field, without a regular expression. Text fields,
+ * such as month names and time zone names, are matched ignoring case in a trie of
+ * the names, which is shared by all parsers of a locale.</p>
+ *
+ * <p>Patterns made of years, months, days of the month or year, days of the week
+ * alongside a day of the month, hours, minutes, seconds, milliseconds, am/pm markers
+ * and time zones are parsed directly from the text, without a <code>Calendar</code>,
+ * giving the same result as the <code>Calendar</code> would. Other patterns, dates
+ * before the Gregorian cutover and time zones other than the ones built into the JDK
+ * fall back to setting the fields of a <code>Calendar</code>.</p>
+ *
  * <p>Note that the code only handles Gregorian calendars. The following non-Gregorian
  * calendars use SimpleDateFormat internally, and so will be slower:
  * <ul>
@@ -78,9 +96,11 @@ public class FastDateParser implements DateParser, Serializable {
     private final Locale locale;
 
     // derived fields
-    private transient Pattern parsePattern;
-    private transient Strategy[] strategies;
+    private transient StrategyAndWidth[] steps;
     private transient int thisYear;
+    // whether the fields can be parsed without a Calendar
+    private transient boolean direct;
+    private transient int directFields;
 
     // dynamic fields to communicate with Strategy
     private transient String currentFormatField;
@@ -109,8 +129,7 @@ public class FastDateParser implements DateParser, Serializable {
         final Calendar definingCalendar = Calendar.getInstance(timeZone, locale);
         thisYear= definingCalendar.get(Calendar.YEAR);
 
-        final StringBuilder regex= new StringBuilder();
-        final List<Strategy> collector = new ArrayList<Strategy>();
+        final List<StrategyAndWidth> collector = new ArrayList<StrategyAndWidth>();
 
         final Matcher patternMatcher= formatPattern.matcher(pattern);
         if(!patternMatcher.lookingAt()) {
@@ -128,21 +147,49 @@ public class FastDateParser implements DateParser, Serializable {
             }
             final String nextFormatField= patternMatcher.group();
             nextStrategy = getStrategy(nextFormatField, definingCalendar);
-            if(currentStrategy.addRegex(this, regex)) {
-                collector.add(currentStrategy);
-            }
+            collector.add(new StrategyAndWidth(currentStrategy, isNextNumber() ? getFieldWidth() : 0));
             currentFormatField= nextFormatField;
             currentStrategy= nextStrategy;
         }
         if (patternMatcher.regionStart() != patternMatcher.regionEnd()) {
             throw new IllegalArgumentException("Failed to parse \""+pattern+"\" ; gave up at index "+patternMatcher.regionStart());
         }
-        if(currentStrategy.addRegex(this, regex)) {
-            collector.add(currentStrategy);
-        }
+        collector.add(new StrategyAndWidth(currentStrategy, 0));
         currentFormatField= null;
-        strategies= collector.toArray(new Strategy[collector.size()]);
-        parsePattern= Pattern.compile(regex.toString());
+        steps= collector.toArray(new StrategyAndWidth[collector.size()]);
+        direct= isDirect(definingCalendar);
+    }
+
+    /**
+     * Decide whether the fields can be parsed without a Calendar, giving the same result.
+     * @param definingCalendar The calendar of the time zone and locale
+     * @return true, if the steps can be parsed without a Calendar
+     */
+    private boolean isDirect(final Calendar definingCalendar) {
+        // not a subclass, such as the Buddhist calendar
+        if(definingCalendar.getClass()!=GregorianCalendar.class) {
+            return false;
+        }
+        int fields= 0;
+        for(final StrategyAndWidth step : steps) {
+            final int field= step.strategy.getField();
+            if(field>=0) {
+                if((DIRECT_FIELDS & 1<<field)==0) {
+                    return false;
+                }
+                fields|= 1<<field;
+            }
+        }
+        // the Calendar ignores the day of the week when given the day of the month,
+        // the month when given the day of the year, and resolves other combinations
+        // by the order in which the fields were set
+        if((fields & 1<<Calendar.DAY_OF_WEEK)!=0 && (fields & 1<<Calendar.DAY_OF_MONTH)==0
+                || (fields & 1<<Calendar.DAY_OF_YEAR)!=0 && (fields & 1<<Calendar.DAY_OF_MONTH)!=0
+                || (fields & 1<<Calendar.HOUR_OF_DAY)!=0 && (fields & 1<<Calendar.HOUR)!=0) {
+            return false;
+        }
+        directFields= fields;
+        return true;
     }
 
     // Accessors
@@ -171,9 +218,13 @@ public class FastDateParser implements DateParser, Serializable {
         return locale;
     }
 
-    // Give access to generated pattern for test code
-    Pattern getParsePattern() {
-        return parsePattern;
+    /**
+     * Get the strategy of a field of the pattern, for testing
+     * @param step The index of the field in the pattern
+     * @return The strategy parsing the field
+     */
+    Object getStrategy(final int step) {
+        return steps[step].strategy;
     }
 
     // Basics
@@ -249,9 +300,9 @@ public class FastDateParser implements DateParser, Serializable {
             if (locale.equals(JAPANESE_IMPERIAL)) {
                 throw new ParseException(
                         "(The " +locale + " locale does not support dates before 1868 AD)\n" +
-                                "Unparseable date: \""+source+"\" does not match "+parsePattern.pattern(), 0);
+                                "Unparseable date: \""+source+"\" does not match "+pattern, 0);
             }
-            throw new ParseException("Unparseable date: \""+source+"\" does not match "+parsePattern.pattern(), 0);
+            throw new ParseException("Unparseable date: \""+source+"\" does not match "+pattern, 0);
         }
         return date;
     }
@@ -270,70 +321,725 @@ public class FastDateParser implements DateParser, Serializable {
     @Override
     public Date parse(final String source, final ParsePosition pos) {
         final int offset= pos.getIndex();
-        final Matcher matcher= parsePattern.matcher(source.substring(offset));
-        if(!matcher.lookingAt()) {
+        if(direct && offset<=source.length()) {
+            final ParsedFields fields= new ParsedFields(timeZone, steps.length, false);
+            final long millis= parseDirect(fields, source, offset);
+            if(!fields.fallback) {
+                if(fields.end<0) {
+                    return null;
+                }
+                pos.setIndex(fields.end);
+                return new Date(millis);
+            }
+        }
+        return parseWithCalendar(source, pos);
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.commons.lang3.time.DateParser#tryParse(java.lang.String)
+     */
+    @Override
+    public long tryParse(final String source) {
+        return tryParse(source, new ParsePosition(0));
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.commons.lang3.time.DateParser#tryParse(java.lang.String, java.text.ParsePosition)
+     */
+    @Override
+    public long tryParse(final String source, final ParsePosition pos) {
+        final int offset= pos.getIndex();
+        if(direct && offset>=0 && offset<=source.length()) {
+            final ParsedFields fields= new ParsedFields(timeZone, steps.length, false);
+            final long millis= parseDirect(fields, source, offset);
+            if(!fields.fallback) {
+                if(fields.end<0) {
+                    return PARSE_FAILED;
+                }
+                pos.setIndex(fields.end);
+                return millis;
+            }
+        }
+        return parseCalendarMillis(source, pos);
+    }
+
+    /**
+     * Parse a date directly from the text, without a Calendar.
+     * Flags the fields for a fallback to the Calendar if the date cannot be parsed directly.
+     * @param fields The fields to parse into, cleared
+     * @param source The text to parse
+     * @param offset The index to start parsing at
+     * @return The milliseconds since the epoch; with the end of the fields set to the index
+     * after the date, or to -1 if the text does not match
+     */
+    private long parseDirect(final ParsedFields fields, final CharSequence source, final int offset) {
+        if(!parseFrom(fields, source, offset, 0)) {
+            fields.end= -1;
+            return 0;
+        }
+        return computeMillis(fields);
+    }
+
+    /**
+     * Parse a date by matching the text of each field and setting the fields of a Calendar.
+     * @param source The text to parse
+     * @param pos The position to start parsing at, updated on success
+     * @return The parsed date, or null if the text does not match
+     */
+    Date parseWithCalendar(final String source, final ParsePosition pos) {
+        final Calendar cal= parseCalendar(source, pos);
+        return cal==null ?null :cal.getTime();
+    }
+
+    /**
+     * Parse a date by matching the text of each field and setting the fields of a Calendar.
+     * @param source The text to parse
+     * @param pos The position to start parsing at, updated on success
+     * @return The Calendar set to the parsed date, or null if the text does not match
+     */
+    private Calendar parseCalendar(final String source, final ParsePosition pos) {
+        final int offset= pos.getIndex();
+        if(offset<0 || offset>source.length()) {
+            throw new StringIndexOutOfBoundsException(offset);
+        }
+        final ParsedFields fields= new ParsedFields(timeZone, steps.length, true);
+        if(!parseFrom(fields, source, offset, 0)) {
             return null;
         }
         // timing tests indicate getting new instance is 19% faster than cloning
         final Calendar cal= Calendar.getInstance(timeZone, locale);
         cal.clear();
 
-        for(int i=0; i<strategies.length;) {
-            final Strategy strategy= strategies[i++];
-            strategy.setCalendar(this, cal, matcher.group(i));
+        for(int i=0; i<steps.length; ++i) {
+            final Strategy strategy= steps[i].strategy;
+            if(strategy.getField()>=0) {
+                strategy.setCalendar(this, cal, source.substring(fields.starts[i], fields.starts[i+1]));
+            }
         }
-        pos.setIndex(offset+matcher.end());
-        return cal.getTime();
+        pos.setIndex(fields.end);
+        return cal;
     }
 
-    // Support for strategies
+    // Batch parsing
     //-----------------------------------------------------------------------
 
+    /** The smallest number of values parsed by each task of a parallel parse, a multiple of 64 */
+    private static final int MIN_PARALLEL_VALUES= 1024;
+
+    /* (non-Javadoc)
+     * @see org.apache.commons.lang3.time.DateParser#parseInto(java.lang.CharSequence[], long[], java.util.BitSet)
+     */
+    @Override
+    public int parseInto(final CharSequence[] sources, final long[] millis, final BitSet errors) {
+        checkLength(sources, millis);
+        errors.clear(0, sources.length);
+        final ParsedFields fields= new ParsedFields(timeZone, steps.length, false);
+        int count= 0;
+        for(int i= 0; i<sources.length; ++i) {
+            if(!parseMillis(fields, sources[i], millis, i)) {
+                errors.set(i);
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.commons.lang3.time.DateParser#parseInto(java.lang.CharSequence[], long[], java.util.BitSet, java.util.concurrent.ForkJoinPool)
+     */
+    @Override
+    public int parseInto(final CharSequence[] sources, final long[] millis, final BitSet errors, final ForkJoinPool pool) {
+        checkLength(sources, millis);
+        final int length= sources.length;
+        // tasks of whole words of the errors, so that no two tasks set bits of the same word
+        final int perTask= Math.max(MIN_PARALLEL_VALUES, (length / (pool.getParallelism() * 4) + 63) & ~63);
+        if(length<=perTask) {
+            return parseInto(sources, millis, errors);
+        }
+        final long[] words= new long[(length + 63) / 64];
+        final List<ForkJoinTask<Integer>> tasks= new ArrayList<ForkJoinTask<Integer>>();
+        for(int from= 0; from<length; from+= perTask) {
+            tasks.add(pool.submit(newParseTask(sources, millis, words, from, Math.min(length, from + perTask))));
+        }
+        int count= 0;
+        for(final ForkJoinTask<Integer> task : tasks) {
+            count+= task.join().intValue();
+        }
+        errors.clear(0, length);
+        errors.or(BitSet.valueOf(words));
+        return count;
+    }
+
     /**
-     * Escape constant fields into regular expression
-     * @param regex The destination regex
-     * @param value The source field
-     * @param unquote If true, replace two success quotes ('') with single quote (')
-     * @return The <code>StringBuilder</code>
+     * Create the task parsing part of the values of a parallel parse
+     * @param sources The values to parse
+     * @param millis The array to store the milliseconds of each value in
+     * @param words The words of the bits to set for the values which cannot be parsed
+     * @param from The index of the first value to parse, a multiple of 64
+     * @param to The index after the last value to parse
+     * @return The task, returning the number of values which cannot be parsed
      */
-    private static StringBuilder escapeRegex(final StringBuilder regex, final String value, final boolean unquote) {
-        regex.append("\\Q");
-        for(int i= 0; i<value.length(); ++i) {
-            char c= value.charAt(i);
-            switch(c) {
-            case '\'':
-                if(unquote) {
-                    if(++i==value.length()) {
-                        return regex;
+    private Callable<Integer> newParseTask(final CharSequence[] sources, final long[] millis, final long[] words,
+            final int from, final int to) {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                final ParsedFields fields= new ParsedFields(timeZone, steps.length, false);
+                int count= 0;
+                for(int i= from; i<to; ++i) {
+                    if(!parseMillis(fields, sources[i], millis, i)) {
+                        words[i >>> 6]|= 1L << i;
+                        ++count;
                     }
-                    c= value.charAt(i);
                 }
-                break;
-            case '\\':
-                if(++i==value.length()) {
+                return Integer.valueOf(count);
+            }
+        };
+    }
+
+    /**
+     * Check that there is room for the milliseconds of all values
+     * @param sources The values to parse
+     * @param millis The array to store the milliseconds of each value in
+     * @throws IllegalArgumentException if the array of milliseconds is shorter than the values
+     */
+    private static void checkLength(final CharSequence[] sources, final long[] millis) {
+        if(millis.length<sources.length) {
+            throw new IllegalArgumentException("The array of milliseconds is shorter than the values: "
+                    + millis.length + " < " + sources.length);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.commons.lang3.time.DateParser#parseInto(java.nio.CharBuffer, char, long[], java.util.BitSet)
+     */
+    @Override
+    public int parseInto(final CharBuffer source, final char delimiter, final long[] millis, final BitSet errors) {
+        final ParsedFields fields= new ParsedFields(timeZone, steps.length, false);
+        final BufferWindow window= new BufferWindow(source);
+        final int limit= source.limit();
+        int pos= source.position();
+        int count= 0;
+        while(pos<limit && count<millis.length) {
+            int end= pos;
+            while(end<limit && source.get(end)!=delimiter) {
+                ++end;
+            }
+            window.start= pos;
+            window.end= end;
+            errors.set(count, !parseMillis(fields, window, millis, count));
+            ++count;
+            pos= end<limit ?end+1 :end;
+            source.position(pos);
+        }
+        return count;
+    }
+
+    /**
+     * Parse the whole of a value into the milliseconds since the epoch, reusing the fields
+     * of a previous parse. The value is converted to a <code>String</code> only if it
+     * must be parsed with a Calendar.
+     * @param fields The fields to reuse, not matching only
+     * @param source The value to parse, may be null
+     * @param millis The array to store the milliseconds in
+     * @param index The index of the value in the array
+     * @return true, if the whole value was parsed
+     */
+    private boolean parseMillis(final ParsedFields fields, final CharSequence source, final long[] millis, final int index) {
+        if(source==null) {
+            return false;
+        }
+        if(direct) {
+            fields.reset(timeZone);
+            final long value= parseDirect(fields, source, 0);
+            if(!fields.fallback) {
+                if(fields.end!=source.length()) {
+                    return false;
+                }
+                millis[index]= value;
+                return true;
+            }
+        }
+        final String text= source.toString();
+        final ParsePosition pos= new ParsePosition(0);
+        final long value= parseCalendarMillis(text, pos);
+        if(value==PARSE_FAILED || pos.getIndex()!=text.length()) {
+            return false;
+        }
+        millis[index]= value;
+        return true;
+    }
+
+    /**
+     * Parse a date with a Calendar, without throwing an exception.
+     * @param source The text to parse
+     * @param pos The position to start parsing at, updated on success
+     * @return The milliseconds since the epoch, or PARSE_FAILED if the text cannot be parsed
+     */
+    private long parseCalendarMillis(final String source, final ParsePosition pos) {
+        final Calendar cal;
+        try {
+            cal= parseCalendar(source, pos);
+        }
+        catch(final IllegalArgumentException e) {
+            // a number too large for an int
+            return PARSE_FAILED;
+        }
+        catch(final StringIndexOutOfBoundsException e) {
+            // a time zone with an empty name, or a position outside the text
+            return PARSE_FAILED;
+        }
+        return cal==null ?PARSE_FAILED :cal.getTimeInMillis();
+    }
+
+    /**
+     * A value within a buffer, read with absolute indexes so that the buffer is not changed
+     */
+    private static final class BufferWindow implements CharSequence {
+        private final CharBuffer buffer;
+        int start;
+        int end;
+
+        /**
+         * Construct a window of a buffer
+         * @param buffer The buffer
+         */
+        BufferWindow(final CharBuffer buffer) {
+            this.buffer= buffer;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public char charAt(final int index) {
+            if(index<0 || index>=end - start) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return buffer.get(start + index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public CharSequence subSequence(final int from, final int to) {
+            return toString().substring(from, to);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            final char[] chars= new char[end - start];
+            for(int i= 0; i<chars.length; ++i) {
+                chars[i]= buffer.get(start + i);
+            }
+            return new String(chars);
+        }
+    }
+
+    // Support for parsing without a regular expression
+    //-----------------------------------------------------------------------
+
+    /** The fields which can be parsed without a Calendar */
+    private static final int DIRECT_FIELDS= 1<<Calendar.YEAR | 1<<Calendar.MONTH | 1<<Calendar.DAY_OF_MONTH
+            | 1<<Calendar.DAY_OF_YEAR | 1<<Calendar.DAY_OF_WEEK | 1<<Calendar.AM_PM | 1<<Calendar.HOUR
+            | 1<<Calendar.HOUR_OF_DAY | 1<<Calendar.MINUTE | 1<<Calendar.SECOND | 1<<Calendar.MILLISECOND
+            | 1<<Calendar.ZONE_OFFSET;
+
+    private static final long MILLIS_PER_DAY= 24L * 60 * 60 * 1000;
+
+    /** The day after the epoch of the default Gregorian cutover, 15 October 1582 */
+    private static final long GREGORIAN_CUTOVER_DAY= -141427;
+
+    /** The largest repeat of wall time searched, allowing for a move across the date line */
+    private static final int OVERLAP_WINDOW= 26 * 60 * 60 * 1000;
+
+    private static final String ZONE_INFO_CLASS_NAME= "sun.util.calendar.ZoneInfo";
+
+    /**
+     * Parse the fields from a step onwards, directly from the text.
+     * Each strategy continues with the following step, trying its alternatives
+     * in order until the following steps match. Number fields take all the digits
+     * available, or exactly the width of the field if the next field is a number.
+     * @param fields The fields parsed so far
+     * @param source The text to parse
+     * @param pos The index of the step in the text
+     * @param step The index of the step
+     * @return true, if this and the following steps matched;
+     * false, if they did not match or the fields need a Calendar
+     */
+    boolean parseFrom(final ParsedFields fields, final CharSequence source, final int pos, final int step) {
+        fields.starts[step]= pos;
+        if(step==steps.length) {
+            fields.end= pos;
+            return true;
+        }
+        final StrategyAndWidth current= steps[step];
+        return current.strategy.parse(this, fields, source, pos, current.width, step);
+    }
+
+    /**
+     * Calculate the time as a Calendar would from the directly parsed fields.
+     * Flags the fields for a fallback to the Calendar if the date is not Gregorian
+     * or the time zone is not known.
+     * @param fields The parsed fields
+     * @return The milliseconds since the epoch
+     */
+    private long computeMillis(final ParsedFields fields) {
+        final int[] values= fields.values;
+        int year= isDirectField(Calendar.YEAR) ?values[Calendar.YEAR] :1970;
+        if(year<=1582) {
+            fields.fallback= true;
+            return 0;
+        }
+        long day;
+        if(isDirectField(Calendar.DAY_OF_YEAR)) {
+            day= epochDay(year, 0) + values[Calendar.DAY_OF_YEAR] - 1;
+        }
+        else {
+            final int month= values[Calendar.MONTH];
+            year+= Math.floorDiv(month, 12);
+            day= epochDay(year, Math.floorMod(month, 12));
+            if(isDirectField(Calendar.DAY_OF_MONTH)) {
+                day+= values[Calendar.DAY_OF_MONTH] - 1L;
+            }
+        }
+        long time;
+        if(isDirectField(Calendar.HOUR_OF_DAY)) {
+            time= values[Calendar.HOUR_OF_DAY];
+        }
+        else {
+            time= values[Calendar.HOUR] + 12L * values[Calendar.AM_PM];
+        }
+        time= ((time * 60 + values[Calendar.MINUTE]) * 60 + values[Calendar.SECOND]) * 1000
+                + values[Calendar.MILLISECOND];
+        day+= time / MILLIS_PER_DAY;
+        if(day<GREGORIAN_CUTOVER_DAY) {
+            fields.fallback= true;
+            return 0;
+        }
+        final long wall= day * MILLIS_PER_DAY + time % MILLIS_PER_DAY;
+        if(fields.zone==null) {
+            return wall - fields.offset;
+        }
+        return toUtc(fields, wall);
+    }
+
+    /**
+     * Is the Calendar field parsed by the direct steps?
+     * @param field The Calendar field
+     * @return true, if a step sets the field
+     */
+    private boolean isDirectField(final int field) {
+        return (directFields & 1<<field)!=0;
+    }
+
+    /**
+     * Get the days since the epoch of the first day of a month in the Gregorian calendar.
+     * @param year The year
+     * @param month The month, from 0 for January to 11 for December
+     * @return The days since 1 January 1970
+     */
+    static long epochDay(final int year, final int month) {
+        // count years from March, so that the leap day is at the end of the year
+        final long y= month<2 ?year-1L :year;
+        final long era= Math.floorDiv(y, 400);
+        final long yearOfEra= y - era * 400;
+        final int monthFromMarch= month<2 ?month+10 :month-2;
+        final long dayOfYear= (153 * monthFromMarch + 2) / 5;
+        final long dayOfEra= yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Set the year, month and day of the month of a day in the Gregorian calendar, the inverse of epochDay.
+     * @param day The days since 1 January 1970
+     * @param fields The array indexed by Calendar field to set YEAR, MONTH and DAY_OF_MONTH of
+     */
+    static void civilFields(final long day, final int[] fields) {
+        // count years from March, so that the leap day is at the end of the year
+        final long shifted= day + 719468;
+        final long era= Math.floorDiv(shifted, 146097);
+        final long dayOfEra= shifted - era * 146097;
+        final long yearOfEra= (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear= dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long monthFromMarch= (5 * dayOfYear + 2) / 153;
+        final int month= (int) (monthFromMarch<10 ?monthFromMarch+2 :monthFromMarch-10);
+        fields[Calendar.YEAR]= (int) (era * 400 + yearOfEra) + (month<2 ?1 :0);
+        fields[Calendar.MONTH]= month;
+        fields[Calendar.DAY_OF_MONTH]= (int) (dayOfYear - (153 * monthFromMarch + 2) / 5 + 1);
+    }
+
+    /**
+     * Convert a wall time to the time since the epoch, as a GregorianCalendar would.
+     * A wall time skipped by a transition uses the offset before the transition,
+     * and a wall time repeated by a transition uses the offset after the transition.
+     * Flags the fields for a fallback to the Calendar if the time zone is not
+     * one built into the JDK, or the transitions cannot be resolved.
+     * @param fields The parsed fields, with the time zone to use
+     * @param wall The wall time in milliseconds
+     * @return The milliseconds since the epoch
+     */
+    private static long toUtc(final ParsedFields fields, final long wall) {
+        final TimeZone zone= fields.zone;
+        if(zone.getClass()==SimpleTimeZone.class) {
+            return wall - zone.getOffset(wall - zone.getRawOffset());
+        }
+        if(!ZONE_INFO_CLASS_NAME.equals(zone.getClass().getName())) {
+            fields.fallback= true;
+            return 0;
+        }
+        int offset= zone.getOffset(wall - zone.getRawOffset());
+        for(int i= 0; i<4; ++i) {
+            final int next= zone.getOffset(wall - offset);
+            if(next==offset) {
+                // a wall time repeated by a transition may also match a later, smaller offset
+                final int later= zone.getOffset(wall - offset + OVERLAP_WINDOW);
+                if(later<offset && zone.getOffset(wall - later)==later) {
+                    return wall - later;
+                }
+                return wall - offset;
+            }
+            if(zone.getOffset(wall - next)==offset) {
+                // a wall time skipped by a transition
+                return wall - Math.min(offset, next);
+            }
+            offset= next;
+        }
+        fields.fallback= true;
+        return 0;
+    }
+
+    /**
+     * The fields of a date parsed directly from the text
+     */
+    static final class ParsedFields {
+        final int[] values= new int[Calendar.FIELD_COUNT];
+        // the index of each step in the text, and the index after the last step
+        final int[] starts;
+        // whether the text is only matched, to set the fields of a Calendar afterwards
+        final boolean matchOnly;
+        // the parsed time zone, or null for a fixed offset
+        TimeZone zone;
+        int offset;
+        // whether the date must be parsed using a Calendar
+        boolean fallback;
+        // the index after the last field
+        int end;
+
+        /**
+         * Construct the fields for a parse
+         * @param zone The default time zone
+         * @param steps The number of steps of the parser
+         * @param matchOnly Whether the text is only matched, for a Calendar
+         */
+        ParsedFields(final TimeZone zone, final int steps, final boolean matchOnly) {
+            this.zone= zone;
+            this.starts= new int[steps+1];
+            this.matchOnly= matchOnly;
+        }
+
+        /**
+         * Clear the fields for another parse
+         * @param zone The default time zone
+         */
+        void reset(final TimeZone zone) {
+            Arrays.fill(values, 0);
+            this.zone= zone;
+            offset= 0;
+            fallback= false;
+            end= 0;
+        }
+    }
+
+    /**
+     * A strategy, with the width of its field if the next field is a number
+     */
+    private static final class StrategyAndWidth {
+        final Strategy strategy;
+        final int width;
+
+        /**
+         * Construct a step of the direct parse
+         * @param strategy The strategy of the field
+         * @param width The number of digits to parse, or 0 for as many as there are
+         */
+        StrategyAndWidth(final Strategy strategy, final int width) {
+            this.strategy= strategy;
+            this.width= width;
+        }
+    }
+
+    /**
+     * A trie of the names of a text field, ignoring case as
+     * <code>String.CASE_INSENSITIVE_ORDER</code> does. Each name has an order,
+     * in which the names are tried as alternatives. Of names differing only in
+     * case, the first added is kept.
+     * @param <V> The type of the value of each name
+     */
+    private static final class NameTrie<V> {
+        private final Node<V> root= new Node<V>(0);
+        private int size;
+
+        /**
+         * Add a name, after all names added before it in order
+         * @param name The name
+         * @param value The value of the name
+         */
+        void add(final String name, final V value) {
+            Node<V> node= root;
+            for(int i= 0; i<name.length(); ++i) {
+                node= node.getOrAddChild(fold(name.charAt(i)));
+            }
+            if(node.order<0) {
+                node.order= size++;
+                node.value= value;
+            }
+        }
+
+        /**
+         * Get the node of a name
+         * @param name The name, in any case
+         * @return The node of the name, or null if the name was not added
+         */
+        Node<V> get(final String name) {
+            Node<V> node= root;
+            for(int i= 0; i<name.length() && node!=null; ++i) {
+                node= node.getChild(fold(name.charAt(i)));
+            }
+            return node==null || node.order<0 ?null :node;
+        }
+
+        /**
+         * Find the first name in order after an order that matches the text at an index
+         * @param source The text to match
+         * @param pos The index to match at
+         * @param after The order of the name matched before, or -1 for the first
+         * @return The node of the matching name, or null if no other name matches
+         */
+        Node<V> find(final CharSequence source, final int pos, final int after) {
+            Node<V> best= null;
+            Node<V> node= root;
+            for(int i= pos;;) {
+                if(node.order>after && (best==null || node.order<best.order)) {
+                    best= node;
+                }
+                if(i==source.length()) {
+                    return best;
+                }
+                node= node.getChild(fold(source.charAt(i++)));
+                if(node==null) {
+                    return best;
+                }
+            }
+        }
+
+        /**
+         * Find the longest name shorter than a length that matches the text at an index
+         * @param source The text to match
+         * @param pos The index to match at
+         * @param before The length of the name matched before, or Integer.MAX_VALUE for the longest
+         * @return The node of the matching name, or null if no shorter name matches
+         */
+        Node<V> findLongest(final CharSequence source, final int pos, final int before) {
+            Node<V> best= null;
+            Node<V> node= root;
+            for(int i= pos; node.length<before;) {
+                if(node.order>=0) {
+                    best= node;
+                }
+                if(i==source.length()) {
+                    break;
+                }
+                node= node.getChild(fold(source.charAt(i++)));
+                if(node==null) {
                     break;
-                }                
-                /*
-                 * If we have found \E, we replace it with \E\\E\Q, i.e. we stop the quoting,
-                 * quote the \ in \E, then restart the quoting.
-                 * 
-                 * Otherwise we just output the two characters.
-                 * In each case the initial \ needs to be output and the final char is done at the end
-                 */
-                regex.append(c); // we always want the original \
-                c = value.charAt(i); // Is it followed by E ?
-                if (c == 'E') { // \E detected
-                  regex.append("E\\\\E\\"); // see comment above
-                  c = 'Q'; // appended below
                 }
-                break;
             }
-            regex.append(c);
+            return best;
+        }
+
+        /**
+         * Fold the case of a character
+         * @param c The character
+         * @return The character in lower case, after conversion to upper case
+         */
+        private static char fold(final char c) {
+            return Character.toLowerCase(Character.toUpperCase(c));
         }
-        regex.append("\\E");
-        return regex;
     }
 
+    /**
+     * A node of a NameTrie
+     * @param <V> The type of the value of each name
+     */
+    private static final class Node<V> {
+        final int length;
+        int order= -1;
+        V value;
+        private char[] chars= new char[0];
+        private Node<V>[] children= newNodes(0);
+
+        /**
+         * Construct a node
+         * @param length The length of the names through this node
+         */
+        Node(final int length) {
+            this.length= length;
+        }
+
+        /**
+         * Get the child for a character
+         * @param c The next character of the name
+         * @return The child, or null if no name continues with the character
+         */
+        Node<V> getChild(final char c) {
+            final int index= Arrays.binarySearch(chars, c);
+            return index<0 ?null :children[index];
+        }
+
+        /**
+         * Get or add the child for a character
+         * @param c The next character of the name
+         * @return The child
+         */
+        Node<V> getOrAddChild(final char c) {
+            int index= Arrays.binarySearch(chars, c);
+            if(index<0) {
+                index= -index-1;
+                final char[] newChars= new char[chars.length+1];
+                final Node<V>[] newChildren= newNodes(chars.length+1);
+                System.arraycopy(chars, 0, newChars, 0, index);
+                System.arraycopy(children, 0, newChildren, 0, index);
+                newChars[index]= c;
+                newChildren[index]= new Node<V>(length+1);
+                System.arraycopy(chars, index, newChars, index+1, chars.length-index);
+                System.arraycopy(children, index, newChildren, index+1, chars.length-index);
+                chars= newChars;
+                children= newChildren;
+            }
+            return children[index];
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"}) // OK because the array has no entries
+        private static <V> Node<V>[] newNodes(final int size) {
+            return new Node[size];
+        }
+    }
+
+    // Support for strategies
+    //-----------------------------------------------------------------------
 
     /**
      * Get the short and long values displayed for a field
@@ -401,14 +1107,27 @@ public class FastDateParser implements DateParser, Serializable {
             
         }
         /**
-         * Generate a <code>Pattern</code> regular expression to the <code>StringBuilder</code>
-         * which will accept this field
+         * Get the Calendar field set by this strategy.
+         * The default implementation returns -1, for a constant value.
+         * 
+         * @return The Calendar field, or -1
+         */
+        int getField() {
+            return -1;
+        }
+        /**
+         * Parse this field directly from the text, then the following fields.
+         * 
          * @param parser The parser calling this strategy
-         * @param regex The <code>StringBuilder</code> to append to
-         * @return true, if this field will set the calendar;
-         * false, if this field is a constant value
+         * @param fields The fields to set
+         * @param source The text to parse
+         * @param pos The index of this field in the text
+         * @param width The number of digits of a number field, or 0 for as many as there are
+         * @param step The index of this field in the parser's steps
+         * @return true, if this and the following fields matched
          */
-        abstract boolean addRegex(FastDateParser parser, StringBuilder regex);
+        abstract boolean parse(FastDateParser parser, ParsedFields fields, CharSequence source,
+                int pos, int width, int step);
     }
 
     /**
@@ -515,6 +1234,7 @@ public class FastDateParser implements DateParser, Serializable {
      */
     private static class CopyQuotedStrategy extends Strategy {
         private final String formatField;
+        private final String literal;
 
         /**
          * Construct a Strategy that ensures the formatField has literal text
@@ -522,6 +1242,31 @@ public class FastDateParser implements DateParser, Serializable {
          */
         CopyQuotedStrategy(final String formatField) {
             this.formatField= formatField;
+            this.literal= unquote(formatField);
+        }
+
+        /**
+         * Get the text matched by a literal field, with two quotes ('') giving a single quote (')
+         * @param value The field
+         * @return The text to match
+         */
+        private static String unquote(final String value) {
+            final StringBuilder sb= new StringBuilder(value.length());
+            for(int i= 0; i<value.length(); ++i) {
+                char c= value.charAt(i);
+                if(c=='\'') {
+                    if(++i==value.length()) {
+                        break;
+                    }
+                    c= value.charAt(i);
+                }
+                else if(c=='\\' && i+1<value.length()) {
+                    sb.append(c);
+                    c= value.charAt(++i);
+                }
+                sb.append(c);
+            }
+            return sb.toString();
         }
 
         /**
@@ -540,9 +1285,18 @@ public class FastDateParser implements DateParser, Serializable {
          * {@inheritDoc}
          */
         @Override
-        boolean addRegex(final FastDateParser parser, final StringBuilder regex) {
-            escapeRegex(regex, formatField, true);
-            return false;
+        boolean parse(final FastDateParser parser, final ParsedFields fields, final CharSequence source,
+                final int pos, final int width, final int step) {
+            final int length= literal.length();
+            if(pos+length>source.length()) {
+                return false;
+            }
+            for(int i= 0; i<length; ++i) {
+                if(source.charAt(pos+i)!=literal.charAt(i)) {
+                    return false;
+                }
+            }
+            return parser.parseFrom(fields, source, pos+length, step+1);
         }
     }
 
@@ -552,6 +1306,7 @@ public class FastDateParser implements DateParser, Serializable {
      private static class TextStrategy extends Strategy {
         private final int field;
         private final Map<String, Integer> keyValues;
+        private final NameTrie<Integer> keyTrie= new NameTrie<Integer>();
 
         /**
          * Construct a Strategy that parses a Text field
@@ -562,19 +1317,35 @@ public class FastDateParser implements DateParser, Serializable {
         TextStrategy(final int field, final Calendar definingCalendar, final Locale locale) {
             this.field= field;
             this.keyValues= getDisplayNames(field, definingCalendar, locale);
+            for(final Map.Entry<String, Integer> entry : keyValues.entrySet()) {
+                keyTrie.add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        int getField() {
+            return field;
         }
 
         /**
          * {@inheritDoc}
          */
         @Override
-        boolean addRegex(final FastDateParser parser, final StringBuilder regex) {
-            regex.append('(');
-            for(final String textKeyValue : keyValues.keySet()) {
-                escapeRegex(regex, textKeyValue, false).append('|');
+        boolean parse(final FastDateParser parser, final ParsedFields fields, final CharSequence source,
+                final int pos, final int width, final int step) {
+            for(Node<Integer> key= keyTrie.find(source, pos, -1); key!=null; key= keyTrie.find(source, pos, key.order)) {
+                fields.values[field]= key.value.intValue();
+                if(parser.parseFrom(fields, source, pos+key.length, step+1)) {
+                    return true;
+                }
+                if(fields.fallback) {
+                    return false;
+                }
             }
-            regex.setCharAt(regex.length()-1, ')');
-            return true;
+            return false;
         }
 
         /**
@@ -582,8 +1353,8 @@ public class FastDateParser implements DateParser, Serializable {
          */
         @Override
         void setCalendar(final FastDateParser parser, final Calendar cal, final String value) {
-            final Integer iVal = keyValues.get(value);
-            if(iVal == null) {
+            final Node<Integer> key= keyTrie.get(value);
+            if(key == null) {
                 final StringBuilder sb= new StringBuilder(value);
                 sb.append(" not in (");
                 for(final String textKeyValue : keyValues.keySet()) {
@@ -592,7 +1363,7 @@ public class FastDateParser implements DateParser, Serializable {
                 sb.setCharAt(sb.length()-1, ')');
                 throw new IllegalArgumentException(sb.toString());
             }
-            cal.set(field, iVal.intValue());
+            cal.set(field, key.value.intValue());
         }
     }
 
@@ -623,14 +1394,8 @@ public class FastDateParser implements DateParser, Serializable {
          * {@inheritDoc}
          */
         @Override
-        boolean addRegex(final FastDateParser parser, final StringBuilder regex) {
-            if(parser.isNextNumber()) {
-                regex.append("(\\p{IsNd}{").append(parser.getFieldWidth()).append("}+)");
-            }
-            else {
-                regex.append("(\\p{IsNd}++)");
-            }
-            return true;
+        int getField() {
+            return field;
         }
 
         /**
@@ -638,15 +1403,85 @@ public class FastDateParser implements DateParser, Serializable {
          */
         @Override
         void setCalendar(final FastDateParser parser, final Calendar cal, final String value) {
-            cal.set(field, modify(Integer.parseInt(value)));
+            cal.set(field, modify(parser, Integer.parseInt(value)));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean parse(final FastDateParser parser, final ParsedFields fields, final CharSequence source,
+                final int pos, final int width, final int step) {
+            if(fields.matchOnly) {
+                return match(parser, fields, source, pos, width, step);
+            }
+            int end= pos;
+            int iValue= 0;
+            final int limit= width>0 ?pos+width :source.length();
+            if(limit>source.length()) {
+                return false;
+            }
+            while(end<limit) {
+                final char c= source.charAt(end);
+                if(!Character.isDigit(c)) {
+                    if(Character.isSurrogate(c)) {
+                        // a supplementary digit
+                        fields.fallback= true;
+                    }
+                    break;
+                }
+                if(end-pos==9) {
+                    // may not fit in an int
+                    fields.fallback= true;
+                    return false;
+                }
+                iValue= iValue*10 + Character.digit(c, 10);
+                ++end;
+            }
+            if(fields.fallback || end==pos || width>0 && end<limit) {
+                return false;
+            }
+            fields.values[field]= modify(parser, iValue);
+            return parser.parseFrom(fields, source, end, step+1);
+        }
+
+        /**
+         * Match the digits of this field, then the following fields, for a Calendar.
+         * Digits outside the Basic Multilingual Plane and values too large for an
+         * <code>int</code> are matched, then rejected by <code>setCalendar</code>.
+         * @param parser The parser calling this strategy
+         * @param fields The fields to set
+         * @param source The text to parse
+         * @param pos The index of this field in the text
+         * @param width The number of digits, or 0 for as many as there are
+         * @param step The index of this field in the parser's steps
+         * @return true, if this and the following fields matched
+         */
+        private boolean match(final FastDateParser parser, final ParsedFields fields, final CharSequence source,
+                final int pos, final int width, final int step) {
+            int end= pos;
+            int digits= 0;
+            while(end<source.length() && (width==0 || digits<width)) {
+                final int cp= Character.codePointAt(source, end);
+                if(!Character.isDigit(cp)) {
+                    break;
+                }
+                end+= Character.charCount(cp);
+                ++digits;
+            }
+            if(digits==0 || width>0 && digits<width) {
+                return false;
+            }
+            return parser.parseFrom(fields, source, end, step+1);
         }
 
         /**
          * Make any modifications to parsed integer
+         * @param parser The parser
          * @param iValue The parsed integer
          * @return The modified value
          */
-        int modify(final int iValue) {
+        int modify(final FastDateParser parser, final int iValue) {
             return iValue;
         }
     }
@@ -656,12 +1491,8 @@ public class FastDateParser implements DateParser, Serializable {
          * {@inheritDoc}
          */
         @Override
-        void setCalendar(final FastDateParser parser, final Calendar cal, final String value) {
-            int iValue= Integer.parseInt(value);
-            if(iValue<100) {
-                iValue= parser.adjustYear(iValue);
-            }
-            cal.set(Calendar.YEAR, iValue);
+        int modify(final FastDateParser parser, final int iValue) {
+            return iValue<100 ?parser.adjustYear(iValue) :iValue;
         }
     };
 
@@ -670,14 +1501,15 @@ public class FastDateParser implements DateParser, Serializable {
      */
     private static class TimeZoneStrategy extends Strategy {
 
-        private final String validTimeZoneChars;
-        private final SortedMap<String, TimeZone> tzNames= new TreeMap<String, TimeZone>(String.CASE_INSENSITIVE_ORDER);
+        private final NameTrie<TimeZone> tzTrie= new NameTrie<TimeZone>();
 
         /**
          * Construct a Strategy that parses a TimeZone
          * @param locale The Locale
          */
         TimeZoneStrategy(final Locale locale) {
+            // the names, ignoring case
+            final Map<String, TimeZone> tzNames= new TreeMap<String, TimeZone>(String.CASE_INSENSITIVE_ORDER);
             for(final String id : TimeZone.getAvailableIDs()) {
                 if(id.startsWith("GMT")) {
                     continue;
@@ -690,22 +1522,129 @@ public class FastDateParser implements DateParser, Serializable {
                     tzNames.put(tz.getDisplayName(true, TimeZone.LONG, locale), tz);
                 }
             }
-            final StringBuilder sb= new StringBuilder();
-            sb.append("(GMT[+\\-]\\d{0,1}\\d{2}|[+\\-]\\d{2}:?\\d{2}|");
-            for(final String id : tzNames.keySet()) {
-                escapeRegex(sb, id, false).append('|');
+            for(final Map.Entry<String, TimeZone> entry : tzNames.entrySet()) {
+                tzTrie.add(entry.getKey(), getTimeZone(entry.getKey(), entry.getValue()));
             }
-            sb.setCharAt(sb.length()-1, ')');
-            validTimeZoneChars= sb.toString();
         }
 
         /**
          * {@inheritDoc}
          */
         @Override
-        boolean addRegex(final FastDateParser parser, final StringBuilder regex) {
-            regex.append(validTimeZoneChars);
-            return true;
+        int getField() {
+            return Calendar.ZONE_OFFSET;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean parse(final FastDateParser parser, final ParsedFields fields, final CharSequence source,
+                final int pos, final int width, final int step) {
+            final int length= source.length();
+            // GMT[+\-]\d{0,1}\d{2}, trying three digits before two
+            if(pos+6<=length && source.charAt(pos)=='G' && source.charAt(pos+1)=='M' && source.charAt(pos+2)=='T'
+                    && isSign(source.charAt(pos+3))) {
+                final int digits= countDigits(source, pos+4, 3);
+                for(int n= digits; n>=2; --n) {
+                    final int num= parseDigits(source, pos+4, n);
+                    setOffset(fields, source.charAt(pos+3), n==2 ?num :num/100, n==2 ?0 :num%100);
+                    if(parser.parseFrom(fields, source, pos+4+n, step+1)) {
+                        return true;
+                    }
+                    if(fields.fallback) {
+                        return false;
+                    }
+                }
+            }
+            // [+\-]\d{2}:?\d{2}
+            if(pos+5<=length && isSign(source.charAt(pos)) && countDigits(source, pos+1, 2)==2) {
+                final int colon= source.charAt(pos+3)==':' ?1 :0;
+                if(countDigits(source, pos+3+colon, 2)==2) {
+                    setOffset(fields, source.charAt(pos),
+                            parseDigits(source, pos+1, 2), parseDigits(source, pos+3+colon, 2));
+                    if(parser.parseFrom(fields, source, pos+5+colon, step+1)) {
+                        return true;
+                    }
+                    if(fields.fallback) {
+                        return false;
+                    }
+                }
+            }
+            // the longest name first, as SimpleDateFormat: "EST" must not cut "Eastern Standard Time" short
+            for(Node<TimeZone> name= tzTrie.findLongest(source, pos, Integer.MAX_VALUE); name!=null;
+                    name= tzTrie.findLongest(source, pos, name.length)) {
+                if(name.value==null && !fields.matchOnly) {
+                    fields.fallback= true;
+                    return false;
+                }
+                fields.zone= name.value;
+                if(parser.parseFrom(fields, source, pos+name.length, step+1)) {
+                    return true;
+                }
+                if(fields.fallback) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Is the character the sign of an offset?
+         * @param c The character
+         * @return true, if the character is '+' or '-'
+         */
+        private static boolean isSign(final char c) {
+            return c=='+' || c=='-';
+        }
+
+        /**
+         * Count the ASCII digits at an index, up to a maximum
+         * @param source The text
+         * @param pos The index of the first digit
+         * @param max The maximum number of digits
+         * @return The number of digits
+         */
+        private static int countDigits(final CharSequence source, final int pos, final int max) {
+            int n= 0;
+            while(n<max && pos+n<source.length() && source.charAt(pos+n)>='0' && source.charAt(pos+n)<='9') {
+                ++n;
+            }
+            return n;
+        }
+
+        /**
+         * Parse ASCII digits
+         * @param source The text
+         * @param pos The index of the first digit
+         * @param n The number of digits
+         * @return The value of the digits
+         */
+        private static int parseDigits(final CharSequence source, final int pos, final int n) {
+            int num= 0;
+            for(int i= pos; i<pos+n; ++i) {
+                num= num*10 + source.charAt(i)-'0';
+            }
+            return num;
+        }
+
+        /**
+         * Set the offset of a custom time zone, as <code>TimeZone.getTimeZone("GMT...")</code> does.
+         * Values out of range give GMT.
+         * @param fields The fields to set
+         * @param sign The sign of the offset
+         * @param hours The hours of the offset
+         * @param minutes The minutes of the offset
+         */
+        private static void setOffset(final ParsedFields fields, final char sign, final int hours, final int minutes) {
+            fields.zone= null;
+            if(hours>23 || minutes>59) {
+                fields.offset= 0;
+            }
+            else {
+                final int offset= (hours*60 + minutes) * 60 * 1000;
+                fields.offset= sign=='-' ?-offset :offset;
+            }
         }
 
         /**
@@ -721,18 +1660,38 @@ public class FastDateParser implements DateParser, Serializable {
                 tz= TimeZone.getTimeZone(value);
             }
             else {
-                tz= tzNames.get(value);
-                if(tz==null) {
+                final Node<TimeZone> name= tzTrie.get(value);
+                if(name==null) {
                     throw new IllegalArgumentException(value + " is not a supported timezone name");
                 }
+                tz= name.value;
             }
             cal.setTimeZone(tz);
         }
+
+        /**
+         * Get the time zone that setCalendar sets for a name
+         * @param name The time zone name
+         * @param tz The time zone of the name
+         * @return The time zone, or null if setCalendar fails for the name
+         */
+        private static TimeZone getTimeZone(final String name, final TimeZone tz) {
+            if(name.length()==0) {
+                return null;
+            }
+            if(name.charAt(0)=='+' || name.charAt(0)=='-') {
+                return TimeZone.getTimeZone("GMT"+name);
+            }
+            if(name.startsWith("GMT")) {
+                return TimeZone.getTimeZone(name);
+            }
+            return tz;
+        }
     }
 
     private static final Strategy NUMBER_MONTH_STRATEGY = new NumberStrategy(Calendar.MONTH) {
         @Override
-        int modify(final int iValue) {
+        int modify(final FastDateParser parser, final int iValue) {
             return iValue-1;
         }
     };
@@ -745,13 +1704,13 @@ public class FastDateParser implements DateParser, Serializable {
     private static final Strategy HOUR_OF_DAY_STRATEGY = new NumberStrategy(Calendar.HOUR_OF_DAY);
     private static final Strategy MODULO_HOUR_OF_DAY_STRATEGY = new NumberStrategy(Calendar.HOUR_OF_DAY) {
         @Override
-        int modify(final int iValue) {
+        int modify(final FastDateParser parser, final int iValue) {
             return iValue%24;
         }
     };
     private static final Strategy MODULO_HOUR_STRATEGY = new NumberStrategy(Calendar.HOUR) {
         @Override
-        int modify(final int iValue) {
+        int modify(final FastDateParser parser, final int iValue) {
             return iValue%12;
         }
     };
@@ -31,6 +31,7 @@ import java.util.Locale;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.Validate;
 
@@ -63,17 +64,23 @@ import org.apache.commons.lang3.Validate;
  * 'YYY' will be formatted as '2003', while it was '03' in former Java
  * versions. FastDatePrinter implements the behavior of Java 7.</p>
  *
+ * <p>Millisecond values are formatted without a {@code Calendar}, and can be
+ * written into a {@code StringBuilder}, an {@code Appendable} or a
+ * {@code char} array. Each call allocates a small array for the fields, and a
+ * buffer unless it writes into a {@code StringBuilder}; no state is kept per
+ * thread.</p>
+ *
  * @since 3.2
  */
 public class FastDatePrinter implements DatePrinter, Serializable {
     // A lot of the speed in this class comes from caching, but some comes
-    // from the special int to StringBuffer conversion.
+    // from the special int to StringBuilder conversion.
     //
     // The following produces a padded 2 digit number:
     //   buffer.append((char)(value / 10 + '0'));
     //   buffer.append((char)(value % 10 + '0'));
     //
-    // Note that the fastest append to StringBuffer is a single char (used here).
+    // Note that the fastest append to StringBuilder is a single char (used here).
     // Note that Integer.toString() is not called, the conversion is simply
     // taking the value and adding (mathematically) the ASCII value for '0'.
     // So, don't change this code! It works and is very fast.
@@ -85,6 +92,18 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      */
     private static final long serialVersionUID = 1L;
 
+    /** Milliseconds in an hour. */
+    private static final long MILLIS_PER_HOUR = 60 * 60 * 1000L;
+    /** Milliseconds in a day. */
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+    /**
+     * The first instant formatted without a {@code Calendar}, 2 January 1584, leaving a day
+     * for the time zone offset in 1584, the first whole year of the Gregorian calendar.
+     */
+    private static final long MIN_DIRECT_MILLIS = -12180931200000L;
+    /** The last instant formatted without a {@code Calendar}, in the year 37648. */
+    private static final long MAX_DIRECT_MILLIS = 1L << 50;
+
     /**
      * FULL locale dependent date or time style.
      */
@@ -114,6 +133,10 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      * The locale.
      */
     private final Locale mLocale;
+    /**
+     * Whether the text of the last formatted second is cached.
+     */
+    private final boolean mCacheSeconds;
     /**
      * The parsed rules.
      */
@@ -122,6 +145,30 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      * The estimated maximum length.
      */
     private transient int mMaxLengthEstimate;
+    /**
+     * The first day of the week of the locale.
+     */
+    private transient int mFirstDayOfWeek;
+    /**
+     * The minimal days in the first week of the locale.
+     */
+    private transient int mMinimalDaysInFirstWeek;
+    /**
+     * Whether a rule prints whether daylight saving time is in effect.
+     */
+    private transient boolean mNeedsDstOffset;
+    /**
+     * The fields of the most recently formatted hour.
+     */
+    private transient volatile CachedFields mCachedFields;
+    /**
+     * The only rule printing the milliseconds, or {@code null}.
+     */
+    private transient NumberRule mMillisecondRule;
+    /**
+     * The text of the last formatted second, or {@code null} if seconds are not cached.
+     */
+    private transient AtomicReference<FormattedSecond> mFormattedSecond;
 
     // Constructor
     //-----------------------------------------------------------------------
@@ -134,9 +181,31 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      * @throws NullPointerException if pattern, timeZone, or locale is null.
      */
     protected FastDatePrinter(final String pattern, final TimeZone timeZone, final Locale locale) {
+        this(pattern, timeZone, locale, false);
+    }
+
+    /**
+     * <p>Constructs a new FastDatePrinter, optionally caching the text
+     * of the last formatted second.</p>
+     *
+     * <p>The cache suits formatting the current time many times a second,
+     * as a logger does. Only the milliseconds are formatted for each value
+     * in the cached second. Patterns with more than one millisecond field
+     * are formatted in full.</p>
+     *
+     * @param pattern  {@link java.text.SimpleDateFormat} compatible pattern
+     * @param timeZone  non-null time zone to use
+     * @param locale  non-null locale to use
+     * @param cacheSeconds  whether to cache the text of the last formatted second
+     * @throws NullPointerException if pattern, timeZone, or locale is null.
+     * @since 3.2
+     */
+    protected FastDatePrinter(final String pattern, final TimeZone timeZone, final Locale locale,
+            final boolean cacheSeconds) {
         mPattern = pattern;
         mTimeZone = timeZone;
         mLocale = locale;
+        mCacheSeconds = cacheSeconds;
 
         init();
     }
@@ -154,6 +223,50 @@ public class FastDatePrinter implements DatePrinter, Serializable {
         }
 
         mMaxLengthEstimate = len;
+
+        final Calendar calendar = newCalendar();
+        mFirstDayOfWeek = calendar.getFirstDayOfWeek();
+        mMinimalDaysInFirstWeek = calendar.getMinimalDaysInFirstWeek();
+        boolean needsDstOffset = false;
+        for (final Rule rule : mRules) {
+            needsDstOffset |= rule instanceof TimeZoneNameRule;
+        }
+        mNeedsDstOffset = needsDstOffset && mTimeZone.useDaylightTime();
+        mCachedFields = null;
+
+        int millisecondRules = 0;
+        mMillisecondRule = null;
+        for (final Rule rule : mRules) {
+            if (isMillisecondRule(rule)) {
+                mMillisecondRule = (NumberRule) rule;
+                millisecondRules++;
+            }
+        }
+        if (mCacheSeconds && millisecondRules <= 1) {
+            mFormattedSecond = new AtomicReference<FormattedSecond>();
+        } else {
+            mMillisecondRule = null;
+            mFormattedSecond = null;
+        }
+    }
+
+    /**
+     * <p>Checks whether a rule prints the milliseconds.</p>
+     *
+     * @param rule  the rule to check
+     * @return {@code true} if the rule prints the {@code MILLISECOND} field
+     */
+    private static boolean isMillisecondRule(final Rule rule) {
+        if (rule instanceof UnpaddedNumberField) {
+            return ((UnpaddedNumberField) rule).mField == Calendar.MILLISECOND;
+        }
+        if (rule instanceof TwoDigitNumberField) {
+            return ((TwoDigitNumberField) rule).mField == Calendar.MILLISECOND;
+        }
+        if (rule instanceof PaddedNumberField) {
+            return ((PaddedNumberField) rule).mField == Calendar.MILLISECOND;
+        }
+        return false;
     }
 
     // Parse the pattern
@@ -394,13 +507,23 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public String format(final long millis) {
-        final Calendar c = newCalendar();  // hard code GregorianCalendar
-        c.setTimeInMillis(millis);
-        return applyRulesToString(c);
+        if (mFormattedSecond != null && mMillisecondRule == null) {
+            // the whole text is the same throughout the second
+            final FormattedSecond second = mFormattedSecond.get();
+            if (second != null && second.contains(millis)) {
+                return second.mPrefix;
+            }
+        }
+        return applyRules(millis, new int[Calendar.FIELD_COUNT], newBuffer()).toString();
     }
 
-    private String applyRulesToString(final Calendar c) {
-        return applyRules(c, new StringBuffer(mMaxLengthEstimate)).toString();
+    /**
+     * Creates a buffer large enough for most formatted dates.
+     *
+     * @return a new buffer
+     */
+    private StringBuilder newBuffer() {
+        return new StringBuilder(mMaxLengthEstimate);
     }
 
     private GregorianCalendar newCalendar() {
@@ -413,9 +536,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public String format(final Date date) {
-        final Calendar c = newCalendar();  // hard code GregorianCalendar
-        c.setTime(date);
-        return applyRulesToString(c);
+        return format(date.getTime());
     }
 
     /* (non-Javadoc)
@@ -423,7 +544,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public String format(final Calendar calendar) {
-        return format(calendar, new StringBuffer(mMaxLengthEstimate)).toString();
+        return applyRules(calendar, newBuffer()).toString();
     }
 
     /* (non-Javadoc)
@@ -431,7 +552,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public StringBuffer format(final long millis, final StringBuffer buf) {
-        return format(new Date(millis), buf);
+        return buf.append(applyRules(millis, new int[Calendar.FIELD_COUNT], newBuffer()));
     }
 
     /* (non-Javadoc)
@@ -439,9 +560,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      */
     @Override
     public StringBuffer format(final Date date, final StringBuffer buf) {
-        final Calendar c = newCalendar();  // hard code GregorianCalendar
-        c.setTime(date);
-        return applyRules(c, buf);
+        return format(date.getTime(), buf);
     }
 
     /* (non-Javadoc)
@@ -452,6 +571,38 @@ public class FastDatePrinter implements DatePrinter, Serializable {
         return applyRules(calendar, buf);
     }
 
+    /* (non-Javadoc)
+     * @see org.apache.commons.lang3.time.DatePrinter#format(long, java.lang.StringBuilder)
+     */
+    @Override
+    public StringBuilder format(final long millis, final StringBuilder buf) {
+        return applyRules(millis, new int[Calendar.FIELD_COUNT], buf);
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.commons.lang3.time.DatePrinter#format(long, java.lang.Appendable)
+     */
+    @Override
+    public <B extends Appendable> B format(final long millis, final B buf) throws IOException {
+        buf.append(applyRules(millis, new int[Calendar.FIELD_COUNT], newBuffer()));
+        return buf;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.commons.lang3.time.DatePrinter#format(long, char[], int)
+     */
+    @Override
+    public int format(final long millis, final char[] buf, final int offset) {
+        final StringBuilder formatted = applyRules(millis, new int[Calendar.FIELD_COUNT], newBuffer());
+        final int length = formatted.length();
+        if (offset < 0 || offset > buf.length - length) {
+            throw new ArrayIndexOutOfBoundsException("Cannot format " + length + " characters at index " + offset
+                    + " of an array of length " + buf.length);
+        }
+        formatted.getChars(0, length, buf, offset);
+        return offset + length;
+    }
+
     /**
      * <p>Performs the formatting by applying the rules to the
      * specified calendar.</p>
@@ -461,12 +612,222 @@ public class FastDatePrinter implements DatePrinter, Serializable {
      * @return the specified string buffer
      */
     protected StringBuffer applyRules(final Calendar calendar, final StringBuffer buf) {
+        return buf.append(applyRules(calendar, newBuffer()));
+    }
+
+    /**
+     * <p>Performs the formatting by applying the rules to the
+     * specified calendar.</p>
+     *
+     * @param calendar  the calendar to format
+     * @param buf  the buffer to format into
+     * @return the specified string builder
+     */
+    private StringBuilder applyRules(final Calendar calendar, final StringBuilder buf) {
         for (final Rule rule : mRules) {
             rule.appendTo(buf, calendar);
         }
         return buf;
     }
 
+    /**
+     * <p>Performs the formatting by applying the rules to the
+     * fields of the specified millisecond value.</p>
+     *
+     * @param millis  the millisecond value to format
+     * @param fields  the array to compute the fields into
+     * @param buf  the buffer to format into
+     * @return the specified string builder
+     */
+    private StringBuilder applyRules(final long millis, final int[] fields, final StringBuilder buf) {
+        if (mFormattedSecond != null) {
+            final FormattedSecond second = mFormattedSecond.get();
+            if (second != null && second.contains(millis)) {
+                buf.append(second.mPrefix);
+                if (mMillisecondRule != null) {
+                    mMillisecondRule.appendTo(buf, (int) (millis - second.mStart));
+                    buf.append(second.mSuffix);
+                }
+                return buf;
+            }
+        }
+        final CachedFields cached = computeFields(millis, fields);
+        if (cached == null) {
+            final Calendar c = newCalendar();
+            c.setTimeInMillis(millis);
+            return applyRules(c, buf);
+        }
+        final int begin = buf.length();
+        int millisecondBegin = -1;
+        int millisecondEnd = -1;
+        for (final Rule rule : mRules) {
+            if (rule == mMillisecondRule) {
+                millisecondBegin = buf.length();
+                rule.appendTo(buf, fields);
+                millisecondEnd = buf.length();
+            } else {
+                rule.appendTo(buf, fields);
+            }
+        }
+        if (mFormattedSecond != null) {
+            // only cache a second wholly within the range of the date and time zone fields
+            final long secondStart = millis - fields[Calendar.MILLISECOND];
+            if (secondStart >= cached.mStart && secondStart + 1000 <= cached.mEnd) {
+                if (mMillisecondRule == null) {
+                    mFormattedSecond.set(new FormattedSecond(secondStart, buf.substring(begin), null));
+                } else {
+                    mFormattedSecond.set(new FormattedSecond(secondStart,
+                            buf.substring(begin, millisecondBegin), buf.substring(millisecondEnd)));
+                }
+            }
+        }
+        return buf;
+    }
+
+    /**
+     * <p>Computes the calendar fields of a millisecond value, as a
+     * {@code GregorianCalendar} in the time zone and locale of this printer
+     * would. The date and time zone fields are cached for each hour.</p>
+     *
+     * @param millis  the millisecond value
+     * @param fields  the array to compute the fields into, indexed by {@code Calendar} field
+     * @return the date and time zone fields of the value and the range of values sharing them,
+     *  {@code null} if the value must be formatted with a {@code Calendar}
+     */
+    private CachedFields computeFields(final long millis, final int[] fields) {
+        CachedFields cached = mCachedFields;
+        if (cached == null || millis < cached.mStart || millis >= cached.mEnd) {
+            if (millis < MIN_DIRECT_MILLIS || millis > MAX_DIRECT_MILLIS) {
+                return null;
+            }
+            cached = computeCachedFields(millis);
+            mCachedFields = cached;
+        }
+        System.arraycopy(cached.mFields, 0, fields, 0, Calendar.FIELD_COUNT);
+
+        final int millisOfDay = (int) (millis - cached.mDayStart);
+        final int hourOfDay = millisOfDay / (int) MILLIS_PER_HOUR;
+        fields[Calendar.AM_PM] = hourOfDay / 12;
+        fields[Calendar.HOUR] = hourOfDay % 12;
+        fields[Calendar.HOUR_OF_DAY] = hourOfDay;
+        fields[Calendar.MINUTE] = millisOfDay / 60000 % 60;
+        fields[Calendar.SECOND] = millisOfDay / 1000 % 60;
+        fields[Calendar.MILLISECOND] = millisOfDay % 1000;
+        return cached;
+    }
+
+    /**
+     * <p>Computes the date and time zone fields of a millisecond value,
+     * along with the range of values sharing them. The range is the
+     * intersection of the hour and the day of the value, unless the time
+     * zone offset changes during the hour.</p>
+     *
+     * @param millis  the millisecond value
+     * @return the fields
+     */
+    private CachedFields computeCachedFields(final long millis) {
+        final int zoneOffset;
+        final int dstOffset;
+        final long hourStart = Math.floorDiv(millis, MILLIS_PER_HOUR) * MILLIS_PER_HOUR;
+        final long hourEnd = hourStart + MILLIS_PER_HOUR;
+        boolean constant;
+        if (mNeedsDstOffset) {
+            // only a Calendar tells the daylight saving part of a historical offset
+            final Calendar c = newCalendar();
+            c.setTimeInMillis(millis);
+            zoneOffset = c.get(Calendar.ZONE_OFFSET);
+            dstOffset = c.get(Calendar.DST_OFFSET);
+            c.setTimeInMillis(hourStart);
+            constant = c.get(Calendar.ZONE_OFFSET) == zoneOffset && c.get(Calendar.DST_OFFSET) == dstOffset;
+            c.setTimeInMillis(hourEnd - 1);
+            constant &= c.get(Calendar.ZONE_OFFSET) == zoneOffset && c.get(Calendar.DST_OFFSET) == dstOffset;
+        } else {
+            zoneOffset = mTimeZone.getOffset(millis);
+            dstOffset = 0;
+            constant = mTimeZone.getOffset(hourStart) == zoneOffset && mTimeZone.getOffset(hourEnd - 1) == zoneOffset;
+        }
+        final int offset = zoneOffset + dstOffset;
+
+        final long day = Math.floorDiv(millis + offset, MILLIS_PER_DAY);
+        final long dayStart = day * MILLIS_PER_DAY - offset;
+        final long start;
+        final long end;
+        if (constant) {
+            start = Math.max(hourStart, dayStart);
+            end = Math.min(hourEnd, dayStart + MILLIS_PER_DAY);
+        } else {
+            start = millis;
+            end = millis + 1;
+        }
+
+        final int[] fields = new int[Calendar.FIELD_COUNT];
+        computeDateFields(day, fields);
+        fields[Calendar.ZONE_OFFSET] = zoneOffset;
+        fields[Calendar.DST_OFFSET] = dstOffset;
+        return new CachedFields(start, end, dayStart, fields);
+    }
+
+    /**
+     * <p>Computes the date fields of a day in the Gregorian calendar.</p>
+     *
+     * @param day  the days since 1 January 1970, in the year 1584 or later
+     * @param fields  the array to compute the fields into
+     */
+    private void computeDateFields(final long day, final int[] fields) {
+        FastDateParser.civilFields(day, fields);
+        final int year = fields[Calendar.YEAR];
+        final int month = fields[Calendar.MONTH];
+        final int dayOfMonth = fields[Calendar.DAY_OF_MONTH];
+
+        final long jan1 = FastDateParser.epochDay(year, 0);
+        int weekOfYear = getWeekNumber(jan1, day);
+        if (weekOfYear == 0) {
+            // the last week of the previous year
+            weekOfYear = getWeekNumber(FastDateParser.epochDay(year - 1, 0), jan1 - 1);
+        } else if (weekOfYear >= 52) {
+            // the first week of the next year, if enough of it is in the next year
+            final long nextJan1 = FastDateParser.epochDay(year + 1, 0);
+            final long nextWeek1 = getDayOfWeekOnOrBefore(nextJan1 + 6, mFirstDayOfWeek);
+            if (nextWeek1 - nextJan1 >= mMinimalDaysInFirstWeek && day >= nextWeek1 - 7) {
+                weekOfYear = 1;
+            }
+        }
+
+        fields[Calendar.ERA] = GregorianCalendar.AD;
+        fields[Calendar.WEEK_OF_YEAR] = weekOfYear;
+        fields[Calendar.WEEK_OF_MONTH] = getWeekNumber(FastDateParser.epochDay(year, month), day);
+        fields[Calendar.DAY_OF_YEAR] = (int) (day - jan1) + 1;
+        fields[Calendar.DAY_OF_WEEK] = (int) Math.floorMod(day + 4, 7) + Calendar.SUNDAY;
+        fields[Calendar.DAY_OF_WEEK_IN_MONTH] = (dayOfMonth - 1) / 7 + 1;
+    }
+
+    /**
+     * <p>Gets the week of a period containing a day, as a {@code GregorianCalendar} would.</p>
+     *
+     * @param periodStart  the first day of the year or month, in days since 1 January 1970
+     * @param day  the day, in days since 1 January 1970
+     * @return the week number, 0 for a day before the first week of the period
+     */
+    private int getWeekNumber(final long periodStart, final long day) {
+        long week1 = getDayOfWeekOnOrBefore(periodStart + 6, mFirstDayOfWeek);
+        if (week1 - periodStart >= mMinimalDaysInFirstWeek) {
+            week1 -= 7;
+        }
+        return (int) Math.floorDiv(day - week1, 7) + 1;
+    }
+
+    /**
+     * <p>Gets the last day on or before a day that falls on a day of the week.</p>
+     *
+     * @param day  the day, in days since 1 January 1970
+     * @param dayOfWeek  the day of the week, from {@code Calendar.SUNDAY} to {@code Calendar.SATURDAY}
+     * @return the day on or before, in days since 1 January 1970
+     */
+    private static long getDayOfWeekOnOrBefore(final long day, final int dayOfWeek) {
+        // 1 January 1970 was a Thursday
+        return day - Math.floorMod(day + 5 - dayOfWeek, 7);
+    }
+
     // Accessors
     //-----------------------------------------------------------------------
     /* (non-Javadoc)
@@ -560,6 +921,65 @@ public class FastDatePrinter implements DatePrinter, Serializable {
         init();
     }
 
+    // Fields
+    //-----------------------------------------------------------------------
+    /**
+     * <p>Inner class holding the date and time zone fields shared by a range of millisecond values.</p>
+     */
+    private static final class CachedFields {
+        private final long mStart;
+        private final long mEnd;
+        private final long mDayStart;
+        private final int[] mFields;
+
+        /**
+         * Constructs an instance of {@code CachedFields}.
+         *
+         * @param start the first millisecond value of the range
+         * @param end the millisecond value after the range
+         * @param dayStart the millisecond value of the start of the day
+         * @param fields the date and time zone fields, not changed afterwards
+         */
+        CachedFields(final long start, final long end, final long dayStart, final int[] fields) {
+            mStart = start;
+            mEnd = end;
+            mDayStart = dayStart;
+            mFields = fields;
+        }
+    }
+
+    /**
+     * <p>Inner class holding the text of a formatted second.</p>
+     */
+    private static final class FormattedSecond {
+        private final long mStart;
+        private final String mPrefix;
+        private final String mSuffix;
+
+        /**
+         * Constructs an instance of {@code FormattedSecond}.
+         *
+         * @param start the first millisecond value of the second
+         * @param prefix the text before the milliseconds, or the whole text if they are not printed
+         * @param suffix the text after the milliseconds, or {@code null} if they are not printed
+         */
+        FormattedSecond(final long start, final String prefix, final String suffix) {
+            mStart = start;
+            mPrefix = prefix;
+            mSuffix = suffix;
+        }
+
+        /**
+         * Checks whether a millisecond value is in the second.
+         *
+         * @param millis the millisecond value
+         * @return {@code true} if the value is in the second
+         */
+        boolean contains(final long millis) {
+            return millis >= mStart && millis - mStart < 1000;
+        }
+    }
+
     // Rules
     //-----------------------------------------------------------------------
     /**
@@ -579,7 +999,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * @param buffer the output buffer
          * @param calendar calendar to be appended
          */
-        void appendTo(StringBuffer buffer, Calendar calendar);
+        void appendTo(StringBuilder buffer, Calendar calendar);
+
+        /**
+         * Appends the value of the specified calendar fields to the output buffer based on the rule implementation.
+         *
+         * @param buffer the output buffer
+         * @param fields the values of the calendar fields, indexed by {@code Calendar} field
+         */
+        void appendTo(StringBuilder buffer, int[] fields);
     }
 
     /**
@@ -592,7 +1020,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * @param buffer the output buffer
          * @param value the value to be appended
          */
-        void appendTo(StringBuffer buffer, int value);
+        void appendTo(StringBuilder buffer, int value);
     }
 
     /**
@@ -623,7 +1051,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
+            buffer.append(mValue);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
             buffer.append(mValue);
         }
     }
@@ -656,7 +1092,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
+            buffer.append(mValue);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
             buffer.append(mValue);
         }
     }
@@ -699,9 +1143,17 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             buffer.append(mValues[calendar.get(mField)]);
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            buffer.append(mValues[fields[mField]]);
+        }
     }
 
     /**
@@ -731,7 +1183,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             appendTo(buffer, calendar.get(mField));
         }
 
@@ -739,7 +1191,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public final void appendTo(final StringBuffer buffer, final int value) {
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            appendTo(buffer, fields[mField]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public final void appendTo(final StringBuilder buffer, final int value) {
             if (value < 10) {
                 buffer.append((char)(value + '0'));
             } else if (value < 100) {
@@ -777,7 +1237,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             appendTo(buffer, calendar.get(Calendar.MONTH) + 1);
         }
 
@@ -785,7 +1245,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public final void appendTo(final StringBuffer buffer, final int value) {
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            appendTo(buffer, fields[Calendar.MONTH] + 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public final void appendTo(final StringBuilder buffer, final int value) {
             if (value < 10) {
                 buffer.append((char)(value + '0'));
             } else {
@@ -829,7 +1297,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             appendTo(buffer, calendar.get(mField));
         }
 
@@ -837,7 +1305,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public final void appendTo(final StringBuffer buffer, final int value) {
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            appendTo(buffer, fields[mField]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public final void appendTo(final StringBuilder buffer, final int value) {
             if (value < 100) {
                 for (int i = mSize; --i >= 2; ) {
                     buffer.append('0');
@@ -887,7 +1363,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             appendTo(buffer, calendar.get(mField));
         }
 
@@ -895,7 +1371,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public final void appendTo(final StringBuffer buffer, final int value) {
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            appendTo(buffer, fields[mField]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public final void appendTo(final StringBuilder buffer, final int value) {
             if (value < 100) {
                 buffer.append((char)(value / 10 + '0'));
                 buffer.append((char)(value % 10 + '0'));
@@ -930,7 +1414,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             appendTo(buffer, calendar.get(Calendar.YEAR) % 100);
         }
 
@@ -938,7 +1422,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public final void appendTo(final StringBuffer buffer, final int value) {
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            appendTo(buffer, fields[Calendar.YEAR] % 100);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public final void appendTo(final StringBuilder buffer, final int value) {
             buffer.append((char)(value / 10 + '0'));
             buffer.append((char)(value % 10 + '0'));
         }
@@ -969,7 +1461,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             appendTo(buffer, calendar.get(Calendar.MONTH) + 1);
         }
 
@@ -977,7 +1469,15 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public final void appendTo(final StringBuffer buffer, final int value) {
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            appendTo(buffer, fields[Calendar.MONTH] + 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public final void appendTo(final StringBuilder buffer, final int value) {
             buffer.append((char)(value / 10 + '0'));
             buffer.append((char)(value % 10 + '0'));
         }
@@ -1011,7 +1511,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             int value = calendar.get(Calendar.HOUR);
             if (value == 0) {
                 value = calendar.getLeastMaximum(Calendar.HOUR) + 1;
@@ -1023,7 +1523,17 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final int value) {
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            final int value = fields[Calendar.HOUR];
+            // as a GregorianCalendar
+            mRule.appendTo(buffer, value == 0 ? 12 : value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void appendTo(final StringBuilder buffer, final int value) {
             mRule.appendTo(buffer, value);
         }
     }
@@ -1056,7 +1566,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             int value = calendar.get(Calendar.HOUR_OF_DAY);
             if (value == 0) {
                 value = calendar.getMaximum(Calendar.HOUR_OF_DAY) + 1;
@@ -1068,7 +1578,17 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final int value) {
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            final int value = fields[Calendar.HOUR_OF_DAY];
+            // as a GregorianCalendar
+            mRule.appendTo(buffer, value == 0 ? 24 : value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void appendTo(final StringBuilder buffer, final int value) {
             mRule.appendTo(buffer, value);
         }
     }
@@ -1106,6 +1626,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
     private static class TimeZoneNameRule implements Rule {
         private final Locale mLocale;
         private final int mStyle;
+        private final boolean mUseDaylight;
         private final String mStandard;
         private final String mDaylight;
 
@@ -1119,7 +1640,8 @@ public class FastDatePrinter implements DatePrinter, Serializable {
         TimeZoneNameRule(final TimeZone timeZone, final Locale locale, final int style) {
             mLocale = locale;
             mStyle = style;
-            
+            mUseDaylight = timeZone.useDaylightTime();
+
             mStandard = getTimeZoneDisplay(timeZone, false, style, locale);
             mDaylight = getTimeZoneDisplay(timeZone, true, style, locale);
         }
@@ -1139,7 +1661,7 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
             final TimeZone zone = calendar.getTimeZone();
             if (zone.useDaylightTime()
                     && calendar.get(Calendar.DST_OFFSET) != 0) {
@@ -1148,6 +1670,19 @@ public class FastDatePrinter implements DatePrinter, Serializable {
                 buffer.append(getTimeZoneDisplay(zone, false, mStyle, mLocale));
             }
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            // the fields are always in the time zone of the rule
+            if (mUseDaylight && fields[Calendar.DST_OFFSET] != 0) {
+                buffer.append(mDaylight);
+            } else {
+                buffer.append(mStandard);
+            }
+        }
     }
 
     /**
@@ -1181,9 +1716,25 @@ public class FastDatePrinter implements DatePrinter, Serializable {
          * {@inheritDoc}
          */
         @Override
-        public void appendTo(final StringBuffer buffer, final Calendar calendar) {
-            int offset = calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET);
+        public void appendTo(final StringBuilder buffer, final Calendar calendar) {
+            appendOffset(buffer, calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET));
+        }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void appendTo(final StringBuilder buffer, final int[] fields) {
+            appendOffset(buffer, fields[Calendar.ZONE_OFFSET] + fields[Calendar.DST_OFFSET]);
+        }
+
+        /**
+         * Appends an offset from UTC.
+         *
+         * @param buffer the output buffer
+         * @param offset the offset in milliseconds
+         */
+        private void appendOffset(final StringBuilder buffer, int offset) {
             if (offset < 0) {
                 buffer.append('-');
                 offset = -offset;
@@ -21,12 +21,19 @@ import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.Queue;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <p>FormatCache is a cache and factory for {@link Format}s.</p>
+ *
+ * <p>The caches are unbounded unless a maximum size is set, in which case
+ * the least recently used formats are evicted, approximately.</p>
  * 
  * @since 3.0
  * @version $Id: FormatCache 892161 2009-12-18 07:21:10Z  $
@@ -38,11 +45,14 @@ abstract class FormatCache<F extends Format> {
      */
     static final int NONE= -1;
     
-    private final ConcurrentMap<MultipartKey, F> cInstanceCache 
-        = new ConcurrentHashMap<MultipartKey, F>(7);
+    /**
+     * No limit on the number of cached formats or patterns, the default.
+     */
+    static final int UNBOUNDED= Integer.MAX_VALUE;
+
+    private final BoundedCache<F> cInstanceCache = new BoundedCache<F>();
     
-    private static final ConcurrentMap<MultipartKey, String> cDateTimeInstanceCache 
-        = new ConcurrentHashMap<MultipartKey, String>(7);
+    private static final BoundedCache<String> cDateTimeInstanceCache = new BoundedCache<String>();
 
     /**
      * <p>Gets a formatter instance using the default pattern in the
@@ -102,6 +112,48 @@ abstract class FormatCache<F extends Format> {
      *  or <code>null</code>
      */
     abstract protected F createInstance(String pattern, TimeZone timeZone, Locale locale);
+
+    /**
+     * <p>Sets the maximum number of formats in this cache, evicting formats if necessary.</p>
+     *
+     * @param maximumSize  the maximum number of formats, {@link #UNBOUNDED} for no limit
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    // package protected, for access from FastDateFormat; do not make public or protected
+    void setMaximumSize(final int maximumSize) {
+        cInstanceCache.setMaximumSize(maximumSize);
+    }
+
+    /**
+     * <p>Gets the statistics of this cache.</p>
+     *
+     * @return a snapshot of the statistics
+     */
+    // package protected, for access from FastDateFormat; do not make public or protected
+    FormatCacheStats getStats() {
+        return cInstanceCache.getStats();
+    }
+
+    /**
+     * <p>Sets the maximum number of patterns cached for date and time styles, evicting patterns if necessary.</p>
+     *
+     * @param maximumSize  the maximum number of patterns, {@link #UNBOUNDED} for no limit
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    // package protected, for access from FastDateFormat; do not make public or protected
+    static void setPatternCacheMaximumSize(final int maximumSize) {
+        cDateTimeInstanceCache.setMaximumSize(maximumSize);
+    }
+
+    /**
+     * <p>Gets the statistics of the cache of patterns for date and time styles.</p>
+     *
+     * @return a snapshot of the statistics
+     */
+    // package protected, for access from FastDateFormat; do not make public or protected
+    static FormatCacheStats getPatternCacheStats() {
+        return cDateTimeInstanceCache.getStats();
+    }
         
     /**
      * <p>Gets a date/time formatter instance using the specified style,
@@ -219,6 +271,135 @@ abstract class FormatCache<F extends Format> {
         return pattern;
     }
 
+    // ----------------------------------------------------------------------
+    /**
+     * <p>Helper class for a concurrent map of multi-part keys, evicting the
+     * least recently used values, approximately, beyond a maximum size.</p>
+     *
+     * <p>The values are kept in insertion order in a queue, as a clock. A
+     * value found in the map is marked as referenced. To evict a value, the
+     * head of the queue is removed, unless it has been referenced since it
+     * was last at the head, in which case it is unmarked and requeued.</p>
+     *
+     * @param <V> the type of the values
+     */
+    private static final class BoundedCache<V> {
+        private final ConcurrentMap<MultipartKey, Entry<V>> map
+            = new ConcurrentHashMap<MultipartKey, Entry<V>>(7);
+        private final Queue<Entry<V>> clock = new ConcurrentLinkedQueue<Entry<V>>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicLong hitCount = new AtomicLong();
+        private final AtomicLong missCount = new AtomicLong();
+        private final AtomicLong evictionCount = new AtomicLong();
+        private volatile int maximumSize = UNBOUNDED;
+
+        /**
+         * Gets the value of a key, counting a hit or miss.
+         *
+         * @param key  the key, not null
+         * @return the value, or {@code null} if not cached
+         */
+        V get(final MultipartKey key) {
+            final Entry<V> entry = map.get(key);
+            if (entry == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            if (!entry.referenced) {
+                // avoid writing to shared memory on every hit
+                entry.referenced = true;
+            }
+            return entry.value;
+        }
+
+        /**
+         * Caches a value unless the key already has one.
+         *
+         * @param key  the key, not null
+         * @param value  the value, not null
+         * @return the previous value, or {@code null} if the value was cached
+         */
+        V putIfAbsent(final MultipartKey key, final V value) {
+            final Entry<V> entry = new Entry<V>(key, value);
+            final Entry<V> previous = map.putIfAbsent(key, entry);
+            if (previous != null) {
+                return previous.value;
+            }
+            clock.offer(entry);
+            if (size.incrementAndGet() > maximumSize) {
+                evict();
+            }
+            return null;
+        }
+
+        /**
+         * Sets the maximum size, evicting values if necessary.
+         *
+         * @param maximumSize  the maximum number of values, positive
+         * @throws IllegalArgumentException if the maximum size is not positive
+         */
+        void setMaximumSize(final int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("The maximum size must be positive: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            evict();
+        }
+
+        /**
+         * Gets a snapshot of the statistics.
+         *
+         * @return the statistics
+         */
+        FormatCacheStats getStats() {
+            return new FormatCacheStats(size.get(), hitCount.get(), missCount.get(), evictionCount.get());
+        }
+
+        /**
+         * Evicts values until the cache is within its maximum size.
+         */
+        private void evict() {
+            // each entry is requeued at most once, unless referenced again meanwhile
+            int budget = 2 * size.get() + 1;
+            while (size.get() > maximumSize && budget-- > 0) {
+                final Entry<V> entry = clock.poll();
+                if (entry == null) {
+                    return;
+                }
+                if (entry.referenced) {
+                    entry.referenced = false;
+                    clock.offer(entry);
+                } else if (map.remove(entry.key, entry)) {
+                    size.decrementAndGet();
+                    evictionCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Helper class holding a cached value.</p>
+     *
+     * @param <V> the type of the value
+     */
+    private static final class Entry<V> {
+        private final MultipartKey key;
+        private final V value;
+        private volatile boolean referenced;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param key  the key, not null
+         * @param value  the value, not null
+         */
+        Entry(final MultipartKey key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
     // ----------------------------------------------------------------------
     /**
      * <p>Helper class to hold multi-part Map keys</p>
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import java.io.Serializable;
+
+/**
+ * <p>An immutable snapshot of the statistics of a cache of formats,
+ * such as the cache behind {@link FastDateFormat#getInstance(String)}.</p>
+ *
+ * <p>The counts are read without stopping the cache, so a snapshot taken
+ * while other threads use the cache may be slightly inconsistent.</p>
+ *
+ * @since 3.2
+ * @version $Id$
+ */
+public final class FormatCacheStats implements Serializable {
+
+    /**
+     * Required for serialization support.
+     *
+     * @see java.io.Serializable
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final int size;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param size  the number of cached formats
+     * @param hitCount  the number of lookups finding a cached format
+     * @param missCount  the number of lookups creating a format
+     * @param evictionCount  the number of formats evicted
+     */
+    FormatCacheStats(final int size, final long hitCount, final long missCount, final long evictionCount) {
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * <p>Gets the number of formats in the cache.</p>
+     *
+     * @return the number of cached formats
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * <p>Gets the number of lookups which found a cached format.</p>
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * <p>Gets the number of lookups which created a format.</p>
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * <p>Gets the number of formats evicted to keep the cache within its maximum size.</p>
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * <p>Gets the ratio of hits to lookups.</p>
+     *
+     * @return the hit rate, from 0 to 1, or 1 if there were no lookups
+     */
+    public double getHitRate() {
+        final long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * <p>Adds the counts of another snapshot to those of this one.</p>
+     *
+     * @param other  the other snapshot, not null
+     * @return a snapshot of the combined caches
+     */
+    FormatCacheStats plus(final FormatCacheStats other) {
+        return new FormatCacheStats(size + other.size, hitCount + other.hitCount, missCount + other.missCount,
+                evictionCount + other.evictionCount);
+    }
+
+    /**
+     * <p>Gets a debugging string version of this snapshot.</p>
+     *
+     * @return a debugging string
+     */
+    @Override
+    public String toString() {
+        return "FormatCacheStats[size=" + size + ",hits=" + hitCount + ",misses=" + missCount
+                + ",evictions=" + evictionCount + "]";
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A reusable, thread-safe parser trying several date patterns in turn,
+ * as {@link DateUtils#parseDate(String, Locale, String...)} does.</p>
+ *
+ * <p>The patterns are compiled once, into {@link FastDateParser} instances.
+ * A parse is only deemed successful if it parses the whole of the input string.
+ * To find the matching pattern quickly, the parser:</p>
+ * <ul>
+ * <li>tries first the pattern which last matched an input of the same shape,
+ * that is of the same length, number of leading digits and first separator;</li>
+ * <li>skips patterns starting with a number if the input does not start with a digit;</li>
+ * <li>tries the other patterns in order of their number of matches, which is
+ * updated as inputs are parsed.</li>
+ * </ul>
+ *
+ * <p>As the order of the patterns adapts to the input, an input matched by more
+ * than one pattern may be parsed with any of them. The patterns should therefore
+ * not overlap; for instance <code>yyyyMMdd</code> and <code>yyyyMMddHHmm</code> are
+ * told apart by length, but <code>dd/MM/yyyy</code> and <code>MM/dd/yyyy</code> are not.
+ * The parse is lenient, as {@link FastDateParser} is.</p>
+ *
+ * @since 3.2
+ * @version $Id$
+ */
+public class MultiPatternDateParser {
+
+    /** The number of hints of the last matching pattern, a power of two. */
+    private static final int HINTS = 256;
+    /** The number of parses between updates of the order of the patterns, a power of two. */
+    private static final int REORDER_INTERVAL = 1024;
+
+    private final String[] patterns;
+    private final DateParser[] parsers;
+    /** Whether each pattern starts with a number field. */
+    private final boolean[] leadingNumber;
+    /** The number of inputs matched by each pattern. */
+    private final AtomicLongArray hits;
+    /** The number of inputs matched by no pattern. */
+    private final AtomicLong misses = new AtomicLong();
+    /** The number of parses, to update the order of the patterns. */
+    private final AtomicLong parses = new AtomicLong();
+    /** The index plus one of the pattern last matching each hash of the shape of the input, or 0. */
+    private final AtomicIntegerArray hints = new AtomicIntegerArray(HINTS);
+    /** The indexes of the patterns, in the order they are tried. */
+    private volatile int[] order;
+
+    /**
+     * <p>Constructs a parser of several patterns, using the default time zone and locale.</p>
+     *
+     * @param patterns  the date format patterns to use, see SimpleDateFormat, not null
+     * @throws IllegalArgumentException if the patterns are null, empty or contain null,
+     *  or a pattern is not supported by {@link FastDateParser}
+     */
+    public MultiPatternDateParser(final String... patterns) {
+        this(TimeZone.getDefault(), Locale.getDefault(), patterns);
+    }
+
+    /**
+     * <p>Constructs a parser of several patterns.</p>
+     *
+     * @param timeZone  the time zone to use, null means the default time zone
+     * @param locale  the locale to use, null means the default locale
+     * @param patterns  the date format patterns to use, see SimpleDateFormat, not null
+     * @throws IllegalArgumentException if the patterns are null, empty or contain null,
+     *  or a pattern is not supported by {@link FastDateParser}
+     */
+    public MultiPatternDateParser(final TimeZone timeZone, final Locale locale, final String... patterns) {
+        if (patterns == null || patterns.length == 0) {
+            throw new IllegalArgumentException("Patterns must not be null or empty");
+        }
+        this.patterns = patterns.clone();
+        parsers = new DateParser[patterns.length];
+        leadingNumber = new boolean[patterns.length];
+        order = new int[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i] == null) {
+                throw new IllegalArgumentException("Patterns must not contain null");
+            }
+            parsers[i] = FastDateFormat.getInstance(patterns[i], timeZone, locale);
+            leadingNumber[i] = isLeadingNumber(patterns[i]);
+            order[i] = i;
+        }
+        hits = new AtomicLongArray(patterns.length);
+    }
+
+    /**
+     * Whether a pattern starts with a number field, which only matches a digit.
+     *
+     * @param pattern  the date format pattern
+     * @return true if the pattern starts with a number field
+     */
+    private static boolean isLeadingNumber(final String pattern) {
+        if (pattern.length() == 0) {
+            return false;
+        }
+        final char letter = pattern.charAt(0);
+        if (letter == 'M') {
+            // a month of one or two letters is a number, of more letters a name
+            return pattern.length() < 3 || pattern.charAt(1) != 'M' || pattern.charAt(2) != 'M';
+        }
+        return "DFHKSWdhkmswy".indexOf(letter) >= 0;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * <p>Parses a string representing a date with the first matching pattern.</p>
+     *
+     * @param str  the date to parse, not null
+     * @return the parsed date
+     * @throws IllegalArgumentException if the date string is null
+     * @throws ParseException if none of the date patterns were suitable
+     */
+    public Date parse(final String str) throws ParseException {
+        final long millis = tryParse(str);
+        if (millis == DateParser.PARSE_FAILED) {
+            throw new ParseException("Unable to parse the date: " + str, -1);
+        }
+        return new Date(millis);
+    }
+
+    /**
+     * <p>Parses a string representing a date with the first matching pattern,
+     * without throwing an exception if no pattern matches.</p>
+     *
+     * @param str  the date to parse, not null
+     * @return the milliseconds since the epoch, or {@link DateParser#PARSE_FAILED}
+     *  if none of the date patterns were suitable
+     * @throws IllegalArgumentException if the date string is null
+     */
+    public long tryParse(final String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("Date must not be null");
+        }
+        if ((parses.incrementAndGet() & REORDER_INTERVAL - 1) == 0) {
+            reorder();
+        }
+        final boolean leadingDigit = str.length() > 0 && Character.isDigit(str.codePointAt(0));
+        final int hintIndex = shape(str) & HINTS - 1;
+        final int hint = hints.get(hintIndex) - 1;
+        final ParsePosition pos = new ParsePosition(0);
+        if (hint >= 0) {
+            final long millis = tryParse(hint, str, pos, leadingDigit);
+            if (millis != DateParser.PARSE_FAILED) {
+                hits.incrementAndGet(hint);
+                return millis;
+            }
+        }
+        for (final int i : order) {
+            if (i != hint) {
+                final long millis = tryParse(i, str, pos, leadingDigit);
+                if (millis != DateParser.PARSE_FAILED) {
+                    hits.incrementAndGet(i);
+                    hints.set(hintIndex, i + 1);
+                    return millis;
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return DateParser.PARSE_FAILED;
+    }
+
+    /**
+     * Parses the whole of a string with one pattern.
+     *
+     * @param index  the index of the pattern
+     * @param str  the date to parse
+     * @param pos  the position to reuse
+     * @param leadingDigit  whether the string starts with a digit
+     * @return the milliseconds since the epoch, or {@link DateParser#PARSE_FAILED}
+     */
+    private long tryParse(final int index, final String str, final ParsePosition pos, final boolean leadingDigit) {
+        if (leadingNumber[index] && !leadingDigit) {
+            return DateParser.PARSE_FAILED;
+        }
+        pos.setIndex(0);
+        final long millis = parsers[index].tryParse(str, pos);
+        return pos.getIndex() == str.length() ? millis : DateParser.PARSE_FAILED;
+    }
+
+    /**
+     * Computes a hash of the shape of a string: its length, the number of
+     * leading digits and the character following them.
+     *
+     * @param str  the string
+     * @return the hash of the shape
+     */
+    private static int shape(final String str) {
+        final int length = str.length();
+        int digits = 0;
+        while (digits < length && str.charAt(digits) >= '0' && str.charAt(digits) <= '9') {
+            digits++;
+        }
+        final char separator = digits < length ? str.charAt(digits) : 0;
+        final int hash = (length * 31 + digits) * 31 + separator;
+        return hash ^ hash >>> 8;
+    }
+
+    /**
+     * Sorts the patterns by their number of matches, most first.
+     * Patterns with the same number of matches keep their original order.
+     */
+    private void reorder() {
+        final int[] sorted = order.clone();
+        final long[] counts = new long[sorted.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = hits.get(i);
+        }
+        // insertion sort, as there are few patterns and they are mostly sorted already
+        for (int i = 1; i < sorted.length; i++) {
+            final int index = sorted[i];
+            int j = i;
+            while (j > 0 && isBefore(index, sorted[j - 1], counts)) {
+                sorted[j] = sorted[j - 1];
+                j--;
+            }
+            sorted[j] = index;
+        }
+        order = sorted;
+    }
+
+    /**
+     * Whether a pattern is tried before another.
+     *
+     * @param a  the index of one pattern
+     * @param b  the index of the other pattern
+     * @param counts  the number of matches of each pattern
+     * @return true if the first pattern has more matches, or as many and comes first
+     */
+    private static boolean isBefore(final int a, final int b, final long[] counts) {
+        return counts[a] > counts[b] || counts[a] == counts[b] && a < b;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * <p>Gets the patterns, in the order given to the constructor.</p>
+     *
+     * @return a copy of the patterns
+     */
+    public String[] getPatterns() {
+        return patterns.clone();
+    }
+
+    /**
+     * <p>Gets the number of inputs matched by each pattern.</p>
+     *
+     * @return the counts, in the order of the patterns given to the constructor
+     */
+    public long[] getHitCounts() {
+        final long[] counts = new long[patterns.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = hits.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * <p>Gets the number of inputs matched by no pattern.</p>
+     *
+     * @return the count of failed parses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the indexes of the patterns in the order they are tried, for testing.
+     *
+     * @return the indexes of the patterns
+     */
+    int[] getOrder() {
+        return order.clone();
+    }
+
+    /**
+     * <p>Gets a debugging string version of this parser.</p>
+     *
+     * @return a debugging string
+     */
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder("MultiPatternDateParser[");
+        for (int i = 0; i < patterns.length; i++) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(patterns[i]);
+        }
+        return buf.append(']').toString();
+    }
+
+}
@@ -350,6 +350,12 @@ public class StringEscapeUtilsTest {
                 escapeXml.translate("\uD84C\uDFB4"));
     }
     
+    @Test
+    public void testEscapeXmlLeadingSupplementaryCharacter() {
+        assertEquals("Characters after an escape must not be skipped", "\uD84C\uDFB4&lt;&gt;",
+                StringEscapeUtils.escapeXml("\uD84C\uDFB4<>"));
+    }
+
     @Test
     public void testEscapeXmlAllCharacters() {
         // http://www.w3.org/TR/xml/#charsets says:
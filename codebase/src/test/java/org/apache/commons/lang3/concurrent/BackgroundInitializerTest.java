@@ -18,9 +18,12 @@ package org.apache.commons.lang3.concurrent;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -263,6 +266,86 @@ public class BackgroundInitializerTest {
         assertTrue("Not started", init.isStarted());
     }
 
+    /**
+     * Tests the CompletableFuture of a successful initialization.
+     */
+    @Test
+    public void testGetCompletableFuture() throws Exception {
+        final BackgroundInitializerTestImpl init = new BackgroundInitializerTestImpl();
+        init.start();
+        final CompletableFuture<Integer> future = init.getCompletableFuture();
+        assertEquals("Wrong result", 1, future.get().intValue());
+        // completing the returned future has no effect on the initializer
+        final CompletableFuture<Integer> other = init.getCompletableFuture();
+        other.obtrudeValue(Integer.valueOf(42));
+        assertEquals("Wrong result of new future", 1, init.getCompletableFuture().get().intValue());
+        checkInitialize(init);
+    }
+
+    /**
+     * Tests the CompletableFuture of a failed initialization.
+     */
+    @Test
+    public void testGetCompletableFutureException() throws InterruptedException {
+        final BackgroundInitializerTestImpl init = new BackgroundInitializerTestImpl();
+        final Exception ex = new Exception();
+        init.ex = ex;
+        init.start();
+        try {
+            init.getCompletableFuture().get();
+            fail("Exception not thrown!");
+        } catch (final ExecutionException eex) {
+            assertEquals("Wrong cause", ex, eex.getCause());
+        }
+    }
+
+    /**
+     * Tests getCompletableFuture() before start().
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testGetCompletableFutureBeforeStart() {
+        new BackgroundInitializerTestImpl().getCompletableFuture();
+    }
+
+    /**
+     * Tests the executor strategies.
+     */
+    @Test
+    public void testExecutorStrategy() {
+        for (final ExecutorStrategy strategy : ExecutorStrategy.values()) {
+            final BackgroundInitializerTestImpl init = new BackgroundInitializerTestImpl();
+            assertEquals("Wrong default strategy", ExecutorStrategy.FIXED_THREAD_POOL, init.getExecutorStrategy());
+            init.setExecutorStrategy(strategy);
+            assertEquals("Wrong strategy", strategy, init.getExecutorStrategy());
+            init.start();
+            checkInitialize(init);
+        }
+        final BackgroundInitializerTestImpl init = new BackgroundInitializerTestImpl();
+        init.setExecutorStrategy(ExecutorStrategy.COMMON_POOL);
+        init.start();
+        checkInitialize(init);
+        assertSame("Wrong executor", ForkJoinPool.commonPool(), init.getActiveExecutor());
+    }
+
+    /**
+     * Tries to set a null executor strategy.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetExecutorStrategyNull() {
+        new BackgroundInitializerTestImpl().setExecutorStrategy(null);
+    }
+
+    /**
+     * Tries to set the executor strategy after start().
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testSetExecutorStrategyAfterStart() {
+        final BackgroundInitializerTestImpl init = new BackgroundInitializerTestImpl();
+        init.start();
+        checkInitialize(init);
+        init.setExecutorStrategy(ExecutorStrategy.COMMON_POOL);
+    }
+
     /**
      * A concrete implementation of BackgroundInitializer. It also overloads
      * some methods that simplify testing.
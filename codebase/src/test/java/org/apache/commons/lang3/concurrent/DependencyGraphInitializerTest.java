@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.concurrent.DependencyGraphInitializer.DependencyGraphResults;
+import org.junit.Test;
+
+/**
+ * Test class for {@link DependencyGraphInitializer}.
+ *
+ * @version $Id$
+ */
+public class DependencyGraphInitializerTest {
+    /**
+     * Tries to create an instance with an invalid maximum concurrency.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidMaxConcurrency() {
+        new DependencyGraphInitializer(0);
+    }
+
+    /**
+     * Tests the initialization without child initializers.
+     */
+    @Test
+    public void testInitializeNoChildren() throws ConcurrentException {
+        final DependencyGraphInitializer initializer = new DependencyGraphInitializer(2);
+        assertEquals("Wrong max concurrency", 2, initializer.getMaxConcurrency());
+        initializer.start();
+        final DependencyGraphResults res = initializer.get();
+        assertTrue("Wrong success flag", res.isSuccessful());
+        assertEquals("Critical path", Collections.emptyList(), res.getCriticalPath());
+        assertEquals("Critical path duration", 0, res.getCriticalPathDuration(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Tests that child initializers are started after their dependencies,
+     * and that the critical path follows the slowest chain.
+     */
+    @Test
+    public void testInitializeDependencies() throws ConcurrentException {
+        final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        final DependencyGraphInitializer initializer = new DependencyGraphInitializer(4);
+        initializer.addInitializer("a", new SleepingInitializer("a", log, 50, null));
+        initializer.addInitializer("b", new SleepingInitializer("b", log, 50, null), "a");
+        initializer.addInitializer("c", new SleepingInitializer("c", log, 0, null));
+        initializer.addInitializer("d", new SleepingInitializer("d", log, 0, null), "c");
+        initializer.addInitializer("e", new SleepingInitializer("e", log, 0, null), "a", "d");
+        initializer.start();
+        final DependencyGraphResults res = initializer.get();
+        assertTrue("Wrong success flag", res.isSuccessful());
+        assertEquals("Wrong number of starts", 5, log.size());
+        assertTrue("d before c", log.indexOf("c") < log.indexOf("d"));
+        assertTrue("e before a", log.indexOf("a") < log.indexOf("e"));
+        assertEquals("Wrong result", "e", res.getResultObject("e"));
+        assertTrue("Duration of a", res.getDuration("a", TimeUnit.MILLISECONDS) >= 50);
+        assertEquals("Critical path", Arrays.asList("a", "b"), res.getCriticalPath());
+        assertTrue("Critical path duration", res.getCriticalPathDuration(TimeUnit.MILLISECONDS) >= 100);
+
+        final String report = res.getTimingReport();
+        assertTrue("No critical path in " + report, report.contains("Critical path: a -> b ("));
+        assertTrue("a not marked in " + report, report.contains("a: " + res.getDuration("a", TimeUnit.MILLISECONDS)
+                + " ms *"));
+    }
+
+    /**
+     * Tests that no more child initializers run at the same time than
+     * allowed, even if the executor has more threads.
+     */
+    @Test
+    public void testInitializeMaxConcurrency() throws Exception {
+        final ExecutorService exec = Executors.newFixedThreadPool(10);
+        try {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final DependencyGraphInitializer initializer = new DependencyGraphInitializer(2, exec);
+            for (int i = 0; i < 8; i++) {
+                initializer.addInitializer("child" + i, new BackgroundInitializer<Integer>() {
+                    @Override
+                    protected Integer initialize() throws Exception {
+                        final int count = running.incrementAndGet();
+                        synchronized (maxRunning) {
+                            maxRunning.set(Math.max(maxRunning.get(), count));
+                        }
+                        Thread.sleep(10);
+                        running.decrementAndGet();
+                        return Integer.valueOf(count);
+                    }
+                });
+            }
+            initializer.start();
+            final DependencyGraphResults res = initializer.get();
+            assertTrue("Wrong success flag", res.isSuccessful());
+            assertEquals("Wrong number of results", 8, res.initializerNames().size());
+            assertTrue("Too many running: " + maxRunning.get(), maxRunning.get() <= 2);
+        } finally {
+            exec.shutdown();
+            exec.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Tests that the child initializers depending on a failed one are not
+     * started.
+     */
+    @Test
+    public void testInitializeDependencyFailed() throws ConcurrentException {
+        final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        final Exception ex = new Exception();
+        final DependencyGraphInitializer initializer = new DependencyGraphInitializer(1);
+        initializer.addInitializer("a", new SleepingInitializer("a", log, 0, ex));
+        initializer.addInitializer("b", new SleepingInitializer("b", log, 0, null), "a");
+        initializer.addInitializer("c", new SleepingInitializer("c", log, 0, null), "b");
+        initializer.addInitializer("d", new SleepingInitializer("d", log, 0, null));
+        initializer.start();
+        final DependencyGraphResults res = initializer.get();
+        assertFalse("Wrong success flag", res.isSuccessful());
+        assertEquals("Wrong starts", Arrays.asList("a", "d"), log);
+        assertEquals("Wrong cause", ex, res.getException("a").getCause());
+        assertEquals("Wrong cause of dependent", res.getException("a"), res.getException("b").getCause());
+        assertEquals("Wrong cause of indirect dependent", res.getException("b"), res.getException("c").getCause());
+        assertFalse("Dependent started", res.getInitializer("c").isStarted());
+        assertEquals("Duration of dependent", -1, res.getDuration("b", TimeUnit.NANOSECONDS));
+        assertTrue("Wrong report", res.getTimingReport().contains("c: not started"));
+    }
+
+    /**
+     * Tests that a runtime exception of a child initializer is propagated.
+     */
+    @Test
+    public void testInitializeRuntimeEx() {
+        final DependencyGraphInitializer initializer = new DependencyGraphInitializer(1);
+        final RuntimeException rex = new RuntimeException();
+        initializer.addInitializer("a", new BackgroundInitializer<Object>() {
+            @Override
+            protected Object initialize() throws Exception {
+                throw rex;
+            }
+        });
+        initializer.addInitializer("b", new SleepingInitializer("b", new ArrayList<String>(), 0, null));
+        initializer.start();
+        try {
+            initializer.get();
+            fail("Runtime exception not thrown!");
+        } catch (final Exception ex) {
+            assertEquals("Wrong exception", rex, ex);
+        }
+    }
+
+    /**
+     * Tests start() if the dependencies contain a cycle.
+     */
+    @Test
+    public void testStartCyclicDependency() {
+        final DependencyGraphInitializer initializer = new DependencyGraphInitializer(1);
+        initializer.addInitializer("a", new SleepingInitializer("a", null, 0, null), "b");
+        initializer.addInitializer("b", new SleepingInitializer("b", null, 0, null), "a");
+        try {
+            initializer.start();
+            fail("Cycle not detected!");
+        } catch (final IllegalStateException isex) {
+            assertTrue("Wrong message: " + isex.getMessage(), isex.getMessage().endsWith("a -> b -> a")
+                    || isex.getMessage().endsWith("b -> a -> b"));
+            assertFalse("Started", initializer.isStarted());
+        }
+    }
+
+    /**
+     * Tests the number of tasks, which is limited by the maximum concurrency.
+     */
+    @Test
+    public void testGetTaskCount() {
+        final MultiBackgroundInitializer nested = new MultiBackgroundInitializer();
+        nested.addInitializer("n1", new SleepingInitializer("n1", null, 0, null));
+        nested.addInitializer("n2", new SleepingInitializer("n2", null, 0, null));
+        final DependencyGraphInitializer initializer = new DependencyGraphInitializer(1);
+        initializer.addInitializer("a", new SleepingInitializer("a", null, 0, null));
+        initializer.addInitializer("nested", nested, "a");
+        assertEquals("Wrong task count", 4, initializer.getTaskCount());
+    }
+
+    /**
+     * A child initializer which sleeps for a while, records its name and
+     * returns it, or throws an exception.
+     */
+    private static class SleepingInitializer extends BackgroundInitializer<String> {
+        /** The name of this initializer. */
+        private final String name;
+
+        /** The names of the initializers, in the order of initialization. */
+        private final List<String> log;
+
+        /** The time to sleep in milliseconds. */
+        private final long millis;
+
+        /** An exception to be thrown by initialize(). */
+        private final Exception ex;
+
+        SleepingInitializer(final String name, final List<String> log, final long millis, final Exception ex) {
+            this.name = name;
+            this.log = log;
+            this.millis = millis;
+            this.ex = ex;
+        }
+
+        @Override
+        protected String initialize() throws Exception {
+            log.add(name);
+            Thread.sleep(millis);
+            if (ex != null) {
+                throw ex;
+            }
+            return name;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@code FastAtomicSafeInitializer}.
+ *
+ * @version $Id$
+ */
+public class FastAtomicSafeInitializerTest extends
+        AbstractConcurrentInitializerTest {
+    /** The instance to be tested. */
+    private FastAtomicSafeInitializerTestImpl initializer;
+
+    @Before
+    public void setUp() throws Exception {
+        initializer = new FastAtomicSafeInitializerTestImpl();
+    }
+
+    /**
+     * Returns the initializer to be tested.
+     *
+     * @return the {@code FastAtomicSafeInitializer} under test
+     */
+    @Override
+    protected ConcurrentInitializer<Object> createInitializer() {
+        return initializer;
+    }
+
+    /**
+     * Tests that initialize() is called only once.
+     */
+    @Test
+    public void testNumberOfInitializeInvocations() throws ConcurrentException,
+            InterruptedException {
+        testGetConcurrent();
+        assertEquals("Wrong number of invocations", 1,
+                initializer.initCounter.get());
+    }
+
+    /**
+     * Tests that the initialization is tried again after an exception.
+     */
+    @Test
+    public void testGetAfterException() throws ConcurrentException {
+        initializer.ex = new ConcurrentException(new Exception());
+        try {
+            initializer.get();
+            fail("Exception not thrown!");
+        } catch (final ConcurrentException cex) {
+            assertEquals("Wrong exception", initializer.ex, cex);
+        }
+        initializer.ex = null;
+        final Object obj = initializer.get();
+        assertEquals("Wrong object", obj, initializer.get());
+        assertEquals("Wrong number of invocations", 2,
+                initializer.initCounter.get());
+    }
+
+    /**
+     * A concrete test implementation of {@code FastAtomicSafeInitializer}.
+     * This implementation also counts the number of invocations of the
+     * initialize() method.
+     */
+    private static class FastAtomicSafeInitializerTestImpl extends
+            FastAtomicSafeInitializer<Object> {
+        /** A counter for initialize() invocations. */
+        final AtomicInteger initCounter = new AtomicInteger();
+
+        /** An exception to be thrown by initialize(). */
+        ConcurrentException ex;
+
+        @Override
+        protected Object initialize() throws ConcurrentException {
+            initCounter.incrementAndGet();
+            if (ex != null) {
+                throw ex;
+            }
+            return new Object();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for KeyedRateLimiter.
+ *
+ * @version $Id$
+ */
+public class KeyedRateLimiterTest {
+    /** Constant for the time period. */
+    private static final long PERIOD = 500;
+
+    /** Constant for the time unit. */
+    private static final TimeUnit UNIT = TimeUnit.MILLISECONDS;
+
+    /** Constant for the period in nanoseconds. */
+    private static final long PERIOD_NANOS = UNIT.toNanos(PERIOD);
+
+    /** Constant for the limit per key. */
+    private static final int LIMIT = 3;
+
+    /**
+     * Tests creating a new instance.
+     */
+    @Test
+    public void testInit() {
+        final KeyedRateLimiter<String> limiter = new KeyedRateLimiter<String>(PERIOD, UNIT, LIMIT);
+        assertEquals("Wrong period", PERIOD, limiter.getPeriod());
+        assertEquals("Wrong unit", UNIT, limiter.getUnit());
+        assertEquals("Wrong limit", LIMIT, limiter.getKeyLimit());
+        assertEquals("Wrong global limit", KeyedRateLimiter.NO_LIMIT, limiter.getGlobalLimit());
+        assertEquals("Wrong global limit", 5, new KeyedRateLimiter<String>(PERIOD, UNIT, LIMIT, 5).getGlobalLimit());
+        assertEquals("Keys", 0, limiter.getKeyCount());
+        assertEquals("Available", LIMIT, limiter.getAvailablePermits("a"));
+    }
+
+    /**
+     * Tries to create an instance with an invalid limit.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidLimit() {
+        new KeyedRateLimiter<String>(PERIOD, UNIT, 0);
+    }
+
+    /**
+     * Tries to acquire a permit for a null key.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTryAcquireNullKey() {
+        new KeyedRateLimiter<String>(PERIOD, UNIT, LIMIT).tryAcquire(null);
+    }
+
+    /**
+     * Tries to acquire more permits than the global limit.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTryAcquireBeyondGlobalLimit() {
+        new KeyedRateLimiter<String>(PERIOD, UNIT, LIMIT, 2).tryAcquire("a", 3);
+    }
+
+    /**
+     * Tests that each key has its own permits, which are renewed each period.
+     */
+    @Test
+    public void testTryAcquirePerKey() {
+        final TestKeyedRateLimiter limiter = new TestKeyedRateLimiter(KeyedRateLimiter.NO_LIMIT);
+        assertTrue("a", limiter.tryAcquire("a", LIMIT));
+        assertFalse("a beyond limit", limiter.tryAcquire("a"));
+        assertTrue("b", limiter.tryAcquire("b", 2));
+        assertFalse("b beyond limit", limiter.tryAcquire("b", 2));
+        assertTrue("b last", limiter.tryAcquire("b"));
+        assertEquals("Acquires a", LIMIT, limiter.getAcquireCount("a"));
+        assertEquals("Available b", 0, limiter.getAvailablePermits("b"));
+        assertEquals("Keys", 2, limiter.getKeyCount());
+
+        limiter.time += PERIOD_NANOS;
+        assertEquals("Acquires of new period", 0, limiter.getAcquireCount("a"));
+        assertTrue("a in new period", limiter.tryAcquire("a"));
+    }
+
+    /**
+     * Tests that the global limit is enforced together with the limit per key.
+     */
+    @Test
+    public void testTryAcquireGlobalLimit() {
+        final TestKeyedRateLimiter limiter = new TestKeyedRateLimiter(4);
+        assertTrue("a", limiter.tryAcquire("a", 2));
+        assertTrue("b", limiter.tryAcquire("b", 1));
+        assertFalse("c beyond global limit", limiter.tryAcquire("c", 2));
+        assertEquals("Permits of c given back", 0, limiter.getAcquireCount("c"));
+        assertTrue("c", limiter.tryAcquire("c", 1));
+        assertFalse("a beyond global limit", limiter.tryAcquire("a"));
+        assertEquals("Global acquires", 4, limiter.getGlobalAcquireCount());
+
+        limiter.time += PERIOD_NANOS;
+        assertTrue("c in new period", limiter.tryAcquire("c", LIMIT));
+        assertEquals("Global acquires of new period", LIMIT, limiter.getGlobalAcquireCount());
+    }
+
+    /**
+     * Tests waiting for the next period.
+     */
+    @Test
+    public void testTryAcquireTimeout() throws InterruptedException {
+        final TestKeyedRateLimiter limiter = new TestKeyedRateLimiter(KeyedRateLimiter.NO_LIMIT);
+        limiter.time = 10 * PERIOD_NANOS + 100;
+        assertTrue("a", limiter.tryAcquire("a", LIMIT));
+        assertFalse("Timeout before next period", limiter.tryAcquire("a", 1, PERIOD_NANOS - 101, TimeUnit.NANOSECONDS));
+        assertTrue("b without waiting", limiter.tryAcquire("b", 1, 0, TimeUnit.NANOSECONDS));
+        assertEquals("Slept", 0, limiter.sleeps.size());
+        limiter.acquire("a");
+        assertEquals("Sleeps", Arrays.asList(Long.valueOf(PERIOD_NANOS - 100)), limiter.sleeps);
+        assertEquals("Acquires", 1, limiter.getAcquireCount("a"));
+    }
+
+    /**
+     * Tests that a request refused by the global limit waits for the next
+     * period of the global limiter, which starts with its first request.
+     */
+    @Test
+    public void testTryAcquireTimeoutGlobalLimit() throws InterruptedException {
+        final TestKeyedRateLimiter limiter = new TestKeyedRateLimiter(2);
+        limiter.time = 10 * PERIOD_NANOS + 100;
+        assertTrue("a", limiter.tryAcquire("a"));
+        limiter.time = 11 * PERIOD_NANOS - 50;
+        assertTrue("b", limiter.tryAcquire("b"));
+        assertFalse("Timeout before next global period", limiter.tryAcquire("c", 1, 149, TimeUnit.NANOSECONDS));
+        assertEquals("Slept", 0, limiter.sleeps.size());
+        limiter.acquire("c");
+        assertEquals("Sleeps", Arrays.asList(Long.valueOf(150)), limiter.sleeps);
+        assertEquals("Global acquires", 1, limiter.getGlobalAcquireCount());
+    }
+
+    /**
+     * Tests that idle keys are removed.
+     */
+    @Test
+    public void testEvictIdleKeys() {
+        final TestKeyedRateLimiter limiter = new TestKeyedRateLimiter(KeyedRateLimiter.NO_LIMIT);
+        for (int i = 0; i < 100; i++) {
+            assertTrue("Key " + i, limiter.tryAcquire(Integer.toString(i)));
+        }
+        assertEquals("Keys", 100, limiter.getKeyCount());
+        assertEquals("Removed in same period", 0, limiter.evictIdleKeys());
+
+        limiter.time += PERIOD_NANOS;
+        assertTrue("Key 0 in new period", limiter.tryAcquire("0", LIMIT));
+        assertEquals("Removed", 99, limiter.evictIdleKeys());
+        assertEquals("Keys after removal", 1, limiter.getKeyCount());
+        assertEquals("Acquires of remaining key", LIMIT, limiter.getAcquireCount("0"));
+        assertFalse("Remaining key beyond limit", limiter.tryAcquire("0"));
+        assertTrue("Removed key", limiter.tryAcquire("1", LIMIT));
+    }
+
+    /**
+     * Tests that idle keys are removed automatically once a second, a slice of
+     * the keys by each thread acquiring permits.
+     */
+    @Test
+    public void testEvictIdleKeysAutomatically() {
+        final TestKeyedRateLimiter limiter = new TestKeyedRateLimiter(KeyedRateLimiter.NO_LIMIT);
+        for (int i = 0; i < 100; i++) {
+            assertTrue("Key " + i, limiter.tryAcquire(Integer.toString(i)));
+        }
+        limiter.time += PERIOD_NANOS;
+        assertTrue("Key in next period", limiter.tryAcquire("x"));
+        assertEquals("Keys before a second", 101, limiter.getKeyCount());
+        limiter.time += TimeUnit.SECONDS.toNanos(1);
+        assertTrue("Key after a second", limiter.tryAcquire("y"));
+        assertEquals("Keys after a first slice", 101 - 64 + 1, limiter.getKeyCount());
+        assertTrue("Key after a slice", limiter.tryAcquire("z"));
+        assertEquals("Keys after a second slice", 2, limiter.getKeyCount());
+        limiter.time += PERIOD_NANOS;
+        assertTrue("Key before the next removal", limiter.tryAcquire("0"));
+        assertEquals("Keys before the next removal", 3, limiter.getKeyCount());
+    }
+
+    /**
+     * Tests that concurrent threads are granted exactly the limit of each key
+     * while idle keys are removed.
+     */
+    @Test
+    public void testTryAcquireConcurrently() throws InterruptedException {
+        final int threadCount = 8;
+        final KeyedRateLimiter<Integer> limiter = new KeyedRateLimiter<Integer>(1, TimeUnit.HOURS, 100);
+        final AtomicInteger granted = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            final Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 5000; j++) {
+                        if (limiter.tryAcquire(Integer.valueOf(j % 20))) {
+                            granted.incrementAndGet();
+                        }
+                        if (j % 100 == 0) {
+                            limiter.evictIdleKeys();
+                        }
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("Granted", 20 * 100, granted.get());
+        assertEquals("Keys", 20, limiter.getKeyCount());
+    }
+
+    /**
+     * A keyed rate limiter with a manual clock, recording the times it sleeps.
+     */
+    private static class TestKeyedRateLimiter extends KeyedRateLimiter<String> {
+        /** The current time. */
+        long time = -7;
+
+        /** The times slept. */
+        final List<Long> sleeps = new ArrayList<Long>();
+
+        TestKeyedRateLimiter(final int globalLimit) {
+            super(PERIOD, UNIT, LIMIT, globalLimit);
+        }
+
+        @Override
+        protected long nanoTime() {
+            return time;
+        }
+
+        @Override
+        protected void sleep(final long nanos) {
+            sleeps.add(Long.valueOf(nanos));
+            time += nanos;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@code LazyInitializerMap}.
+ *
+ * @version $Id$
+ */
+public class LazyInitializerMapTest {
+    /** The map to be tested. */
+    private CountingInitializerMap map;
+
+    @Before
+    public void setUp() throws Exception {
+        map = new CountingInitializerMap(4);
+    }
+
+    /**
+     * Tests the number of locks.
+     */
+    @Test
+    public void testGetStripes() {
+        assertEquals("Wrong stripes", 4, map.getStripes());
+        assertEquals("Not rounded up", 8, new CountingInitializerMap(5).getStripes());
+        assertEquals("Wrong default", LazyInitializerMap.DEFAULT_STRIPES, new LazyInitializerMap<String, String>() {
+            @Override
+            protected String initialize(final String key) {
+                return key;
+            }
+        }.getStripes());
+    }
+
+    /**
+     * Tries to create an instance with an invalid number of locks.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidStripes() {
+        new CountingInitializerMap(0);
+    }
+
+    /**
+     * Tries to get the object for a null key.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetNullKey() throws ConcurrentException {
+        map.get(null);
+    }
+
+    /**
+     * Tests that the object of each key is created once.
+     */
+    @Test
+    public void testGet() throws ConcurrentException {
+        final Object a = map.get("a");
+        assertSame("Different object", a, map.get("a"));
+        assertTrue("Different objects for different keys", a != map.get("b"));
+        assertEquals("Wrong size", 2, map.size());
+        assertTrue("Not initialized", map.isInitialized("a"));
+        assertFalse("Initialized", map.isInitialized("c"));
+        assertEquals("Wrong number of invocations", 1, map.count("a"));
+    }
+
+    /**
+     * Tests that a removed object is created again.
+     */
+    @Test
+    public void testRemove() throws ConcurrentException {
+        final Object a = map.get("a");
+        assertSame("Wrong removed object", a, map.remove("a"));
+        assertNull("Removed twice", map.remove("a"));
+        assertTrue("Same object after removal", a != map.get("a"));
+        assertEquals("Wrong number of invocations", 2, map.count("a"));
+    }
+
+    /**
+     * Tests that a null object is not stored.
+     */
+    @Test
+    public void testGetNull() throws ConcurrentException {
+        assertNull("Not null", map.get(CountingInitializerMap.NULL_KEY));
+        assertNull("Not null again", map.get(CountingInitializerMap.NULL_KEY));
+        assertEquals("Wrong size", 0, map.size());
+        assertEquals("Wrong number of invocations", 2, map.count(CountingInitializerMap.NULL_KEY));
+    }
+
+    /**
+     * Tests that concurrent threads get the same object for each key, which
+     * is created only once.
+     */
+    @Test
+    public void testGetConcurrent() throws InterruptedException {
+        final int threadCount = 20;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final ConcurrentMap<String, Object> objects = new ConcurrentHashMap<String, Object>();
+        final AtomicInteger mismatches = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            final Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < 100; j++) {
+                            final String key = String.valueOf(j % 10);
+                            final Object obj = map.get(key);
+                            final Object previous = objects.putIfAbsent(key, obj);
+                            if (previous != null && previous != obj) {
+                                mismatches.incrementAndGet();
+                            }
+                        }
+                    } catch (final InterruptedException iex) {
+                        // ignore
+                    } catch (final ConcurrentException cex) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+
+        startLatch.countDown();
+        for (final Thread t : threads) {
+            t.join();
+        }
+        assertEquals("Different objects", 0, mismatches.get());
+        for (int j = 0; j < 10; j++) {
+            assertEquals("Wrong number of invocations for " + j, 1, map.count(String.valueOf(j)));
+        }
+    }
+
+    /**
+     * A test implementation of {@code LazyInitializerMap} creating plain
+     * objects and counting the invocations of initialize() for each key.
+     */
+    private static class CountingInitializerMap extends LazyInitializerMap<String, Object> {
+        /** The key for which null is returned. */
+        static final String NULL_KEY = "null";
+
+        /** The invocations of initialize() for each key. */
+        private final ConcurrentMap<String, AtomicInteger> counters = new ConcurrentHashMap<String, AtomicInteger>();
+
+        CountingInitializerMap(final int stripes) {
+            super(stripes);
+        }
+
+        int count(final String key) {
+            final AtomicInteger counter = counters.get(key);
+            return counter == null ? 0 : counter.get();
+        }
+
+        @Override
+        protected Object initialize(final String key) {
+            counters.putIfAbsent(key, new AtomicInteger());
+            counters.get(key).incrementAndGet();
+            return NULL_KEY.equals(key) ? null : new Object();
+        }
+    }
+}
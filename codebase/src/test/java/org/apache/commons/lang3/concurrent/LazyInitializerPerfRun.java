@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import java.text.NumberFormat;
+import java.util.Calendar;
+
+/**
+ * Compares the time taken by get() of the lazy initializers once the object
+ * has been created. Each run reads the objects of an array of initializers,
+ * so that the reads cannot be moved out of the loop. Pass the name of a class
+ * to time only this class, so that the call of get() is not polymorphic.
+ * 
+ * Sample run, timing each class in its own JVM. On x86 processors reading a
+ * volatile field costs no more than a plain field, so the variants only pay
+ * off on processors with a weaker memory model, or when the JIT can hoist the
+ * plain read; the map costs a hash lookup:
+
+Now: Mon Oct 19 01:41:07 UTC 2026
+Eclipse Adoptium OpenJDK Runtime Environment 17.0.9+9
+Linux 6.18.44 amd64, 1 processors
+LazyInitializer: 314 milliseconds.
+AtomicInitializer: 299 milliseconds.
+AtomicSafeInitializer: 302 milliseconds.
+FastLazyInitializer: 293 milliseconds.
+FastAtomicSafeInitializer: 307 milliseconds.
+LazyInitializerMap: 1,542 milliseconds.
+
+ * @version $Id$
+ */
+public class LazyInitializerPerfRun {
+
+    final static int INITIALIZERS = 1024;
+
+    final static int WARM_UP = 1000;
+
+    final static int COUNT = 100000;
+
+    public static void main(final String[] args) throws ConcurrentException {
+        new LazyInitializerPerfRun().run(args.length > 0 ? args[0] : null);
+    }
+
+    private void printSysInfo() {
+        System.out.println("Now: " + Calendar.getInstance().getTime());
+        System.out.println(System.getProperty("java.vendor")
+                + " "
+                + System.getProperty("java.runtime.name")
+                + " "
+                + System.getProperty("java.runtime.version"));
+        System.out.println(System.getProperty("os.name")
+            + " "
+            + System.getProperty("os.version")
+            + " "
+            + System.getProperty("os.arch")
+            + ", "
+            + Runtime.getRuntime().availableProcessors()
+            + " processors");
+    }
+
+    private void run(final String only) throws ConcurrentException {
+        this.printSysInfo();
+        final ConcurrentInitializer<?>[] lazy = new ConcurrentInitializer<?>[INITIALIZERS];
+        final ConcurrentInitializer<?>[] atomic = new ConcurrentInitializer<?>[INITIALIZERS];
+        final ConcurrentInitializer<?>[] atomicSafe = new ConcurrentInitializer<?>[INITIALIZERS];
+        final ConcurrentInitializer<?>[] fastLazy = new ConcurrentInitializer<?>[INITIALIZERS];
+        final ConcurrentInitializer<?>[] fastAtomicSafe = new ConcurrentInitializer<?>[INITIALIZERS];
+        final Integer[] keys = new Integer[INITIALIZERS];
+        for (int i = 0; i < INITIALIZERS; i++) {
+            lazy[i] = new LazyInitializer<Object>() {
+                @Override
+                protected Object initialize() {
+                    return new Object();
+                }
+            };
+            atomic[i] = new AtomicInitializer<Object>() {
+                @Override
+                protected Object initialize() {
+                    return new Object();
+                }
+            };
+            atomicSafe[i] = new AtomicSafeInitializer<Object>() {
+                @Override
+                protected Object initialize() {
+                    return new Object();
+                }
+            };
+            fastLazy[i] = new FastLazyInitializer<Object>() {
+                @Override
+                protected Object initialize() {
+                    return new Object();
+                }
+            };
+            fastAtomicSafe[i] = new FastAtomicSafeInitializer<Object>() {
+                @Override
+                protected Object initialize() {
+                    return new Object();
+                }
+            };
+            keys[i] = Integer.valueOf(i);
+        }
+        final LazyInitializerMap<Integer, Object> map = new LazyInitializerMap<Integer, Object>() {
+            @Override
+            protected Object initialize(final Integer key) {
+                return new Object();
+            }
+        };
+
+        this.time("LazyInitializer", lazy, only);
+        this.time("AtomicInitializer", atomic, only);
+        this.time("AtomicSafeInitializer", atomicSafe, only);
+        this.time("FastLazyInitializer", fastLazy, only);
+        this.time("FastAtomicSafeInitializer", fastAtomicSafe, only);
+        if (only == null || only.equals("LazyInitializerMap")) {
+            run_map(map, keys, WARM_UP);
+            final long start = System.currentTimeMillis();
+            run_map(map, keys, COUNT);
+            this.printlnTotal("LazyInitializerMap", start);
+        }
+    }
+
+    private void time(final String prefix, final ConcurrentInitializer<?>[] initializers, final String only)
+            throws ConcurrentException {
+        if (only != null && !only.equals(prefix)) {
+            return;
+        }
+        run_initializers(initializers, WARM_UP);
+        final long start = System.currentTimeMillis();
+        run_initializers(initializers, COUNT);
+        this.printlnTotal(prefix, start);
+    }
+
+    private int run_initializers(final ConcurrentInitializer<?>[] initializers, final int loopCount)
+            throws ConcurrentException {
+        int t = 0;
+        for (int i = 0; i < loopCount; i++) {
+            for (final ConcurrentInitializer<?> initializer : initializers) {
+                if (initializer.get() != null) {
+                    t++;
+                }
+            }
+        }
+        return t;
+    }
+
+    private int run_map(final LazyInitializerMap<Integer, Object> map, final Integer[] keys, final int loopCount)
+            throws ConcurrentException {
+        int t = 0;
+        for (int i = 0; i < loopCount; i++) {
+            for (final Integer key : keys) {
+                if (map.get(key) != null) {
+                    t++;
+                }
+            }
+        }
+        return t;
+    }
+
+    private void printlnTotal(final String prefix, final long start) {
+        final long total = System.currentTimeMillis() - start;
+        System.out.println(prefix + ": " + NumberFormat.getInstance().format(total) + " milliseconds.");
+    }
+}
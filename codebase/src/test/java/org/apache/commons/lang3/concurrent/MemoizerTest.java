@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@code Memoizer}.
+ *
+ * @version $Id$
+ */
+public class MemoizerTest {
+    /** The computation used by the tests. */
+    private CountingComputable computable;
+
+    @Before
+    public void setUp() throws Exception {
+        computable = new CountingComputable();
+    }
+
+    /**
+     * Tries to create an instance without a computation.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitNullComputable() {
+        new Memoizer<String, String>(null);
+    }
+
+    /**
+     * Tries to create an instance with a negative maximum size.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitNegativeMaximumSize() {
+        new Memoizer<String, String>(computable, -1, Memoizer.NO_LIMIT, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tries to create an instance with a negative expiry.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitNegativeExpiry() {
+        new Memoizer<String, String>(computable, Memoizer.NO_LIMIT, -1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tries to get the result for a null key.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetNullKey() throws ConcurrentException {
+        new Memoizer<String, String>(computable).get(null);
+    }
+
+    /**
+     * Tests that results are computed once and cached.
+     */
+    @Test
+    public void testGet() throws ConcurrentException {
+        final Memoizer<String, String> memoizer = new Memoizer<String, String>(computable, 10, 1, TimeUnit.HOURS);
+        assertEquals("Wrong maximum size", 10, memoizer.getMaximumSize());
+        assertEquals("Wrong expiry", 60, memoizer.getExpiry(TimeUnit.MINUTES));
+        assertEquals("Wrong result", "A", memoizer.get("a"));
+        assertEquals("Wrong cached result", "A", memoizer.get("a"));
+        assertEquals("Wrong other result", "B", memoizer.get("b"));
+        assertEquals("Wrong size", 2, memoizer.size());
+        assertEquals("Wrong number of computations", 1, computable.count("a"));
+
+        assertTrue("Not removed", memoizer.remove("a"));
+        assertFalse("Removed twice", memoizer.remove("a"));
+        assertEquals("Wrong result after removal", "A", memoizer.get("a"));
+        assertEquals("Wrong number of computations after removal", 2, computable.count("a"));
+    }
+
+    /**
+     * Tests that a failed computation is reported and done again on the next
+     * request.
+     */
+    @Test
+    public void testGetException() throws ConcurrentException {
+        final Memoizer<String, String> memoizer = new Memoizer<String, String>(computable);
+        computable.ex = new Exception();
+        try {
+            memoizer.get("a");
+            fail("Exception not thrown!");
+        } catch (final ConcurrentException cex) {
+            assertEquals("Wrong cause", computable.ex, cex.getCause());
+        }
+        assertEquals("Failure cached", 0, memoizer.size());
+        computable.ex = null;
+        assertEquals("Wrong result", "A", memoizer.get("a"));
+        assertEquals("Wrong number of computations", 2, computable.count("a"));
+    }
+
+    /**
+     * Tests that a runtime exception of the computation is rethrown.
+     */
+    @Test
+    public void testGetRuntimeException() throws ConcurrentException {
+        final Memoizer<String, String> memoizer = new Memoizer<String, String>(computable);
+        final RuntimeException rex = new IllegalStateException();
+        computable.ex = rex;
+        try {
+            memoizer.get("a");
+            fail("Exception not thrown!");
+        } catch (final RuntimeException ex) {
+            assertEquals("Wrong exception", rex, ex);
+        }
+    }
+
+    /**
+     * Tests that results are computed again when they have expired.
+     */
+    @Test
+    public void testGetExpired() throws ConcurrentException {
+        final TestMemoizer memoizer = new TestMemoizer(Memoizer.NO_LIMIT, 100);
+        memoizer.get("a");
+        memoizer.time += 99;
+        memoizer.get("a");
+        assertEquals("Expired too early", 1, computable.count("a"));
+        memoizer.time += 1;
+        memoizer.get("a");
+        assertEquals("Not expired", 2, computable.count("a"));
+        assertEquals("Wrong size", 1, memoizer.size());
+    }
+
+    /**
+     * Tests that the least recently used results are removed beyond the
+     * maximum size.
+     */
+    @Test
+    public void testGetMaximumSize() throws ConcurrentException {
+        final Memoizer<String, String> memoizer = new Memoizer<String, String>(computable, 3, Memoizer.NO_LIMIT,
+                TimeUnit.SECONDS);
+        memoizer.get("a");
+        memoizer.get("b");
+        memoizer.get("c");
+        // use a again, so that b is the least recently used
+        memoizer.get("a");
+        memoizer.get("d");
+        assertEquals("Wrong size", 3, memoizer.size());
+        memoizer.get("a");
+        memoizer.get("c");
+        memoizer.get("d");
+        assertEquals("a evicted", 1, computable.count("a"));
+        assertEquals("c evicted", 1, computable.count("c"));
+        assertEquals("d evicted", 1, computable.count("d"));
+        memoizer.get("b");
+        assertEquals("b not evicted", 2, computable.count("b"));
+    }
+
+    /**
+     * Tests that removed results do not prevent the least recently used
+     * results from being removed beyond the maximum size.
+     */
+    @Test
+    public void testGetMaximumSizeAfterRemovals() throws ConcurrentException {
+        final Memoizer<String, String> memoizer = new Memoizer<String, String>(computable, 10, Memoizer.NO_LIMIT,
+                TimeUnit.SECONDS);
+        for (int i = 0; i < 1000; i++) {
+            memoizer.get("r" + i);
+            assertTrue("Removed", memoizer.remove("r" + i));
+        }
+        for (int i = 0; i < 30; i++) {
+            memoizer.get("k" + i);
+        }
+        assertEquals("Wrong size", 10, memoizer.size());
+    }
+
+    /**
+     * Tests that the removed, expired and failed results do not remain in
+     * the clock.
+     */
+    @Test
+    public void testClockDoesNotKeepRemovedResults() throws ConcurrentException {
+        final TestMemoizer memoizer = new TestMemoizer(10, 100);
+        for (int i = 0; i < 1000; i++) {
+            memoizer.get("r" + i);
+            memoizer.remove("r" + i);
+            memoizer.get("e" + i);
+            memoizer.time += 100;
+            memoizer.get("e" + i);
+            computable.ex = new Exception();
+            try {
+                memoizer.get("f" + i);
+                fail("Exception not thrown");
+            } catch (final ConcurrentException cex) {
+                computable.ex = null;
+            }
+        }
+        assertTrue("Clock too long: " + memoizer.getClockLength(), memoizer.getClockLength() <= 2 * 10 + 1);
+
+        final Memoizer<String, String> unlimited = new Memoizer<String, String>(computable);
+        for (int i = 0; i < 100; i++) {
+            unlimited.get("r" + i);
+            unlimited.remove("r" + i);
+        }
+        assertEquals("Clock without maximum size", 0, unlimited.getClockLength());
+    }
+
+    /**
+     * Tests that concurrent requests for a key wait for a single computation,
+     * while other keys are computed in parallel.
+     */
+    @Test
+    public void testGetSingleFlight() throws Exception {
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger slowCount = new AtomicInteger();
+        final Memoizer<String, String> memoizer = new Memoizer<String, String>(new Computable<String, String>() {
+            @Override
+            public String compute(final String arg) throws Exception {
+                if ("slow".equals(arg)) {
+                    slowCount.incrementAndGet();
+                    computing.countDown();
+                    release.await();
+                }
+                return arg.toUpperCase();
+            }
+        });
+
+        final Thread first = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    memoizer.get("slow");
+                } catch (final ConcurrentException cex) {
+                    // checked below
+                }
+            }
+        };
+        first.start();
+        assertTrue("Not computing", computing.await(10, TimeUnit.SECONDS));
+
+        final CompletableFuture<String> waiting = memoizer.getFuture("slow");
+        assertFalse("Done before computation", waiting.isDone());
+        assertEquals("Other key blocked", "FAST", memoizer.get("fast"));
+
+        release.countDown();
+        assertEquals("Wrong result", "SLOW", waiting.get(10, TimeUnit.SECONDS));
+        first.join();
+        assertEquals("Wrong number of computations", 1, slowCount.get());
+    }
+
+    /**
+     * Tests that many threads requesting the same keys cause one computation
+     * per key.
+     */
+    @Test
+    public void testGetConcurrent() throws InterruptedException {
+        final Memoizer<String, String> memoizer = new Memoizer<String, String>(computable);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Thread[] threads = new Thread[20];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < 100; j++) {
+                            memoizer.get("key" + j % 10);
+                        }
+                    } catch (final InterruptedException iex) {
+                        // ignore
+                    } catch (final ConcurrentException cex) {
+                        // checked below
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        startLatch.countDown();
+        for (final Thread t : threads) {
+            t.join();
+        }
+        for (int j = 0; j < 10; j++) {
+            assertEquals("Wrong number of computations for " + j, 1, computable.count("key" + j));
+        }
+    }
+
+    /**
+     * A computation returning the argument in upper case, counting the
+     * computations for each argument.
+     */
+    private static class CountingComputable implements Computable<String, String> {
+        /** The number of computations for each argument. */
+        private final ConcurrentMap<String, AtomicInteger> counters = new ConcurrentHashMap<String, AtomicInteger>();
+
+        /** An exception to be thrown by compute(). */
+        volatile Exception ex;
+
+        int count(final String arg) {
+            final AtomicInteger counter = counters.get(arg);
+            return counter == null ? 0 : counter.get();
+        }
+
+        @Override
+        public String compute(final String arg) throws Exception {
+            counters.putIfAbsent(arg, new AtomicInteger());
+            counters.get(arg).incrementAndGet();
+            if (ex != null) {
+                throw ex;
+            }
+            return arg.toUpperCase();
+        }
+    }
+
+    /**
+     * A memoizer with a manual clock.
+     */
+    private class TestMemoizer extends Memoizer<String, String> {
+        /** The current time. */
+        long time = -50;
+
+        TestMemoizer(final int maximumSize, final long expiryNanos) {
+            super(computable, maximumSize, expiryNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        protected long nanoTime() {
+            return time;
+        }
+    }
+}
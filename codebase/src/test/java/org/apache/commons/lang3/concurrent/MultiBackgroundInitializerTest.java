@@ -22,10 +22,15 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -348,6 +353,134 @@ public class MultiBackgroundInitializerTest {
         assertTrue("Executor not shutdown", exec.isShutdown());
     }
 
+    /**
+     * Tests that child initializers are started after their dependencies.
+     */
+    @Test
+    public void testInitializeDependencies() throws ConcurrentException {
+        final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        initializer.addInitializer("a", new RecordingInitializer("a", log));
+        initializer.addInitializer("b", new RecordingInitializer("b", log), "a");
+        initializer.addInitializer("c", new RecordingInitializer("c", log), "a");
+        initializer.addInitializer("d", new RecordingInitializer("d", log), "b", "c");
+        initializer.start();
+        final MultiBackgroundInitializer.MultiBackgroundInitializerResults res = initializer
+                .get();
+        assertTrue("Wrong success flag", res.isSuccessful());
+        assertEquals("Wrong number of starts", 4, log.size());
+        assertEquals("Wrong first", "a", log.get(0));
+        assertEquals("Wrong last", "d", log.get(3));
+        assertEquals("Wrong result", "d", res.getResultObject("d"));
+        assertTrue("Executor not shutdown", initializer.getActiveExecutor()
+                .isShutdown());
+    }
+
+    /**
+     * Tests that a child initializer is not started if a dependency fails.
+     */
+    @Test
+    public void testInitializeDependencyFailed() throws ConcurrentException {
+        final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        final ChildBackgroundInitializer failing = new ChildBackgroundInitializer();
+        failing.ex = new Exception();
+        initializer.addInitializer("a", failing);
+        initializer.addInitializer("b", new RecordingInitializer("b", log), "a");
+        initializer.addInitializer("c", new RecordingInitializer("c", log), "b");
+        initializer.addInitializer("d", new RecordingInitializer("d", log));
+        initializer.start();
+        final MultiBackgroundInitializer.MultiBackgroundInitializerResults res = initializer
+                .get();
+        assertFalse("Wrong success flag", res.isSuccessful());
+        assertEquals("Wrong starts", Collections.singletonList("d"), log);
+        assertEquals("Wrong cause", failing.ex, res.getException("a").getCause());
+        assertEquals("Wrong cause of dependent", res.getException("a"), res.getException("b").getCause());
+        assertEquals("Wrong cause of indirect dependent", res.getException("b"), res.getException("c").getCause());
+        assertFalse("Dependent started", res.getInitializer("c").isStarted());
+        assertFalse("Exception flag", res.isException("d"));
+    }
+
+    /**
+     * Tests start() if a dependency is unknown.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testStartUnknownDependency() {
+        initializer.addInitializer(CHILD_INIT, new ChildBackgroundInitializer(), "unknown");
+        initializer.start();
+    }
+
+    /**
+     * Tests start() if the dependencies contain a cycle.
+     */
+    @Test
+    public void testStartCyclicDependency() {
+        initializer.addInitializer("a", new ChildBackgroundInitializer(), "c");
+        initializer.addInitializer("b", new ChildBackgroundInitializer(), "a");
+        initializer.addInitializer("c", new ChildBackgroundInitializer(), "b");
+        try {
+            initializer.start();
+            fail("Cycle not detected!");
+        } catch (final IllegalStateException isex) {
+            assertEquals("Wrong message", "Cyclic dependency of child initializers: a -> c -> b -> a",
+                    isex.getMessage());
+            assertFalse("Started", initializer.isStarted());
+        }
+    }
+
+    /**
+     * Tests addInitializer() if a null dependency is passed in.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddInitializerNullDependency() {
+        initializer.addInitializer(CHILD_INIT, new ChildBackgroundInitializer(), (String) null);
+    }
+
+    /**
+     * Tests the initialization with dependencies in the common pool, which
+     * must not deadlock even if the control task waits in the pool.
+     */
+    @Test
+    public void testInitializeCommonPool() throws Exception {
+        final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+        initializer.setExecutorStrategy(ExecutorStrategy.COMMON_POOL);
+        final int count = 2 * ForkJoinPool.getCommonPoolParallelism() + 2;
+        final String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = CHILD_INIT + i;
+            initializer.addInitializer(names[i], new RecordingInitializer(names[i], log));
+        }
+        initializer.addInitializer("last", new RecordingInitializer("last", log), names);
+        initializer.start();
+        final MultiBackgroundInitializer.MultiBackgroundInitializerResults res = initializer
+                .getCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertTrue("Wrong success flag", res.isSuccessful());
+        assertEquals("Wrong number of starts", count + 1, log.size());
+        assertEquals("Wrong last", "last", log.get(count));
+    }
+
+    /**
+     * A child initializer recording the order of initializations, and
+     * returning its name.
+     */
+    private static class RecordingInitializer extends BackgroundInitializer<String> {
+        /** The name of this initializer. */
+        private final String name;
+
+        /** The names of the initializers, in the order of initialization. */
+        private final List<String> log;
+
+        RecordingInitializer(final String name, final List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        @Override
+        protected String initialize() throws Exception {
+            Thread.sleep(10);
+            log.add(name);
+            return name;
+        }
+    }
+
     /**
      * A concrete implementation of {@code BackgroundInitializer} used for
      * defining background tasks for {@code MultiBackgroundInitializer}.
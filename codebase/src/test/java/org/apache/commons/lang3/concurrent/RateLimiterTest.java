@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test class for RateLimiter.
+ *
+ * @version $Id$
+ */
+public class RateLimiterTest {
+    /** Constant for the time period. */
+    private static final long PERIOD = 500;
+
+    /** Constant for the time unit. */
+    private static final TimeUnit UNIT = TimeUnit.MILLISECONDS;
+
+    /** Constant for the period in nanoseconds. */
+    private static final long PERIOD_NANOS = UNIT.toNanos(PERIOD);
+
+    /** Constant for the default limit. */
+    private static final int LIMIT = 10;
+
+    /**
+     * Tests creating a new instance.
+     */
+    @Test
+    public void testInit() {
+        final RateLimiter limiter = new RateLimiter(PERIOD, UNIT, LIMIT);
+        assertEquals("Wrong period", PERIOD, limiter.getPeriod());
+        assertEquals("Wrong unit", UNIT, limiter.getUnit());
+        assertEquals("Wrong limit", LIMIT, limiter.getLimit());
+        assertFalse("Fair", limiter.isFair());
+        assertTrue("Not fair", new RateLimiter(PERIOD, UNIT, LIMIT, true).isFair());
+        assertEquals("Acquires", 0, limiter.getAcquireCount());
+        assertEquals("Available", LIMIT, limiter.getAvailablePermits());
+        assertEquals("Average available", 0.0, limiter.getAverageCallsPerPeriod(), .05);
+    }
+
+    /**
+     * Tries to create an instance with an invalid period.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidPeriod() {
+        new RateLimiter(0L, UNIT, LIMIT);
+    }
+
+    /**
+     * Tries to create an instance with an invalid limit.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitInvalidLimit() {
+        new RateLimiter(PERIOD, UNIT, 0);
+    }
+
+    /**
+     * Tries to create an instance without a unit.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitNullUnit() {
+        new RateLimiter(PERIOD, null, LIMIT);
+    }
+
+    /**
+     * Tries to acquire more permits than the limit.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTryAcquireTooManyPermits() {
+        new RateLimiter(PERIOD, UNIT, LIMIT).tryAcquire(LIMIT + 1);
+    }
+
+    /**
+     * Tests that permits are only granted up to the limit in each period.
+     */
+    @Test
+    public void testTryAcquireLimit() {
+        final TestRateLimiter limiter = new TestRateLimiter(false);
+        for (int i = 0; i < LIMIT; i++) {
+            assertTrue("Permit " + i, limiter.tryAcquire());
+        }
+        assertFalse("Permit beyond the limit", limiter.tryAcquire());
+        assertEquals("Acquires", LIMIT, limiter.getAcquireCount());
+        assertEquals("Available", 0, limiter.getAvailablePermits());
+
+        limiter.time += PERIOD_NANOS - 1;
+        assertFalse("Permit at the end of the period", limiter.tryAcquire());
+        limiter.time += 1;
+        assertEquals("Acquires of new period", 0, limiter.getAcquireCount());
+        assertTrue("Permit of new period", limiter.tryAcquire(3));
+        assertFalse("Too many permits", limiter.tryAcquire(LIMIT - 2));
+        assertTrue("Remaining permits", limiter.tryAcquire(LIMIT - 3));
+        assertEquals("Average", LIMIT, limiter.getAverageCallsPerPeriod(), .05);
+
+        // idle periods are included in the average
+        limiter.time += 3 * PERIOD_NANOS;
+        assertEquals("Average with idle periods", 5.0, limiter.getAverageCallsPerPeriod(), .05);
+        assertEquals("Acquires after idle periods", 0, limiter.getAcquireCount());
+    }
+
+    /**
+     * Tests waiting for the next period with an unfair limiter.
+     */
+    @Test
+    public void testTryAcquireTimeoutUnfair() throws InterruptedException {
+        final TestRateLimiter limiter = new TestRateLimiter(false);
+        assertTrue("First permits", limiter.tryAcquire(LIMIT));
+        limiter.time += 100;
+        assertFalse("Timeout before next period",
+                limiter.tryAcquire(1, PERIOD_NANOS - 101, TimeUnit.NANOSECONDS));
+        assertEquals("Slept", 0, limiter.sleeps.size());
+        assertTrue("Timeout after next period", limiter.tryAcquire(1, PERIOD_NANOS - 100, TimeUnit.NANOSECONDS));
+        assertEquals("Sleeps", Arrays.asList(Long.valueOf(PERIOD_NANOS - 100)), limiter.sleeps);
+        assertEquals("Acquires", 1, limiter.getAcquireCount());
+    }
+
+    /**
+     * Tests reserving permits of later periods with a fair limiter.
+     */
+    @Test
+    public void testTryAcquireTimeoutFair() throws InterruptedException {
+        final TestRateLimiter limiter = new TestRateLimiter(true);
+        assertTrue("First permits", limiter.tryAcquire(LIMIT - 2));
+        limiter.time += 100;
+        assertFalse("Permits of the next period", limiter.tryAcquire(3));
+        assertFalse("Timeout before the period of the last permit",
+                limiter.tryAcquire(3, PERIOD_NANOS - 101, TimeUnit.NANOSECONDS));
+        // reserve 2 permits of this period and 8 of the next one, then 5 of the period after
+        limiter.sleepsAdvanceTime = false;
+        assertTrue("Reserved", limiter.tryAcquire(LIMIT, PERIOD_NANOS, TimeUnit.NANOSECONDS));
+        assertTrue("Reserved later", limiter.tryAcquire(5, 2 * PERIOD_NANOS, TimeUnit.NANOSECONDS));
+        assertEquals("Sleeps", Arrays.asList(Long.valueOf(PERIOD_NANOS - 100), Long.valueOf(2 * PERIOD_NANOS - 100)),
+                limiter.sleeps);
+        assertFalse("Earlier request", limiter.tryAcquire());
+        assertEquals("Acquires", LIMIT, limiter.getAcquireCount());
+
+        limiter.time += PERIOD_NANOS;
+        assertEquals("Acquires of reserved period", LIMIT, limiter.getAcquireCount());
+        assertEquals("Average", LIMIT, limiter.getAverageCallsPerPeriod(), .05);
+        limiter.time += PERIOD_NANOS;
+        assertEquals("Acquires of last reserved period", 3, limiter.getAcquireCount());
+        assertTrue("Free permit", limiter.tryAcquire(LIMIT - 3));
+        assertFalse("No more permits", limiter.tryAcquire());
+    }
+
+    /**
+     * Tests that a blocking acquire waits for the next period.
+     */
+    @Test
+    public void testAcquire() throws InterruptedException {
+        final TestRateLimiter limiter = new TestRateLimiter(false);
+        for (int i = 0; i < 2 * LIMIT + 1; i++) {
+            limiter.acquire();
+        }
+        assertEquals("Sleeps", Arrays.asList(Long.valueOf(PERIOD_NANOS), Long.valueOf(PERIOD_NANOS)), limiter.sleeps);
+        assertEquals("Acquires", 1, limiter.getAcquireCount());
+    }
+
+    /**
+     * Tests that waiting for permits is interruptible.
+     */
+    @Test(expected = InterruptedException.class)
+    public void testAcquireInterrupted() throws InterruptedException {
+        final RateLimiter limiter = new RateLimiter(PERIOD, UNIT, LIMIT);
+        Thread.currentThread().interrupt();
+        limiter.acquire();
+    }
+
+    /**
+     * Tests that concurrent threads are granted exactly the limit.
+     */
+    @Test
+    public void testTryAcquireConcurrently() throws InterruptedException {
+        final int threadCount = 8;
+        final RateLimiter limiter = new RateLimiter(1, TimeUnit.HOURS, 1000);
+        final AtomicInteger granted = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            final Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 500; j++) {
+                        if (limiter.tryAcquire()) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("Granted", 1000, granted.get());
+        assertEquals("Acquires", 1000, limiter.getAcquireCount());
+    }
+
+    /**
+     * A rate limiter with a manual clock, recording the times it sleeps.
+     */
+    private static class TestRateLimiter extends RateLimiter {
+        /** The current time. */
+        long time = 1000;
+
+        /** Whether sleeping advances the current time. */
+        boolean sleepsAdvanceTime = true;
+
+        /** The times slept. */
+        final List<Long> sleeps = new ArrayList<Long>();
+
+        TestRateLimiter(final boolean fair) {
+            super(PERIOD, UNIT, LIMIT, fair);
+        }
+
+        @Override
+        protected long nanoTime() {
+            return time;
+        }
+
+        @Override
+        protected void sleep(final long nanos) {
+            sleeps.add(Long.valueOf(nanos));
+            if (sleepsAdvanceTime) {
+                time += nanos;
+            }
+        }
+    }
+}
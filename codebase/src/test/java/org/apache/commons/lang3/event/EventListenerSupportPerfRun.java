@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.event;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.NumberFormat;
+import java.util.Calendar;
+
+/**
+ * Compares the time and the memory allocated for firing events through the
+ * reflective proxy, the method handle proxy and the generated multicaster of
+ * EventListenerSupport. Each event has an int argument and is passed to four
+ * listeners. The allocated memory is measured per thread, which needs a
+ * HotSpot JVM.
+ *
+ * Sample run. Both proxies allocate the array of the arguments and box the int
+ * for each event, while the generated multicaster allocates nothing. The
+ * method handles are resolved once per listener method, but are not
+ * constants, and are not faster than reflection on this JVM; on this machine
+ * the times of both vary from run to run by more than their difference:
+
+Now: Mon Oct 19 02:38:12 UTC 2026
+Eclipse Adoptium OpenJDK Runtime Environment 17.0.9+9
+Linux 6.18.44-fc-v139 amd64, 1 processors
+Reflection: 266 milliseconds, 38 bytes per event.
+MethodHandles: 458 milliseconds, 40 bytes per event.
+Generated: 123 milliseconds, 0 bytes per event.
+
+ * @version $Id$
+ */
+public class EventListenerSupportPerfRun {
+
+    final static int LISTENERS = 4;
+
+    final static int WARM_UP = 100000;
+
+    final static int COUNT = 10000000;
+
+    public static void main(final String[] args) {
+        new EventListenerSupportPerfRun().run();
+    }
+
+    private void printSysInfo() {
+        System.out.println("Now: " + Calendar.getInstance().getTime());
+        System.out.println(System.getProperty("java.vendor")
+                + " "
+                + System.getProperty("java.runtime.name")
+                + " "
+                + System.getProperty("java.runtime.version"));
+        System.out.println(System.getProperty("os.name")
+            + " "
+            + System.getProperty("os.version")
+            + " "
+            + System.getProperty("os.arch")
+            + ", "
+            + Runtime.getRuntime().availableProcessors()
+            + " processors");
+    }
+
+    private void run() {
+        this.printSysInfo();
+        this.time("Reflection", EventListenerSupport.create(CountListener.class));
+        this.time("MethodHandles", EventListenerSupport.createWithMethodHandles(CountListener.class));
+        this.time("Generated", EventListenerSupport.createGenerated(CountListener.class));
+    }
+
+    private void time(final String prefix, final EventListenerSupport<CountListener> support) {
+        final Counter[] counters = new Counter[LISTENERS];
+        for (int i = 0; i < LISTENERS; i++) {
+            counters[i] = new Counter();
+            support.addListener(counters[i]);
+        }
+        run_events(support.fire(), WARM_UP);
+        final long bytes = allocatedBytes();
+        final long start = System.currentTimeMillis();
+        run_events(support.fire(), COUNT);
+        final long total = System.currentTimeMillis() - start;
+        final long allocated = allocatedBytes() - bytes;
+        final NumberFormat format = NumberFormat.getInstance();
+        System.out.println(prefix + ": " + format.format(total) + " milliseconds, "
+                + (bytes < 0 ? "unknown" : format.format(allocated / COUNT)) + " bytes per event.");
+    }
+
+    private void run_events(final CountListener multicaster, final int loopCount) {
+        for (int i = 0; i < loopCount; i++) {
+            // above the range of the cached Integer instances
+            multicaster.count(i + 1000);
+        }
+    }
+
+    private long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * The listener interface of the events.
+     */
+    public interface CountListener {
+        void count(int value);
+    }
+
+    private static class Counter implements CountListener {
+        long sum;
+
+        @Override
+        public void count(final int value) {
+            sum += value;
+        }
+    }
+}
@@ -18,7 +18,10 @@
 package org.apache.commons.lang3.event;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyVetoException;
@@ -29,9 +32,17 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.easymock.EasyMock;
 import org.junit.Test;
@@ -198,6 +209,384 @@ public class EventListenerSupportTest
         EasyMock.verify(listener);
     }
 
+    @Test
+    public void testMethodHandleDispatchOrder() throws PropertyVetoException
+    {
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createWithMethodHandles(VetoableChangeListener.class);
+        final List<VetoableChangeListener> calledListeners = new ArrayList<VetoableChangeListener>();
+
+        final VetoableChangeListener listener1 = createListener(calledListeners);
+        final VetoableChangeListener listener2 = createListener(calledListeners);
+        listenerSupport.addListener(listener1);
+        listenerSupport.addListener(listener2);
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(new Date(), "Day", 4, 5));
+        assertEquals(2, calledListeners.size());
+        assertSame(listener1, calledListeners.get(0));
+        assertSame(listener2, calledListeners.get(1));
+    }
+
+    @Test
+    public void testMethodHandleDispatchException()
+    {
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createWithMethodHandles(VetoableChangeListener.class);
+        final PropertyChangeEvent event = new PropertyChangeEvent(new Date(), "Day", 4, 5);
+        final PropertyVetoException veto = new PropertyVetoException("veto", event);
+        listenerSupport.addListener(new VetoableChangeListener()
+        {
+            @Override
+            public void vetoableChange(final PropertyChangeEvent e) throws PropertyVetoException
+            {
+                throw veto;
+            }
+        });
+        try
+        {
+            listenerSupport.fire().vetoableChange(event);
+            fail("Exception not thrown");
+        }
+        catch (final PropertyVetoException e)
+        {
+            assertSame(veto, e);
+        }
+    }
+
+    @Test
+    public void testMethodHandleRemoveListenerDuringEvent() throws PropertyVetoException
+    {
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createWithMethodHandles(VetoableChangeListener.class);
+        for (int i = 0; i < 10; ++i)
+        {
+            addDeregisterListener(listenerSupport);
+        }
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(new Date(), "Day", 4, 5));
+        assertEquals(0, listenerSupport.getListenerCount());
+    }
+
+    @Test
+    public void testMethodHandleDispatchArguments()
+    {
+        final EventListenerSupport<ArgumentsListener> listenerSupport =
+            EventListenerSupport.createWithMethodHandles(ArgumentsListener.class);
+        final List<Object> values = new ArrayList<Object>();
+        listenerSupport.addListener(new ArgumentsListener()
+        {
+            @Override
+            public void fourArguments(final String s, final int i, final long l, final Object o)
+            {
+                values.addAll(Arrays.<Object>asList(s, i, l, o));
+            }
+
+            @Override
+            public void noArguments()
+            {
+                values.add("none");
+            }
+        });
+        listenerSupport.fire().fourArguments("one", 2, 3L, null);
+        listenerSupport.fire().noArguments();
+        assertEquals(Arrays.<Object>asList("one", 2, 3L, null, "none"), values);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCreateAsyncWithInvalidCapacity()
+    {
+        EventListenerSupport.createAsync(VetoableChangeListener.class, Executors.newSingleThreadExecutor(), 0, 1);
+    }
+
+    @Test
+    public void testAsyncDispatchOrder() throws Exception
+    {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            final EventListenerSupport<VetoableChangeListener> listenerSupport =
+                EventListenerSupport.createAsync(VetoableChangeListener.class, executor, 16, 4);
+            final List<Object> values = Collections.synchronizedList(new ArrayList<Object>());
+            final CountDownLatch done = new CountDownLatch(2000);
+            for (int i = 0; i < 2; ++i)
+            {
+                listenerSupport.addListener(new VetoableChangeListener()
+                {
+                    @Override
+                    public void vetoableChange(final PropertyChangeEvent e)
+                    {
+                        values.add(e.getNewValue());
+                        done.countDown();
+                    }
+                });
+            }
+            for (int i = 0; i < 1000; ++i)
+            {
+                listenerSupport.fire().vetoableChange(new PropertyChangeEvent(this, "Count", null, Integer.valueOf(i)));
+            }
+            assertTrue("Events not dispatched", done.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 1000; ++i)
+            {
+                assertEquals(Integer.valueOf(i), values.get(2 * i));
+                assertEquals(Integer.valueOf(i), values.get(2 * i + 1));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncBackPressure() throws Exception
+    {
+        final List<Runnable> tasks = Collections.synchronizedList(new ArrayList<Runnable>());
+        final Executor executor = new Executor()
+        {
+            @Override
+            public void execute(final Runnable command)
+            {
+                tasks.add(command);
+            }
+        };
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createAsync(VetoableChangeListener.class, executor, 2, 2);
+        final List<Object> values = Collections.synchronizedList(new ArrayList<Object>());
+        listenerSupport.addListener(new VetoableChangeListener()
+        {
+            @Override
+            public void vetoableChange(final PropertyChangeEvent e)
+            {
+                values.add(e.getPropertyName());
+            }
+        });
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(this, "a", null, null));
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(this, "b", null, null));
+        assertEquals("Task not scheduled once", 1, tasks.size());
+        final Thread producer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    listenerSupport.fire().vetoableChange(new PropertyChangeEvent(this, "c", null, null));
+                }
+                catch (final PropertyVetoException e)
+                {
+                    // cannot happen
+                }
+            }
+        };
+        producer.start();
+        producer.join(100);
+        assertTrue("Not waiting for space", producer.isAlive());
+
+        tasks.remove(0).run();
+        producer.join(10000);
+        assertEquals("Task not scheduled again", 1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(Arrays.asList("a", "b", "c"), values);
+    }
+
+    @Test(timeout = 10000)
+    public void testAsyncFireFromListenerWithFullBuffer() throws Exception
+    {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final Executor executor = new Executor()
+        {
+            @Override
+            public void execute(final Runnable command)
+            {
+                tasks.add(command);
+            }
+        };
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createAsync(VetoableChangeListener.class, executor, 2, 2);
+        final List<Object> values = new ArrayList<Object>();
+        listenerSupport.addListener(new VetoableChangeListener()
+        {
+            @Override
+            public void vetoableChange(final PropertyChangeEvent e) throws PropertyVetoException
+            {
+                values.add(e.getPropertyName());
+                if ("a".equals(e.getPropertyName()))
+                {
+                    for (int i = 1; i <= 3; ++i)
+                    {
+                        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(this, "a" + i, null, null));
+                    }
+                }
+            }
+        });
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(this, "a", null, null));
+        while (!tasks.isEmpty())
+        {
+            tasks.remove(0).run();
+        }
+        // a3 does not fit in the buffer, and is passed on by the task at once
+        assertEquals(Arrays.asList("a", "a3", "a1", "a2"), values);
+    }
+
+    @Test
+    public void testAsyncException() throws Exception
+    {
+        final List<Throwable> exceptions = new ArrayList<Throwable>();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final Executor executor = new Executor()
+        {
+            @Override
+            public void execute(final Runnable command)
+            {
+                tasks.add(command);
+            }
+        };
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createAsync(VetoableChangeListener.class, executor, 4, 4);
+        final RuntimeException failure = new IllegalStateException();
+        listenerSupport.addListener(new VetoableChangeListener()
+        {
+            @Override
+            public void vetoableChange(final PropertyChangeEvent e)
+            {
+                throw failure;
+            }
+        });
+        final List<VetoableChangeListener> calledListeners = new ArrayList<VetoableChangeListener>();
+        listenerSupport.addListener(createListener(calledListeners));
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(this, "Day", 4, 5));
+        final Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+        Thread.currentThread().setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler()
+        {
+            @Override
+            public void uncaughtException(final Thread t, final Throwable e)
+            {
+                exceptions.add(e);
+            }
+        });
+        try
+        {
+            tasks.remove(0).run();
+        }
+        finally
+        {
+            Thread.currentThread().setUncaughtExceptionHandler(handler);
+        }
+        assertEquals(Collections.singletonList(failure), exceptions);
+        assertEquals("Other listener not called", 1, calledListeners.size());
+    }
+
+    @Test
+    public void testGeneratedDispatchOrder() throws PropertyVetoException
+    {
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createGenerated(VetoableChangeListener.class);
+        assertFalse("Not generated", Proxy.isProxyClass(listenerSupport.fire().getClass()));
+        final List<VetoableChangeListener> calledListeners = new ArrayList<VetoableChangeListener>();
+
+        final VetoableChangeListener listener1 = createListener(calledListeners);
+        final VetoableChangeListener listener2 = createListener(calledListeners);
+        listenerSupport.addListener(listener1);
+        listenerSupport.addListener(listener2);
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(new Date(), "Day", 4, 5));
+        assertEquals(2, calledListeners.size());
+        assertSame(listener1, calledListeners.get(0));
+        assertSame(listener2, calledListeners.get(1));
+
+        listenerSupport.removeListener(listener1);
+        calledListeners.clear();
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(new Date(), "Day", 4, 5));
+        assertEquals(Collections.singletonList(listener2), calledListeners);
+    }
+
+    @Test
+    public void testGeneratedDispatchException()
+    {
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createGenerated(VetoableChangeListener.class);
+        final PropertyChangeEvent event = new PropertyChangeEvent(new Date(), "Day", 4, 5);
+        final PropertyVetoException veto = new PropertyVetoException("veto", event);
+        listenerSupport.addListener(new VetoableChangeListener()
+        {
+            @Override
+            public void vetoableChange(final PropertyChangeEvent e) throws PropertyVetoException
+            {
+                throw veto;
+            }
+        });
+        try
+        {
+            listenerSupport.fire().vetoableChange(event);
+            fail("Exception not thrown");
+        }
+        catch (final PropertyVetoException e)
+        {
+            assertSame(veto, e);
+        }
+    }
+
+    @Test
+    public void testGeneratedRemoveListenerDuringEvent() throws PropertyVetoException
+    {
+        final EventListenerSupport<VetoableChangeListener> listenerSupport =
+            EventListenerSupport.createGenerated(VetoableChangeListener.class);
+        for (int i = 0; i < 10; ++i)
+        {
+            addDeregisterListener(listenerSupport);
+        }
+        listenerSupport.fire().vetoableChange(new PropertyChangeEvent(new Date(), "Day", 4, 5));
+        assertEquals(0, listenerSupport.getListenerCount());
+    }
+
+    @Test
+    public void testGeneratedPrimitiveArguments()
+    {
+        final EventListenerSupport<PrimitiveListener> listenerSupport =
+            EventListenerSupport.createGenerated(PrimitiveListener.class);
+        assertFalse("Not generated", Proxy.isProxyClass(listenerSupport.fire().getClass()));
+        final List<String> calls = new ArrayList<String>();
+        for (int i = 0; i < 2; ++i)
+        {
+            listenerSupport.addListener(new PrimitiveListener()
+            {
+                @Override
+                public int primitives(final long l, final double d, final int i, final boolean b, final float f,
+                        final String s)
+                {
+                    calls.add(l + " " + d + " " + i + " " + b + " " + f + " " + s);
+                    return 1;
+                }
+
+                @Override
+                public String noArguments()
+                {
+                    calls.add("none");
+                    return "result";
+                }
+            });
+        }
+        assertEquals(0, listenerSupport.fire().primitives(Long.MAX_VALUE, 0.5, -3, true, 1.5f, "s"));
+        assertEquals(null, listenerSupport.fire().noArguments());
+        final String expected = Long.MAX_VALUE + " 0.5 -3 true 1.5 s";
+        assertEquals(Arrays.asList(expected, expected, "none", "none"), calls);
+    }
+
+    @Test
+    public void testGeneratedNonPublicInterface()
+    {
+        final EventListenerSupport<HiddenListener> listenerSupport =
+            EventListenerSupport.createGenerated(HiddenListener.class);
+        final List<String> calls = new ArrayList<String>();
+        listenerSupport.addListener(new HiddenListener()
+        {
+            @Override
+            public void event(final String name)
+            {
+                calls.add(name);
+            }
+        });
+        listenerSupport.fire().event("a");
+        assertEquals(Collections.singletonList("a"), calls);
+    }
+
     private void addDeregisterListener(final EventListenerSupport<VetoableChangeListener> listenerSupport)
     {
         listenerSupport.addListener(new VetoableChangeListener()
@@ -221,4 +610,33 @@ public class EventListenerSupportTest
             }
         };
     }
+
+    /**
+     * A listener interface with arguments and results of primitive types.
+     */
+    public interface PrimitiveListener
+    {
+        int primitives(long l, double d, int i, boolean b, float f, String s);
+
+        String noArguments();
+    }
+
+    /**
+     * A listener interface with more arguments than passed one by one to a
+     * method handle.
+     */
+    public interface ArgumentsListener
+    {
+        void fourArguments(String s, int i, long l, Object o);
+
+        void noArguments();
+    }
+
+    /**
+     * A listener interface for which no class can be generated.
+     */
+    interface HiddenListener
+    {
+        void event(String name);
+    }
 }
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.beans.IndexedPropertyChangeEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.VetoableChangeListener;
@@ -30,12 +31,14 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.Date;
 import java.util.Map;
 import java.util.TreeMap;
 
 import javax.naming.event.ObjectChangeListener;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.junit.Test;
 
 /**
@@ -161,6 +164,55 @@ public class EventUtilsTest
         assertEquals(1, counter.getCount());
     }
 
+    @Test
+    public void testBindEventsToMethodRepeatedly()
+    {
+        final PropertyChangeSource src = new PropertyChangeSource();
+        final EventCounterWithEvent counter1 = new EventCounterWithEvent();
+        final EventCounterWithEvent counter2 = new EventCounterWithEvent();
+        EventUtils.bindEventsToMethod(counter1, "eventOccurred", src, PropertyChangeListener.class);
+        EventUtils.bindEventsToMethod(counter2, "eventOccurred", src, PropertyChangeListener.class);
+        src.setProperty("value1");
+        src.setProperty("value2");
+        assertEquals(2, counter1.getCount());
+        assertEquals(2, counter2.getCount());
+    }
+
+    @Test
+    public void testBindEventsToOverloadedMethod()
+    {
+        final MultipleEventSource src = new MultipleEventSource();
+        final OverloadedEventCounter counter = new OverloadedEventCounter();
+        EventUtils.bindEventsToMethod(counter, "eventOccurred", src, MultipleEventListener.class);
+        src.listeners.fire().event1(new PropertyChangeEvent(new Date(), "Day", Integer.valueOf(0), Integer.valueOf(1)));
+        src.listeners.fire().event1(new IndexedPropertyChangeEvent(new Date(), "Day", Integer.valueOf(1),
+                Integer.valueOf(2), 3));
+        src.listeners.fire().event1(new IndexedPropertyChangeEvent(new Date(), "Day", Integer.valueOf(2),
+                Integer.valueOf(3), 4));
+        assertEquals(1, counter.getCount());
+        assertEquals(2, counter.getIndexedCount());
+    }
+
+    @Test
+    public void testBindEventsToMissingMethod()
+    {
+        final PropertyChangeSource src = new PropertyChangeSource();
+        final EventCounter counter = new EventCounter();
+        EventUtils.bindEventsToMethod(counter, "noSuchMethod", src, PropertyChangeListener.class);
+        try
+        {
+            src.setProperty("newValue");
+            fail("Expected UndeclaredThrowableException");
+        }
+        catch (final UndeclaredThrowableException e)
+        {
+            final Throwable cause = ExceptionUtils.getRootCause(e);
+            assertTrue(cause instanceof NoSuchMethodException);
+            assertEquals("No such accessible method: noSuchMethod() on object: " + EventCounter.class.getName(),
+                    cause.getMessage());
+        }
+    }
+
     public static interface MultipleEventListener
     {
         public void event1(PropertyChangeEvent e);
@@ -199,6 +251,22 @@ public class EventUtilsTest
     }
 
 
+    public static class OverloadedEventCounter extends EventCounterWithEvent
+    {
+        private int indexedCount;
+
+        public void eventOccurred(final IndexedPropertyChangeEvent e)
+        {
+            indexedCount++;
+        }
+
+        public int getIndexedCount()
+        {
+            return indexedCount;
+        }
+    }
+
+
     private static class EventCountingInvociationHandler implements InvocationHandler
     {
         private final Map<String, Integer> eventCounts = new TreeMap<String, Integer>();
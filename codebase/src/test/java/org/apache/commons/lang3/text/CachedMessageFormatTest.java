@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.text.FieldPosition;
+import java.text.Format;
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Test case for {@link CachedMessageFormat}.
+ *
+ * @version $Id$
+ */
+public class CachedMessageFormatTest {
+
+    @Test
+    public void testGetInstanceIsCached() {
+        final Map<String, FormatFactory> registry = createRegistry();
+        final CachedMessageFormat format = CachedMessageFormat.getInstance("{0,upper}", Locale.US, registry);
+        assertSame(format, CachedMessageFormat.getInstance("{0,upper}", Locale.US, registry));
+        assertNotSame(format, CachedMessageFormat.getInstance("{0,upper}", Locale.UK, registry));
+        assertNotSame(format, CachedMessageFormat.getInstance("{0,upper}", Locale.US, createRegistry()));
+        assertNotSame(CachedMessageFormat.getInstance("{0}", Locale.US, registry),
+                CachedMessageFormat.getInstance("{0}", Locale.US, null));
+        assertSame(CachedMessageFormat.getInstance("{0}", null), CachedMessageFormat.getInstance("{0}", null));
+    }
+
+    @Test
+    public void testGetInstanceBeyondCacheSize() {
+        final Map<String, FormatFactory> registry = createRegistry();
+        final CachedMessageFormat format = CachedMessageFormat.getInstance("{0} first", Locale.US, registry);
+        // runtime-built patterns, each with its own registry
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("x " + i, CachedMessageFormat.getInstance("{0} " + i, Locale.US, createRegistry())
+                    .format("x"));
+        }
+        // the cache was cleared on the way; the pattern is cached again
+        final CachedMessageFormat again = CachedMessageFormat.getInstance("{0} first", Locale.US, registry);
+        assertNotSame(format, again);
+        assertSame(again, CachedMessageFormat.getInstance("{0} first", Locale.US, registry));
+        assertEquals("x first", again.format("x"));
+    }
+
+    @Test
+    public void testFormat() {
+        final CachedMessageFormat format = CachedMessageFormat.getInstance(
+                "Upper: {0,upper} Number: {1,number,#,##0}", Locale.US, createRegistry());
+        assertEquals("Upper: FOO Number: 1,234", format.format("foo", Integer.valueOf(1234)));
+        assertEquals("Upper: BAR Number: 5", format.format("bar", Integer.valueOf(5)));
+        assertEquals("Upper: {0,upper} Number: {1,number,#,##0}", format.toPattern());
+        assertEquals(Locale.US, format.getLocale());
+    }
+
+    @Test
+    public void testNewFormat() {
+        final CachedMessageFormat format = CachedMessageFormat.getInstance("{0,upper}!", Locale.US, createRegistry());
+        final ExtendedMessageFormat first = format.newFormat();
+        assertNotSame(first, format.newFormat());
+        assertEquals("X!", first.format(new Object[] {"x"}));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullPattern() {
+        CachedMessageFormat.getInstance(null, Locale.US);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadPattern() {
+        CachedMessageFormat.getInstance("{0", Locale.US);
+    }
+
+    @Test
+    public void testConcurrentFormat() throws Exception {
+        final CachedMessageFormat format = CachedMessageFormat.getInstance("{0,number,#,##0.00} {1,upper}", Locale.US,
+                createRegistry());
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                final int offset = t;
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 1000; i++) {
+                            final int value = offset * 1000 + i;
+                            final String expected = String.format(Locale.US, "%,.2f V%d", Double.valueOf(value),
+                                    Integer.valueOf(value));
+                            if (!expected.equals(format.format(Double.valueOf(value), "v" + value))) {
+                                return Boolean.FALSE;
+                            }
+                        }
+                        return Boolean.TRUE;
+                    }
+                }));
+            }
+            for (final Future<Boolean> future : futures) {
+                assertEquals(Boolean.TRUE, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Map<String, FormatFactory> createRegistry() {
+        final Map<String, FormatFactory> registry = new HashMap<String, FormatFactory>();
+        registry.put("upper", new UpperCaseFormatFactory());
+        return registry;
+    }
+
+    // ------------------------ Test Formats ------------------------
+
+    /**
+     * {@link Format} implementation which converts to upper case.
+     */
+    private static class UpperCaseFormat extends Format {
+        private static final long serialVersionUID = 1L;
+        @Override
+        public StringBuffer format(final Object obj, final StringBuffer toAppendTo, final FieldPosition pos) {
+            return toAppendTo.append(((String)obj).toUpperCase(Locale.ENGLISH));
+        }
+        @Override
+        public Object parseObject(final String source, final ParsePosition pos) {throw new UnsupportedOperationException();}
+    }
+
+    /**
+     * {@link FormatFactory} implementation for upper case format.
+     */
+    private static class UpperCaseFormatFactory implements FormatFactory {
+        @Override
+        public Format getFormat(final String name, final String arguments, final Locale locale) {
+            return new UpperCaseFormat();
+        }
+    }
+}
@@ -188,6 +188,99 @@ public class StrMatcherTest  {
         assertTrue(StrMatcher.charSetMatcher("a".toCharArray()) instanceof StrMatcher.CharMatcher);
     }
 
+    //-----------------------------------------------------------------------
+    @Test
+    public void testCharSetMatcher_highChars() {
+        final StrMatcher matcher = StrMatcher.charSetMatcher("a\u00e9\uffff");
+        final char[] buffer = "a\u00e9\uffffb\u00e8\ufffe".toCharArray();
+        assertEquals(1, matcher.isMatch(buffer, 0));
+        assertEquals(1, matcher.isMatch(buffer, 1));
+        assertEquals(1, matcher.isMatch(buffer, 2));
+        assertEquals(0, matcher.isMatch(buffer, 3));
+        assertEquals(0, matcher.isMatch(buffer, 4));
+        assertEquals(0, matcher.isMatch(buffer, 5));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void testOrMatcher() {
+        final StrMatcher matcher = StrMatcher.orMatcher(StrMatcher.charMatcher('a'), StrMatcher.charSetMatcher("ce"));
+        assertTrue(matcher instanceof StrMatcher.CharSetMatcher);
+        assertEquals(1, matcher.isMatch(BUFFER2, 0));
+        assertEquals(0, matcher.isMatch(BUFFER2, 1));
+        assertEquals(1, matcher.isMatch(BUFFER2, 2));
+        assertEquals(0, matcher.isMatch(BUFFER2, 3));
+        assertEquals(1, matcher.isMatch(BUFFER2, 4));
+        assertEquals(0, matcher.isMatch(BUFFER2, 5));
+
+        final StrMatcher mixed = StrMatcher.orMatcher(StrMatcher.stringMatcher("bc"), StrMatcher.charMatcher('e'));
+        assertEquals(0, mixed.isMatch(BUFFER2, 0));
+        assertEquals(2, mixed.isMatch(BUFFER2, 1));
+        assertEquals(0, mixed.isMatch(BUFFER2, 2));
+        assertEquals(1, mixed.isMatch(BUFFER2, 4));
+
+        final StrMatcher trimOrComma = StrMatcher.orMatcher(StrMatcher.trimMatcher(), StrMatcher.commaMatcher());
+        assertEquals(0, trimOrComma.isMatch(BUFFER1, 0));
+        assertEquals(1, trimOrComma.isMatch(BUFFER1, 1));
+        assertEquals(1, trimOrComma.isMatch(BUFFER1, 3));
+        assertEquals(1, trimOrComma.isMatch(BUFFER1, 10));
+        assertEquals(0, trimOrComma.isMatch(BUFFER1, 11));
+
+        assertSame(StrMatcher.noneMatcher(), StrMatcher.orMatcher());
+        assertSame(StrMatcher.noneMatcher(), StrMatcher.orMatcher((StrMatcher[]) null));
+        assertSame(StrMatcher.commaMatcher(), StrMatcher.orMatcher(StrMatcher.commaMatcher()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOrMatcher_nullMatcher() {
+        StrMatcher.orMatcher(StrMatcher.commaMatcher(), null);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void testAndMatcher() {
+        final StrMatcher matcher = StrMatcher.andMatcher(StrMatcher.charSetMatcher("abc"), StrMatcher.charSetMatcher("bcd"));
+        assertTrue(matcher instanceof StrMatcher.CharSetMatcher);
+        assertEquals(0, matcher.isMatch(BUFFER2, 0));
+        assertEquals(1, matcher.isMatch(BUFFER2, 1));
+        assertEquals(1, matcher.isMatch(BUFFER2, 2));
+        assertEquals(0, matcher.isMatch(BUFFER2, 3));
+
+        final StrMatcher mixed = StrMatcher.andMatcher(StrMatcher.stringMatcher("bc"), StrMatcher.charSetMatcher("bd"));
+        assertEquals(0, mixed.isMatch(BUFFER2, 0));
+        assertEquals(1, mixed.isMatch(BUFFER2, 1));
+        assertEquals(0, mixed.isMatch(BUFFER2, 3));
+
+        assertSame(StrMatcher.noneMatcher(), StrMatcher.andMatcher());
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void testNotMatcher() {
+        final StrMatcher matcher = StrMatcher.notMatcher(StrMatcher.charSetMatcher("ace"));
+        assertTrue(matcher instanceof StrMatcher.CharSetMatcher);
+        assertEquals(0, matcher.isMatch(BUFFER2, 0));
+        assertEquals(1, matcher.isMatch(BUFFER2, 1));
+        assertEquals(0, matcher.isMatch(BUFFER2, 2));
+        assertEquals(1, matcher.isMatch(BUFFER2, 3));
+        assertEquals(1, matcher.isMatch("\uffff".toCharArray(), 0));
+
+        final StrMatcher notString = StrMatcher.notMatcher(StrMatcher.stringMatcher("bc"));
+        assertEquals(1, notString.isMatch(BUFFER2, 0));
+        assertEquals(0, notString.isMatch(BUFFER2, 1));
+        assertEquals(1, notString.isMatch(BUFFER2, 2));
+
+        final StrMatcher notTrim = StrMatcher.notMatcher(StrMatcher.trimMatcher());
+        assertEquals(1, notTrim.isMatch(BUFFER1, 0));
+        assertEquals(0, notTrim.isMatch(BUFFER1, 3));
+        assertEquals(0, notTrim.isMatch(BUFFER1, 10));
+        assertEquals(1, notTrim.isMatch(BUFFER1, 11));
+
+        final StrMatcher all = StrMatcher.notMatcher(null);
+        assertEquals(1, all.isMatch(BUFFER1, 0));
+        assertEquals(1, all.isMatch(BUFFER2, 5));
+    }
+
     //-----------------------------------------------------------------------
     @Test
     public void testStringMatcher_String() {
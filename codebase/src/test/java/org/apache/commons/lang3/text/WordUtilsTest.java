@@ -21,8 +21,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
+import java.nio.CharBuffer;
 
 import org.junit.Test;
 
@@ -152,6 +155,40 @@ public class WordUtilsTest {
 //        System.err.println(WordUtils.wrap(input, 20, "\n", false));
     }
     
+    //-----------------------------------------------------------------------
+    @Test
+    public void testWrap_CharSequenceIntStringBooleanAppendable() throws IOException {
+        final String[] inputs = {
+            "",
+            "Here is one line of text that is going to be wrapped after 20 columns.",
+            " Here:  is  one  line  of  text  that  is  going  to  be  wrapped  after  20  columns.",
+            "Click here to jump to the jakarta website - http://jakarta.apache.org",
+            "Click here, http://jakarta.apache.org, to jump to the jakarta website",
+        };
+        for (final String input : inputs) {
+            for (final int wrapLength : new int[] {-1, 2, 6, 20, 100}) {
+                for (final boolean wrapLongWords : new boolean[] {false, true}) {
+                    final StringBuilder out = new StringBuilder();
+                    WordUtils.wrap(CharBuffer.wrap(input), wrapLength, "\n", wrapLongWords, out);
+                    assertEquals(WordUtils.wrap(input, wrapLength, "\n", wrapLongWords), out.toString());
+                }
+            }
+        }
+
+        final StringWriter writer = new StringWriter();
+        WordUtils.wrap(new StringBuilder("Here is one line"), 6, "<br />", false, writer);
+        assertEquals("Here<br />is one<br />line", writer.toString());
+
+        final StringBuilder out = new StringBuilder("x");
+        WordUtils.wrap(null, 20, "\n", false, out);
+        assertEquals("x", out.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrap_nullAppendable() throws IOException {
+        WordUtils.wrap("text", 20, "\n", false, null);
+    }
+
     //-----------------------------------------------------------------------
     @Test
     public void testCapitalize_String() {
@@ -346,6 +383,59 @@ public class WordUtilsTest {
         assertEquals("i2", WordUtils.initials("i am here 123", array));
     }
 
+    // -----------------------------------------------------------------------
+    @Test
+    public void testCapitalizeInPlace() {
+        char[] buffer = "[i am here 123]".toCharArray();
+        WordUtils.capitalizeInPlace(buffer, 1, buffer.length - 1);
+        assertEquals("[I Am Here 123]", new String(buffer));
+
+        buffer = "i aM.fine".toCharArray();
+        WordUtils.capitalizeInPlace(buffer, 0, buffer.length, '.');
+        assertEquals("I aM.Fine", new String(buffer));
+
+        buffer = "i am fine".toCharArray();
+        WordUtils.capitalizeInPlace(buffer, 0, buffer.length, new char[0]);
+        assertEquals("i am fine", new String(buffer));
+
+        WordUtils.capitalizeInPlace(null, 0, 0);
+    }
+
+    @Test
+    public void testCapitalizeFullyInPlace() {
+        char[] buffer = "i am FINE".toCharArray();
+        WordUtils.capitalizeFullyInPlace(buffer, 0, buffer.length);
+        assertEquals("I Am Fine", new String(buffer));
+
+        buffer = "i aM.fine".toCharArray();
+        WordUtils.capitalizeFullyInPlace(buffer, 0, buffer.length, '.');
+        assertEquals("I am.Fine", new String(buffer));
+
+        buffer = "I AM FINE".toCharArray();
+        WordUtils.capitalizeFullyInPlace(buffer, 2, 4);
+        assertEquals("I Am FINE", new String(buffer));
+    }
+
+    @Test
+    public void testInitialsInPlace() {
+        char[] buffer = " Ben   John  . Lee".toCharArray();
+        int count = WordUtils.initialsInPlace(buffer, 0, buffer.length);
+        assertEquals("BJ.L", new String(buffer, 0, count));
+
+        buffer = "xBen J.Leex".toCharArray();
+        count = WordUtils.initialsInPlace(buffer, 1, buffer.length - 1, ' ', '.');
+        assertEquals("BJL", new String(buffer, 1, count));
+
+        buffer = "Ben John Lee".toCharArray();
+        assertEquals(0, WordUtils.initialsInPlace(buffer, 0, buffer.length, new char[0]));
+        assertEquals(0, WordUtils.initialsInPlace(null, 0, 0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInitialsInPlace_badRange() {
+        WordUtils.initialsInPlace("abc".toCharArray(), 2, 4);
+    }
+
     // -----------------------------------------------------------------------
     @Test
     public void testSwapCase_String() {
@@ -38,6 +38,23 @@ public class NumericEntityUnescaperTest  {
         assertEquals("Failed to unescape numeric entities supplementary characters", expected, result);
     }
 
+    @Test
+    public void testHexAndDecimalUnescaping() {
+        final NumericEntityUnescaper neu = new NumericEntityUnescaper();
+
+        assertEquals("AAA", neu.translate("&#65;&#x41;&#X41;"));
+        assertEquals("\uD83D\uDE00\uD83D\uDE00", neu.translate("&#128512;&#x1F600;"));
+        assertEquals("Failed to ignore hex digits in a decimal entity", "&#6a;", neu.translate("&#6a;"));
+        assertEquals("Failed to ignore an overflowing entity", "&#99999999999;", neu.translate("&#99999999999;"));
+        assertEquals("Failed to ignore an empty entity", "&#;&#x;", neu.translate("&#;&#x;"));
+        try {
+            neu.translate("&#x7FFFFFFF;");
+            fail("IllegalArgumentException expected");
+        } catch(final IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
     @Test
     public void testOutOfBounds() {
         final NumericEntityUnescaper neu = new NumericEntityUnescaper();
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.text.translate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link org.apache.commons.lang3.text.translate.ParallelTranslator}.
+ * @version $Id$
+ */
+public class ParallelTranslatorTest  {
+
+    private static String createInput(final int lines) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            sb.append("<item id=\"").append(i).append("\">Fish & \"Chips\" \ud83d\ude00 \u00e9t\u00e9</item>\r\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testEscapeMatchesSequential() throws IOException {
+        final String input = createInput(2000);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (final int chunkSize : new int[] {1, 7, 100, 4096, input.length() * 2}) {
+                final ParallelTranslator xml = new ParallelTranslator(StringEscapeUtils.ESCAPE_XML, pool, chunkSize);
+                assertEquals(StringEscapeUtils.escapeXml(input), xml.translate(input));
+                final ParallelTranslator html = new ParallelTranslator(StringEscapeUtils.ESCAPE_HTML4, pool, chunkSize);
+                final StringWriter out = new StringWriter();
+                html.translate(CharBuffer.wrap(input), out);
+                assertEquals(StringEscapeUtils.escapeHtml4(input), out.toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnescapeMatchesSequential() {
+        final String escaped = StringEscapeUtils.escapeHtml4(createInput(500)) + "&#x41; &#65;&amp;";
+        final ParallelTranslator html = new ParallelTranslator(StringEscapeUtils.UNESCAPE_HTML4,
+                ForkJoinPool.commonPool(), 5);
+        assertEquals(StringEscapeUtils.unescapeHtml4(escaped), html.translate(escaped));
+    }
+
+    @Test
+    public void testFindBoundary() {
+        final ParallelTranslator translator = new ParallelTranslator(StringEscapeUtils.ESCAPE_XML,
+                ForkJoinPool.commonPool(), 4);
+        assertEquals(3, translator.findBoundary("ab cdef", 0, 7));
+        assertEquals(4, translator.findBoundary("abc defgh", 0, 9));
+        assertEquals(5, translator.findBoundary("abc\r\ndefgh", 0, 10));
+        assertEquals(9, translator.findBoundary("abcdefgh ij", 0, 11));
+        assertEquals(8, translator.findBoundary("abcdefgh", 0, 8));
+        assertEquals(3, translator.findBoundary("abc", 0, 3));
+    }
+
+    @Test
+    public void testNullInput() throws IOException {
+        final ParallelTranslator translator = new ParallelTranslator(StringEscapeUtils.ESCAPE_XML);
+        assertNull(translator.translate(null));
+        final StringWriter out = new StringWriter();
+        translator.translate(null, out);
+        assertTrue(out.toString().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullWriter() throws IOException {
+        new ParallelTranslator(StringEscapeUtils.ESCAPE_XML).translate("a", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadChunkSize() {
+        new ParallelTranslator(StringEscapeUtils.ESCAPE_XML, ForkJoinPool.commonPool(), 0);
+    }
+
+}
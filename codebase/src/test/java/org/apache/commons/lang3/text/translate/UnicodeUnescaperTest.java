@@ -46,6 +46,19 @@ public class UnicodeUnescaperTest {
         assertEquals("Failed to unescape Unicode characters with many 'u' characters", "G", result);
     }
 
+    @Test
+    public void testHexDigits() {
+        final UnicodeUnescaper uu = new UnicodeUnescaper();
+
+        assertEquals("G\u00e9\uABCD", uu.translate("\\u0047\\u00E9\\uabcd"));
+        try {
+            uu.translate("\\u00G7");
+            fail("An invalid hex digit in a Unicode escape sequence failed to throw an exception");
+        } catch(final IllegalArgumentException iae) {
+            assertEquals("Unable to parse unicode value: 00G7", iae.getMessage());
+        }
+    }
+
     @Test
     public void testLessThanFour() {
         final UnicodeUnescaper uu = new UnicodeUnescaper();
@@ -310,6 +310,56 @@ public class DateUtilsTest {
         } catch (final ParseException ex) {}
     }
 
+    @Test
+    public void testParseDateUnsupportedByFastDateParser() throws Exception {
+        final GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+        cal.clear();
+        cal.set(2013, 6, 4, 10, 30);
+        // 'X' is only supported by SimpleDateFormat
+        final Date date = DateUtils.parseDate("2013-07-04T10:30Z", Locale.US, "yyyy-MM-dd", "yyyy-MM-dd'T'HH:mmX");
+        assertEquals(cal.getTime(), date);
+        try {
+            DateUtils.parseDate("July 4th", Locale.US, "yyyy-MM-dd", "yyyy-MM-dd'T'HH:mmX");
+            fail();
+        } catch (final ParseException ex) {}
+    }
+
+    @Test
+    public void testParseDateTimeZonesAsSimpleDateFormat() throws Exception {
+        final String pattern = "yyyy-MM-dd HH:mm z";
+        assertEquals(1372915800000L, DateUtils.parseDate("2013-07-04 10:30 GMT+05:00", Locale.US, pattern).getTime());
+        assertEquals(1372948200000L, DateUtils.parseDate("2013-07-04 10:30 Eastern Daylight Time", Locale.US,
+                "yyyy-MM-dd HH:mm zzzz").getTime());
+        // fixed offsets, not the zones observing daylight saving time
+        assertEquals(1372962600000L, DateUtils.parseDate("2013-07-04 10:30 PST", Locale.US, pattern).getTime());
+        assertEquals(1372930200000L, DateUtils.parseDate("2013-07-04 10:30 CET", Locale.US, pattern).getTime());
+        assertEquals(1372915800000L, DateUtils.parseDate("2013-07-04 10:30 +0500", Locale.US,
+                "yyyy-MM-dd HH:mm Z").getTime());
+    }
+
+    @Test
+    public void testParseDateNegativeYear() throws Exception {
+        final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        assertEquals(sdf.parse("-2013-07-04"), DateUtils.parseDate("-2013-07-04", Locale.US, "yyyy-MM-dd"));
+    }
+
+    @Test
+    public void testParseDateAbbreviatedYear() throws Exception {
+        // only exactly two digits of an abbreviated year are moved to the current century
+        assertYear(5, "5-1-1", "yy-M-d");
+        assertYear(13, "013-01-01", "yy-MM-dd");
+        assertYear(5, "5-1-1", "y-M-d");
+    }
+
+    private void assertYear(final int year, final String str, final String pattern) throws Exception {
+        final Date date = DateUtils.parseDate(str, Locale.US, pattern);
+        final Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        assertEquals(str, GregorianCalendar.AD, cal.get(Calendar.ERA));
+        assertEquals(str, year, cal.get(Calendar.YEAR));
+        assertEquals(str, DateUtils.parseDateStrictly(str, Locale.US, pattern), date);
+    }
+
     //-----------------------------------------------------------------------
     @Test
     public void testAddYears() throws Exception {
@@ -1207,6 +1257,74 @@ public class DateUtilsTest {
         TimeZone.setDefault(defaultZone);
     }
 
+    private static final int[] TRUNCATE_FIELDS = {
+        Calendar.MILLISECOND, Calendar.SECOND, Calendar.MINUTE, Calendar.HOUR_OF_DAY, Calendar.HOUR,
+        Calendar.AM_PM, Calendar.DATE, DateUtils.SEMI_MONTH, Calendar.MONTH, Calendar.YEAR, Calendar.ERA
+    };
+
+    private static void assertTruncateMillisMatchesCalendar(final long millis, final TimeZone zone) {
+        final Calendar cal = new GregorianCalendar(zone);
+        cal.setTimeInMillis(millis);
+        for (final int field : TRUNCATE_FIELDS) {
+            assertEquals(zone.getID() + " " + millis + " " + field,
+                    DateUtils.truncate(cal, field).getTimeInMillis(), DateUtils.truncateMillis(millis, field, zone));
+        }
+    }
+
+    @Test
+    public void testTruncateMillisMatchesCalendar() {
+        final java.util.Random random = new java.util.Random(59);
+        final long hour = 3600000L;
+        for (final String id : new String[] {
+                "GMT", "GMT+05:30", "America/New_York", "Europe/London", "Europe/Amsterdam", "Australia/Lord_Howe",
+                "Asia/Kathmandu", "America/Sao_Paulo", "America/St_Johns", "Pacific/Apia", "Antarctica/Troll",
+                "America/Havana", "Asia/Tehran"}) {
+            final TimeZone zone = TimeZone.getTimeZone(id);
+            for (int i = 0; i < 300; i++) {
+                assertTruncateMillisMatchesCalendar(random.nextLong() % (600L * 365 * 24 * hour), zone);
+            }
+            // around each change of offset
+            for (long utc = -2524521600000L; utc < 1893456000000L; utc += 24 * hour) {
+                if (zone.getOffset(utc) != zone.getOffset(utc + 24 * hour)) {
+                    for (long t = utc - 3 * hour; t <= utc + 27 * hour; t += hour / 4 + 7) {
+                        assertTruncateMillisMatchesCalendar(t, zone);
+                    }
+                }
+            }
+        }
+        final TimeZone gmt = TimeZone.getTimeZone("GMT");
+        assertTruncateMillisMatchesCalendar(Long.MIN_VALUE / 4, gmt);
+        assertTruncateMillisMatchesCalendar(-12219292800000L, gmt); // 15 October 1582
+        assertTruncateMillisMatchesCalendar(Long.MAX_VALUE / 64, gmt);
+    }
+
+    @Test
+    public void testTruncateMillis() {
+        final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        final Calendar cal = new GregorianCalendar(zone);
+        cal.clear();
+        cal.set(2002, Calendar.MARCH, 28, 13, 45, 1);
+        cal.set(Calendar.MILLISECOND, 231);
+        final Calendar expected = new GregorianCalendar(zone);
+        expected.clear();
+        expected.set(2002, Calendar.MARCH, 28, 13, 0, 0);
+        assertEquals(expected.getTimeInMillis(), DateUtils.truncateMillis(cal.getTimeInMillis(), Calendar.HOUR, zone));
+        expected.set(2002, Calendar.MARCH, 1, 0, 0, 0);
+        assertEquals(expected.getTimeInMillis(), DateUtils.truncateMillis(cal.getTimeInMillis(), Calendar.MONTH, zone));
+        try {
+            DateUtils.truncateMillis(0, Calendar.MONTH, null);
+            fail();
+        } catch (final IllegalArgumentException ex) {}
+        try {
+            DateUtils.truncateMillis(0, Calendar.WEEK_OF_YEAR, zone);
+            fail();
+        } catch (final IllegalArgumentException ex) {}
+        try {
+            DateUtils.truncateMillis(Long.MAX_VALUE, Calendar.DATE, zone);
+            fail();
+        } catch (final ArithmeticException ex) {}
+    }
+
     // http://issues.apache.org/jira/browse/LANG-530
     @Test
     public void testLang530() throws ParseException {
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Unit tests {@link DurationFormat}.
+ *
+ * @version $Id$
+ */
+public class DurationFormatTest {
+
+    private static final long DURATION = 2 * DateUtils.MILLIS_PER_DAY + 3 * DateUtils.MILLIS_PER_HOUR
+            + 4 * DateUtils.MILLIS_PER_MINUTE + 5 * DateUtils.MILLIS_PER_SECOND + 67;
+
+    @Test
+    public void testFormatDuration() {
+        final DurationFormat format = new DurationFormat("HH:mm:ss.SSS", true);
+        assertEquals("51:04:05.067", format.formatDuration(DURATION));
+        assertEquals("00:00:00.000", format.formatDuration(0));
+        assertEquals("d2H3 4 5.067", new DurationFormat("'d'''d'H'''H m s.S", false).formatDuration(DURATION));
+        assertEquals("2 3 4 5 067", new DurationFormat("d H m s S", false).formatDuration(DURATION));
+        assertEquals("002 03 45067", new DurationFormat("ddd HH mSSSS", true).formatDuration(DURATION));
+    }
+
+    @Test
+    public void testFormatFractionOfSecond() {
+        final long duration = 5067;
+        assertEquals("5.067", new DurationFormat("s.S", false).formatDuration(duration));
+        assertEquals("05.067", new DurationFormat("ss.SS", true).formatDuration(duration));
+        assertEquals("05.01067", new DurationFormat("ss.SSSSSS", true).formatDuration(duration));
+        assertEquals("5.067", new DurationFormat("s.SSSSSS", false).formatDuration(duration));
+        // negative durations
+        assertEquals("-5.33", new DurationFormat("s.S", false).formatDuration(-5067));
+        assertEquals("-4.33", new DurationFormat("ss.SSS", true).formatDuration(-4067));
+    }
+
+    /**
+     * The expected strings are those of {@code DurationFormatUtils.formatDuration} before it delegated to
+     * {@link DurationFormat}.
+     */
+    @Test
+    public void testFormatMatchesDurationFormatUtils() {
+        assertFormats("H:mm:ss.SSS", true,
+                "0:00:00.000", "0:00:00.001", "0:00:00.999", "0:00:01.000",
+                "0:00:59.999", "51:04:05.067", "-51:-4:-5.33", "4175:39:45.529");
+        assertFormats("H:mm:ss.SSS", false,
+                "0:0:0.000", "0:0:0.001", "0:0:0.999", "0:0:1.000",
+                "0:0:59.999", "51:4:5.067", "-51:-4:-5.33", "4175:39:45.529");
+        assertFormats("HH:mm:ss.SSSS", true,
+                "00:00:00.000", "00:00:00.001", "00:00:00.999", "00:00:01.000",
+                "00:00:59.999", "51:04:05.067", "-51:-4:-5.933", "4175:39:45.529");
+        assertFormats("HH:mm:ss.SSSS", false,
+                "0:0:0.000", "0:0:0.001", "0:0:0.999", "0:0:1.000",
+                "0:0:59.999", "51:4:5.067", "-51:-4:-5.33", "4175:39:45.529");
+        assertFormats(DurationFormatUtils.ISO_EXTENDED_FORMAT_PATTERN, true,
+                "P0000Y0M0DT0H0M0.000S", "P0000Y0M0DT0H0M0.001S", "P0000Y0M0DT0H0M0.999S", "P0000Y0M0DT0H0M1.000S",
+                "P0000Y0M0DT0H0M59.999S", "P0000Y0M2DT3H4M5.067S", "P0000Y0M-2DT-3H-4M-5.33S", "P0000Y0M173DT23H39M45.529S");
+        assertFormats(DurationFormatUtils.ISO_EXTENDED_FORMAT_PATTERN, false,
+                "P0Y0M0DT0H0M0.000S", "P0Y0M0DT0H0M0.001S", "P0Y0M0DT0H0M0.999S", "P0Y0M0DT0H0M1.000S",
+                "P0Y0M0DT0H0M59.999S", "P0Y0M2DT3H4M5.067S", "P0Y0M-2DT-3H-4M-5.33S", "P0Y0M173DT23H39M45.529S");
+        assertFormats("S", true,
+                "0", "1", "999", "1000",
+                "59999", "183845067", "-183845067", "2147483641");
+        assertFormats("S", false,
+                "0", "1", "999", "1000",
+                "59999", "183845067", "-183845067", "2147483641");
+        assertFormats("mmm", true,
+                "000", "000", "000", "000",
+                "000", "3064", "-3064", "250539");
+        assertFormats("mmm", false,
+                "0", "0", "0", "0",
+                "0", "3064", "-3064", "250539");
+        assertFormats("d s", true,
+                "0 0", "0 0", "0 0", "0 1",
+                "0 59", "2 11045", "-2 -11045", "173 85185");
+        assertFormats("d s", false,
+                "0 0", "0 0", "0 0", "0 1",
+                "0 59", "2 11045", "-2 -11045", "173 85185");
+        assertFormats("y M d", true,
+                "0 0 0", "0 0 0", "0 0 0", "0 0 0",
+                "0 0 0", "0 0 2", "0 0 -2", "0 0 173");
+        assertFormats("y M d", false,
+                "0 0 0", "0 0 0", "0 0 0", "0 0 0",
+                "0 0 0", "0 0 2", "0 0 -2", "0 0 173");
+    }
+
+    private void assertFormats(final String pattern, final boolean padWithZeros, final String... expected) {
+        final long[] durations = { 0, 1, 999, 1000, 59999, DURATION, -DURATION, Integer.MAX_VALUE * 7L };
+        for (int i = 0; i < durations.length; i++) {
+            assertEquals(pattern, expected[i], new DurationFormat(pattern, padWithZeros).formatDuration(durations[i]));
+            assertEquals(pattern, expected[i], DurationFormatUtils.formatDuration(durations[i], pattern, padWithZeros));
+        }
+    }
+
+    @Test
+    public void testFormatIntoAppendable() throws IOException {
+        final DurationFormat format = DurationFormat.getInstance("H:mm:ss.SSS");
+        final StringWriter writer = new StringWriter();
+        writer.write("elapsed ");
+        assertSame(writer, format.formatDuration(DURATION, writer));
+        assertEquals("elapsed 51:04:05.067", writer.toString());
+
+        final StringBuilder buf = new StringBuilder("[");
+        assertSame(buf, format.formatDuration(DURATION, buf));
+        assertEquals("[51:04:05.067", buf.toString());
+    }
+
+    @Test
+    public void testFormatPeriod() throws IOException {
+        final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        final long start = 1072915200000L; // 2004-01-01 00:00 GMT
+        final long end = start + 400 * DateUtils.MILLIS_PER_DAY + DURATION;
+        final DurationFormat format = DurationFormat.getInstance("y'y 'M'm 'd'd 'HH:mm:ss.SSS");
+        assertEquals("1y 1m 5d 03:04:05.067", format.formatPeriod(start, end, zone));
+        assertEquals("1y 1m 5d 03:04:05.067",
+                DurationFormatUtils.formatPeriod(start, end, format.getPattern(), true, zone));
+        final StringBuilder buf = new StringBuilder();
+        assertSame(buf, format.formatPeriod(start, end, zone, buf));
+        assertEquals("1y 1m 5d 03:04:05.067", buf.toString());
+    }
+
+    @Test
+    public void testGetInstance() {
+        final DurationFormat format = DurationFormat.getInstance("HH:mm");
+        assertSame(format, DurationFormat.getInstance("HH:mm"));
+        assertSame(format, DurationFormat.getInstance("HH:mm", true));
+        assertFalse(DurationFormat.getInstance("HH:mm", false).isPadWithZeros());
+        assertTrue(format.isPadWithZeros());
+        assertEquals("HH:mm", format.getPattern());
+        assertEquals(new DurationFormat("HH:mm", true), format);
+        assertEquals(new DurationFormat("HH:mm", true).hashCode(), format.hashCode());
+        assertFalse(format.equals(DurationFormat.getInstance("HH:mm", false)));
+        assertEquals("DurationFormat[HH:mm]", format.toString());
+    }
+
+    @Test
+    public void testGetInstanceBeyondCacheSize() {
+        for (int i = 0; i < 200; i++) {
+            assertEquals(Integer.toString(i), DurationFormat.getInstance("'" + i + "'").formatDuration(0));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPattern() {
+        DurationFormat.getInstance(null);
+    }
+
+}
@@ -22,9 +22,11 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.nio.CharBuffer;
 import java.text.Format;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -186,6 +188,51 @@ public class FastDateFormatTest {
         }
     }       
 
+    @Test
+    public void test_getSecondCachingInstance() {
+        final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+        final FastDateFormat format1 = FastDateFormat.getSecondCachingInstance("yyyy-MM-dd HH:mm:ss.SSS", zone, Locale.US);
+        final FastDateFormat format2 = FastDateFormat.getSecondCachingInstance("yyyy-MM-dd HH:mm:ss.SSS", zone, Locale.US);
+        final FastDateFormat format3 = FastDateFormat.getInstance("yyyy-MM-dd HH:mm:ss.SSS", zone, Locale.US);
+
+        assertSame(format1, format2);
+        assertTrue(format1 != format3);
+        assertEquals(format3, format1);
+        assertEquals("2003-07-04 10:30:15.007", format1.format(1057329015007L));
+        assertEquals("2003-07-04 10:30:15.999", format1.format(1057329015999L));
+        assertEquals("2003-07-04 10:30:16.000", format1.format(1057329016000L));
+    }
+
+    @Test
+    public void test_parseInto() throws ParseException {
+        final FastDateFormat format = FastDateFormat.getInstance("yyyy-MM-dd", TimeZone.getTimeZone("GMT"), Locale.US);
+        final long[] millis = new long[3];
+        final BitSet errors = new BitSet();
+        assertEquals(1, format.parseInto(new CharSequence[] { "2013-07-04", "July", "1970-01-02" }, millis, errors));
+        assertEquals(format.parse("2013-07-04").getTime(), millis[0]);
+        assertEquals(86400000L, millis[2]);
+        assertEquals("{1}", errors.toString());
+        assertEquals(2, format.parseInto(CharBuffer.wrap("1970-01-01;1970-01-03"), ';', millis, errors));
+        assertEquals(2 * 86400000L, millis[1]);
+    }
+
+    @Test
+    public void test_getCacheStats() {
+        final FormatCacheStats before = FastDateFormat.getCacheStats();
+        final String pattern = "'stats' yyyy " + System.nanoTime();
+        FastDateFormat.getInstance(pattern, Locale.US);
+        FastDateFormat.getInstance(pattern, Locale.US);
+        final FormatCacheStats after = FastDateFormat.getCacheStats();
+        assertTrue(after.getMissCount() > before.getMissCount());
+        assertTrue(after.getHitCount() > before.getHitCount());
+        assertTrue(after.getSize() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_setCacheMaximumSize_NotPositive() {
+        FastDateFormat.setCacheMaximumSize(-1);
+    }
+
     @Test
     public void testCheckDefaults() {
         final FastDateFormat format = FastDateFormat.getInstance();
@@ -18,17 +18,24 @@ package org.apache.commons.lang3.time;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import java.io.Serializable;
+import java.nio.CharBuffer;
 import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
 import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Assert;
 
@@ -387,7 +394,7 @@ public class FastDateParserTest {
             final DateParser fdp = getInstance(format, NEW_YORK, Locale.US);
             dfdp = fdp.parse(date);
             if (shouldFail) {
-                Assert.fail("Expected FDF failure, but got " + dfdp + " for ["+format+","+date+"] using "+((FastDateParser)fdp).getParsePattern());
+                Assert.fail("Expected FDF failure, but got " + dfdp + " for ["+format+","+date+"] using "+fdp);
             }
         } catch (final Exception e) {
             f = e;
@@ -523,4 +530,311 @@ public class FastDateParserTest {
         final DateParser parser= getInstance(yMdHmsSZ, REYKJAVIK);
         assertEquals(REYKJAVIK, parser.getTimeZone());
     }
+
+    private static final String[] DIRECT_PATTERNS = {
+        "yyyy-MM-dd'T'HH:mm:ss.SSS Z", "yyyy-MM-dd'T'HH:mm:ssZ", "yyyy-MM-dd HH:mm:ss z", "yyyyMMddHHmmssSSS",
+        "dd.MM.yyyy", "yyyy/MM/dd", "MM-DD-yyyy", "yyDDD", "EEE, dd MMM yyyy HH:mm:ss zzzz", "EEEE, MMMM d, yyyy",
+        "dd MMM yy hh:mm a", "yyyy-MM-dd KK:mm a", "yyyy-MM-dd kk:mm", "h a", "MMMM yyyy", "'It''s' d 'of' MMMM, yyyy",
+        "yyyy-MM-dd HH:mm ZZZZ"
+    };
+
+    private static final TimeZone[] DIRECT_ZONES = {
+        GMT, NEW_YORK, REYKJAVIK, TimeZone.getTimeZone("Australia/Lord_Howe"), TimeZone.getTimeZone("Asia/Kolkata"),
+        TimeZone.getTimeZone("America/Sao_Paulo"), TimeZone.getTimeZone("Pacific/Apia"),
+        TimeZone.getTimeZone("GMT+05:30"), new java.util.SimpleTimeZone(3600000, "Custom",
+                Calendar.MARCH, -1, Calendar.SUNDAY, 3600000, Calendar.OCTOBER, -1, Calendar.SUNDAY, 3600000)
+    };
+
+    private static final Locale[] DIRECT_LOCALES = {
+        Locale.US, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN, SWEDEN, new Locale("ru", "RU")
+    };
+
+    private static void assertDirectParseMatchesCalendar(final FastDateParser parser, final String source) {
+        final ParsePosition directPos = new ParsePosition(0);
+        final ParsePosition calendarPos = new ParsePosition(0);
+        final Date direct = parser.parse(source, directPos);
+        final Date calendar = parser.parseWithCalendar(source, calendarPos);
+        assertEquals(parser + " " + source, calendar, direct);
+        assertEquals(parser + " " + source, calendarPos.getIndex(), directPos.getIndex());
+    }
+
+    @Test
+    public void testDirectParseMatchesCalendar() {
+        final Random random = new Random(42);
+        for (final String pattern : DIRECT_PATTERNS) {
+            for (final TimeZone zone : DIRECT_ZONES) {
+                for (final Locale locale : DIRECT_LOCALES) {
+                    final FastDateParser parser = new FastDateParser(pattern, zone, locale);
+                    final SimpleDateFormat sdf = new SimpleDateFormat(pattern, locale);
+                    sdf.setTimeZone(zone);
+                    for (int i = 0; i < 20; i++) {
+                        final long millis = (random.nextLong() % (200L * 365 * 24 * 3600 * 1000)) + 1000000000000L;
+                        assertDirectParseMatchesCalendar(parser, sdf.format(new Date(millis)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDirectParseLenientFields() {
+        final FastDateParser parser = new FastDateParser("yyyy-MM-dd HH:mm:ss", NEW_YORK, Locale.US);
+        for (final String source : new String[] {
+                "2013-02-30 10:00:00", "2013-13-01 10:00:00", "2013-00-00 00:00:00", "2013-01-01 25:61:61",
+                "2013-03-10 02:30:00", "2013-11-03 01:30:00", "2013-01-01 10:00:00 trailing", "2013-1-1 1:2:3",
+                "2013-01-01", "2013-01-01 10:00:0x", "1582-10-15 00:00:00", "1583-00-01 00:00:00", "1234567890-01-01 00:00:00",
+                "0099-01-01 00:00:00", "2013-01-01 99999999:00:00", "\u0662\u0660\u0661\u0663-01-01 00:00:00"}) {
+            assertDirectParseMatchesCalendar(parser, source);
+        }
+        final FastDateParser hours = new FastDateParser("yyyy-MM-dd kk KK hh a", GMT, Locale.US);
+        assertDirectParseMatchesCalendar(new FastDateParser("yy-MM-dd kk", GMT, Locale.US), "13-01-01 24");
+        assertDirectParseMatchesCalendar(new FastDateParser("yy-MM-dd a", GMT, Locale.US), "13-01-01 PM");
+        assertDirectParseMatchesCalendar(new FastDateParser("yy-MM-dd hh", GMT, Locale.US), "13-01-01 12");
+        assertDirectParseMatchesCalendar(new FastDateParser("yy-MM-dd HH a", GMT, Locale.US), "13-01-01 09 PM");
+        assertDirectParseMatchesCalendar(new FastDateParser("yyyyMMdd", GMT, Locale.US), "2013010");
+        assertDirectParseMatchesCalendar(hours, "2013-01-01 24 11 12 PM");
+    }
+
+    @Test
+    public void testDirectParseTimeZones() {
+        final FastDateParser parser = new FastDateParser("yyyy-MM-dd HH:mm z", NEW_YORK, Locale.US);
+        for (final String source : new String[] {
+                "2013-07-01 10:00 GMT+05", "2013-07-01 10:00 GMT+530", "2013-07-01 10:00 GMT+0530", "2013-07-01 10:00 GMT-1",
+                "2013-07-01 10:00 +05:30", "2013-07-01 10:00 -0800", "2013-07-01 10:00 +2400", "2013-07-01 10:00 +05:",
+                "2013-07-01 10:00 PST", "2013-07-01 10:00 PDT", "2013-07-01 10:00 EST5EDT", "2013-07-01 10:00 pst",
+                "2013-07-01 10:00 Pacific Standard Time", "2013-07-01 10:00 Central European Time", "2013-07-01 10:00 XYZ"}) {
+            assertDirectParseMatchesCalendar(parser, source);
+        }
+        assertDirectParseMatchesCalendar(new FastDateParser("HH:mmZyyyy", GMT, Locale.US), "10:00GMT+12342013");
+        assertDirectParseMatchesCalendar(new FastDateParser("HH:mmZ'34'", GMT, Locale.US), "10:00GMT+1234");
+    }
+
+    @Test
+    public void testDirectParseTransitions() {
+        final long start = -2524521600000L; // 1890
+        final long end = 1893456000000L; // 2030
+        final long hour = 3600000L;
+        for (final String id : new String[] {
+                "America/New_York", "Europe/London", "Europe/Dublin", "Europe/Moscow", "Africa/Abidjan",
+                "Australia/Lord_Howe", "Australia/Adelaide", "Pacific/Apia", "Pacific/Kiritimati", "Asia/Kathmandu",
+                "America/St_Johns", "America/Sao_Paulo", "America/Caracas", "Asia/Pyongyang", "Antarctica/Troll"}) {
+            final TimeZone zone = TimeZone.getTimeZone(id);
+            final FastDateParser parser = new FastDateParser("yyyy-MM-dd HH:mm", zone, Locale.US);
+            final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+            sdf.setTimeZone(GMT);
+            for (long utc = start; utc < end; utc += 7 * 24 * hour) {
+                if (zone.getOffset(utc) == zone.getOffset(utc + 7 * 24 * hour)) {
+                    continue;
+                }
+                // find the transition within the week, and try the wall times around it
+                long low = utc;
+                long high = utc + 7 * 24 * hour;
+                while (high - low > 60000) {
+                    final long mid = (low + high) / 2;
+                    if (zone.getOffset(mid) == zone.getOffset(low)) {
+                        low = mid;
+                    } else {
+                        high = mid;
+                    }
+                }
+                final long wall = high + zone.getOffset(high);
+                for (long w = wall - 3 * hour; w <= wall + 3 * hour; w += hour / 4) {
+                    assertDirectParseMatchesCalendar(parser, sdf.format(new Date(w)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParseIgnoresCase() throws ParseException {
+        final Calendar cal = Calendar.getInstance(NEW_YORK, Locale.US);
+        cal.clear();
+        cal.set(2003, 1, 10, 15, 33, 20);
+        final DateParser parser = getInstance("EEEE, MMMM d, yyyy h:mm:ss a", NEW_YORK, Locale.US);
+        assertEquals(cal.getTime(), parser.parse("Monday, February 10, 2003 3:33:20 PM"));
+        assertEquals(cal.getTime(), parser.parse("MONDAY, FEBRUARY 10, 2003 3:33:20 pm"));
+        assertEquals(cal.getTime(), parser.parse("monday, february 10, 2003 3:33:20 Pm"));
+
+        final DateParser zoned = getInstance("yyyy-MM-dd HH:mm z", NEW_YORK, Locale.US);
+        final Date pst = zoned.parse("2013-07-01 10:00 PST");
+        assertEquals(pst, zoned.parse("2013-07-01 10:00 pst"));
+        assertEquals(pst, zoned.parse("2013-07-01 10:00 pacific standard TIME"));
+
+        final DateParser german = getInstance("d. MMMM yyyy", GMT, Locale.GERMANY);
+        assertEquals(german.parse("3. M\u00e4rz 2013"), german.parse("3. M\u00c4RZ 2013"));
+    }
+
+    @Test
+    public void testCalendarParseMatchesSimpleDateFormat() throws ParseException {
+        final Random random = new Random(42);
+        for (final String pattern : new String[] {
+                "yyyy-MM-dd G", "yyyy ww, EEE", "yyyy-MM, F EEE", "yyyy-MM W E HH:mm", "G yyyy MMM dd" }) {
+            for (final Locale locale : new Locale[] { Locale.US, Locale.GERMANY, Locale.FRANCE }) {
+                final FastDateParser parser = new FastDateParser(pattern, NEW_YORK, locale);
+                final SimpleDateFormat sdf = new SimpleDateFormat(pattern, locale);
+                sdf.setTimeZone(NEW_YORK);
+                for (int i = 0; i < 20; i++) {
+                    final long millis = (random.nextLong() % (3000L * 365 * 24 * 3600 * 1000));
+                    final String source = sdf.format(new Date(millis));
+                    assertEquals(pattern + " " + source, sdf.parse(source), parser.parse(source));
+                    final String upper = source.toUpperCase(locale);
+                    assertEquals(pattern + " " + upper, sdf.parse(upper), parser.parse(upper));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTimeZoneStrategyIsShared() {
+        for (final Locale locale : Locale.getAvailableLocales()) {
+            final FastDateParser parser = new FastDateParser("z", GMT, locale);
+            assertEquals(GMT, parser.getTimeZone());
+        }
+        // the names are matched in a trie shared by all parsers of a locale, so a parser is cheap to make
+        for (final Locale locale : Locale.getAvailableLocales()) {
+            final FastDateParser parser = new FastDateParser("zzzz", GMT, locale);
+            assertSame(new FastDateParser("z", NEW_YORK, locale).getStrategy(0), parser.getStrategy(0));
+        }
+    }
+
+    @Test
+    public void testParseFullTimeZoneNames() throws ParseException {
+        final DateParser parser = FastDateFormat.getInstance("yyyy-MM-dd HH:mm zzzz", NEW_YORK, Locale.US);
+        final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm zzzz", Locale.US);
+        sdf.setTimeZone(NEW_YORK);
+        final String[] sources = {
+            "2013-07-04 10:30 Eastern Daylight Time", "2013-01-04 10:30 Eastern Standard Time",
+            "2013-07-04 10:30 Pacific Daylight Time", "2013-07-04 10:30 EDT", "2013-07-04 10:30 eastern daylight time"
+        };
+        for (final String source : sources) {
+            final ParsePosition pos = new ParsePosition(0);
+            final Date date = parser.parse(source, pos);
+            assertEquals(source, source.length(), pos.getIndex());
+            assertEquals(source, sdf.parse(source), date);
+        }
+        assertEquals(1372948200000L, parser.parse("2013-07-04 10:30 Eastern Daylight Time").getTime());
+    }
+
+    @Test
+    public void testParseInto() throws ParseException {
+        final FastDateParser parser = new FastDateParser("yyyy-MM-dd HH:mm:ss z", NEW_YORK, Locale.US);
+        final FastDateParser calendar = new FastDateParser("yyyy-MM-dd HH:mm:ss G", NEW_YORK, Locale.US);
+        final CharSequence[] sources = {
+            "2013-07-01 10:00:00 EDT", new StringBuilder("2013-07-01 10:00:00 GMT+05"), "2013-07-01 10:00:00",
+            null, "2013-07-01 10:00:00 PST trailing", "", "1066-10-14 09:00:00 GMT", "2013-07-01 10:00:00 pst"
+        };
+        final long[] millis = new long[sources.length];
+        Arrays.fill(millis, -1L);
+        final BitSet errors = new BitSet();
+        errors.set(0, 20);
+        assertEquals(4, parser.parseInto(sources, millis, errors));
+        for (int i = 0; i < sources.length; i++) {
+            if (errors.get(i)) {
+                assertEquals(-1L, millis[i]);
+            } else {
+                assertEquals(parser.parse(sources[i].toString()).getTime(), millis[i]);
+            }
+        }
+        assertEquals("{2, 3, 4, 5, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19}", errors.toString());
+
+        final long[] bc = new long[1];
+        assertEquals(0, calendar.parseInto(new CharSequence[] { "0044-03-15 12:00:00 BC" }, bc, errors));
+        assertEquals(calendar.parse("0044-03-15 12:00:00 BC").getTime(), bc[0]);
+        assertEquals(1, calendar.parseInto(new CharSequence[] { "0044-03-15 12:00:00 BC!" }, bc, errors));
+        assertTrue(errors.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseIntoShortArray() {
+        new FastDateParser("yyyy", GMT, Locale.US).parseInto(new CharSequence[] { "2013", "2014" }, new long[1], new BitSet());
+    }
+
+    @Test
+    public void testParseIntoParallel() throws ParseException {
+        final FastDateParser parser = new FastDateParser("yyyy-MM-dd'T'HH:mm:ss.SSSZ", GMT, Locale.US);
+        final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ", Locale.US);
+        final Random random = new Random(7);
+        final CharSequence[] sources = new CharSequence[50000];
+        final BitSet expectedErrors = new BitSet();
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = sdf.format(new Date(random.nextLong() % 4000000000000L));
+            if (random.nextInt(100) == 0) {
+                sources[i] = "x" + sources[i];
+                expectedErrors.set(i);
+            }
+        }
+        final long[] sequential = new long[sources.length];
+        final long[] parallel = new long[sources.length];
+        final BitSet errors = new BitSet();
+        final int count = parser.parseInto(sources, sequential, errors);
+        assertEquals(expectedErrors.cardinality(), count);
+        assertEquals(expectedErrors, errors);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final BitSet parallelErrors = new BitSet();
+            parallelErrors.set(sources.length + 3);
+            assertEquals(count, parser.parseInto(sources, parallel, parallelErrors, pool));
+            expectedErrors.set(sources.length + 3);
+            assertEquals(expectedErrors, parallelErrors);
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertArrayEquals(sequential, parallel);
+        for (int i = 0; i < sources.length; i += 997) {
+            if (!errors.get(i)) {
+                assertEquals(sdf.parse(sources[i].toString()).getTime(), parallel[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testParseIntoCharBuffer() throws ParseException {
+        final FastDateParser parser = new FastDateParser("yyyy-MM-dd HH:mm", GMT, Locale.US);
+        final CharBuffer buffer = CharBuffer.wrap("## 2013-01-01 10:00\n2013-02-30 10:00\nbad\n\n2014-06-01 12:30\n2015-01-01 00:00");
+        buffer.position(3);
+        final long[] millis = new long[4];
+        final BitSet errors = new BitSet();
+        assertEquals(4, parser.parseInto(buffer, '\n', millis, errors));
+        assertEquals(parser.parse("2013-01-01 10:00").getTime(), millis[0]);
+        assertEquals(parser.parse("2013-02-30 10:00").getTime(), millis[1]);
+        assertEquals("{2, 3}", errors.toString());
+        assertEquals("2014-06-01 12:30\n2015-01-01 00:00", buffer.toString());
+
+        assertEquals(2, parser.parseInto(buffer, '\n', millis, errors));
+        assertEquals(parser.parse("2014-06-01 12:30").getTime(), millis[0]);
+        assertEquals(parser.parse("2015-01-01 00:00").getTime(), millis[1]);
+        // only the bits of the values read are changed
+        assertEquals("{2, 3}", errors.toString());
+        assertFalse(buffer.hasRemaining());
+        assertEquals(0, parser.parseInto(buffer, '\n', millis, errors));
+
+        final CharBuffer trailing = CharBuffer.wrap("2013-01-01 10:00,2013-01-02 10:00,");
+        assertEquals(2, parser.parseInto(trailing, ',', millis, errors));
+        assertEquals(parser.parse("2013-01-02 10:00").getTime(), millis[1]);
+        assertFalse(trailing.hasRemaining());
+    }
+
+    @Test
+    public void testTryParse() throws ParseException {
+        final FastDateParser parser = new FastDateParser("yyyy-MM-dd HH:mm:ss", NEW_YORK, Locale.US);
+        assertEquals(parser.parse("2013-07-04 10:30:00").getTime(), parser.tryParse("2013-07-04 10:30:00"));
+        assertEquals(parser.parse("2013-07-04 10:30:00 trailing").getTime(), parser.tryParse("2013-07-04 10:30:00 trailing"));
+        assertEquals(DateParser.PARSE_FAILED, parser.tryParse("2013-07-04"));
+        assertEquals(DateParser.PARSE_FAILED, parser.tryParse(""));
+
+        final ParsePosition pos = new ParsePosition(4);
+        assertEquals(parser.parse("2013-07-04 10:30:00").getTime(), parser.tryParse("at: 2013-07-04 10:30:00!", pos));
+        assertEquals(23, pos.getIndex());
+        pos.setIndex(30);
+        assertEquals(DateParser.PARSE_FAILED, parser.tryParse("at: 2013-07-04 10:30:00!", pos));
+        pos.setIndex(-1);
+        assertEquals(DateParser.PARSE_FAILED, parser.tryParse("at: 2013-07-04 10:30:00!", pos));
+
+        // parsed with a Calendar
+        final FastDateParser era = new FastDateParser("yyyy-MM-dd G", NEW_YORK, Locale.US);
+        assertEquals(era.parse("0044-03-15 BC").getTime(), era.tryParse("0044-03-15 BC"));
+        assertEquals(DateParser.PARSE_FAILED, era.tryParse("0044-03-15 XX"));
+        assertEquals(DateParser.PARSE_FAILED, era.tryParse("99999999999-03-15 BC"));
+    }
 }
@@ -20,13 +20,19 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.Locale;
+import java.util.Random;
+import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 
 import org.apache.commons.lang3.SerializationUtils;
@@ -288,4 +294,124 @@ public class FastDatePrinterTest {
 //         final String actualValue = FastDateFormat.getInstance(pattern).format(cal);
 //         assertEquals(expectedValue, actualValue);
 //     }
+
+    private static final String ALL_FIELDS =
+            "G yyyy yy MMMM MMM MM M dd d D DDD F w ww W E EEEE a h hh H HH k K m mm s ss S SSS z zzzz Z ZZ";
+
+    @Test
+    public void testFormatMillisMatchesCalendar() {
+        final TimeZone[] zones = {
+            TimeZone.getTimeZone("UTC"), NEW_YORK, TimeZone.getTimeZone("Europe/London"),
+            TimeZone.getTimeZone("Asia/Kathmandu"), TimeZone.getTimeZone("Australia/Lord_Howe"),
+            TimeZone.getTimeZone("Pacific/Apia"), TimeZone.getTimeZone("GMT-03:30"),
+            new SimpleTimeZone(3600000, "Custom", Calendar.MARCH, -1, Calendar.SUNDAY, 3600000,
+                    Calendar.OCTOBER, -1, Calendar.SUNDAY, 3600000)
+        };
+        final Locale[] locales = { Locale.US, Locale.GERMANY, Locale.FRANCE, SWEDEN, new Locale("ar", "EG") };
+        final Random random = new Random(2013);
+        for (final TimeZone zone : zones) {
+            for (final Locale locale : locales) {
+                final FastDatePrinter printer = new FastDatePrinter(ALL_FIELDS, zone, locale);
+                for (int i = 0; i < 2000; i++) {
+                    // from 1500 to 2500
+                    assertFormatMillisMatchesCalendar(printer, -14831769600000L + (long) (random.nextDouble() * 3.16e13));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFormatMillisSequential() {
+        final TimeZone[] zones = { NEW_YORK, TimeZone.getTimeZone("Australia/Lord_Howe"),
+                TimeZone.getTimeZone("Europe/Moscow") };
+        for (final TimeZone zone : zones) {
+            final FastDatePrinter printer = new FastDatePrinter(ALL_FIELDS, zone, Locale.US);
+            // every 7 minutes and 1 millisecond through 2010 and 2011
+            for (long millis = 1262217600000L; millis < 1325462400000L; millis += 420001L) {
+                assertFormatMillisMatchesCalendar(printer, millis);
+            }
+        }
+    }
+
+    @Test
+    public void testFormatMillisOutsideDirectRange() {
+        final FastDatePrinter printer = new FastDatePrinter(ALL_FIELDS, NEW_YORK, Locale.US);
+        assertFormatMillisMatchesCalendar(printer, Long.MIN_VALUE / 2);
+        assertFormatMillisMatchesCalendar(printer, -12219292800001L);
+        assertFormatMillisMatchesCalendar(printer, -12180931200001L);
+        assertFormatMillisMatchesCalendar(printer, -12180931200000L);
+        assertFormatMillisMatchesCalendar(printer, 1L << 50);
+        assertFormatMillisMatchesCalendar(printer, (1L << 50) + 1);
+        assertFormatMillisMatchesCalendar(printer, Long.MAX_VALUE / 2);
+    }
+
+    @Test
+    public void testFormatMillisToStringBuilder() {
+        final FastDatePrinter printer = new FastDatePrinter("yyyy-MM-dd HH:mm:ss.SSS zzz", NEW_YORK, Locale.US);
+        final StringBuilder sb = new StringBuilder("at ");
+        assertEquals("at 2003-07-04 10:30:15.007 EDT", printer.format(1057329015007L, sb).toString());
+        assertEquals("2003-01-31 00:00:00.000 EST", printer.format(1043989200000L));
+        final StringBuffer buf = new StringBuffer("at ");
+        assertEquals("at 2003-01-31 00:00:00.000 EST", printer.format(new Date(1043989200000L), buf).toString());
+    }
+
+    @Test
+    public void testFormatMillisToAppendable() throws IOException {
+        final DatePrinter printer = getInstance("yyyy-MM-dd HH:mm:ss.SSS ZZ", NEW_YORK, Locale.US);
+        final StringWriter writer = new StringWriter();
+        writer.write("at ");
+        assertEquals("at 2003-07-04 10:30:15.007 -04:00", printer.format(1057329015007L, writer).toString());
+
+        final CharBuffer charBuffer = CharBuffer.allocate(64);
+        printer.format(1043989200000L, charBuffer).flip();
+        assertEquals("2003-01-31 00:00:00.000 -05:00", charBuffer.toString());
+
+        final Appendable appendable = new StringBuffer("at ");
+        assertEquals("at 2003-01-31 00:00:00.000 -05:00", printer.format(1043989200000L, appendable).toString());
+    }
+
+    @Test
+    public void testFormatMillisToCharArray() {
+        final DatePrinter printer = getInstance("HH:mm:ss.SSS", NEW_YORK, Locale.US);
+        final char[] buf = "[............]".toCharArray();
+        assertEquals(13, printer.format(1057329015007L, buf, 1));
+        assertEquals("[10:30:15.007]", new String(buf));
+        try {
+            printer.format(1043989200000L, buf, 3);
+            fail("Expected ArrayIndexOutOfBoundsException");
+        } catch (final ArrayIndexOutOfBoundsException e) {
+            assertEquals("[10:30:15.007]", new String(buf));
+        }
+        try {
+            printer.format(1043989200000L, buf, -1);
+            fail("Expected ArrayIndexOutOfBoundsException");
+        } catch (final ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFormatCachingSeconds() {
+        final String[] patterns = { "yyyy-MM-dd HH:mm:ss.SSS zzz", "HH:mm:ss", "S 'ms' ss", "ss.SS", "SSS SSS", "HH:mm" };
+        final Random random = new Random(2013);
+        for (final String pattern : patterns) {
+            final FastDatePrinter printer = new FastDatePrinter(pattern, NEW_YORK, Locale.US);
+            final FastDatePrinter caching = new FastDatePrinter(pattern, NEW_YORK, Locale.US, true);
+            // around the end of daylight saving time on 6 November 2011
+            long millis = 1320557400000L;
+            for (int i = 0; i < 100000; i++) {
+                assertEquals(pattern + " " + millis, printer.format(millis), caching.format(millis));
+                assertEquals(printer.format(millis, new StringBuilder()).toString(),
+                        caching.format(millis, new StringBuilder()).toString());
+                millis += random.nextInt(10) == 0 ? -random.nextInt(3000) : random.nextInt(100);
+            }
+        }
+    }
+
+    private static void assertFormatMillisMatchesCalendar(final FastDatePrinter printer, final long millis) {
+        final Calendar calendar = new GregorianCalendar(printer.getTimeZone(), printer.getLocale());
+        calendar.setTimeInMillis(millis);
+        assertEquals(printer.getTimeZone().getID() + " " + printer.getLocale() + " " + millis,
+                printer.format(calendar), printer.format(millis));
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Unit tests {@link FormatCache}.
+ *
+ * @version $Id$
+ */
+public class FormatCacheTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static FormatCache<SimpleDateFormat> createCache() {
+        return new FormatCache<SimpleDateFormat>() {
+            @Override
+            protected SimpleDateFormat createInstance(final String pattern, final TimeZone timeZone,
+                    final Locale locale) {
+                return new SimpleDateFormat(pattern, locale);
+            }
+        };
+    }
+
+    @Test
+    public void testStats() {
+        final FormatCache<SimpleDateFormat> cache = createCache();
+        final SimpleDateFormat format = cache.getInstance("yyyy", UTC, Locale.US);
+        assertSame(format, cache.getInstance("yyyy", UTC, Locale.US));
+        assertSame(format, cache.getInstance("yyyy", UTC, Locale.US));
+        cache.getInstance("yyyy", UTC, Locale.UK);
+
+        final FormatCacheStats stats = cache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(0, stats.getEvictionCount());
+        assertEquals(0.5, stats.getHitRate(), 0.0);
+        assertEquals("FormatCacheStats[size=2,hits=2,misses=2,evictions=0]", stats.toString());
+    }
+
+    @Test
+    public void testUnboundedByDefault() {
+        final FormatCache<SimpleDateFormat> cache = createCache();
+        for (int i = 0; i < 1000; i++) {
+            cache.getInstance("'" + i + "'", UTC, Locale.US);
+        }
+        assertEquals(1000, cache.getStats().getSize());
+        assertEquals(0, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void testMaximumSize() {
+        final FormatCache<SimpleDateFormat> cache = createCache();
+        cache.setMaximumSize(3);
+        for (int i = 0; i < 10; i++) {
+            cache.getInstance("'" + i + "'", UTC, Locale.US);
+        }
+        assertEquals(3, cache.getStats().getSize());
+        assertEquals(7, cache.getStats().getEvictionCount());
+
+        // the most recent formats are kept
+        final SimpleDateFormat format = cache.getInstance("'9'", UTC, Locale.US);
+        assertEquals(1, cache.getStats().getHitCount());
+        assertNotSame(format, cache.getInstance("'0'", UTC, Locale.US));
+        assertEquals(11, cache.getStats().getEvictionCount() + cache.getStats().getSize());
+    }
+
+    @Test
+    public void testRecentlyUsedFormatIsKept() {
+        final FormatCache<SimpleDateFormat> cache = createCache();
+        cache.setMaximumSize(4);
+        final SimpleDateFormat format = cache.getInstance("'used'", UTC, Locale.US);
+        for (int i = 0; i < 100; i++) {
+            cache.getInstance("'" + i + "'", UTC, Locale.US);
+            assertSame(format, cache.getInstance("'used'", UTC, Locale.US));
+        }
+        assertEquals(4, cache.getStats().getSize());
+    }
+
+    @Test
+    public void testShrink() {
+        final FormatCache<SimpleDateFormat> cache = createCache();
+        for (int i = 0; i < 10; i++) {
+            cache.getInstance("'" + i + "'", UTC, Locale.US);
+        }
+        cache.setMaximumSize(2);
+        assertEquals(2, cache.getStats().getSize());
+        assertEquals(8, cache.getStats().getEvictionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaximumSizeNotPositive() {
+        createCache().setMaximumSize(0);
+    }
+}
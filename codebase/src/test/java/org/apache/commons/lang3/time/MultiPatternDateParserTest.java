@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.lang3.time;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Unit tests {@link MultiPatternDateParser}.
+ *
+ * @version $Id$
+ */
+public class MultiPatternDateParserTest {
+
+    private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+
+    private static final String[] PATTERNS = {
+        "yyyy-MM-dd", "yyyy-MM-dd HH:mm:ss", "yyyyMMdd", "dd MMM yyyy", "EEE, dd MMM yyyy HH:mm:ss Z", "M/d/yyyy"
+    };
+
+    @Test
+    public void testParseMatchesDateUtils() throws ParseException {
+        final MultiPatternDateParser parser = new MultiPatternDateParser(GMT, Locale.US, PATTERNS);
+        final TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(GMT);
+        try {
+            for (final String str : new String[] {
+                    "2013-07-04", "2013-07-04 10:30:00", "20130704", "04 Jul 2013", "4 july 2013",
+                    "Thu, 04 Jul 2013 10:30:00 -0700", "7/4/2013", "12/31/1999", "1999-12-31" }) {
+                assertEquals(str, DateUtils.parseDate(str, Locale.US, PATTERNS), parser.parse(str));
+                assertEquals(str, DateUtils.parseDate(str, Locale.US, PATTERNS).getTime(), parser.tryParse(str));
+            }
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    public void testParseFailure() {
+        final MultiPatternDateParser parser = new MultiPatternDateParser(GMT, Locale.US, PATTERNS);
+        for (final String str : new String[] { "", "x", "2013-07-04 trailing", "Jul 4", "2013.07.04" }) {
+            assertEquals(str, DateParser.PARSE_FAILED, parser.tryParse(str));
+            try {
+                parser.parse(str);
+                fail(str);
+            } catch (final ParseException ex) {}
+        }
+        assertEquals(10, parser.getMissCount());
+    }
+
+    @Test
+    public void testHitCountsAndReordering() throws ParseException {
+        final MultiPatternDateParser parser = new MultiPatternDateParser(GMT, Locale.US, PATTERNS);
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5 }, parser.getOrder());
+        for (int i = 0; i < 2000; i++) {
+            parser.parse("7/" + (i % 28 + 1) + "/2013");
+            if (i % 2 == 0) {
+                parser.parse("20130704");
+            }
+        }
+        parser.parse("2013-07-04");
+        assertArrayEquals(new long[] { 1, 0, 1000, 0, 0, 2000 }, parser.getHitCounts());
+        assertEquals(0, parser.getMissCount());
+        assertArrayEquals(new int[] { 5, 2, 0, 1, 3, 4 }, parser.getOrder());
+        assertArrayEquals(PATTERNS, parser.getPatterns());
+    }
+
+    @Test
+    public void testConcurrentParse() throws Exception {
+        final MultiPatternDateParser parser = new MultiPatternDateParser(GMT, Locale.US, PATTERNS);
+        final long expected = parser.tryParse("2013-07-04");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 5000; i++) {
+                            if (parser.tryParse("2013-07-04") != expected
+                                    || parser.tryParse("20130704") != expected
+                                    || parser.tryParse("7/4/2013") != expected
+                                    || parser.tryParse("4 Jul 2013") != expected) {
+                                return Boolean.FALSE;
+                            }
+                        }
+                        return Boolean.TRUE;
+                    }
+                }));
+            }
+            for (final Future<Boolean> future : futures) {
+                assertEquals(Boolean.TRUE, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoPatterns() {
+        new MultiPatternDateParser(GMT, Locale.US);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPattern() {
+        new MultiPatternDateParser(GMT, Locale.US, "yyyy", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullDate() {
+        new MultiPatternDateParser(GMT, Locale.US, PATTERNS).tryParse(null);
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("MultiPatternDateParser[yyyy, MM/dd]", new MultiPatternDateParser("yyyy", "MM/dd").toString());
+    }
+}